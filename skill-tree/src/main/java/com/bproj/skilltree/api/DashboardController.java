@@ -0,0 +1,61 @@
+package com.bproj.skilltree.api;
+
+import com.bproj.skilltree.dto.Dashboard;
+import com.bproj.skilltree.exception.BadRequestException;
+import com.bproj.skilltree.service.DashboardService;
+import com.bproj.skilltree.util.AuthUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * End point for the home screen, which would otherwise take five requests.
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+  private static final Logger logger = LoggerFactory.getLogger(DashboardController.class);
+  private static final int MAX_STREAK_DAYS = 366;
+  private final DashboardService dashboardService;
+  private final AuthUtils authUtils;
+
+  /**
+   * Explicit value constructor.
+   *
+   * @param dashboardService DashboardService
+   * @param authUtils Authentication Utilities
+   */
+  public DashboardController(DashboardService dashboardService, AuthUtils authUtils) {
+    this.dashboardService = dashboardService;
+    this.authUtils = authUtils;
+  }
+
+  /**
+   * Retrieve the end user's dashboard: what GET /api/users/me, /api/trees/me/stats,
+   * /api/trees/me/favorite, /api/activities/me/streak and /api/feed/friends return, in one
+   * response. The User is resolved once and the sections are read concurrently.
+   *
+   * @param auth JWT
+   * @param streakDays The number of days before today to include with the streak (1-366)
+   * @param feedDays The number of days from the present to search for FeedItems
+   * @return The Dashboard
+   */
+  @GetMapping
+  public ResponseEntity<Dashboard> getDashboard(Authentication auth,
+      @RequestParam(defaultValue = "30") int streakDays,
+      @RequestParam(defaultValue = "14") int feedDays) {
+    logger.debug("GET /api/dashboard - getDashboard(streakDays={}, feedDays={})", streakDays,
+        feedDays);
+    if (streakDays < 1 || streakDays > MAX_STREAK_DAYS) {
+      throw new BadRequestException(
+          "Query parameter 'streakDays' must be between 1 and " + MAX_STREAK_DAYS + ".");
+    }
+    return ResponseEntity.ok(
+        dashboardService.getDashboard(authUtils.getUserByAuth(auth), streakDays, feedDays));
+  }
+}
@@ -1,13 +1,8 @@
 package com.bproj.skilltree.api;
 
 import com.bproj.skilltree.dto.FeedItem;
-import com.bproj.skilltree.service.AchievementService;
-import com.bproj.skilltree.service.ActivityService;
-import com.bproj.skilltree.service.FriendshipService;
-import com.bproj.skilltree.service.TreeService;
+import com.bproj.skilltree.service.DashboardService;
 import com.bproj.skilltree.util.AuthUtils;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
@@ -26,27 +21,17 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/feed/friends")
 public class FriendFeedController {
   private static final Logger logger = LoggerFactory.getLogger(FriendFeedController.class);
-  private final FriendshipService friendshipService;
-  private final ActivityService activityService;
-  private final TreeService treeService;
-  private final AchievementService achievementService;
+  private final DashboardService dashboardService;
   private final AuthUtils authUtils;
 
   /**
    * Explicit value constructor.
    *
-   * @param friendshipService FriendshipService
-   * @param activityService ActivityService
-   * @param treeService TreeService
-   * @param achievementService AchievementService
+   * @param dashboardService DashboardService
    * @param authUtils Authentication Utilities
    */
-  public FriendFeedController(FriendshipService friendshipService, ActivityService activityService,
-      TreeService treeService, AchievementService achievementService, AuthUtils authUtils) {
-    this.friendshipService = friendshipService;
-    this.activityService = activityService;
-    this.treeService = treeService;
-    this.achievementService = achievementService;
+  public FriendFeedController(DashboardService dashboardService, AuthUtils authUtils) {
+    this.dashboardService = dashboardService;
     this.authUtils = authUtils;
   }
 
@@ -60,14 +45,8 @@ public class FriendFeedController {
   @GetMapping
   public ResponseEntity<List<FeedItem>> getFriendFeed(Authentication auth,
       @RequestParam(defaultValue = "14") int days) {
-    logger.info("GET /api/feed/friends - getFriendFeed(days={})", days);
+    logger.debug("GET /api/feed/friends - getFriendFeed(days={})", days);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
-    List<ObjectId> friendIds = friendshipService.getFriendIds(userId);
-    List<FeedItem> friendActions = new ArrayList<>();
-    friendActions.addAll(treeService.getTreeFeedItemsByUserIds(friendIds, days));
-    friendActions.addAll(achievementService.getAchievementFeedItemsByUserIds(friendIds, days));
-    friendActions.addAll(activityService.getActivityFeedItemsByUserIds(friendIds, days));
-    friendActions.sort(Comparator.comparing(FeedItem::getPostedAt).reversed());
-    return ResponseEntity.ok(friendActions);
+    return ResponseEntity.ok(dashboardService.getFriendFeed(userId, days));
   }
 }
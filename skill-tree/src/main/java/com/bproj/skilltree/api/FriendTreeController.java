@@ -54,7 +54,7 @@ public class FriendTreeController {
   @GetMapping("/{friendId}")
   public ResponseEntity<List<TreeSummary>> getFriendTrees(Authentication auth,
       @PathVariable String friendId) {
-    logger.info("GET /api/trees/friends/{} - getFriendTrees(friendId={})", friendId, friendId);
+    logger.debug("GET /api/trees/friends/{} - getFriendTrees(friendId={})", friendId, friendId);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId friendObjectId = ObjectIdUtils.validateObjectId(friendId, "friendId");
     if (!friendService.areFriends(userId, friendObjectId)) {
@@ -76,7 +76,7 @@ public class FriendTreeController {
   @GetMapping("/{friendId}/trees/{treeId}")
   public ResponseEntity<TreeLayout> getFriendTreeLayout(Authentication auth,
       @PathVariable String friendId, @PathVariable String treeId) {
-    logger.info("GET /api/trees/friends/{}/trees/{} - getFriendTreeLayout(friendId={}, treeId={})",
+    logger.debug("GET /api/trees/friends/{}/trees/{} - getFriendTreeLayout(friendId={}, treeId={})",
         friendId, treeId, friendId, treeId);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId friendObjectId = ObjectIdUtils.validateObjectId(friendId, "friendId");
@@ -0,0 +1,114 @@
+package com.bproj.skilltree.api;
+
+import com.bproj.skilltree.dto.LeaderboardEntry;
+import com.bproj.skilltree.dto.LeaderboardRank;
+import com.bproj.skilltree.model.TimeBucket;
+import com.bproj.skilltree.service.LeaderboardService;
+import com.bproj.skilltree.util.AuthUtils;
+import com.bproj.skilltree.util.ObjectIdUtils;
+import java.util.List;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * End-points for leaderboards.
+ */
+@RestController
+@RequestMapping("/api/leaderboard")
+public class LeaderboardController {
+  private static final Logger logger = LoggerFactory.getLogger(LeaderboardController.class);
+  private final LeaderboardService leaderboardService;
+  private final AuthUtils authUtils;
+
+  public LeaderboardController(LeaderboardService leaderboardService, AuthUtils authUtils) {
+    this.leaderboardService = leaderboardService;
+    this.authUtils = authUtils;
+  }
+
+  /**
+   * Rank the end user and their friends by hours logged, then by Achievements completed.
+   *
+   * @param auth JWT
+   * @param period (optional) DAY, WEEK, or MONTH to only count the current one. All time if
+   *     omitted.
+   * @return The LeaderboardEntries, best first
+   */
+  @GetMapping("/friends")
+  public ResponseEntity<List<LeaderboardEntry>> getFriendLeaderboard(Authentication auth,
+      @RequestParam(required = false) TimeBucket period) {
+    logger.debug("GET /api/leaderboard/friends - getFriendLeaderboard(period={})", period);
+    ObjectId userId = authUtils.getUserIdByAuth(auth);
+    return ResponseEntity.ok(leaderboardService.getFriendLeaderboard(userId, period));
+  }
+
+  /**
+   * Page through every User, ranked by hours logged, then by Achievements completed.
+   *
+   * @param page The page number
+   * @param size The page size, at most 100
+   * @return A page of LeaderboardEntries, best first
+   */
+  @GetMapping("/global")
+  public ResponseEntity<Page<LeaderboardEntry>> getGlobalLeaderboard(
+      @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "20") int size) {
+    logger.debug("GET /api/leaderboard/global - getGlobalLeaderboard(page={}, size={})", page,
+        size);
+    return ResponseEntity.ok(leaderboardService.getGlobalLeaderboard(page, size));
+  }
+
+  /**
+   * Get the end user's rank on the global leaderboard.
+   *
+   * @param auth JWT
+   * @return The end user's LeaderboardRank
+   */
+  @GetMapping("/global/me")
+  public ResponseEntity<LeaderboardRank> getGlobalRank(Authentication auth) {
+    logger.debug("GET /api/leaderboard/global/me - getGlobalRank()");
+    ObjectId userId = authUtils.getUserIdByAuth(auth);
+    return ResponseEntity.ok(leaderboardService.getGlobalRank(userId));
+  }
+
+  /**
+   * Page through the Users who copied a PRESET Tree, ranked by hours logged on their copies, then
+   * by Achievements completed in them.
+   *
+   * @param treeId The Id of the PRESET Tree
+   * @param page The page number
+   * @param size The page size, at most 100
+   * @return A page of LeaderboardEntries, best first
+   */
+  @GetMapping("/presets/{treeId}")
+  public ResponseEntity<Page<LeaderboardEntry>> getPresetLeaderboard(@PathVariable String treeId,
+      @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "20") int size) {
+    logger.debug("GET /api/leaderboard/presets/{} - getPresetLeaderboard(treeId={}, page={}, "
+        + "size={})", treeId, treeId, page, size);
+    ObjectId treeObjectId = ObjectIdUtils.validateObjectId(treeId, "treeId");
+    return ResponseEntity.ok(leaderboardService.getPresetLeaderboard(treeObjectId, page, size));
+  }
+
+  /**
+   * Get the end user's rank on a PRESET Tree's leaderboard.
+   *
+   * @param auth JWT
+   * @param treeId The Id of the PRESET Tree
+   * @return The end user's LeaderboardRank
+   */
+  @GetMapping("/presets/{treeId}/me")
+  public ResponseEntity<LeaderboardRank> getPresetRank(Authentication auth,
+      @PathVariable String treeId) {
+    logger.debug("GET /api/leaderboard/presets/{}/me - getPresetRank(treeId={})", treeId, treeId);
+    ObjectId userId = authUtils.getUserIdByAuth(auth);
+    ObjectId treeObjectId = ObjectIdUtils.validateObjectId(treeId, "treeId");
+    return ResponseEntity.ok(leaderboardService.getPresetRank(userId, treeObjectId));
+  }
+}
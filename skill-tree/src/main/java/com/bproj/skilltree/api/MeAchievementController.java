@@ -2,21 +2,25 @@ package com.bproj.skilltree.api;
 
 import com.bproj.skilltree.dto.AchievementRequest;
 import com.bproj.skilltree.dto.AchievementResponse;
+import com.bproj.skilltree.dto.CursorPage;
 import com.bproj.skilltree.mapper.AchievementMapper;
 import com.bproj.skilltree.model.Achievement;
 import com.bproj.skilltree.model.AchievementSortMode;
+import com.bproj.skilltree.model.VersionedCollection;
 import com.bproj.skilltree.service.AchievementService;
+import com.bproj.skilltree.service.DataVersionService;
+import com.bproj.skilltree.service.SearchService;
 import com.bproj.skilltree.util.AuthUtils;
 import com.bproj.skilltree.util.ObjectIdUtils;
 import jakarta.json.JsonMergePatch;
 import jakarta.validation.Valid;
 import java.net.URI;
-import java.util.List;
 import java.util.Map;
 
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -28,6 +32,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 
 
@@ -42,13 +47,46 @@ import org.springframework.web.bind.annotation.RestController;
 public class MeAchievementController {
   private static final Logger logger = LoggerFactory.getLogger(MeAchievementController.class);
   private final AchievementService achievementService;
+  private final SearchService searchService;
+  private final DataVersionService dataVersionService;
   private final AuthUtils authUtils;
 
-  public MeAchievementController(AchievementService achievementService, AuthUtils authUtils) {
+  /**
+   * Create a MeAchievementController.
+   *
+   * @param achievementService Achievement business logic
+   * @param searchService Full-text search over the user's Achievements
+   * @param dataVersionService Tags the Achievement list for conditional GETs
+   * @param authUtils Resolves the authed user
+   */
+  public MeAchievementController(AchievementService achievementService,
+      SearchService searchService, DataVersionService dataVersionService, AuthUtils authUtils) {
     this.achievementService = achievementService;
+    this.searchService = searchService;
+    this.dataVersionService = dataVersionService;
     this.authUtils = authUtils;
   }
 
+  /**
+   * Search the Authenticated user's Achievements by title and description.
+   *
+   * @param auth The Authentication object for the user.
+   * @param q The search text
+   * @param page The page number
+   * @param size The page size, at most 100
+   * @return A page of AchievementResponse DTOs, best match first
+   */
+  @GetMapping("/search")
+  public ResponseEntity<Page<AchievementResponse>> searchAchievements(Authentication auth,
+      @RequestParam String q, @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "20") int size) {
+    logger.debug("GET /api/achievements/me/search - searchAchievements(q={}, page={}, size={})",
+        q, page, size);
+    ObjectId userId = authUtils.getUserIdByAuth(auth);
+    return ResponseEntity.ok(searchService.searchAchievements(userId, q, page, size)
+        .map(AchievementMapper::fromAchievement));
+  }
+
   /**
    * Creates a new achievement under the Authenticated user from the request body.
    *
@@ -59,7 +97,7 @@ public class MeAchievementController {
   @PostMapping
   public ResponseEntity<AchievementResponse> create(Authentication auth,
       @Valid @RequestBody AchievementRequest achievementRequest) {
-    logger.info("POST /api/achievements/me - create(achievementRequest={})", achievementRequest);
+    logger.debug("POST /api/achievements/me - create(achievementRequest={})", achievementRequest);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     Achievement achievement = AchievementMapper.toAchievement(achievementRequest);
     AchievementResponse achievementResponse =
@@ -69,29 +107,38 @@ public class MeAchievementController {
   }
 
   /**
-   * Queries the authenticated User's Achievements.
+   * Queries one page of the authenticated User's Achievements.
    *
    * @param auth JWT
+   * @param request The request, answered with 304 Not Modified if its If-None-Match is current
    * @param treeId Achievements must belong to the Tree with matching Id
    * @param next Achievements must have all prerequisites complete and be incomplete themselves
    * @param sortMode How the resulting list will be sorted
-   * @return The filtered, sorted list of the authed user's achievements
+   * @param pageToken The nextPageToken of the previous page, omitted for the first page
+   * @param size The page size, at most 100
+   * @return The filtered, sorted page of the authed user's achievements
    */
   @GetMapping
-  public ResponseEntity<List<AchievementResponse>> queryMyAchievements(Authentication auth,
-      @RequestParam(required = false) String treeId, @RequestParam(required = false) Boolean next,
-      @RequestParam(required = false, defaultValue = "TITLE") AchievementSortMode sortMode) {
-    logger.info("GET /api/achievements/me - queryMyAchievements(treeId={}, next={}, sortMode={})",
-        treeId, next, sortMode);
+  public ResponseEntity<CursorPage<AchievementResponse>> queryMyAchievements(Authentication auth,
+      WebRequest request, @RequestParam(required = false) String treeId,
+      @RequestParam(required = false) Boolean next,
+      @RequestParam(required = false, defaultValue = "TITLE") AchievementSortMode sortMode,
+      @RequestParam(required = false) String pageToken,
+      @RequestParam(defaultValue = "20") int size) {
+    logger.debug("GET /api/achievements/me - queryMyAchievements(treeId={}, next={}, "
+        + "sortMode={}, pageToken={}, size={})", treeId, next, sortMode, pageToken, size);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId treeObjectId = null;
     if (treeId != null) {
       treeObjectId = ObjectIdUtils.validateObjectId(treeId, "treeId");
     }
-    List<AchievementResponse> achievementResponses =
-        achievementService.query(userId, treeObjectId, next, sortMode).stream()
-            .map(AchievementMapper::fromAchievement).toList();
-    return ResponseEntity.ok(achievementResponses);
+    String eTag = dataVersionService.getETag(userId, VersionedCollection.ACHIEVEMENTS);
+    if (request.checkNotModified(eTag)) {
+      return null;
+    }
+    return ResponseEntity.ok(achievementService
+        .query(userId, treeObjectId, next, sortMode, pageToken, size)
+        .map(AchievementMapper::fromAchievement));
   }
 
   /**
@@ -104,7 +151,7 @@ public class MeAchievementController {
   @GetMapping("/{achievementId}")
   public ResponseEntity<AchievementResponse> getOne(Authentication auth,
       @PathVariable String achievementId) {
-    logger.info("GET /api/achievements/me/{} - getOne(achievementId={})", achievementId,
+    logger.debug("GET /api/achievements/me/{} - getOne(achievementId={})", achievementId,
         achievementId);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId achievementObjectId = ObjectIdUtils.validateObjectId(achievementId, "achievementId");
@@ -124,7 +171,7 @@ public class MeAchievementController {
   @PatchMapping(path = "/{achievementId}")
   public ResponseEntity<AchievementResponse> patch(Authentication auth,
       @PathVariable String achievementId, @RequestBody Map<String, Object> updates) {
-    logger.info("PATCH /api/achievements/me/{} - patch(achievementId={}, updates={})",
+    logger.debug("PATCH /api/achievements/me/{} - patch(achievementId={}, updates={})",
         achievementId, achievementId, updates);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId achievementObjectId = ObjectIdUtils.validateObjectId(achievementId, "achievementId");
@@ -143,7 +190,7 @@ public class MeAchievementController {
   @DeleteMapping("/{achievementId}")
   public ResponseEntity<Void> deleteByUserIdAndAchievementid(Authentication auth,
       @PathVariable String achievementId) {
-    logger.info("DELETE /api/achievements/me/{} - deleteByUserIdAndAchievementid(achievementId={})",
+    logger.debug("DELETE /api/achievements/me/{} - deleteByUserIdAndAchievementid(achievementId={})",
         achievementId, achievementId);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId achievementObjectId = ObjectIdUtils.validateObjectId(achievementId, "achievementId");
@@ -161,7 +208,7 @@ public class MeAchievementController {
    */
   @DeleteMapping
   public ResponseEntity<Void> deleteByUserId(Authentication auth) {
-    logger.info("DELETE /api/achievements/me - deleteByUserId()");
+    logger.debug("DELETE /api/achievements/me - deleteByUserId()");
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     achievementService.deleteByUserId(userId);
     return ResponseEntity.noContent().build();
@@ -2,11 +2,15 @@ package com.bproj.skilltree.api;
 
 import com.bproj.skilltree.dto.ActivityRequest;
 import com.bproj.skilltree.dto.ActivityResponse;
+import com.bproj.skilltree.dto.CursorPage;
 import com.bproj.skilltree.dto.RecentActivity;
+import com.bproj.skilltree.exception.BadRequestException;
 import com.bproj.skilltree.mapper.ActivityMapper;
 import com.bproj.skilltree.model.Activity;
 import com.bproj.skilltree.model.Skill;
+import com.bproj.skilltree.model.VersionedCollection;
 import com.bproj.skilltree.service.ActivityService;
+import com.bproj.skilltree.service.DataVersionService;
 import com.bproj.skilltree.util.AuthUtils;
 import com.bproj.skilltree.util.ObjectIdUtils;
 import jakarta.json.JsonMergePatch;
@@ -29,6 +33,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * End-points for a User performing operations on their own Activities.
@@ -37,11 +42,22 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/activities/me")
 public class MeActivityController {
   private static final Logger logger = LoggerFactory.getLogger(MeActivityController.class);
+  private static final int MAX_STREAK_DAYS = 366;
   private final ActivityService activityService;
+  private final DataVersionService dataVersionService;
   private final AuthUtils authUtils;
 
-  public MeActivityController(ActivityService activityService, AuthUtils authUtils) {
+  /**
+   * Create a MeActivityController.
+   *
+   * @param activityService Activity business logic
+   * @param dataVersionService Tags the Activity list for conditional GETs
+   * @param authUtils Resolves the authed user
+   */
+  public MeActivityController(ActivityService activityService,
+      DataVersionService dataVersionService, AuthUtils authUtils) {
     this.activityService = activityService;
+    this.dataVersionService = dataVersionService;
     this.authUtils = authUtils;
   }
 
@@ -56,7 +72,7 @@ public class MeActivityController {
   @PostMapping
   public ResponseEntity<ActivityResponse> create(Authentication auth,
       @Valid @RequestBody ActivityRequest activityRequest) {
-    logger.info("POST /api/activities/me - create(activityRequest={})", activityRequest);
+    logger.debug("POST /api/activities/me - create(activityRequest={})", activityRequest);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     Activity activity = ActivityMapper.toActivity(activityRequest);
     activity.setUserId(userId);
@@ -69,25 +85,38 @@ public class MeActivityController {
   }
 
   /**
-   * Return all of the authenticated user's Activities. If skillId is provided, returned Activities
-   * must have the associated skill listed in 'skillWeights'.
+   * Return one page of the authenticated user's Activities, newest first. If skillId is provided,
+   * returned Activities must have the associated skill listed in 'skillWeights'.
    *
    * @param auth JWT
+   * @param request The request, answered with 304 Not Modified if its If-None-Match is current
    * @param skillId The Id of the Skill Activities must have
-   * @return The List of ActivityResponses
+   * @param pageToken The nextPageToken of the previous page, omitted for the first page
+   * @param size The page size, at most 100
+   * @return The page of ActivityResponses
    */
   @GetMapping
-  public ResponseEntity<List<ActivityResponse>> getCurrentUserActivities(Authentication auth,
-      @RequestParam(required = false) String skillId) {
-    logger.info("GET /api/activities/me - getCurrentUserActivities(skillId={})", skillId);
+  public ResponseEntity<CursorPage<ActivityResponse>> getCurrentUserActivities(Authentication auth,
+      WebRequest request, @RequestParam(required = false) String skillId,
+      @RequestParam(required = false) String pageToken,
+      @RequestParam(defaultValue = "20") int size) {
+    logger.debug(
+        "GET /api/activities/me - getCurrentUserActivities(skillId={}, pageToken={}, size={})",
+        skillId, pageToken, size);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId skillObjectId = null;
     if (skillId != null) {
       skillObjectId = ObjectIdUtils.validateObjectId(skillId, "skillId");
     }
-    List<ActivityResponse> activitieResponses = activityService
-        .mapActivitiesToResponses(activityService.findByUserId(userId, skillObjectId));
-    return ResponseEntity.ok(activitieResponses);
+    String eTag = dataVersionService.getETag(userId, VersionedCollection.ACTIVITIES);
+    if (request.checkNotModified(eTag)) {
+      return null;
+    }
+    CursorPage<Activity> activities =
+        activityService.findByUserId(userId, skillObjectId, pageToken, size);
+    return ResponseEntity.ok(new CursorPage<>(
+        activityService.mapActivitiesToResponses(activities.getContent()),
+        activities.getNextPageToken()));
   }
 
   /**
@@ -100,7 +129,7 @@ public class MeActivityController {
   @GetMapping("/{activityId}")
   public ResponseEntity<ActivityResponse> findByUserIdAndId(Authentication auth,
       @PathVariable String activityId) {
-    logger.info("GET /api/activities/me/{} - findByUserIdAndId(activityId={})", activityId,
+    logger.debug("GET /api/activities/me/{} - findByUserIdAndId(activityId={})", activityId,
         activityId);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId activityObjectId = ObjectIdUtils.validateObjectId(activityId, "activityId");
@@ -111,18 +140,23 @@ public class MeActivityController {
   }
 
   /**
-   * Compute the User's 'streak' and daily activity over the last 30 days. 30 days is hard coded, so
-   * streaks don't go beyond 30 - too worried about excessive Activity lookup just for a streak
-   * count especially because this end-point is hit from the user's dash board.
+   * Compute the User's 'streak' and daily activity over the last 'days' days. Served from the daily
+   * rollups, so a full year heatmap costs one document per active day and the streak isn't capped
+   * by the window.
    *
    * @param auth JWT
+   * @param days The number of days before today to include (1-366)
    * @return The RecentActivity DTO for this User.
    */
   @GetMapping("/streak")
-  public ResponseEntity<RecentActivity> getActivityStreak(Authentication auth) {
-    logger.info("GET /api/activities/me/streak - getActivityStreak()");
+  public ResponseEntity<RecentActivity> getActivityStreak(Authentication auth,
+      @RequestParam(defaultValue = "30") int days) {
+    logger.debug("GET /api/activities/me/streak - getActivityStreak(days={})", days);
+    if (days < 1 || days > MAX_STREAK_DAYS) {
+      throw new BadRequestException(
+          "Query parameter 'days' must be between 1 and " + MAX_STREAK_DAYS + ".");
+    }
     ObjectId userId = authUtils.getUserIdByAuth(auth);
-    int days = 30;
     return ResponseEntity.ok(activityService.getRecentActivityByUserId(userId, days));
   }
 
@@ -137,7 +171,7 @@ public class MeActivityController {
   @PatchMapping(path = "/{activityId}")
   public ResponseEntity<ActivityResponse> patch(Authentication auth,
       @PathVariable String activityId, @RequestBody Map<String, Object> updates) {
-    logger.info("PATCH /api/activities/me/{} - patch(activityId={}, updates={})", activityId,
+    logger.debug("PATCH /api/activities/me/{} - patch(activityId={}, updates={})", activityId,
         activityId, updates);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId activityObjectId = ObjectIdUtils.validateObjectId(activityId, "activityId");
@@ -156,7 +190,7 @@ public class MeActivityController {
    */
   @DeleteMapping
   public ResponseEntity<Void> deleteByUserId(Authentication auth) {
-    logger.info("DELETE /api/activities/me - deleteByUserId()");
+    logger.debug("DELETE /api/activities/me - deleteByUserId()");
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     activityService.deleteByUserId(userId);
     return ResponseEntity.noContent().build();
@@ -171,7 +205,7 @@ public class MeActivityController {
    */
   @DeleteMapping("/{activityId}")
   public ResponseEntity<Void> delete(Authentication auth, @PathVariable String activityId) {
-    logger.info("DELETE /api/activities/me/{} - delete(activityId={})", activityId, activityId);
+    logger.debug("DELETE /api/activities/me/{} - delete(activityId={})", activityId, activityId);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId activityObjectId = ObjectIdUtils.validateObjectId(activityId, "activityId");
     activityService.deleteByUserIdAndId(userId, activityObjectId);
@@ -0,0 +1,96 @@
+package com.bproj.skilltree.api;
+
+import com.bproj.skilltree.dto.HourSeries;
+import com.bproj.skilltree.exception.BadRequestException;
+import com.bproj.skilltree.model.TimeBucket;
+import com.bproj.skilltree.service.AnalyticsService;
+import com.bproj.skilltree.util.AuthUtils;
+import com.bproj.skilltree.util.ObjectIdUtils;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * End-points for a User's time series of hours logged on their own Skills and Trees.
+ */
+@RestController
+@RequestMapping("/api/analytics/me")
+public class MeAnalyticsController {
+  private static final Logger logger = LoggerFactory.getLogger(MeAnalyticsController.class);
+  private final AnalyticsService analyticsService;
+  private final AuthUtils authUtils;
+
+  public MeAnalyticsController(AnalyticsService analyticsService, AuthUtils authUtils) {
+    this.analyticsService = analyticsService;
+    this.authUtils = authUtils;
+  }
+
+  /**
+   * Hours logged on a Skill, including its sub-Skills, per bucket.
+   *
+   * @param auth JWT
+   * @param skillId The Id of the Skill
+   * @param bucket DAY, WEEK, or MONTH
+   * @param from (optional) The first day included (ISO date, UTC). Defaults to a year before 'to'.
+   * @param to (optional) The last day included (ISO date, UTC). Defaults to today.
+   * @return The HourSeries
+   */
+  @GetMapping("/skills/{skillId}")
+  public ResponseEntity<HourSeries> getSkillHours(Authentication auth,
+      @PathVariable String skillId, @RequestParam(defaultValue = "WEEK") TimeBucket bucket,
+      @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+    logger.debug("GET /api/analytics/me/skills/{} - getSkillHours(bucket={}, from={}, to={})",
+        skillId, bucket, from, to);
+    ObjectId userId = authUtils.getUserIdByAuth(auth);
+    ObjectId skillObjectId = ObjectIdUtils.validateObjectId(skillId, "skillId");
+    LocalDate toDate = parseDate(to, "to", LocalDate.now(ZoneOffset.UTC));
+    LocalDate fromDate = parseDate(from, "from", toDate.minusYears(1));
+    return ResponseEntity
+        .ok(analyticsService.getSkillHours(userId, skillObjectId, bucket, fromDate, toDate));
+  }
+
+  /**
+   * Hours logged on any Skill of a Tree, per bucket.
+   *
+   * @param auth JWT
+   * @param treeId The Id of the Tree
+   * @param bucket DAY, WEEK, or MONTH
+   * @param from (optional) The first day included (ISO date, UTC). Defaults to a year before 'to'.
+   * @param to (optional) The last day included (ISO date, UTC). Defaults to today.
+   * @return The HourSeries
+   */
+  @GetMapping("/trees/{treeId}")
+  public ResponseEntity<HourSeries> getTreeHours(Authentication auth, @PathVariable String treeId,
+      @RequestParam(defaultValue = "WEEK") TimeBucket bucket,
+      @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+    logger.debug("GET /api/analytics/me/trees/{} - getTreeHours(bucket={}, from={}, to={})",
+        treeId, bucket, from, to);
+    ObjectId userId = authUtils.getUserIdByAuth(auth);
+    ObjectId treeObjectId = ObjectIdUtils.validateObjectId(treeId, "treeId");
+    LocalDate toDate = parseDate(to, "to", LocalDate.now(ZoneOffset.UTC));
+    LocalDate fromDate = parseDate(from, "from", toDate.minusYears(1));
+    return ResponseEntity
+        .ok(analyticsService.getTreeHours(userId, treeObjectId, bucket, fromDate, toDate));
+  }
+
+  private static LocalDate parseDate(String value, String field, LocalDate defaultValue) {
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return LocalDate.parse(value);
+    } catch (DateTimeParseException e) {
+      throw new BadRequestException("Invalid " + field + ": " + value);
+    }
+  }
+}
@@ -1,11 +1,18 @@
 package com.bproj.skilltree.api;
 
 import com.bproj.skilltree.dto.FriendList;
+import com.bproj.skilltree.dto.FriendSuggestion;
+import com.bproj.skilltree.dto.UserResponse;
+import com.bproj.skilltree.model.VersionedCollection;
+import com.bproj.skilltree.service.DataVersionService;
+import com.bproj.skilltree.service.DisplayNameIndex;
 import com.bproj.skilltree.model.FriendRequestStatus;
+import com.bproj.skilltree.service.FriendSuggestionService;
 import com.bproj.skilltree.service.FriendshipService;
 import com.bproj.skilltree.util.AuthUtils;
 import com.bproj.skilltree.util.ObjectIdUtils;
 import java.net.URI;
+import java.util.List;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +26,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * End points for users to manage their Friendships.
@@ -28,20 +36,81 @@ import org.springframework.web.bind.annotation.RestController;
 public class MeFriendshipController {
   private static final Logger logger = LoggerFactory.getLogger(MeFriendshipController.class);
   private final FriendshipService friendshipService;
+  private final FriendSuggestionService friendSuggestionService;
+  private final DisplayNameIndex displayNameIndex;
+  private final DataVersionService dataVersionService;
   private final AuthUtils authUtils;
 
-  public MeFriendshipController(FriendshipService friendService, AuthUtils authUtils) {
+  /**
+   * Create a MeFriendshipController.
+   *
+   * @param friendService Friendship business logic
+   * @param friendSuggestionService Friend-of-friend suggestions
+   * @param displayNameIndex Display name typeahead
+   * @param dataVersionService Tags the FriendList for conditional GETs
+   * @param authUtils Resolves the caller's User Id
+   */
+  public MeFriendshipController(FriendshipService friendService,
+      FriendSuggestionService friendSuggestionService, DisplayNameIndex displayNameIndex,
+      DataVersionService dataVersionService, AuthUtils authUtils) {
     this.friendshipService = friendService;
+    this.friendSuggestionService = friendSuggestionService;
+    this.displayNameIndex = displayNameIndex;
+    this.dataVersionService = dataVersionService;
     this.authUtils = authUtils;
   }
 
+  /**
+   * Get the caller's incoming, outgoing, accepted and blocked Friendships.
+   *
+   * @param auth JWT
+   * @param request The request, answered with 304 Not Modified if its If-None-Match is current
+   * @return The FriendList
+   */
   @GetMapping
-  public ResponseEntity<FriendList> myFriends(Authentication auth) {
-    logger.info("GET /api/friendships/me - myFriends()");
+  public ResponseEntity<FriendList> myFriends(Authentication auth, WebRequest request) {
+    logger.debug("GET /api/friendships/me - myFriends()");
     ObjectId userId = authUtils.getUserIdByAuth(auth);
+    String eTag = dataVersionService.getETag(userId, VersionedCollection.FRIENDSHIPS);
+    if (request.checkNotModified(eTag)) {
+      return null;
+    }
     return ResponseEntity.ok(friendshipService.getFriendList(userId));
   }
 
+  /**
+   * Suggest Users the caller may know: friends of their friends, most mutual friends first.
+   *
+   * @param auth JWT
+   * @param limit The most suggestions to return, 1-50
+   * @return The suggestions
+   */
+  @GetMapping("/suggestions")
+  public ResponseEntity<List<FriendSuggestion>> suggestions(Authentication auth,
+      @RequestParam(defaultValue = "10") int limit) {
+    logger.debug("GET /api/friendships/me/suggestions - suggestions(limit={})", limit);
+    ObjectId userId = authUtils.getUserIdByAuth(auth);
+    return ResponseEntity.ok(friendSuggestionService.getSuggestions(userId, limit));
+  }
+
+  /**
+   * Find Users to send a friend request to by the start of their display name, ignoring case.
+   * Served from memory, so it can be called on every keystroke.
+   *
+   * @param auth JWT
+   * @param prefix The start of the display name
+   * @param limit The most Users to return, 1-50
+   * @return The matching Users other than the caller, in display name order
+   */
+  @GetMapping("/search")
+  public ResponseEntity<List<UserResponse>> searchUsers(Authentication auth,
+      @RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+    logger.debug("GET /api/friendships/me/search - searchUsers(prefix={}, limit={})", prefix,
+        limit);
+    ObjectId userId = authUtils.getUserIdByAuth(auth);
+    return ResponseEntity.ok(displayNameIndex.search(prefix, limit, userId));
+  }
+
   /**
    * Send a friend request given a display name.
    *
@@ -52,7 +121,7 @@ public class MeFriendshipController {
   @PostMapping("/{displayName}")
   public ResponseEntity<String> sendFriendRequest(Authentication auth,
       @PathVariable String displayName) {
-    logger.info("POST /api/friendships/me/{} - sendFriendRequest(displayName={})", displayName,
+    logger.debug("POST /api/friendships/me/{} - sendFriendRequest(displayName={})", displayName,
         displayName);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     friendshipService.addFriend(userId, displayName);
@@ -71,7 +140,7 @@ public class MeFriendshipController {
   @PatchMapping("/{friendshipId}")
   public ResponseEntity<FriendRequestStatus> changeStatus(Authentication auth,
       @PathVariable String friendshipId, @RequestParam FriendRequestStatus status) {
-    logger.info("PATCH /api/friendships/me/{} - changeStatus(friendshipId={}, status={})",
+    logger.debug("PATCH /api/friendships/me/{} - changeStatus(friendshipId={}, status={})",
         friendshipId, friendshipId, status);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId friendshipObjectId = ObjectIdUtils.validateObjectId(friendshipId, "friendshipId");
@@ -88,7 +157,7 @@ public class MeFriendshipController {
    */
   @DeleteMapping("/{friendshipId}")
   public ResponseEntity<Void> removeFriend(Authentication auth, @PathVariable String friendshipId) {
-    logger.info("DELETE /api/friendships/me/{} - removeFriend(friendshipId={})", friendshipId,
+    logger.debug("DELETE /api/friendships/me/{} - removeFriend(friendshipId={})", friendshipId,
         friendshipId);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId friendshipObjectId = ObjectIdUtils.validateObjectId(friendshipId, "friendshipId");
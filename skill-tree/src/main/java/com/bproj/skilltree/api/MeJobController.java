@@ -0,0 +1,69 @@
+package com.bproj.skilltree.api;
+
+import com.bproj.skilltree.dto.JobResponse;
+import com.bproj.skilltree.mapper.JobMapper;
+import com.bproj.skilltree.model.Job;
+import com.bproj.skilltree.service.JobService;
+import com.bproj.skilltree.util.AuthUtils;
+import com.bproj.skilltree.util.ObjectIdUtils;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Endpoints for submitting and polling the authenticated user's background Jobs.
+ */
+@RestController
+@RequestMapping("/api/jobs/me")
+public class MeJobController {
+  private static final Logger logger = LoggerFactory.getLogger(MeJobController.class);
+  private final JobService jobService;
+  private final AuthUtils authUtils;
+
+  public MeJobController(JobService jobService, AuthUtils authUtils) {
+    this.jobService = jobService;
+    this.authUtils = authUtils;
+  }
+
+  /**
+   * Get the status of one of the authed user's Jobs. Still works after a DELETE_USER Job has
+   * removed the User.
+   *
+   * @param auth JWT
+   * @param jobId The Id of the Job
+   * @return The Job's status dto
+   */
+  @GetMapping("/{jobId}")
+  public ResponseEntity<JobResponse> getById(Authentication auth, @PathVariable String jobId) {
+    logger.debug("GET /api/jobs/me/{} - getById()", jobId);
+    String firebaseId = authUtils.getFirebaseIdByAuth(auth);
+    ObjectId jobObjectId = ObjectIdUtils.validateObjectId(jobId, "jobId");
+    return ResponseEntity.ok(JobMapper.fromJob(jobService.findByFirebaseIdAndId(firebaseId,
+        jobObjectId)));
+  }
+
+  /**
+   * Queue a copy of a PRESET, PUBLIC, or FRIENDS Tree into the authed user's account. Once the Job
+   * succeeds its resultId is the Id of the new Tree.
+   *
+   * @param auth JWT
+   * @param treeId The Id of the Tree to be copied
+   * @return 202 - ACCEPTED with the queued Job
+   */
+  @PostMapping("/tree-copies/{treeId}")
+  public ResponseEntity<JobResponse> copyTree(Authentication auth, @PathVariable String treeId) {
+    logger.debug("POST /api/jobs/me/tree-copies/{} - copyTree()", treeId);
+    ObjectId userId = authUtils.getUserIdByAuth(auth);
+    ObjectId treeObjectId = ObjectIdUtils.validateObjectId(treeId, "treeId");
+    Job job = jobService.submitCopyTree(userId, authUtils.getFirebaseIdByAuth(auth), treeObjectId);
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(JobMapper.fromJob(job));
+  }
+}
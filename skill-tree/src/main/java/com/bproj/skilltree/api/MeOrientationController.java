@@ -43,7 +43,7 @@ public class MeOrientationController {
   @PatchMapping("/{treeId}")
   public ResponseEntity<Void> patch(Authentication auth, @PathVariable String treeId,
       @RequestBody List<OrientationMovePatch> updates) {
-    logger.info("PATCH /api/orientations/me/{} - patch(treeId={}, updates={})", treeId, treeId,
+    logger.debug("PATCH /api/orientations/me/{} - patch(treeId={}, updates={})", treeId, treeId,
         updates);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId treeObjectId = ObjectIdUtils.validateObjectId(treeId, "treeId");
@@ -1,23 +1,27 @@
 package com.bproj.skilltree.api;
 
+import com.bproj.skilltree.dto.CursorPage;
 import com.bproj.skilltree.dto.SkillRequest;
 import com.bproj.skilltree.dto.SkillResponse;
 import com.bproj.skilltree.exception.BadRequestException;
 import com.bproj.skilltree.mapper.SkillMapper;
 import com.bproj.skilltree.model.Skill;
 import com.bproj.skilltree.model.SkillSortMode;
+import com.bproj.skilltree.model.VersionedCollection;
+import com.bproj.skilltree.service.DataVersionService;
+import com.bproj.skilltree.service.SearchService;
 import com.bproj.skilltree.service.SkillService;
 import com.bproj.skilltree.util.AuthUtils;
 import com.bproj.skilltree.util.ObjectIdUtils;
 import jakarta.json.JsonMergePatch;
 import jakarta.validation.Valid;
 import java.net.URI;
-import java.util.List;
 import java.util.Map;
 
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -29,6 +33,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * Handles interactions from the client between an authenticated user and their skills.
@@ -38,10 +43,23 @@ import org.springframework.web.bind.annotation.RestController;
 public class MeSkillController {
   private static final Logger logger = LoggerFactory.getLogger(MeSkillController.class);
   private final SkillService skillService;
+  private final SearchService searchService;
+  private final DataVersionService dataVersionService;
   private final AuthUtils authUtils;
 
-  public MeSkillController(SkillService skillService, AuthUtils authUtils) {
+  /**
+   * Create a MeSkillController.
+   *
+   * @param skillService Skill business logic
+   * @param searchService Full-text search over the user's Skills
+   * @param dataVersionService Tags the Skill list for conditional GETs
+   * @param authUtils Resolves the authed user
+   */
+  public MeSkillController(SkillService skillService, SearchService searchService,
+      DataVersionService dataVersionService, AuthUtils authUtils) {
     this.skillService = skillService;
+    this.searchService = searchService;
+    this.dataVersionService = dataVersionService;
     this.authUtils = authUtils;
   }
 
@@ -55,7 +73,7 @@ public class MeSkillController {
   @PostMapping
   public ResponseEntity<SkillResponse> create(Authentication auth,
       @Valid @RequestBody SkillRequest skillRequest) {
-    logger.info("POST /api/skills/me - create(skillRequest={})", skillRequest);
+    logger.debug("POST /api/skills/me - create(skillRequest={})", skillRequest);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     Skill skill = SkillMapper.toSkill(skillRequest);
     SkillResponse skillResponse = SkillMapper.fromSkill(skillService.create(skill, userId));
@@ -64,21 +82,26 @@ public class MeSkillController {
   }
 
   /**
-   * Retrieve all of this user's skills (queryable).
+   * Retrieve one page of this user's skills (queryable).
    *
    * @param auth JWT
+   * @param request The request, answered with 304 Not Modified if its If-None-Match is current
    * @param root Whether or returned Skills are root Skills (null parentSkillId)
    * @param parentSkillId The Id of the Skill returned Skills are sub Skills to
    * @param sortMode How the returned list will be ordered
-   * @return The filtered, sorted list of SkillResponse DTOs
+   * @param pageToken The nextPageToken of the previous page, omitted for the first page
+   * @param size The page size, at most 100
+   * @return The filtered, sorted page of SkillResponse DTOs
    */
   @GetMapping
-  public ResponseEntity<List<SkillResponse>> mySkills(Authentication auth,
-      @RequestParam(required = false) Boolean root,
+  public ResponseEntity<CursorPage<SkillResponse>> mySkills(Authentication auth,
+      WebRequest request, @RequestParam(required = false) Boolean root,
       @RequestParam(required = false) String parentSkillId,
-      @RequestParam(required = false, defaultValue = "NAME") SkillSortMode sortMode) {
-    logger.info("GET /api/skills/me - mySkills(root={}, parentSkillId={}, sortMode={})", root,
-        parentSkillId, sortMode);
+      @RequestParam(required = false, defaultValue = "NAME") SkillSortMode sortMode,
+      @RequestParam(required = false) String pageToken,
+      @RequestParam(defaultValue = "20") int size) {
+    logger.debug("GET /api/skills/me - mySkills(root={}, parentSkillId={}, sortMode={}, "
+        + "pageToken={}, size={})", root, parentSkillId, sortMode, pageToken, size);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId parentObjectId = null;
     if (parentSkillId != null) {
@@ -88,10 +111,33 @@ public class MeSkillController {
       throw new BadRequestException(
           "Query parameters 'parentSkillId' and 'root' cannot be used together.");
     }
-    List<SkillResponse> skillResponses =
-        skillService.findAndSortSkills(userId, parentObjectId, root, sortMode).stream()
-            .map(SkillMapper::fromSkill).toList();
-    return ResponseEntity.ok(skillResponses);
+    String eTag = dataVersionService.getETag(userId, VersionedCollection.SKILLS);
+    if (request.checkNotModified(eTag)) {
+      return null;
+    }
+    return ResponseEntity.ok(skillService
+        .findAndSortSkills(userId, parentObjectId, root, sortMode, pageToken, size)
+        .map(SkillMapper::fromSkill));
+  }
+
+  /**
+   * Search this user's Skills by name.
+   *
+   * @param auth JWT
+   * @param q The search text
+   * @param page The page number
+   * @param size The page size, at most 100
+   * @return A page of SkillResponse DTOs, best match first
+   */
+  @GetMapping("/search")
+  public ResponseEntity<Page<SkillResponse>> searchSkills(Authentication auth,
+      @RequestParam String q, @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "20") int size) {
+    logger.debug("GET /api/skills/me/search - searchSkills(q={}, page={}, size={})", q, page,
+        size);
+    ObjectId userId = authUtils.getUserIdByAuth(auth);
+    return ResponseEntity.ok(
+        searchService.searchSkills(userId, q, page, size).map(SkillMapper::fromSkill));
   }
 
   /**
@@ -103,7 +149,7 @@ public class MeSkillController {
    */
   @GetMapping("/{skillId}")
   public ResponseEntity<SkillResponse> mySkill(Authentication auth, @PathVariable String skillId) {
-    logger.info("GET /api/skills/me/{} - mySkill(skillId={})", skillId, skillId);
+    logger.debug("GET /api/skills/me/{} - mySkill(skillId={})", skillId, skillId);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId skillObjectId = ObjectIdUtils.validateObjectId(skillId, "skillId");
     SkillResponse skillResponse =
@@ -122,7 +168,7 @@ public class MeSkillController {
   @PatchMapping(path = "/{skillId}")
   public ResponseEntity<SkillResponse> patch(Authentication auth, @PathVariable String skillId,
       @RequestBody Map<String, Object> updates) {
-    logger.info("PATCH /api/skills/me/{} - patch(skillId={}, updates={})", skillId, skillId,
+    logger.debug("PATCH /api/skills/me/{} - patch(skillId={}, updates={})", skillId, skillId,
         updates);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId skillObjectId = ObjectIdUtils.validateObjectId(skillId, "skillId");
@@ -140,7 +186,7 @@ public class MeSkillController {
    */
   @DeleteMapping("/{skillId}")
   public ResponseEntity<Void> deleteById(Authentication auth, @PathVariable String skillId) {
-    logger.info("DELETE /api/skills/me/{} - deleteById(skillId={})", skillId, skillId);
+    logger.debug("DELETE /api/skills/me/{} - deleteById(skillId={})", skillId, skillId);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId skillObjectId = ObjectIdUtils.validateObjectId(skillId, "skillId");
     skillService.deleteByUserIdAndId(userId, skillObjectId);
@@ -155,7 +201,7 @@ public class MeSkillController {
    */
   @DeleteMapping
   public ResponseEntity<Void> deleteByUserId(Authentication auth) {
-    logger.info("DELETE /api/skills/me - deleteByUserId()");
+    logger.debug("DELETE /api/skills/me - deleteByUserId()");
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     skillService.deleteByUserId(userId);
     return ResponseEntity.noContent().build();
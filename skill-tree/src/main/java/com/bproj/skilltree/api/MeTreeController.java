@@ -7,6 +7,8 @@ import com.bproj.skilltree.dto.TreeResponse;
 import com.bproj.skilltree.dto.TreeStats;
 import com.bproj.skilltree.mapper.TreeMapper;
 import com.bproj.skilltree.model.Tree;
+import com.bproj.skilltree.model.VersionedCollection;
+import com.bproj.skilltree.service.DataVersionService;
 import com.bproj.skilltree.service.TreeService;
 import com.bproj.skilltree.util.AuthUtils;
 import com.bproj.skilltree.util.ObjectIdUtils;
@@ -29,6 +31,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * Endpoints for the authenticated user's access to their Trees.
@@ -38,10 +41,20 @@ import org.springframework.web.bind.annotation.RestController;
 public class MeTreeController {
   private static final Logger logger = LoggerFactory.getLogger(MeTreeController.class);
   private final TreeService treeService;
+  private final DataVersionService dataVersionService;
   private final AuthUtils authUtils;
 
-  public MeTreeController(TreeService treeService, AuthUtils authUtils) {
+  /**
+   * Create a MeTreeController.
+   *
+   * @param treeService Tree business logic
+   * @param dataVersionService Tags the Tree list for conditional GETs
+   * @param authUtils Resolves the authed user
+   */
+  public MeTreeController(TreeService treeService, DataVersionService dataVersionService,
+      AuthUtils authUtils) {
     this.treeService = treeService;
+    this.dataVersionService = dataVersionService;
     this.authUtils = authUtils;
   }
 
@@ -56,11 +69,10 @@ public class MeTreeController {
   @PostMapping
   public ResponseEntity<TreeResponse> create(Authentication auth,
       @Valid @RequestBody TreeRequest treeRequest) {
-    logger.info("POST /api/trees/me - create(treeRequest={})", treeRequest);
+    logger.debug("POST /api/trees/me - create(treeRequest={})", treeRequest);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     Tree tree = TreeMapper.toTree(treeRequest);
     TreeResponse treeResponse = TreeMapper.fromTree(treeService.create(tree, userId));
-    logger.error("Returning TreeResponse with id={}", treeResponse.getId());
     return ResponseEntity.status(HttpStatus.CREATED).body(treeResponse);
   }
 
@@ -68,12 +80,18 @@ public class MeTreeController {
    * Return all of the authed user's Trees.
    *
    * @param auth JWT
+   * @param request The request, answered with 304 Not Modified if its If-None-Match is current
    * @return The List of the authed user's Trees.
    */
   @GetMapping
-  public ResponseEntity<List<TreeResponse>> getCurrentUserTrees(Authentication auth) {
-    logger.info("GET /api/trees/me - getCurrentUserTrees()");
+  public ResponseEntity<List<TreeResponse>> getCurrentUserTrees(Authentication auth,
+      WebRequest request) {
+    logger.debug("GET /api/trees/me - getCurrentUserTrees()");
     ObjectId userId = authUtils.getUserIdByAuth(auth);
+    String eTag = dataVersionService.getETag(userId, VersionedCollection.TREES);
+    if (request.checkNotModified(eTag)) {
+      return null;
+    }
     List<TreeResponse> treeResponses =
         treeService.findByUserId(userId).stream().map(TreeMapper::fromTree).toList();
     return ResponseEntity.ok(treeResponses);
@@ -89,12 +107,11 @@ public class MeTreeController {
   @GetMapping("/{treeId}")
   public ResponseEntity<TreeResponse> getTreeById(Authentication auth,
       @PathVariable String treeId) {
-    logger.info("GET /api/trees/me/{} - getTreeById(treeId={})", treeId, treeId);
+    logger.debug("GET /api/trees/me/{} - getTreeById(treeId={})", treeId, treeId);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId treeObjectId = ObjectIdUtils.validateObjectId(treeId, "treeId");
     TreeResponse treeResponse =
         TreeMapper.fromTree(treeService.findByUserIdAndId(userId, treeObjectId));
-    logger.info(treeResponse.getId());
     return ResponseEntity.ok(treeResponse);
   }
 
@@ -109,7 +126,7 @@ public class MeTreeController {
   @PatchMapping(path = "/{treeId}")
   public ResponseEntity<TreeResponse> patch(Authentication auth, @PathVariable String treeId,
       @RequestBody Map<String, Object> updates) {
-    logger.info("PATCH /api/trees/me/{} - patch(treeId={}, updates={})", treeId, treeId, updates);
+    logger.debug("PATCH /api/trees/me/{} - patch(treeId={}, updates={})", treeId, treeId, updates);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId treeObjectId = ObjectIdUtils.validateObjectId(treeId, "treeId");
     TreeResponse treeResponse =
@@ -127,7 +144,7 @@ public class MeTreeController {
   @GetMapping("/layout/{treeId}")
   public ResponseEntity<MeTreeLayout> getTreeLayout(Authentication auth,
       @PathVariable String treeId) {
-    logger.info("GET /api/trees/me/layout/{} - getTreeLayout(treeId={})", treeId, treeId);
+    logger.debug("GET /api/trees/me/layout/{} - getTreeLayout(treeId={})", treeId, treeId);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId treeObjectId = ObjectIdUtils.validateObjectId(treeId, "treeId");
     return ResponseEntity.ok(treeService.getMeLayoutByUserIdAndId(userId, treeObjectId));
@@ -135,7 +152,7 @@ public class MeTreeController {
 
   @GetMapping("/stats")
   public ResponseEntity<TreeStats> getAggregatedTreeStats(Authentication auth) {
-    logger.info("GET /api/trees/me/stats - getAggregatedTreeStats()");
+    logger.debug("GET /api/trees/me/stats - getAggregatedTreeStats()");
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     return ResponseEntity.ok(treeService.getStatsByUserId(userId));
   }
@@ -149,7 +166,7 @@ public class MeTreeController {
    */
   @GetMapping("/stats/{treeId}")
   public ResponseEntity<TreeStats> getTreeStats(Authentication auth, @PathVariable String treeId) {
-    logger.info("GET /api/trees/me/stats/{} - getTreeStats(treeId={})", treeId, treeId);
+    logger.debug("GET /api/trees/me/stats/{} - getTreeStats(treeId={})", treeId, treeId);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId treeObjectId = ObjectIdUtils.validateObjectId(treeId, "treeId");
     return ResponseEntity.ok(treeService.getStatsByUserIdAndId(userId, treeObjectId));
@@ -157,7 +174,7 @@ public class MeTreeController {
 
   @GetMapping("/favorite")
   public ResponseEntity<FavoriteTree> getFavoriteTree(Authentication auth) {
-    logger.info("GET /api/trees/me/favorite - getFavoriteTree()");
+    logger.debug("GET /api/trees/me/favorite - getFavoriteTree()");
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     return ResponseEntity.ok(treeService.getFavoriteTree(userId));
   }
@@ -171,7 +188,7 @@ public class MeTreeController {
    */
   @DeleteMapping("/{treeId}")
   public ResponseEntity<Void> deleteTreeById(Authentication auth, @PathVariable String treeId) {
-    logger.info("DELETE /api/trees/me/{} - deleteTreeById(treeId={})", treeId, treeId);
+    logger.debug("DELETE /api/trees/me/{} - deleteTreeById(treeId={})", treeId, treeId);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     ObjectId treeObjectId = ObjectIdUtils.validateObjectId(treeId, "treeId");
     treeService.deleteByUserIdAndId(userId, treeObjectId);
@@ -186,7 +203,7 @@ public class MeTreeController {
    */
   @DeleteMapping
   public ResponseEntity<Void> deleteAllUserTrees(Authentication auth) {
-    logger.info("DELETE /api/trees/me - deleteAllUserTrees()");
+    logger.debug("DELETE /api/trees/me - deleteAllUserTrees()");
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     treeService.deleteByUserId(userId);
     return ResponseEntity.noContent().build();
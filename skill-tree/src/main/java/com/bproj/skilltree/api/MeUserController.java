@@ -1,12 +1,16 @@
 package com.bproj.skilltree.api;
 
 import com.bproj.skilltree.dto.FeedItem;
+import com.bproj.skilltree.dto.JobResponse;
 import com.bproj.skilltree.dto.UserPatch;
 import com.bproj.skilltree.dto.UserRequest;
 import com.bproj.skilltree.dto.UserResponse;
+import com.bproj.skilltree.mapper.JobMapper;
 import com.bproj.skilltree.mapper.UserMapper;
+import com.bproj.skilltree.model.Job;
 import com.bproj.skilltree.model.User;
 import com.bproj.skilltree.security.UserPrincipal;
+import com.bproj.skilltree.service.JobService;
 import com.bproj.skilltree.service.UserService;
 import com.bproj.skilltree.util.AuthUtils;
 import jakarta.json.JsonMergePatch;
@@ -38,10 +42,19 @@ import java.util.Map;
 public class MeUserController {
   private static final Logger logger = LoggerFactory.getLogger(MeUserController.class);
   private final UserService userService;
+  private final JobService jobService;
   private final AuthUtils authUtils;
 
-  public MeUserController(UserService userService, AuthUtils authUtils) {
+  /**
+   * Create a MeUserController.
+   *
+   * @param userService User business logic
+   * @param jobService Queues account deletion
+   * @param authUtils Resolves the authed user
+   */
+  public MeUserController(UserService userService, JobService jobService, AuthUtils authUtils) {
     this.userService = userService;
+    this.jobService = jobService;
     this.authUtils = authUtils;
   }
 
@@ -55,7 +68,7 @@ public class MeUserController {
   @PostMapping
   public ResponseEntity<UserResponse> create(Authentication auth,
       @Valid @RequestBody UserRequest userRequest) {
-    logger.info("POST /api/users/me - create(userRequest={})", userRequest);
+    logger.debug("POST /api/users/me - create(userRequest={})", userRequest);
     UserPrincipal principal = (UserPrincipal) auth.getPrincipal();
     User user = UserMapper.toUser(userRequest);
     UserResponse userResponse = UserMapper
@@ -71,7 +84,7 @@ public class MeUserController {
    */
   @GetMapping
   public ResponseEntity<UserResponse> getAuthenticatedUser(Authentication auth) {
-    logger.info("GET /api/users/me - getAuthenticatedUser()");
+    logger.debug("GET /api/users/me - getAuthenticatedUser()");
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     UserResponse userResponse = UserMapper.fromUser(userService.findById(userId));
     return ResponseEntity.ok(userResponse);
@@ -80,7 +93,7 @@ public class MeUserController {
   @GetMapping("/feed")
   public ResponseEntity<Page<FeedItem>> getActivityFeed(Authentication auth,
       @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "5") int size) {
-    logger.info("GET /api/users/me/feed - getActivityFeed(page={}, size={})", page, size);
+    logger.debug("GET /api/users/me/feed - getActivityFeed(page={}, size={})", page, size);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     return ResponseEntity.ok(userService.getUserActionsFeed(userId, page, size));
   }
@@ -95,23 +108,24 @@ public class MeUserController {
   @PatchMapping
   public ResponseEntity<UserResponse> patch(Authentication auth,
       @RequestBody Map<String, Object> updates) {
-    logger.info("PATCH /api/users/me - patch(updates={})", updates);
+    logger.debug("PATCH /api/users/me - patch(updates={})", updates);
     ObjectId userId = authUtils.getUserIdByAuth(auth);
     UserResponse userResponse = UserMapper.fromUser(userService.patch(userId, updates));
     return ResponseEntity.ok(userResponse);
   }
 
   /**
-   * Delete the authed user.
+   * Delete the authed user. Deletion runs as a background Job; poll /api/jobs/me/{jobId} for
+   * completion.
    *
    * @param auth JWT
-   * @return 204 - NO_CONTENT
+   * @return 202 - ACCEPTED with the queued Job
    */
   @DeleteMapping
-  public ResponseEntity<Void> deleteAuthenticatedUser(Authentication auth) {
-    logger.info("DELETE /api/users/me - deleteAuthenticatedUser()");
+  public ResponseEntity<JobResponse> deleteAuthenticatedUser(Authentication auth) {
+    logger.debug("DELETE /api/users/me - deleteAuthenticatedUser()");
     ObjectId userId = authUtils.getUserIdByAuth(auth);
-    userService.deleteById(userId);
-    return ResponseEntity.noContent().build();
+    Job job = jobService.submitDeleteUser(userId, authUtils.getFirebaseIdByAuth(auth));
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(JobMapper.fromJob(job));
   }
 }
@@ -0,0 +1,84 @@
+package com.bproj.skilltree.api;
+
+import com.bproj.skilltree.dto.TreeLayout;
+import com.bproj.skilltree.dto.TreeResponse;
+import com.bproj.skilltree.mapper.TreeMapper;
+import com.bproj.skilltree.service.SearchService;
+import com.bproj.skilltree.service.TreeService;
+import com.bproj.skilltree.util.ObjectIdUtils;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Endpoints for browsing the PRESET Trees in the public store, and for searching them along with
+ * users' PUBLIC Trees.
+ */
+@RestController
+@RequestMapping("/api/trees/public")
+public class PublicTreeController {
+  private static final Logger logger = LoggerFactory.getLogger(PublicTreeController.class);
+  private final TreeService treeService;
+  private final SearchService searchService;
+
+  /**
+   * Create a PublicTreeController.
+   *
+   * @param treeService Tree business logic
+   * @param searchService Full-text search over PUBLIC and PRESET Trees
+   */
+  public PublicTreeController(TreeService treeService, SearchService searchService) {
+    this.treeService = treeService;
+    this.searchService = searchService;
+  }
+
+  /**
+   * Page through the PRESET Trees, newest first.
+   *
+   * @param page The page number
+   * @param size The page size
+   * @return A page of Tree dtos
+   */
+  @GetMapping
+  public ResponseEntity<Page<TreeResponse>> getPublicTrees(
+      @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "20") int size) {
+    logger.debug("GET /api/trees/public - getPublicTrees(page={}, size={})", page, size);
+    return ResponseEntity.ok(treeService.findPublicTrees(page, size).map(TreeMapper::fromTree));
+  }
+
+  /**
+   * Search the PUBLIC and PRESET Trees by name and description.
+   *
+   * @param q The search text
+   * @param page The page number
+   * @param size The page size, at most 100
+   * @return A page of Tree dtos, best match first
+   */
+  @GetMapping("/search")
+  public ResponseEntity<Page<TreeResponse>> searchTrees(@RequestParam String q,
+      @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "20") int size) {
+    logger.debug("GET /api/trees/public/search - searchTrees(q={}, page={}, size={})", q, page,
+        size);
+    return ResponseEntity.ok(searchService.searchTrees(q, page, size).map(TreeMapper::fromTree));
+  }
+
+  /**
+   * Get the layout of a single PRESET Tree.
+   *
+   * @param treeId The Id of the Tree
+   * @return The TreeLayout
+   */
+  @GetMapping("/{treeId}")
+  public ResponseEntity<TreeLayout> getPublicTreeLayout(@PathVariable String treeId) {
+    logger.debug("GET /api/trees/public/{} - getPublicTreeLayout(treeId={})", treeId, treeId);
+    ObjectId treeObjectId = ObjectIdUtils.validateObjectId(treeId, "treeId");
+    return ResponseEntity.ok(treeService.getPublicLayoutById(treeObjectId));
+  }
+}
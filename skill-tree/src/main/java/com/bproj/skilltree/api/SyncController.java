@@ -0,0 +1,54 @@
+package com.bproj.skilltree.api;
+
+import com.bproj.skilltree.dto.SyncResponse;
+import com.bproj.skilltree.service.SyncService;
+import com.bproj.skilltree.util.AuthUtils;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * End point for clients that keep a copy of the User's Trees, Skills, Achievements, Activities
+ * and Orientations and only fetch what changed.
+ */
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+  private static final Logger logger = LoggerFactory.getLogger(SyncController.class);
+  private final SyncService syncService;
+  private final AuthUtils authUtils;
+
+  /**
+   * Explicit value constructor.
+   *
+   * @param syncService SyncService
+   * @param authUtils Authentication Utilities
+   */
+  public SyncController(SyncService syncService, AuthUtils authUtils) {
+    this.syncService = syncService;
+    this.authUtils = authUtils;
+  }
+
+  /**
+   * Retrieve what changed in the end user's data since an earlier sync. Without since, or with a
+   * token too old to sync from, the response only tells the client to reload its lists and where
+   * to sync from afterwards.
+   *
+   * @param auth JWT
+   * @param since The nextToken of the previous sync
+   * @return The changes, deletions and the token for the next sync
+   */
+  @GetMapping
+  public ResponseEntity<SyncResponse> sync(Authentication auth,
+      @RequestParam(required = false) String since) {
+    logger.debug("GET /api/sync - sync(since={})", since);
+    ObjectId userId = authUtils.getUserIdByAuth(auth);
+    return ResponseEntity.ok(syncService.getChanges(userId, since));
+  }
+}
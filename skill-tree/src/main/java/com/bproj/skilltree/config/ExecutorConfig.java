@@ -0,0 +1,36 @@
+package com.bproj.skilltree.config;
+
+import com.bproj.skilltree.util.MongoRoundTrips;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors shared by services that issue independent reads concurrently.
+ */
+@Configuration
+public class ExecutorConfig {
+
+  /**
+   * Pool for fanning independent repository reads out in parallel. When the pool is saturated the
+   * calling thread runs the read itself, so a fan-out never waits on a queue that can't drain.
+   * Reads are charged to the Mongo round trip count of the request that fanned them out.
+   *
+   * @param threads The number of reads that may be in flight at once
+   * @return The fan-out executor
+   */
+  @Bean("fanOutExecutor")
+  public ThreadPoolTaskExecutor fanOutExecutor(
+      @Value("${skilltree.fan-out.threads:16}") int threads) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(threads);
+    executor.setMaxPoolSize(threads);
+    executor.setQueueCapacity(0);
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.setThreadNamePrefix("fan-out-");
+    executor.setTaskDecorator(MongoRoundTrips::propagate);
+    return executor;
+  }
+}
@@ -0,0 +1,35 @@
+package com.bproj.skilltree.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Wiring for the background job workers.
+ */
+@Configuration
+@EnableScheduling
+public class JobConfig {
+
+  /**
+   * The bounded pool background Jobs run on. The pool never grows past the configured number of
+   * workers, so a burst of account deletions can't starve request threads of Mongo connections.
+   *
+   * @param workers The number of Jobs that may run at once
+   * @return The executor used by JobWorker
+   */
+  @Bean("jobExecutor")
+  public ThreadPoolTaskExecutor jobExecutor(
+      @Value("${skilltree.jobs.workers:2}") int workers) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(workers);
+    executor.setMaxPoolSize(workers);
+    executor.setQueueCapacity(workers);
+    executor.setThreadNamePrefix("job-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(30);
+    return executor;
+  }
+}
@@ -0,0 +1,49 @@
+package com.bproj.skilltree.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * Wiring for the "memory" profile, where the repositories in dao.memory replace Mongo. Nothing
+ * here is meant for production: it exists so load tests measure the service and web layers alone.
+ */
+@Configuration
+@Profile("memory")
+public class MemoryBackendConfig {
+
+  /**
+   * A transaction manager that does nothing. Each in-memory repository call is atomic on its own,
+   * and load tests don't need multi-document rollback, so @Transactional just has to resolve.
+   *
+   * @return The no-op transaction manager
+   */
+  @Bean("transactionManager")
+  public PlatformTransactionManager transactionManager() {
+    return new NoOpTransactionManager();
+  }
+
+  private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+    @Override
+    protected Object doGetTransaction() {
+      return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+    }
+  }
+}
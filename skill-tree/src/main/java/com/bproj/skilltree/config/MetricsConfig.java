@@ -0,0 +1,64 @@
+package com.bproj.skilltree.config;
+
+import com.bproj.skilltree.util.MongoRoundTrips;
+import com.bproj.skilltree.web.RequestMetricsFilter;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import io.micrometer.common.KeyValues;
+import java.util.Set;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+/**
+ * Metrics on top of what Actuator already records. Out of the box we get http.server.requests
+ * per URI, spring.data.repository.invocations per repository method, and mongodb.driver.commands
+ * per command; this adds the handling controller method as a tag on request timings and feeds
+ * the per-request Mongo round trip count.
+ */
+@Configuration
+public class MetricsConfig {
+  /**
+   * Session and transaction bookkeeping the driver sends on its own. These don't read or write
+   * documents and their number depends on driver internals, so they aren't counted.
+   */
+  private static final Set<String> UNCOUNTED_COMMANDS =
+      Set.of("commitTransaction", "abortTransaction", "endSessions");
+
+  /**
+   * Count every query and write the Mongo driver sends against the current request.
+   *
+   * @return The customizer registering the listener
+   */
+  @Bean
+  public MongoClientSettingsBuilderCustomizer mongoRoundTripCustomizer() {
+    return settings -> settings.addCommandListener(new CommandListener() {
+      @Override
+      public void commandStarted(CommandStartedEvent event) {
+        if (!UNCOUNTED_COMMANDS.contains(event.getCommandName())) {
+          MongoRoundTrips.increment();
+        }
+      }
+    });
+  }
+
+  /**
+   * Tag http.server.requests with the controller method, so timings line up with the round trip
+   * counts and with the method names used in logs.
+   *
+   * @return The request observation convention
+   */
+  @Bean
+  public ServerRequestObservationConvention handlerTaggingConvention() {
+    return new DefaultServerRequestObservationConvention() {
+      @Override
+      public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context)
+            .and("handler", RequestMetricsFilter.handlerName(context.getCarrier()));
+      }
+    };
+  }
+}
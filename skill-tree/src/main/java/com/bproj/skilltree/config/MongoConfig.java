@@ -0,0 +1,31 @@
+package com.bproj.skilltree.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Wiring for the MongoDB backend. Spring Boot doesn't configure a transaction manager for Mongo,
+ * and without one @Transactional does nothing, so multi-document writes like cascading deletes
+ * and Tree copies could be left half done. MongoDB only runs transactions on a replica set; a
+ * single node started with --replSet is enough for local development.
+ */
+@Configuration
+@Profile("!memory")
+public class MongoConfig {
+
+  /**
+   * Runs @Transactional methods in a Mongo transaction. Repository calls made on the calling
+   * thread join it; reads handed to other threads (e.g. the fan-out executor) don't.
+   *
+   * @param databaseFactory The database factory Spring Boot configured
+   * @return The transaction manager
+   */
+  @Bean("transactionManager")
+  public PlatformTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+    return new MongoTransactionManager(databaseFactory);
+  }
+}
@@ -0,0 +1,62 @@
+package com.bproj.skilltree.config;
+
+import com.bproj.skilltree.model.Achievement;
+import com.bproj.skilltree.model.Activity;
+import com.bproj.skilltree.model.ChangeLogEntry;
+import com.bproj.skilltree.model.DailyActivity;
+import com.bproj.skilltree.model.Friendship;
+import com.bproj.skilltree.model.Job;
+import com.bproj.skilltree.model.Migration;
+import com.bproj.skilltree.model.Skill;
+import com.bproj.skilltree.model.TreeTotals;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the indexes declared on the models that writes and keyset pages depend on. Spring Data only creates
+ * annotated indexes when spring.data.mongodb.auto-index-creation is on, and it is off by default,
+ * so a unique index the service layer relies on to reject duplicates would otherwise never exist.
+ * ensureIndex does nothing for an index that is already there.
+ */
+@Component
+@Profile("!memory")
+public class MongoIndexes {
+  private static final Logger logger = LoggerFactory.getLogger(MongoIndexes.class);
+  private static final List<Class<?>> INDEXED =
+      List.of(Job.class, Friendship.class, DailyActivity.class, ChangeLogEntry.class,
+          Migration.class, Skill.class, Activity.class, Achievement.class, TreeTotals.class);
+  private final MongoTemplate mongoTemplate;
+
+  @Autowired
+  public MongoIndexes(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /**
+   * Ensure every index declared on the INDEXED models. Runs before the other startup work, except
+   * migrations that make existing documents fit a unique index.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+  public void ensureIndexes() {
+    IndexResolver resolver =
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+    for (Class<?> type : INDEXED) {
+      IndexOperations indexOps = mongoTemplate.indexOps(type);
+      resolver.resolveIndexFor(type).forEach(indexOps::ensureIndex);
+      logger.info("Ensured the indexes of {}", type.getSimpleName());
+    }
+  }
+}
@@ -12,18 +12,23 @@ import org.springframework.stereotype.Repository;
  * DB operations for Achievements.
  */
 @Repository("mongoAchievementRepository")
-public interface AchievementRepository extends MongoRepository<Achievement, ObjectId> {
+public interface AchievementRepository
+    extends MongoRepository<Achievement, ObjectId>, AchievementRepositoryCustom {
   boolean existsByUserIdAndId(ObjectId userId, ObjectId id);
 
   Optional<Achievement> findByUserIdAndId(ObjectId userId, ObjectId id);
 
   List<Achievement> findByUserId(ObjectId userId);
 
+  long countByUserId(ObjectId userId);
+
   List<Achievement> findByUserIdAndPrerequisitesContaining(ObjectId userId,
       ObjectId prerequisiteId);
 
   List<Achievement> findByTreeId(ObjectId treeId);
 
+  List<Achievement> findByTreeIdIn(List<ObjectId> treeIds);
+
   List<Achievement> findByUserIdAndTreeId(ObjectId userId, ObjectId treeId);
 
   Optional<Achievement> findByUserIdAndTreeIdAndId(ObjectId userId, ObjectId treeId, ObjectId id);
@@ -45,4 +50,6 @@ public interface AchievementRepository extends MongoRepository<Achievement, Obje
   void deleteByUserIdAndTreeId(ObjectId userId, ObjectId treeId);
   
   void deleteByTreeId(ObjectId treeId);
+
+  void deleteByTreeIdIn(List<ObjectId> treeIds);
 }
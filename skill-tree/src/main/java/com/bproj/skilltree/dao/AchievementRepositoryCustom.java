@@ -0,0 +1,43 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.Achievement;
+import com.bproj.skilltree.util.Keyset;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.bson.types.ObjectId;
+
+/**
+ * Achievement DB operations that can't be expressed as derived queries.
+ */
+public interface AchievementRepositoryCustom {
+  /**
+   * Set complete=false and clear completedAt on many Achievements in a single round trip.
+   *
+   * @param achievementIds The Ids of the Achievements
+   */
+  void markIncomplete(Collection<ObjectId> achievementIds);
+
+  /**
+   * Count the completed Achievements of many Users in a single aggregation.
+   *
+   * @param userIds The Ids of the Users
+   * @param since Only count Achievements completed at or after this time, or null for all time
+   * @return Completed Achievements keyed by User Id. Users without any are missing.
+   */
+  Map<ObjectId, Integer> countCompletedByUserId(Collection<ObjectId> userIds, Instant since);
+
+  /**
+   * Find one page of a User's Achievements in the keyset's order, starting after its position.
+   *
+   * @param userId The Id of the User
+   * @param treeId (optional) Only Achievements in this Tree
+   * @param complete (optional) Only Achievements with this completion state
+   * @param keyset The sort order and the position the page starts after
+   * @param limit The most Achievements to return
+   * @return The Achievements, in sort order
+   */
+  List<Achievement> findPage(ObjectId userId, ObjectId treeId, Boolean complete, Keyset keyset,
+      int limit);
+}
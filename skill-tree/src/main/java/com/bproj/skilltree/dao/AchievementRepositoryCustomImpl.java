@@ -0,0 +1,73 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.Achievement;
+import com.bproj.skilltree.util.Keyset;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * MongoDB implementation of AchievementRepositoryCustom. Picked up by Spring Data through the
+ * 'Impl' postfix.
+ */
+public class AchievementRepositoryCustomImpl implements AchievementRepositoryCustom {
+  private final MongoOperations mongoOperations;
+
+  public AchievementRepositoryCustomImpl(MongoOperations mongoOperations) {
+    this.mongoOperations = mongoOperations;
+  }
+
+  @Override
+  public void markIncomplete(Collection<ObjectId> achievementIds) {
+    if (achievementIds.isEmpty()) {
+      return;
+    }
+    // updatedAt is bumped by hand because auditing only runs on save()
+    mongoOperations.updateMulti(new Query(Criteria.where("_id").in(achievementIds)),
+        new Update().set("complete", false).unset("completedAt").set("updatedAt", Instant.now()),
+        Achievement.class);
+  }
+
+  @Override
+  public Map<ObjectId, Integer> countCompletedByUserId(Collection<ObjectId> userIds,
+      Instant since) {
+    Criteria criteria = Criteria.where("userId").in(userIds).and("complete").is(true);
+    if (since != null) {
+      criteria = criteria.and("completedAt").gte(since);
+    }
+    Aggregation aggregation = Aggregation.newAggregation(Aggregation.match(criteria),
+        Aggregation.group("userId").count().as("completed"));
+    Map<ObjectId, Integer> completed = new HashMap<>();
+    for (Document group : mongoOperations
+        .aggregate(aggregation, Achievement.class, Document.class)) {
+      completed.put(group.getObjectId("_id"), ((Number) group.get("completed")).intValue());
+    }
+    return completed;
+  }
+
+  @Override
+  public List<Achievement> findPage(ObjectId userId, ObjectId treeId, Boolean complete,
+      Keyset keyset, int limit) {
+    Criteria criteria = Criteria.where("userId").is(userId);
+    if (treeId != null) {
+      criteria = criteria.and("treeId").is(treeId);
+    }
+    if (complete != null) {
+      criteria = criteria.and("complete").is(complete);
+    }
+    Query query = new Query(criteria).with(keyset.getSort()).limit(limit);
+    if (keyset.getAfter() != null) {
+      query.addCriteria(keyset.toCriteria());
+    }
+    return mongoOperations.find(query, Achievement.class);
+  }
+}
@@ -2,6 +2,7 @@ package com.bproj.skilltree.dao;
 
 import com.bproj.skilltree.model.Activity;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.bson.types.ObjectId;
@@ -12,7 +13,8 @@ import org.springframework.stereotype.Repository;
  * DB operations for Activities.
  */
 @Repository("mongoActivityRepository")
-public interface ActivityRepository extends MongoRepository<Activity, ObjectId> {
+public interface ActivityRepository
+    extends MongoRepository<Activity, ObjectId>, ActivityRepositoryCustom {
   boolean existsByUserIdAndId(ObjectId userId, ObjectId id);
 
   Optional<Activity> findByUserIdAndId(ObjectId userId, ObjectId id);
@@ -21,6 +23,8 @@ public interface ActivityRepository extends MongoRepository<Activity, ObjectId>
 
   List<Activity> findByUserIdAndSkillWeightsSkillId(ObjectId userId, ObjectId skillId);
 
+  boolean existsByUserIdAndSkillWeightsSkillIdIn(ObjectId userId, Collection<ObjectId> skillIds);
+
   List<Activity> findByUserIdInAndCreatedAtBetween(List<ObjectId> userIds, Instant start,
       Instant end);
 
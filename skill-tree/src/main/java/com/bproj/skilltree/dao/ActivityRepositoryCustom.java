@@ -0,0 +1,22 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.Activity;
+import com.bproj.skilltree.util.Keyset;
+import java.util.List;
+import org.bson.types.ObjectId;
+
+/**
+ * Activity DB operations that can't be expressed as derived queries.
+ */
+public interface ActivityRepositoryCustom {
+  /**
+   * Find one page of a User's Activities in the keyset's order, starting after its position.
+   *
+   * @param userId The Id of the User
+   * @param skillId (optional) Only Activities that used this Skill
+   * @param keyset The sort order and the position the page starts after
+   * @param limit The most Activities to return
+   * @return The Activities, in sort order
+   */
+  List<Activity> findPage(ObjectId userId, ObjectId skillId, Keyset keyset, int limit);
+}
@@ -0,0 +1,34 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.Activity;
+import com.bproj.skilltree.util.Keyset;
+import java.util.List;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * MongoDB implementation of ActivityRepositoryCustom. Picked up by Spring Data through the 'Impl'
+ * postfix.
+ */
+public class ActivityRepositoryCustomImpl implements ActivityRepositoryCustom {
+  private final MongoOperations mongoOperations;
+
+  public ActivityRepositoryCustomImpl(MongoOperations mongoOperations) {
+    this.mongoOperations = mongoOperations;
+  }
+
+  @Override
+  public List<Activity> findPage(ObjectId userId, ObjectId skillId, Keyset keyset, int limit) {
+    Criteria criteria = Criteria.where("userId").is(userId);
+    if (skillId != null) {
+      criteria = criteria.and("skillWeights.skillId").is(skillId);
+    }
+    Query query = new Query(criteria).with(keyset.getSort()).limit(limit);
+    if (keyset.getAfter() != null) {
+      query.addCriteria(keyset.toCriteria());
+    }
+    return mongoOperations.find(query, Activity.class);
+  }
+}
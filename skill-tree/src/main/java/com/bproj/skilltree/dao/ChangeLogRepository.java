@@ -0,0 +1,15 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.ChangeLogEntry;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * DB operations for ChangeLogEntries.
+ */
+@Repository("mongoChangeLogRepository")
+public interface ChangeLogRepository
+    extends MongoRepository<ChangeLogEntry, ObjectId>, ChangeLogRepositoryCustom {
+  void deleteByUserId(ObjectId userId);
+}
@@ -0,0 +1,29 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.ChangeLogEntry;
+import java.time.Instant;
+import java.util.List;
+import org.bson.types.ObjectId;
+
+/**
+ * ChangeLogEntry DB operations that can't be expressed as derived queries.
+ */
+public interface ChangeLogRepositoryCustom {
+  /**
+   * Find a User's entries after a sequence number, one seek on the userId and seq index.
+   *
+   * @param userId The Id of the User
+   * @param seq The sequence number the entries come after
+   * @param limit The most entries to return
+   * @return The entries, in sequence order
+   */
+  List<ChangeLogEntry> findAfter(ObjectId userId, long seq, int limit);
+
+  /**
+   * Delete every User's entries written before a cutoff, in one deleteMany.
+   *
+   * @param cutoff Entries changed before this are deleted
+   * @return The number of entries deleted
+   */
+  long deleteChangedBefore(Instant cutoff);
+}
@@ -0,0 +1,35 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.ChangeLogEntry;
+import java.time.Instant;
+import java.util.List;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * MongoDB implementation of ChangeLogRepositoryCustom. Picked up by Spring Data through the
+ * 'Impl' postfix.
+ */
+public class ChangeLogRepositoryCustomImpl implements ChangeLogRepositoryCustom {
+  private final MongoOperations mongoOperations;
+
+  public ChangeLogRepositoryCustomImpl(MongoOperations mongoOperations) {
+    this.mongoOperations = mongoOperations;
+  }
+
+  @Override
+  public List<ChangeLogEntry> findAfter(ObjectId userId, long seq, int limit) {
+    Query query = new Query(Criteria.where("userId").is(userId).and("seq").gt(seq))
+        .with(Sort.by("seq")).limit(limit);
+    return mongoOperations.find(query, ChangeLogEntry.class);
+  }
+
+  @Override
+  public long deleteChangedBefore(Instant cutoff) {
+    return mongoOperations.remove(new Query(Criteria.where("changedAt").lt(cutoff)),
+        ChangeLogEntry.class).getDeletedCount();
+  }
+}
@@ -0,0 +1,33 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.DailyActivity;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * DB operations for DailyActivities.
+ */
+@Repository("mongoDailyActivityRepository")
+public interface DailyActivityRepository
+    extends MongoRepository<DailyActivity, ObjectId>, DailyActivityRepositoryCustom {
+  List<DailyActivity> findByUserId(ObjectId userId);
+
+  List<DailyActivity> findByUserIdAndDayGreaterThanEqual(ObjectId userId, Instant start);
+
+  List<DailyActivity> findByUserIdAndDayGreaterThanEqualAndDayLessThan(ObjectId userId,
+      Instant start, Instant end);
+
+  Optional<DailyActivity> findFirstByUserIdAndDayLessThanOrderByDayDesc(ObjectId userId,
+      Instant before);
+
+  Stream<DailyActivity> findByUserIdAndDayLessThanOrderByDayDesc(ObjectId userId, Instant before);
+
+  Stream<DailyActivity> findByUserIdAndDayGreaterThanOrderByDayAsc(ObjectId userId, Instant after);
+
+  void deleteByUserId(ObjectId userId);
+}
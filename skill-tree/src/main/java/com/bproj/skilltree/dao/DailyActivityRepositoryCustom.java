@@ -0,0 +1,44 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.DailyActivity;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import org.bson.types.ObjectId;
+
+/**
+ * DailyActivity DB operations that can't be expressed as derived queries.
+ */
+public interface DailyActivityRepositoryCustom {
+  /**
+   * Add to one User's rollup for one day in a single round trip, creating it if needed. Values
+   * are added as-is, so a deleted Activity is recorded by passing negated values. A day whose
+   * count drops to zero is removed.
+   *
+   * @param userId The Id of the User
+   * @param day The start of the UTC day
+   * @param count The change in the number of Activities
+   * @param hours The change in hours logged
+   * @param skillHours The change in hours per Skill
+   * @return The rollup after the change. Its count is 0 or less if the day was removed.
+   */
+  DailyActivity increment(ObjectId userId, Instant day, int count, double hours,
+      Map<ObjectId, Double> skillHours);
+
+  /**
+   * Overwrite many rollups in a single round trip, creating the ones that don't exist. Each is
+   * matched by its userId and day, so writing the same rollups twice leaves one of each.
+   *
+   * @param rollups The rollups, as built from the Activities
+   */
+  void replaceAll(Collection<DailyActivity> rollups);
+
+  /**
+   * Add up the hours in the rollups of many Users in a single aggregation.
+   *
+   * @param userIds The Ids of the Users
+   * @param since The first day included, or null for all time
+   * @return Hours logged keyed by User Id. Users without any rollup in range are missing.
+   */
+  Map<ObjectId, Double> sumHoursByUserId(Collection<ObjectId> userIds, Instant since);
+}
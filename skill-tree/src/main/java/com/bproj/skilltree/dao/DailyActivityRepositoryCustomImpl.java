@@ -0,0 +1,75 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.DailyActivity;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * MongoDB implementation of DailyActivityRepositoryCustom. Picked up by Spring Data through the
+ * 'Impl' postfix.
+ */
+public class DailyActivityRepositoryCustomImpl implements DailyActivityRepositoryCustom {
+  private final MongoOperations mongoOperations;
+
+  public DailyActivityRepositoryCustomImpl(MongoOperations mongoOperations) {
+    this.mongoOperations = mongoOperations;
+  }
+
+  @Override
+  public DailyActivity increment(ObjectId userId, Instant day, int count, double hours,
+      Map<ObjectId, Double> skillHours) {
+    Query dayOfUser = new Query(Criteria.where("userId").is(userId).and("day").is(day));
+    Update update = new Update().inc("count", count).inc("hours", hours);
+    skillHours.forEach((skillId, h) -> update.inc("skillHours." + skillId.toHexString(), h));
+    DailyActivity updated = mongoOperations.findAndModify(dayOfUser, update,
+        FindAndModifyOptions.options().upsert(true).returnNew(true), DailyActivity.class);
+    if (updated.getCount() <= 0) {
+      mongoOperations.remove(new Query(Criteria.where("_id").is(updated.getId())),
+          DailyActivity.class);
+    }
+    return updated;
+  }
+
+  @Override
+  public void replaceAll(Collection<DailyActivity> rollups) {
+    if (rollups.isEmpty()) {
+      return;
+    }
+    BulkOperations bulk =
+        mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyActivity.class);
+    for (DailyActivity rollup : rollups) {
+      Query dayOfUser = new Query(Criteria.where("userId").is(rollup.getUserId())
+          .and("day").is(rollup.getDay()));
+      bulk.upsert(dayOfUser, new Update().set("count", rollup.getCount())
+          .set("hours", rollup.getHours()).set("skillHours", rollup.getSkillHours()));
+    }
+    bulk.execute();
+  }
+
+  @Override
+  public Map<ObjectId, Double> sumHoursByUserId(Collection<ObjectId> userIds, Instant since) {
+    Criteria criteria = Criteria.where("userId").in(userIds);
+    if (since != null) {
+      criteria = criteria.and("day").gte(since);
+    }
+    Aggregation aggregation = Aggregation.newAggregation(Aggregation.match(criteria),
+        Aggregation.group("userId").sum("hours").as("hours"));
+    Map<ObjectId, Double> hours = new HashMap<>();
+    for (Document group : mongoOperations
+        .aggregate(aggregation, DailyActivity.class, Document.class)) {
+      hours.put(group.getObjectId("_id"), ((Number) group.get("hours")).doubleValue());
+    }
+    return hours;
+  }
+}
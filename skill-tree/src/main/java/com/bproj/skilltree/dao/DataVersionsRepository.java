@@ -0,0 +1,14 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.DataVersions;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * DB operations for DataVersions. A DataVersions' Id is its User's Id.
+ */
+@Repository("mongoDataVersionsRepository")
+public interface DataVersionsRepository
+    extends MongoRepository<DataVersions, ObjectId>, DataVersionsRepositoryCustom {
+}
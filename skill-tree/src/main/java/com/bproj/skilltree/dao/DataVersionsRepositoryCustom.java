@@ -0,0 +1,29 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.VersionedCollection;
+import java.util.Collection;
+import org.bson.types.ObjectId;
+
+/**
+ * DataVersions DB operations that can't be expressed as derived queries.
+ */
+public interface DataVersionsRepositoryCustom {
+  /**
+   * Bump the given versions of many Users in a single round trip, creating the DataVersions of
+   * any User that has none.
+   *
+   * @param userIds The Ids of the Users
+   * @param collections The versions to bump, each by one
+   */
+  void increment(Collection<ObjectId> userIds, Collection<VersionedCollection> collections);
+
+  /**
+   * Reserve the next count change log sequence numbers of a User in one atomic $inc, creating the
+   * User's DataVersions if they have none.
+   *
+   * @param userId The Id of the User
+   * @param count How many numbers to reserve
+   * @return The last number reserved; the block runs from it minus count plus one
+   */
+  long reserveChangeSeqs(ObjectId userId, int count);
+}
@@ -0,0 +1,48 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.DataVersions;
+import com.bproj.skilltree.model.VersionedCollection;
+import java.util.Collection;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * MongoDB implementation of DataVersionsRepositoryCustom. Picked up by Spring Data through the
+ * 'Impl' postfix.
+ */
+public class DataVersionsRepositoryCustomImpl implements DataVersionsRepositoryCustom {
+  private final MongoOperations mongoOperations;
+
+  public DataVersionsRepositoryCustomImpl(MongoOperations mongoOperations) {
+    this.mongoOperations = mongoOperations;
+  }
+
+  @Override
+  public void increment(Collection<ObjectId> userIds,
+      Collection<VersionedCollection> collections) {
+    if (userIds.isEmpty() || collections.isEmpty()) {
+      return;
+    }
+    Update update = new Update();
+    collections.forEach(c -> update.inc("versions." + c.name(), 1));
+    BulkOperations bulk =
+        mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, DataVersions.class);
+    for (ObjectId userId : userIds) {
+      bulk.upsert(new Query(Criteria.where("_id").is(userId)), update);
+    }
+    bulk.execute();
+  }
+
+  @Override
+  public long reserveChangeSeqs(ObjectId userId, int count) {
+    DataVersions reserved = mongoOperations.findAndModify(
+        new Query(Criteria.where("_id").is(userId)), new Update().inc("changeSeq", count),
+        FindAndModifyOptions.options().upsert(true).returnNew(true), DataVersions.class);
+    return reserved.getChangeSeq();
+  }
+}
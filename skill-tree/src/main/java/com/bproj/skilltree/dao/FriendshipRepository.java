@@ -17,27 +17,24 @@ public interface FriendshipRepository extends MongoRepository<Friendship, Object
 
   List<Friendship> findByAddresseeIdAndStatus(ObjectId addresseeId, FriendRequestStatus status);
 
+  List<Friendship> findByStatus(FriendRequestStatus status);
+
   List<Friendship> findByRequesterId(ObjectId requesterId);
 
   List<Friendship> findByAddresseeId(ObjectId addresseeId);
 
-  List<Friendship> findByRequesterIdOrAddresseeIdAndStatus(ObjectId requesterId,
-      ObjectId addresseeId, FriendRequestStatus status);
-
-  Optional<Friendship> findByRequesterIdOrAddresseeIdAndId(ObjectId requesterId,
-      ObjectId addresseeId, ObjectId id);
-
   List<Friendship> findByRequesterIdOrAddresseeId(ObjectId requesterId, ObjectId addresseeId);
 
   Optional<Friendship> findByRequesterIdAndAddresseeId(ObjectId requesterId, ObjectId addresseeId);
 
+  Optional<Friendship> findByUserLowIdAndUserHighId(ObjectId userLowId, ObjectId userHighId);
+
+  List<Friendship> findByUserLowIdIsNull();
+
   boolean existsByRequesterIdAndAddresseeId(ObjectId requesterId, ObjectId addresseeId);
 
   boolean existsByRequesterIdAndAddresseeIdAndStatus(ObjectId requesterId, ObjectId addresseeId,
       FriendRequestStatus status);
 
-  void deleteByRequesterIdOrAddresseeIdAndId(ObjectId requesterId, ObjectId addresseeId,
-      ObjectId id);
-  
   void deleteByRequesterIdOrAddresseeId(ObjectId requesterId, ObjectId addresseeId);
 }
@@ -0,0 +1,21 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.Job;
+import com.bproj.skilltree.model.JobStatus;
+import com.bproj.skilltree.model.JobType;
+import java.util.List;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * DB operations for background Jobs.
+ */
+@Repository("mongoJobRepository")
+public interface JobRepository extends MongoRepository<Job, ObjectId>, JobRepositoryCustom {
+  Optional<Job> findByFirebaseIdAndId(String firebaseId, ObjectId id);
+
+  Optional<Job> findFirstByUserIdAndTypeAndStatusIn(ObjectId userId, JobType type,
+      List<JobStatus> statuses);
+}
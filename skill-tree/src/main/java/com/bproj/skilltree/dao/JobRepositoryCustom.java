@@ -0,0 +1,70 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.Job;
+import com.bproj.skilltree.model.JobStatus;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+
+/**
+ * Job DB operations that can't be expressed as derived queries.
+ */
+public interface JobRepositoryCustom {
+  /**
+   * Atomically claim the oldest runnable Job. A Job is runnable when it is QUEUED and not waiting
+   * out a retry backoff, or RUNNING with an expired lease (its worker died). The claimed Job is
+   * marked RUNNING, leased until leaseExpiresAt, and has its attempts incremented.
+   *
+   * @param now The current time
+   * @param leaseExpiresAt When the claim lapses unless the worker renews it
+   * @return The claimed Job, or empty if nothing is runnable
+   */
+  Optional<Job> claimNext(Instant now, Instant leaseExpiresAt);
+
+  /**
+   * Record a finished stage and renew the lease, if the caller still holds the Job. A worker holds
+   * a Job for the attempt it claimed: claimNext increments attempts, so once another worker has
+   * reclaimed the Job the first worker's updates match nothing.
+   *
+   * @param jobId The Id of the Job
+   * @param attempt The attempt the caller claimed
+   * @param checkpoint The number of stages now complete
+   * @param leaseExpiresAt When the renewed lease lapses
+   * @return Whether the Job was updated
+   */
+  boolean renewLease(ObjectId jobId, int attempt, int checkpoint, Instant leaseExpiresAt);
+
+  /**
+   * Record the Users a DELETE_USER Job's Friendships stage affects, if the caller still holds the
+   * Job. Stored before the stage runs, since the Friendships are gone once it has.
+   *
+   * @param jobId The Id of the Job
+   * @param attempt The attempt the caller claimed
+   * @param friendIds The Ids of the other Users in the deleted User's Friendships
+   * @return Whether the Job was updated
+   */
+  boolean recordFriendIds(ObjectId jobId, int attempt, List<ObjectId> friendIds);
+
+  /**
+   * Record how an attempt ended and release the lease, if the caller still holds the Job.
+   *
+   * @param jobId The Id of the Job
+   * @param attempt The attempt the caller claimed
+   * @param status The Job's new status
+   * @param error Why the attempt failed, or null
+   * @param retryAt The earliest a re-queued Job may be claimed again, or null
+   * @return Whether the Job was updated
+   */
+  boolean finish(ObjectId jobId, int attempt, JobStatus status, String error, Instant retryAt);
+
+  /**
+   * Put a Job the caller claimed but never started back in the queue, if the caller still holds
+   * it. The claim's attempt is handed back, so it doesn't count toward the Job's attempts.
+   *
+   * @param jobId The Id of the Job
+   * @param attempt The attempt the caller claimed
+   * @return Whether the Job was updated
+   */
+  boolean release(ObjectId jobId, int attempt);
+}
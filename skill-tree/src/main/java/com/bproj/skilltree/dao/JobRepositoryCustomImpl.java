@@ -0,0 +1,76 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.Job;
+import com.bproj.skilltree.model.JobStatus;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * MongoDB implementation of JobRepositoryCustom. Picked up by Spring Data through the 'Impl'
+ * postfix.
+ */
+public class JobRepositoryCustomImpl implements JobRepositoryCustom {
+  private final MongoOperations mongoOperations;
+
+  public JobRepositoryCustomImpl(MongoOperations mongoOperations) {
+    this.mongoOperations = mongoOperations;
+  }
+
+  @Override
+  public Optional<Job> claimNext(Instant now, Instant leaseExpiresAt) {
+    Query query = new Query(new Criteria().orOperator(
+        Criteria.where("status").is(JobStatus.QUEUED).orOperator(
+            Criteria.where("retryAt").is(null), Criteria.where("retryAt").lte(now)),
+        Criteria.where("status").is(JobStatus.RUNNING).and("leaseExpiresAt").lt(now)))
+        .with(Sort.by("createdAt").ascending());
+    Update update = new Update().set("status", JobStatus.RUNNING)
+        .set("leaseExpiresAt", leaseExpiresAt).set("updatedAt", now).inc("attempts", 1);
+    return Optional.ofNullable(mongoOperations.findAndModify(query, update,
+        FindAndModifyOptions.options().returnNew(true), Job.class));
+  }
+
+  @Override
+  public boolean renewLease(ObjectId jobId, int attempt, int checkpoint, Instant leaseExpiresAt) {
+    Update update = new Update().set("checkpoint", checkpoint)
+        .set("leaseExpiresAt", leaseExpiresAt).set("updatedAt", Instant.now());
+    return mongoOperations.updateFirst(held(jobId, attempt), update, Job.class)
+        .getMatchedCount() > 0;
+  }
+
+  @Override
+  public boolean recordFriendIds(ObjectId jobId, int attempt, List<ObjectId> friendIds) {
+    Update update = new Update().set("friendIds", friendIds).set("updatedAt", Instant.now());
+    return mongoOperations.updateFirst(held(jobId, attempt), update, Job.class)
+        .getMatchedCount() > 0;
+  }
+
+  @Override
+  public boolean finish(ObjectId jobId, int attempt, JobStatus status, String error,
+      Instant retryAt) {
+    Update update = new Update().set("status", status).set("error", error)
+        .set("leaseExpiresAt", null).set("retryAt", retryAt).set("updatedAt", Instant.now());
+    return mongoOperations.updateFirst(held(jobId, attempt), update, Job.class)
+        .getMatchedCount() > 0;
+  }
+
+  @Override
+  public boolean release(ObjectId jobId, int attempt) {
+    Update update = new Update().set("status", JobStatus.QUEUED).set("leaseExpiresAt", null)
+        .inc("attempts", -1).set("updatedAt", Instant.now());
+    return mongoOperations.updateFirst(held(jobId, attempt), update, Job.class)
+        .getMatchedCount() > 0;
+  }
+
+  private static Query held(ObjectId jobId, int attempt) {
+    return new Query(Criteria.where("_id").is(jobId).and("attempts").is(attempt)
+        .and("status").is(JobStatus.RUNNING));
+  }
+}
@@ -0,0 +1,15 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.Migration;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * DB operations for Migrations.
+ */
+@Repository("mongoMigrationRepository")
+public interface MigrationRepository
+    extends MongoRepository<Migration, ObjectId>, MigrationRepositoryCustom {
+  boolean existsByNameAndCompletedAtNotNull(String name);
+}
@@ -0,0 +1,26 @@
+package com.bproj.skilltree.dao;
+
+import java.time.Instant;
+
+/**
+ * Migration DB operations that can't be expressed as derived queries.
+ */
+public interface MigrationRepositoryCustom {
+  /**
+   * Atomically claim a migration, creating its marker if it has none. A migration can be claimed
+   * when it hasn't completed and nobody holds an unexpired claim on it.
+   *
+   * @param name Identifies the migration
+   * @param now The current time
+   * @param lockedUntil When the claim lapses unless the migration completes first
+   * @return Whether the caller now holds the migration
+   */
+  boolean claim(String name, Instant now, Instant lockedUntil);
+
+  /**
+   * Mark a migration complete, so it is never claimed again.
+   *
+   * @param name Identifies the migration
+   */
+  void complete(String name);
+}
@@ -0,0 +1,42 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.Migration;
+import java.time.Instant;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * MongoDB implementation of MigrationRepositoryCustom. Picked up by Spring Data through the
+ * 'Impl' postfix.
+ */
+public class MigrationRepositoryCustomImpl implements MigrationRepositoryCustom {
+  private final MongoOperations mongoOperations;
+
+  public MigrationRepositoryCustomImpl(MongoOperations mongoOperations) {
+    this.mongoOperations = mongoOperations;
+  }
+
+  @Override
+  public boolean claim(String name, Instant now, Instant lockedUntil) {
+    Query claimable = new Query(Criteria.where("name").is(name).and("completedAt").is(null)
+        .orOperator(Criteria.where("lockedUntil").is(null),
+            Criteria.where("lockedUntil").lt(now)));
+    try {
+      return mongoOperations.findAndModify(claimable, new Update().set("lockedUntil", lockedUntil),
+          FindAndModifyOptions.options().upsert(true).returnNew(true), Migration.class) != null;
+    } catch (DuplicateKeyException e) {
+      // The marker exists but is completed or held, so the upsert tried to insert a second one.
+      return false;
+    }
+  }
+
+  @Override
+  public void complete(String name) {
+    mongoOperations.updateFirst(new Query(Criteria.where("name").is(name)),
+        new Update().set("completedAt", Instant.now()).set("lockedUntil", null), Migration.class);
+  }
+}
@@ -14,6 +14,8 @@ import org.springframework.stereotype.Repository;
 public interface OrientationRepository extends MongoRepository<Orientation, ObjectId> {
   Optional<Orientation> findByTreeId(ObjectId treeId);
 
+  List<Orientation> findByTreeIdIn(List<ObjectId> treeIds);
+
   Optional<Orientation> findByUserIdAndTreeId(ObjectId userId, ObjectId treeId);
 
   Optional<Orientation> findByUserIdAndId(ObjectId userId, ObjectId id);
@@ -23,4 +25,6 @@ public interface OrientationRepository extends MongoRepository<Orientation, Obje
   void deleteByUserId(ObjectId userId);
   
   void deleteByTreeId(ObjectId treeId);
+
+  void deleteByTreeIdIn(List<ObjectId> treeIds);
 }
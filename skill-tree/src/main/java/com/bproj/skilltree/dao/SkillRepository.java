@@ -11,7 +11,7 @@ import org.springframework.stereotype.Repository;
  * DB operations for skills.
  */
 @Repository("mongoSkillRepository")
-public interface SkillRepository extends MongoRepository<Skill, ObjectId> {
+public interface SkillRepository extends MongoRepository<Skill, ObjectId>, SkillRepositoryCustom {
   boolean existsByUserIdAndId(ObjectId userId, ObjectId id);
   
   Optional<Skill> findByUserIdAndId(ObjectId userId, ObjectId id);
@@ -19,6 +19,8 @@ public interface SkillRepository extends MongoRepository<Skill, ObjectId> {
   List<Skill> findByIdIn(List<ObjectId> ids);
 
   List<Skill> findByUserId(ObjectId userId);
+
+  long countByUserId(ObjectId userId);
   
   List<Skill> findByParentSkillId(ObjectId parentSkillId);
 
@@ -27,6 +29,8 @@ public interface SkillRepository extends MongoRepository<Skill, ObjectId> {
   List<Skill> findByUserIdAndParentSkillIdIsNull(ObjectId userId);
   
   List<Skill> findByTreeId(ObjectId treeId);
+
+  List<Skill> findByTreeIdIn(List<ObjectId> treeIds);
   
   List<Skill> findByTreeIdAndParentSkillIdIsNull(ObjectId treeId);
   
@@ -43,4 +47,6 @@ public interface SkillRepository extends MongoRepository<Skill, ObjectId> {
   void deleteByUserId(ObjectId userId);
   
   void deleteByTreeId(ObjectId treeId);
+
+  void deleteByTreeIdIn(List<ObjectId> treeIds);
 }
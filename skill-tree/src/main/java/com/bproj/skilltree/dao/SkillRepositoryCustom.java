@@ -0,0 +1,40 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.Skill;
+import com.bproj.skilltree.util.Keyset;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.bson.types.ObjectId;
+
+/**
+ * Skill DB operations that can't be expressed as derived queries.
+ */
+public interface SkillRepositoryCustom {
+  /**
+   * Add hours to many Skills in a single round trip. Hours are added as-is, so callers are
+   * responsible for propagating them to parent Skills beforehand. The same update moves the
+   * lastUsedAt of the used Skills forward to usedAt, never back.
+   *
+   * @param hoursBySkillId The hours to be added, keyed by Skill Id
+   * @param usedSkillIds The Skills an Activity logged time on, a subset of the keys of
+   *     hoursBySkillId
+   * @param usedAt When the Activity logged it, or null if usedSkillIds is empty
+   */
+  void incrementHours(Map<ObjectId, Double> hoursBySkillId, Set<ObjectId> usedSkillIds,
+      Instant usedAt);
+
+  /**
+   * Find one page of a User's Skills in the keyset's order, starting after its position.
+   *
+   * @param userId The Id of the User
+   * @param parentSkillId (optional) Only Skills directly under this Skill
+   * @param root (optional) Only root Skills if true, only sub Skills if false
+   * @param keyset The sort order and the position the page starts after
+   * @param limit The most Skills to return
+   * @return The Skills, in sort order
+   */
+  List<Skill> findPage(ObjectId userId, ObjectId parentSkillId, Boolean root, Keyset keyset,
+      int limit);
+}
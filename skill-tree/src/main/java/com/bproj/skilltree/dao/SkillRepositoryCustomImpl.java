@@ -0,0 +1,63 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.Skill;
+import com.bproj.skilltree.util.Keyset;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * MongoDB implementation of SkillRepositoryCustom. Picked up by Spring Data through the 'Impl'
+ * postfix.
+ */
+public class SkillRepositoryCustomImpl implements SkillRepositoryCustom {
+  private final MongoOperations mongoOperations;
+
+  public SkillRepositoryCustomImpl(MongoOperations mongoOperations) {
+    this.mongoOperations = mongoOperations;
+  }
+
+  @Override
+  public void incrementHours(Map<ObjectId, Double> hoursBySkillId, Set<ObjectId> usedSkillIds,
+      Instant usedAt) {
+    if (hoursBySkillId.isEmpty()) {
+      return;
+    }
+    // updatedAt is bumped by hand because auditing only runs on save()
+    Instant now = Instant.now();
+    BulkOperations bulk = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, Skill.class);
+    hoursBySkillId.forEach((skillId, hours) -> {
+      Update update = new Update().inc("timeSpentHours", hours).set("updatedAt", now);
+      if (usedSkillIds.contains(skillId)) {
+        update.max("lastUsedAt", usedAt);
+      }
+      bulk.updateOne(new Query(Criteria.where("_id").is(skillId)), update);
+    });
+    bulk.execute();
+  }
+
+  @Override
+  public List<Skill> findPage(ObjectId userId, ObjectId parentSkillId, Boolean root,
+      Keyset keyset, int limit) {
+    Criteria criteria = Criteria.where("userId").is(userId);
+    if (parentSkillId != null) {
+      criteria = criteria.and("parentSkillId").is(parentSkillId);
+    } else if (Boolean.TRUE.equals(root)) {
+      criteria = criteria.and("parentSkillId").is(null);
+    } else if (Boolean.FALSE.equals(root)) {
+      criteria = criteria.and("parentSkillId").ne(null);
+    }
+    Query query = new Query(criteria).with(keyset.getSort()).limit(limit);
+    if (keyset.getAfter() != null) {
+      query.addCriteria(keyset.toCriteria());
+    }
+    return mongoOperations.find(query, Skill.class);
+  }
+}
@@ -0,0 +1,13 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.StreakState;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * DB operations for StreakStates. A StreakState's Id is its User's Id.
+ */
+@Repository("mongoStreakStateRepository")
+public interface StreakStateRepository extends MongoRepository<StreakState, ObjectId> {
+}
@@ -34,6 +34,8 @@ public interface TreeRepository extends MongoRepository<Tree, ObjectId> {
 
   Page<Tree> findByUserIdIsNull(Pageable pageable);
 
+  List<Tree> findByVisibility(Visibility visibility);
+
   Page<Tree> findByVisibility(Visibility visibility, Pageable pageable);
   
   void deleteByUserId(ObjectId userId);
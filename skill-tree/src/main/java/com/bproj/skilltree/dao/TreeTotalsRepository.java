@@ -0,0 +1,18 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.TreeTotals;
+import java.util.List;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * DB operations for TreeTotals. A TreeTotals' Id is its copied Tree's Id.
+ */
+@Repository("mongoTreeTotalsRepository")
+public interface TreeTotalsRepository
+    extends MongoRepository<TreeTotals, ObjectId>, TreeTotalsRepositoryCustom {
+  List<TreeTotals> findByUserId(ObjectId userId);
+
+  void deleteByUserId(ObjectId userId);
+}
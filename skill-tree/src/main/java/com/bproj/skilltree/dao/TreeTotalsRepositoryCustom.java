@@ -0,0 +1,30 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.TreeTotals;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+
+/**
+ * TreeTotals DB operations that can't be expressed as derived queries.
+ */
+public interface TreeTotalsRepositoryCustom {
+  /**
+   * Add to a copied Tree's totals in a single round trip. Nothing is created if the Tree has no
+   * TreeTotals.
+   *
+   * @param treeId The Id of the copied Tree
+   * @param hours The change in hours logged
+   * @param achievements The change in completed Achievements
+   * @return The totals after the change, if the Tree has any
+   */
+  Optional<TreeTotals> increment(ObjectId treeId, double hours, int achievements);
+
+  /**
+   * Zero the completed Achievements of a User's copied Trees after their Achievements were deleted
+   * in bulk.
+   *
+   * @param userId The Id of the User
+   * @param treeId The Id of the one copied Tree to clear, or null for all of the User's
+   */
+  void clearAchievementsCompleted(ObjectId userId, ObjectId treeId);
+}
@@ -0,0 +1,40 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.TreeTotals;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * MongoDB implementation of TreeTotalsRepositoryCustom. Picked up by Spring Data through the
+ * 'Impl' postfix.
+ */
+public class TreeTotalsRepositoryCustomImpl implements TreeTotalsRepositoryCustom {
+  private final MongoOperations mongoOperations;
+
+  public TreeTotalsRepositoryCustomImpl(MongoOperations mongoOperations) {
+    this.mongoOperations = mongoOperations;
+  }
+
+  @Override
+  public Optional<TreeTotals> increment(ObjectId treeId, double hours, int achievements) {
+    return Optional.ofNullable(mongoOperations.findAndModify(
+        new Query(Criteria.where("_id").is(treeId)),
+        new Update().inc("hoursLogged", hours).inc("achievementsCompleted", achievements),
+        FindAndModifyOptions.options().returnNew(true), TreeTotals.class));
+  }
+
+  @Override
+  public void clearAchievementsCompleted(ObjectId userId, ObjectId treeId) {
+    Criteria criteria = Criteria.where("userId").is(userId);
+    if (treeId != null) {
+      criteria.and("_id").is(treeId);
+    }
+    mongoOperations.updateMulti(new Query(criteria), new Update().set("achievementsCompleted", 0),
+        TreeTotals.class);
+  }
+}
@@ -0,0 +1,18 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.UserTotals;
+import java.util.Collection;
+import java.util.List;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * DB operations for UserTotals. A UserTotals' Id is its User's Id.
+ */
+@Repository("mongoUserTotalsRepository")
+public interface UserTotalsRepository
+    extends MongoRepository<UserTotals, ObjectId>, UserTotalsRepositoryCustom {
+  List<UserTotals> findByUserIdIn(Collection<ObjectId> userIds, Sort sort);
+}
@@ -0,0 +1,21 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.UserTotals;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+
+/**
+ * UserTotals DB operations that can't be expressed as derived queries.
+ */
+public interface UserTotalsRepositoryCustom {
+  /**
+   * Add to a User's totals in a single round trip. Nothing is created when the User has no
+   * UserTotals yet; it will be built with the change already counted the first time it is read.
+   *
+   * @param userId The Id of the User
+   * @param hours The change in hours logged
+   * @param achievements The change in completed Achievements
+   * @return The totals after the change, if the User has any
+   */
+  Optional<UserTotals> increment(ObjectId userId, double hours, int achievements);
+}
@@ -0,0 +1,30 @@
+package com.bproj.skilltree.dao;
+
+import com.bproj.skilltree.model.UserTotals;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * MongoDB implementation of UserTotalsRepositoryCustom. Picked up by Spring Data through the
+ * 'Impl' postfix.
+ */
+public class UserTotalsRepositoryCustomImpl implements UserTotalsRepositoryCustom {
+  private final MongoOperations mongoOperations;
+
+  public UserTotalsRepositoryCustomImpl(MongoOperations mongoOperations) {
+    this.mongoOperations = mongoOperations;
+  }
+
+  @Override
+  public Optional<UserTotals> increment(ObjectId userId, double hours, int achievements) {
+    return Optional.ofNullable(mongoOperations.findAndModify(
+        new Query(Criteria.where("_id").is(userId)),
+        new Update().inc("hoursLogged", hours).inc("achievementsCompleted", achievements),
+        FindAndModifyOptions.options().returnNew(true), UserTotals.class));
+  }
+}
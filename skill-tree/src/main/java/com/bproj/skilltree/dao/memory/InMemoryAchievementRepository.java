@@ -0,0 +1,186 @@
+package com.bproj.skilltree.dao.memory;
+
+import com.bproj.skilltree.dao.AchievementRepository;
+import com.bproj.skilltree.model.Achievement;
+import com.bproj.skilltree.util.Keyset;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * In-memory stand-in for the Achievements collection.
+ */
+@Profile("memory")
+@Repository("mongoAchievementRepository")
+public class InMemoryAchievementRepository extends InMemoryRepository<Achievement>
+    implements AchievementRepository {
+
+  /**
+   * Create an empty InMemoryAchievementRepository and register the indexes its queries use.
+   */
+  public InMemoryAchievementRepository() {
+    index("userId", Achievement::getUserId);
+    index("treeId", Achievement::getTreeId);
+    index("title", Achievement::getTitle);
+    multiIndex("prerequisites", Achievement::getPrerequisites);
+  }
+
+  @Override
+  protected ObjectId idOf(Achievement document) {
+    return document.getId();
+  }
+
+  @Override
+  protected void assignId(Achievement document, ObjectId id) {
+    document.setId(id);
+  }
+
+  @Override
+  protected Achievement copy(Achievement document) {
+    return new Achievement(document);
+  }
+
+  @Override
+  protected void audit(Achievement document, Instant now, boolean isNew) {
+    if (isNew) {
+      document.setCreatedAt(now);
+    }
+    document.setUpdatedAt(now);
+  }
+
+  @Override
+  public boolean existsByUserIdAndId(ObjectId userId, ObjectId id) {
+    return findByIdWhere(id, a -> Objects.equals(a.getUserId(), userId)).isPresent();
+  }
+
+  @Override
+  public Optional<Achievement> findByUserIdAndId(ObjectId userId, ObjectId id) {
+    return findByIdWhere(id, a -> Objects.equals(a.getUserId(), userId));
+  }
+
+  @Override
+  public List<Achievement> findByUserId(ObjectId userId) {
+    return findWhere("userId", userId);
+  }
+
+  @Override
+  public long countByUserId(ObjectId userId) {
+    return countWhere("userId", userId);
+  }
+
+  @Override
+  public List<Achievement> findByUserIdAndPrerequisitesContaining(ObjectId userId,
+      ObjectId prerequisiteId) {
+    return findWhere("prerequisites", prerequisiteId,
+        a -> Objects.equals(a.getUserId(), userId));
+  }
+
+  @Override
+  public List<Achievement> findByTreeId(ObjectId treeId) {
+    return findWhere("treeId", treeId);
+  }
+
+  @Override
+  public List<Achievement> findByTreeIdIn(List<ObjectId> treeIds) {
+    return findWhereIn("treeId", treeIds, a -> true);
+  }
+
+  @Override
+  public List<Achievement> findByUserIdAndTreeId(ObjectId userId, ObjectId treeId) {
+    return findWhere("treeId", treeId, a -> Objects.equals(a.getUserId(), userId));
+  }
+
+  @Override
+  public Optional<Achievement> findByUserIdAndTreeIdAndId(ObjectId userId, ObjectId treeId,
+      ObjectId id) {
+    return findByIdWhere(id, a -> Objects.equals(a.getUserId(), userId)
+        && Objects.equals(a.getTreeId(), treeId));
+  }
+
+  @Override
+  public List<Achievement> findByUserIdAndComplete(ObjectId userId, boolean complete) {
+    return findWhere("userId", userId, a -> a.isComplete() == complete);
+  }
+
+  @Override
+  public List<Achievement> findByUserIdAndTreeIdAndComplete(ObjectId userId, ObjectId treeId,
+      boolean complete) {
+    return findWhere("treeId", treeId,
+        a -> Objects.equals(a.getUserId(), userId) && a.isComplete() == complete);
+  }
+
+  @Override
+  public List<Achievement> findByTitle(String title) {
+    return findWhere("title", title);
+  }
+
+  @Override
+  public List<Achievement> findByUserIdAndTitle(ObjectId userId, String title) {
+    return findWhere("title", title, a -> Objects.equals(a.getUserId(), userId));
+  }
+
+  @Override
+  public List<Achievement> findByUserIdInAndCompletedAtBetween(List<ObjectId> userIds,
+      Instant start, Instant end) {
+    return findWhereIn("userId", userIds, a -> between(a.getCompletedAt(), start, end));
+  }
+
+  @Override
+  public void deleteByUserId(ObjectId userId) {
+    deleteWhere("userId", userId, a -> true);
+  }
+
+  @Override
+  public void deleteByUserIdAndTreeId(ObjectId userId, ObjectId treeId) {
+    deleteWhere("treeId", treeId, a -> Objects.equals(a.getUserId(), userId));
+  }
+
+  @Override
+  public void deleteByTreeId(ObjectId treeId) {
+    deleteWhere("treeId", treeId, a -> true);
+  }
+
+  @Override
+  public void deleteByTreeIdIn(List<ObjectId> treeIds) {
+    deleteWhereIn("treeId", treeIds, a -> true);
+  }
+
+  @Override
+  public void markIncomplete(Collection<ObjectId> achievementIds) {
+    if (achievementIds.isEmpty()) {
+      return;
+    }
+    Instant now = Instant.now();
+    updateWhereIds(achievementIds, a -> {
+      a.setComplete(false);
+      a.setCompletedAt(null);
+      a.setUpdatedAt(now);
+    });
+  }
+
+  @Override
+  public Map<ObjectId, Integer> countCompletedByUserId(Collection<ObjectId> userIds,
+      Instant since) {
+    Map<ObjectId, Integer> completed = new HashMap<>();
+    findWhereIn("userId", userIds, a -> a.isComplete()
+        && (since == null || (a.getCompletedAt() != null && !a.getCompletedAt().isBefore(since))))
+        .forEach(a -> completed.merge(a.getUserId(), 1, Integer::sum));
+    return completed;
+  }
+
+  @Override
+  public List<Achievement> findPage(ObjectId userId, ObjectId treeId, Boolean complete,
+      Keyset keyset, int limit) {
+    List<Achievement> achievements = findWhere("userId", userId,
+        a -> (treeId == null || treeId.equals(a.getTreeId()))
+            && (complete == null || complete == a.isComplete()));
+    return pageAfter(achievements, keyset, limit);
+  }
+}
@@ -0,0 +1,112 @@
+package com.bproj.skilltree.dao.memory;
+
+import com.bproj.skilltree.dao.ActivityRepository;
+import com.bproj.skilltree.model.Activity;
+import com.bproj.skilltree.model.SkillWeight;
+import com.bproj.skilltree.util.Keyset;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * In-memory stand-in for the Activities collection.
+ */
+@Profile("memory")
+@Repository("mongoActivityRepository")
+public class InMemoryActivityRepository extends InMemoryRepository<Activity>
+    implements ActivityRepository {
+
+  /**
+   * Create an empty InMemoryActivityRepository and register the indexes its queries use.
+   */
+  public InMemoryActivityRepository() {
+    index("userId", Activity::getUserId);
+    multiIndex("skillWeights.skillId",
+        a -> a.getSkillWeights().stream().map(SkillWeight::getSkillId).toList());
+  }
+
+  @Override
+  protected ObjectId idOf(Activity document) {
+    return document.getId();
+  }
+
+  @Override
+  protected void assignId(Activity document, ObjectId id) {
+    document.setId(id);
+  }
+
+  @Override
+  protected Activity copy(Activity document) {
+    return new Activity(document);
+  }
+
+  @Override
+  protected void audit(Activity document, Instant now, boolean isNew) {
+    if (isNew) {
+      document.setCreatedAt(now);
+    }
+    document.setUpdatedAt(now);
+  }
+
+  @Override
+  public boolean existsByUserIdAndId(ObjectId userId, ObjectId id) {
+    return findByIdWhere(id, a -> Objects.equals(a.getUserId(), userId)).isPresent();
+  }
+
+  @Override
+  public Optional<Activity> findByUserIdAndId(ObjectId userId, ObjectId id) {
+    return findByIdWhere(id, a -> Objects.equals(a.getUserId(), userId));
+  }
+
+  @Override
+  public List<Activity> findByUserId(ObjectId userId) {
+    return findWhere("userId", userId);
+  }
+
+  @Override
+  public List<Activity> findByUserIdAndSkillWeightsSkillId(ObjectId userId, ObjectId skillId) {
+    return findWhere("skillWeights.skillId", skillId,
+        a -> Objects.equals(a.getUserId(), userId));
+  }
+
+  @Override
+  public boolean existsByUserIdAndSkillWeightsSkillIdIn(ObjectId userId,
+      Collection<ObjectId> skillIds) {
+    return !findWhereIn("skillWeights.skillId", skillIds,
+        a -> Objects.equals(a.getUserId(), userId)).isEmpty();
+  }
+
+  @Override
+  public List<Activity> findByUserIdInAndCreatedAtBetween(List<ObjectId> userIds, Instant start,
+      Instant end) {
+    return findWhereIn("userId", userIds, a -> between(a.getCreatedAt(), start, end));
+  }
+
+  @Override
+  public void deleteByUserId(ObjectId userId) {
+    deleteWhere("userId", userId, a -> true);
+  }
+
+  @Override
+  public void deleteByUserIdAndId(ObjectId userId, ObjectId id) {
+    deleteWhere("userId", userId, a -> a.getId().equals(id));
+  }
+
+  @Override
+  public List<Activity> findByUserIdAndCreatedAtBetween(ObjectId userId, Instant start,
+      Instant end) {
+    return findWhere("userId", userId, a -> between(a.getCreatedAt(), start, end));
+  }
+
+  @Override
+  public List<Activity> findPage(ObjectId userId, ObjectId skillId, Keyset keyset, int limit) {
+    List<Activity> activities = skillId == null ? findByUserId(userId)
+        : findByUserIdAndSkillWeightsSkillId(userId, skillId);
+    return pageAfter(activities, keyset, limit);
+  }
+}
@@ -0,0 +1,65 @@
+package com.bproj.skilltree.dao.memory;
+
+import com.bproj.skilltree.dao.ChangeLogRepository;
+import com.bproj.skilltree.model.ChangeLogEntry;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * In-memory stand-in for the ChangeLog collection.
+ */
+@Profile("memory")
+@Repository("mongoChangeLogRepository")
+public class InMemoryChangeLogRepository extends InMemoryRepository<ChangeLogEntry>
+    implements ChangeLogRepository {
+
+  /**
+   * Create an empty InMemoryChangeLogRepository and register the indexes its queries use.
+   */
+  public InMemoryChangeLogRepository() {
+    index("userId", ChangeLogEntry::getUserId);
+  }
+
+  @Override
+  protected ObjectId idOf(ChangeLogEntry document) {
+    return document.getId();
+  }
+
+  @Override
+  protected void assignId(ChangeLogEntry document, ObjectId id) {
+    document.setId(id);
+  }
+
+  @Override
+  protected ChangeLogEntry copy(ChangeLogEntry document) {
+    return new ChangeLogEntry(document);
+  }
+
+  @Override
+  protected void audit(ChangeLogEntry document, Instant now, boolean isNew) {}
+
+  @Override
+  public void deleteByUserId(ObjectId userId) {
+    deleteWhere("userId", userId, e -> true);
+  }
+
+  @Override
+  public List<ChangeLogEntry> findAfter(ObjectId userId, long seq, int limit) {
+    return findWhere("userId", userId, e -> e.getSeq() > seq).stream()
+        .sorted(Comparator.comparingLong(ChangeLogEntry::getSeq)).limit(limit).toList();
+  }
+
+  @Override
+  public long deleteChangedBefore(Instant cutoff) {
+    return write(() -> {
+      List<ObjectId> expired = findAll().stream()
+          .filter(e -> e.getChangedAt().isBefore(cutoff)).map(ChangeLogEntry::getId).toList();
+      deleteAllById(expired);
+      return (long) expired.size();
+    });
+  }
+}
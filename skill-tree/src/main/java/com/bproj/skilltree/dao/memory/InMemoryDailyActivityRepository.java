@@ -0,0 +1,124 @@
+package com.bproj.skilltree.dao.memory;
+
+import com.bproj.skilltree.dao.DailyActivityRepository;
+import com.bproj.skilltree.model.DailyActivity;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * In-memory stand-in for the DailyActivities collection.
+ */
+@Profile("memory")
+@Repository("mongoDailyActivityRepository")
+public class InMemoryDailyActivityRepository extends InMemoryRepository<DailyActivity>
+    implements DailyActivityRepository {
+
+  /**
+   * Create an empty InMemoryDailyActivityRepository and register the indexes its queries use.
+   */
+  public InMemoryDailyActivityRepository() {
+    index("userId", DailyActivity::getUserId);
+    index("userId_day", d -> key(d.getUserId(), d.getDay()));
+  }
+
+  @Override
+  protected ObjectId idOf(DailyActivity document) {
+    return document.getId();
+  }
+
+  @Override
+  protected void assignId(DailyActivity document, ObjectId id) {
+    document.setId(id);
+  }
+
+  @Override
+  protected DailyActivity copy(DailyActivity document) {
+    return new DailyActivity(document);
+  }
+
+  @Override
+  protected void audit(DailyActivity document, Instant now, boolean isNew) {}
+
+  @Override
+  public DailyActivity increment(ObjectId userId, Instant day, int count, double hours,
+      Map<ObjectId, Double> skillHours) {
+    return upsertWhere("userId_day", key(userId, day), () -> new DailyActivity(userId, day), d -> {
+      d.setCount(d.getCount() + count);
+      d.setHours(d.getHours() + hours);
+      skillHours.forEach((skillId, h) -> d.getSkillHours().merge(skillId.toHexString(), h,
+          Double::sum));
+    }, d -> d.getCount() > 0);
+  }
+
+  @Override
+  public void replaceAll(Collection<DailyActivity> rollups) {
+    write(() -> {
+      rollups.forEach(r -> upsertWhere("userId_day", key(r.getUserId(), r.getDay()),
+          () -> new DailyActivity(r.getUserId(), r.getDay()), d -> {
+            d.setCount(r.getCount());
+            d.setHours(r.getHours());
+            d.setSkillHours(new HashMap<>(r.getSkillHours()));
+          }, d -> true));
+      return null;
+    });
+  }
+
+  @Override
+  public Map<ObjectId, Double> sumHoursByUserId(Collection<ObjectId> userIds, Instant since) {
+    Map<ObjectId, Double> hours = new HashMap<>();
+    findWhereIn("userId", userIds, d -> since == null || !d.getDay().isBefore(since))
+        .forEach(d -> hours.merge(d.getUserId(), d.getHours(), Double::sum));
+    return hours;
+  }
+
+  @Override
+  public List<DailyActivity> findByUserId(ObjectId userId) {
+    return findWhere("userId", userId);
+  }
+
+  @Override
+  public List<DailyActivity> findByUserIdAndDayGreaterThanEqual(ObjectId userId, Instant start) {
+    return findWhere("userId", userId, d -> !d.getDay().isBefore(start));
+  }
+
+  @Override
+  public List<DailyActivity> findByUserIdAndDayGreaterThanEqualAndDayLessThan(ObjectId userId,
+      Instant start, Instant end) {
+    return findWhere("userId", userId,
+        d -> !d.getDay().isBefore(start) && d.getDay().isBefore(end));
+  }
+
+  @Override
+  public Optional<DailyActivity> findFirstByUserIdAndDayLessThanOrderByDayDesc(ObjectId userId,
+      Instant before) {
+    return findByUserIdAndDayLessThanOrderByDayDesc(userId, before).findFirst();
+  }
+
+  @Override
+  public Stream<DailyActivity> findByUserIdAndDayLessThanOrderByDayDesc(ObjectId userId,
+      Instant before) {
+    return findWhere("userId", userId, d -> d.getDay().isBefore(before)).stream()
+        .sorted(Comparator.comparing(DailyActivity::getDay).reversed());
+  }
+
+  @Override
+  public Stream<DailyActivity> findByUserIdAndDayGreaterThanOrderByDayAsc(ObjectId userId,
+      Instant after) {
+    return findWhere("userId", userId, d -> d.getDay().isAfter(after)).stream()
+        .sorted(Comparator.comparing(DailyActivity::getDay));
+  }
+
+  @Override
+  public void deleteByUserId(ObjectId userId) {
+    deleteWhere("userId", userId, d -> true);
+  }
+}
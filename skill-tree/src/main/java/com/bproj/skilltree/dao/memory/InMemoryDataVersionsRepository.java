@@ -0,0 +1,64 @@
+package com.bproj.skilltree.dao.memory;
+
+import com.bproj.skilltree.dao.DataVersionsRepository;
+import com.bproj.skilltree.model.DataVersions;
+import com.bproj.skilltree.model.VersionedCollection;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * In-memory stand-in for the DataVersions collection.
+ */
+@Profile("memory")
+@Repository("mongoDataVersionsRepository")
+public class InMemoryDataVersionsRepository extends InMemoryRepository<DataVersions>
+    implements DataVersionsRepository {
+
+  @Override
+  protected ObjectId idOf(DataVersions document) {
+    return document.getUserId();
+  }
+
+  @Override
+  protected void assignId(DataVersions document, ObjectId id) {
+    document.setUserId(id);
+  }
+
+  @Override
+  protected DataVersions copy(DataVersions document) {
+    return new DataVersions(document);
+  }
+
+  @Override
+  protected void audit(DataVersions document, Instant now, boolean isNew) {}
+
+  @Override
+  public void increment(Collection<ObjectId> userIds,
+      Collection<VersionedCollection> collections) {
+    write(() -> {
+      for (ObjectId userId : userIds) {
+        if (!existsById(userId)) {
+          insert(new DataVersions(userId));
+        }
+      }
+      updateWhereIds(userIds, d -> collections.forEach(
+          c -> d.getVersions().merge(c.name(), 1L, Long::sum)));
+      return null;
+    });
+  }
+
+  @Override
+  public long reserveChangeSeqs(ObjectId userId, int count) {
+    return write(() -> {
+      if (!existsById(userId)) {
+        insert(new DataVersions(userId));
+      }
+      updateWhereIds(List.of(userId), d -> d.setChangeSeq(d.getChangeSeq() + count));
+      return findById(userId).orElseThrow().getChangeSeq();
+    });
+  }
+}
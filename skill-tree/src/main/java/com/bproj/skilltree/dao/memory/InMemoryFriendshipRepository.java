@@ -0,0 +1,126 @@
+package com.bproj.skilltree.dao.memory;
+
+import com.bproj.skilltree.dao.FriendshipRepository;
+import com.bproj.skilltree.model.FriendRequestStatus;
+import com.bproj.skilltree.model.Friendship;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * In-memory stand-in for the Friendships collection. The (userLowId, userHighId) index is unique,
+ * as it is in Mongo, so a second request between the same two Users fails the same way.
+ */
+@Profile("memory")
+@Repository("mongoFriendshipRepository")
+public class InMemoryFriendshipRepository extends InMemoryRepository<Friendship>
+    implements FriendshipRepository {
+
+  /**
+   * Create an empty InMemoryFriendshipRepository and register the indexes its queries use.
+   */
+  public InMemoryFriendshipRepository() {
+    index("requesterId", Friendship::getRequesterId);
+    index("addresseeId", Friendship::getAddresseeId);
+    index("status", Friendship::getStatus);
+    index("requesterId_addresseeId", f -> key(f.getRequesterId(), f.getAddresseeId()));
+    uniqueIndex("user_pair", f -> key(f.getUserLowId(), f.getUserHighId()));
+  }
+
+  @Override
+  protected ObjectId idOf(Friendship document) {
+    return document.getId();
+  }
+
+  @Override
+  protected void assignId(Friendship document, ObjectId id) {
+    document.setId(id);
+  }
+
+  @Override
+  protected Friendship copy(Friendship document) {
+    return new Friendship(document);
+  }
+
+  @Override
+  protected void audit(Friendship document, Instant now, boolean isNew) {
+    if (isNew) {
+      document.setCreatedAt(now);
+    }
+    document.setUpdatedAt(now);
+  }
+
+  @Override
+  public List<Friendship> findByRequesterIdAndStatus(ObjectId requesterId,
+      FriendRequestStatus status) {
+    return findWhere("requesterId", requesterId, f -> f.getStatus() == status);
+  }
+
+  @Override
+  public List<Friendship> findByAddresseeIdAndStatus(ObjectId addresseeId,
+      FriendRequestStatus status) {
+    return findWhere("addresseeId", addresseeId, f -> f.getStatus() == status);
+  }
+
+  @Override
+  public List<Friendship> findByStatus(FriendRequestStatus status) {
+    return findWhere("status", status);
+  }
+
+  @Override
+  public List<Friendship> findByRequesterId(ObjectId requesterId) {
+    return findWhere("requesterId", requesterId);
+  }
+
+  @Override
+  public List<Friendship> findByAddresseeId(ObjectId addresseeId) {
+    return findWhere("addresseeId", addresseeId);
+  }
+
+  @Override
+  public List<Friendship> findByRequesterIdOrAddresseeId(ObjectId requesterId,
+      ObjectId addresseeId) {
+    return union(findWhere("requesterId", requesterId), findWhere("addresseeId", addresseeId));
+  }
+
+  @Override
+  public Optional<Friendship> findByRequesterIdAndAddresseeId(ObjectId requesterId,
+      ObjectId addresseeId) {
+    return findOneWhere("requesterId_addresseeId", key(requesterId, addresseeId), f -> true);
+  }
+
+  @Override
+  public Optional<Friendship> findByUserLowIdAndUserHighId(ObjectId userLowId,
+      ObjectId userHighId) {
+    return findOneWhere("user_pair", key(userLowId, userHighId), f -> true);
+  }
+
+  @Override
+  public List<Friendship> findByUserLowIdIsNull() {
+    return findWhere("user_pair", key(null, null));
+  }
+
+  @Override
+  public boolean existsByRequesterIdAndAddresseeId(ObjectId requesterId, ObjectId addresseeId) {
+    return existsWhere("requesterId_addresseeId", key(requesterId, addresseeId), f -> true);
+  }
+
+  @Override
+  public boolean existsByRequesterIdAndAddresseeIdAndStatus(ObjectId requesterId,
+      ObjectId addresseeId, FriendRequestStatus status) {
+    return existsWhere("requesterId_addresseeId", key(requesterId, addresseeId),
+        f -> f.getStatus() == status);
+  }
+
+  @Override
+  public void deleteByRequesterIdOrAddresseeId(ObjectId requesterId, ObjectId addresseeId) {
+    write(() -> {
+      deleteWhere("requesterId", requesterId, f -> true);
+      deleteWhere("addresseeId", addresseeId, f -> true);
+      return null;
+    });
+  }
+}
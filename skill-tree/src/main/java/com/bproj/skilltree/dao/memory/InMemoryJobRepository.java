@@ -0,0 +1,127 @@
+package com.bproj.skilltree.dao.memory;
+
+import com.bproj.skilltree.dao.JobRepository;
+import com.bproj.skilltree.model.Job;
+import com.bproj.skilltree.model.JobStatus;
+import com.bproj.skilltree.model.JobType;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * In-memory stand-in for the Jobs collection, including the lease-based claim used by workers.
+ */
+@Profile("memory")
+@Repository("mongoJobRepository")
+public class InMemoryJobRepository extends InMemoryRepository<Job> implements JobRepository {
+
+  /**
+   * Create an empty InMemoryJobRepository and register the indexes its queries use.
+   */
+  public InMemoryJobRepository() {
+    index("firebaseId", Job::getFirebaseId);
+    index("userId_type", j -> key(j.getUserId(), j.getType()));
+    partialUniqueIndex("pending_delete_user",
+        j -> j.getType() == JobType.DELETE_USER && (j.getStatus() == JobStatus.QUEUED
+            || j.getStatus() == JobStatus.RUNNING),
+        j -> key(j.getUserId(), j.getType()));
+  }
+
+  @Override
+  protected ObjectId idOf(Job document) {
+    return document.getId();
+  }
+
+  @Override
+  protected void assignId(Job document, ObjectId id) {
+    document.setId(id);
+  }
+
+  @Override
+  protected Job copy(Job document) {
+    return new Job(document);
+  }
+
+  @Override
+  protected void audit(Job document, Instant now, boolean isNew) {
+    if (isNew) {
+      document.setCreatedAt(now);
+    }
+    document.setUpdatedAt(now);
+  }
+
+  @Override
+  public Optional<Job> findByFirebaseIdAndId(String firebaseId, ObjectId id) {
+    return findByIdWhere(id, j -> Objects.equals(j.getFirebaseId(), firebaseId));
+  }
+
+  @Override
+  public Optional<Job> findFirstByUserIdAndTypeAndStatusIn(ObjectId userId, JobType type,
+      List<JobStatus> statuses) {
+    return findWhere("userId_type", key(userId, type), j -> statuses.contains(j.getStatus()))
+        .stream().findFirst();
+  }
+
+  @Override
+  public Optional<Job> claimNext(Instant now, Instant leaseExpiresAt) {
+    return findAndModify(
+        j -> (j.getStatus() == JobStatus.QUEUED
+            && (j.getRetryAt() == null || !j.getRetryAt().isAfter(now)))
+            || (j.getStatus() == JobStatus.RUNNING && j.getLeaseExpiresAt() != null
+            && j.getLeaseExpiresAt().isBefore(now)),
+        Comparator.comparing(Job::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder())),
+        j -> {
+          j.setStatus(JobStatus.RUNNING);
+          j.setLeaseExpiresAt(leaseExpiresAt);
+          j.setAttempts(j.getAttempts() + 1);
+          j.setUpdatedAt(now);
+        });
+  }
+
+  @Override
+  public boolean renewLease(ObjectId jobId, int attempt, int checkpoint, Instant leaseExpiresAt) {
+    return updateHeld(jobId, attempt, j -> {
+      j.setCheckpoint(checkpoint);
+      j.setLeaseExpiresAt(leaseExpiresAt);
+    });
+  }
+
+  @Override
+  public boolean recordFriendIds(ObjectId jobId, int attempt, List<ObjectId> friendIds) {
+    return updateHeld(jobId, attempt, j -> j.setFriendIds(List.copyOf(friendIds)));
+  }
+
+  @Override
+  public boolean finish(ObjectId jobId, int attempt, JobStatus status, String error,
+      Instant retryAt) {
+    return updateHeld(jobId, attempt, j -> {
+      j.setStatus(status);
+      j.setError(error);
+      j.setLeaseExpiresAt(null);
+      j.setRetryAt(retryAt);
+    });
+  }
+
+  @Override
+  public boolean release(ObjectId jobId, int attempt) {
+    return updateHeld(jobId, attempt, j -> {
+      j.setStatus(JobStatus.QUEUED);
+      j.setLeaseExpiresAt(null);
+      j.setAttempts(j.getAttempts() - 1);
+    });
+  }
+
+  private boolean updateHeld(ObjectId jobId, int attempt, Consumer<Job> mutation) {
+    return findAndModify(
+        j -> j.getId().equals(jobId) && j.getAttempts() == attempt
+            && j.getStatus() == JobStatus.RUNNING,
+        Comparator.comparing(Job::getId),
+        mutation.andThen(j -> j.setUpdatedAt(Instant.now()))).isPresent();
+  }
+}
@@ -0,0 +1,73 @@
+package com.bproj.skilltree.dao.memory;
+
+import com.bproj.skilltree.dao.MigrationRepository;
+import com.bproj.skilltree.model.Migration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * In-memory stand-in for the Migrations collection.
+ */
+@Profile("memory")
+@Repository("mongoMigrationRepository")
+public class InMemoryMigrationRepository extends InMemoryRepository<Migration>
+    implements MigrationRepository {
+
+  /**
+   * Create an empty InMemoryMigrationRepository and register the indexes its queries use.
+   */
+  public InMemoryMigrationRepository() {
+    uniqueIndex("name", Migration::getName);
+  }
+
+  @Override
+  protected ObjectId idOf(Migration document) {
+    return document.getId();
+  }
+
+  @Override
+  protected void assignId(Migration document, ObjectId id) {
+    document.setId(id);
+  }
+
+  @Override
+  protected Migration copy(Migration document) {
+    return new Migration(document);
+  }
+
+  @Override
+  protected void audit(Migration document, Instant now, boolean isNew) {}
+
+  @Override
+  public boolean existsByNameAndCompletedAtNotNull(String name) {
+    return existsWhere("name", name, m -> m.getCompletedAt() != null);
+  }
+
+  @Override
+  public boolean claim(String name, Instant now, Instant lockedUntil) {
+    return write(() -> {
+      Optional<Migration> marker = findOneWhere("name", name, m -> true);
+      if (marker.isEmpty()) {
+        insert(new Migration(name, lockedUntil));
+        return true;
+      }
+      return findAndModify(
+          m -> m.getName().equals(name) && m.getCompletedAt() == null
+              && (m.getLockedUntil() == null || m.getLockedUntil().isBefore(now)),
+          Comparator.comparing(Migration::getId),
+          m -> m.setLockedUntil(lockedUntil)).isPresent();
+    });
+  }
+
+  @Override
+  public void complete(String name) {
+    findAndModify(m -> m.getName().equals(name), Comparator.comparing(Migration::getId), m -> {
+      m.setCompletedAt(Instant.now());
+      m.setLockedUntil(null);
+    });
+  }
+}
@@ -0,0 +1,91 @@
+package com.bproj.skilltree.dao.memory;
+
+import com.bproj.skilltree.dao.OrientationRepository;
+import com.bproj.skilltree.model.Orientation;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * In-memory stand-in for the Orientations collection.
+ */
+@Profile("memory")
+@Repository("mongoOrientationRepository")
+public class InMemoryOrientationRepository extends InMemoryRepository<Orientation>
+    implements OrientationRepository {
+
+  /**
+   * Create an empty InMemoryOrientationRepository and register the indexes its queries use.
+   */
+  public InMemoryOrientationRepository() {
+    index("userId", Orientation::getUserId);
+    index("treeId", Orientation::getTreeId);
+  }
+
+  @Override
+  protected ObjectId idOf(Orientation document) {
+    return document.getId();
+  }
+
+  @Override
+  protected void assignId(Orientation document, ObjectId id) {
+    document.setId(id);
+  }
+
+  @Override
+  protected Orientation copy(Orientation document) {
+    return new Orientation(document);
+  }
+
+  @Override
+  protected void audit(Orientation document, Instant now, boolean isNew) {
+    if (isNew) {
+      document.setCreatedAt(now);
+    }
+    document.setUpdatedAt(now);
+  }
+
+  @Override
+  public Optional<Orientation> findByTreeId(ObjectId treeId) {
+    return findOneWhere("treeId", treeId, o -> true);
+  }
+
+  @Override
+  public List<Orientation> findByTreeIdIn(List<ObjectId> treeIds) {
+    return findWhereIn("treeId", treeIds, o -> true);
+  }
+
+  @Override
+  public Optional<Orientation> findByUserIdAndTreeId(ObjectId userId, ObjectId treeId) {
+    return findOneWhere("treeId", treeId, o -> Objects.equals(o.getUserId(), userId));
+  }
+
+  @Override
+  public Optional<Orientation> findByUserIdAndId(ObjectId userId, ObjectId id) {
+    return findByIdWhere(id, o -> Objects.equals(o.getUserId(), userId));
+  }
+
+  @Override
+  public List<Orientation> findByUserId(ObjectId userId) {
+    return findWhere("userId", userId);
+  }
+
+  @Override
+  public void deleteByUserId(ObjectId userId) {
+    deleteWhere("userId", userId, o -> true);
+  }
+
+  @Override
+  public void deleteByTreeId(ObjectId treeId) {
+    deleteWhere("treeId", treeId, o -> true);
+  }
+
+  @Override
+  public void deleteByTreeIdIn(List<ObjectId> treeIds) {
+    deleteWhereIn("treeId", treeIds, o -> true);
+  }
+}
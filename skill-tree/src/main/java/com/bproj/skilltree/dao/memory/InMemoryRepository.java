@@ -0,0 +1,655 @@
+package com.bproj.skilltree.dao.memory;
+
+import com.bproj.skilltree.util.Keyset;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery.FetchableFluentQuery;
+
+/**
+ * A MongoRepository backed by a HashMap, for running the service layer without Mongo. Each derived
+ * query in a subclass is served by a secondary hash index (see {@link #index}) instead of a scan.
+ * Documents are copied on the way in and out, so callers can mutate what they get back exactly as
+ * they can with Mongo without corrupting the store.
+ *
+ * <p>Reads share a lock and writes are exclusive. Auditing fields are filled in the same way
+ * Spring Data's auditing does: createdAt only for documents saved without an Id, updatedAt on
+ * every save.
+ *
+ * @param <T> The document type
+ */
+public abstract class InMemoryRepository<T> implements MongoRepository<T, ObjectId> {
+  private final Map<ObjectId, T> documents = new HashMap<>();
+  private final Map<String, HashIndex<T>> indexes = new HashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  protected abstract ObjectId idOf(T document);
+
+  protected abstract void assignId(T document, ObjectId id);
+
+  protected abstract T copy(T document);
+
+  /**
+   * Fill in auditing fields before a document is stored.
+   *
+   * @param document The document being stored
+   * @param now The time of the write
+   * @param isNew Whether the document was saved without an Id
+   */
+  protected abstract void audit(T document, Instant now, boolean isNew);
+
+  /**
+   * Register a secondary index. Call from the subclass constructor only.
+   *
+   * @param name The name queries use to refer to the index
+   * @param key Extracts the index key from a document. Compound indexes return
+   *     {@link #key(Object...)}.
+   */
+  protected final void index(String name, Function<T, Object> key) {
+    indexes.put(name, new HashIndex<>(d -> Collections.singletonList(key.apply(d)), false));
+  }
+
+  /**
+   * Register a secondary index that, like a unique Mongo index, fails a save or insert that would
+   * give two documents the same key. Call from the subclass constructor only.
+   *
+   * @param name The name queries use to refer to the index
+   * @param key Extracts the index key from a document
+   */
+  protected final void uniqueIndex(String name, Function<T, Object> key) {
+    indexes.put(name, new HashIndex<>(d -> Collections.singletonList(key.apply(d)), true));
+  }
+
+  /**
+   * Register a unique index over only the documents matching a filter, like a unique Mongo index
+   * with a partialFilterExpression. Call from the subclass constructor only.
+   *
+   * @param name The name queries use to refer to the index
+   * @param filter Which documents the index covers
+   * @param key Extracts the index key from a document
+   */
+  protected final void partialUniqueIndex(String name, Predicate<T> filter,
+      Function<T, Object> key) {
+    indexes.put(name, new HashIndex<>(
+        d -> filter.test(d) ? Collections.singletonList(key.apply(d)) : List.of(), true));
+  }
+
+  /**
+   * Register a secondary index over a multi-valued (array) field. A document is found by any of
+   * its values, like a Mongo multikey index.
+   *
+   * @param name The name queries use to refer to the index
+   * @param keys Extracts the index keys from a document
+   */
+  protected final void multiIndex(String name, Function<T, Collection<?>> keys) {
+    indexes.put(name, new HashIndex<>(keys, false));
+  }
+
+  /**
+   * Build a compound index key. Null parts are allowed and match documents where the field is
+   * null, the same as a Mongo equality match on null.
+   *
+   * @param parts The field values, in index order
+   * @return A key usable in {@link #index} and the lookup methods
+   */
+  protected static Object key(Object... parts) {
+    return Arrays.asList(parts);
+  }
+
+  // Index-backed queries for subclasses
+
+  protected final List<T> findWhere(String index, Object key) {
+    return findWhere(index, key, d -> true);
+  }
+
+  protected final List<T> findWhere(String index, Object key, Predicate<T> filter) {
+    return findWhereIn(index, Collections.singletonList(key), filter);
+  }
+
+  protected final List<T> findWhereIn(String index, Collection<?> keys, Predicate<T> filter) {
+    return read(() -> matching(index, keys, filter).stream().map(this::copy).toList());
+  }
+
+  /**
+   * Find the single document matching a query. Like a derived query returning Optional, more than
+   * one match is an error rather than an arbitrary pick.
+   *
+   * @param index The index to look the key up in
+   * @param key The key to look up
+   * @param filter Further conditions on the matched documents
+   * @return The matching document, if any
+   */
+  protected final Optional<T> findOneWhere(String index, Object key, Predicate<T> filter) {
+    return single(findWhere(index, key, filter));
+  }
+
+  protected final Optional<T> findByIdWhere(ObjectId id, Predicate<T> filter) {
+    return read(() -> Optional.ofNullable(documents.get(id)).filter(filter).map(this::copy));
+  }
+
+  /**
+   * Combine the results of the two sides of an Or query, dropping documents matched by both.
+   *
+   * @param first Documents matching the left side
+   * @param second Documents matching the right side
+   * @return The distinct union, left side first
+   */
+  protected final List<T> union(List<T> first, List<T> second) {
+    Map<ObjectId, T> distinct = new LinkedHashMap<>();
+    first.forEach(d -> distinct.putIfAbsent(idOf(d), d));
+    second.forEach(d -> distinct.putIfAbsent(idOf(d), d));
+    return new ArrayList<>(distinct.values());
+  }
+
+  protected final Optional<T> single(List<T> matches) {
+    if (matches.size() > 1) {
+      throw new IncorrectResultSizeDataAccessException(1, matches.size());
+    }
+    return matches.stream().findFirst();
+  }
+
+  /**
+   * Mongo's derived Between: exclusive at both ends.
+   *
+   * @param value The value being tested
+   * @param start The lower bound
+   * @param end The upper bound
+   * @return Whether value is strictly between start and end
+   */
+  protected static boolean between(Instant value, Instant start, Instant end) {
+    return value != null && value.isAfter(start) && value.isBefore(end);
+  }
+
+  protected final boolean existsWhere(String index, Object key, Predicate<T> filter) {
+    return read(() -> !matching(index, Collections.singletonList(key), filter).isEmpty());
+  }
+
+  protected final long countWhere(String index, Object key) {
+    return read(() -> (long) matching(index, Collections.singletonList(key), d -> true).size());
+  }
+
+  protected final Page<T> pageWhere(String index, Object key, Pageable pageable) {
+    return page(findWhere(index, key), pageable);
+  }
+
+  protected final void deleteWhere(String index, Object key, Predicate<T> filter) {
+    deleteWhereIn(index, Collections.singletonList(key), filter);
+  }
+
+  protected final void deleteWhereIn(String index, Collection<?> keys, Predicate<T> filter) {
+    write(() -> {
+      matching(index, keys, filter).forEach(d -> remove(idOf(d)));
+      return null;
+    });
+  }
+
+  /**
+   * Apply an in-place update to stored documents, like a Mongo update operator. The mutation sees
+   * the stored instance, so it must not let it escape.
+   *
+   * @param ids The Ids of the documents to update. Missing Ids are skipped.
+   * @param mutation The change to apply
+   */
+  protected final void updateWhereIds(Collection<ObjectId> ids, Consumer<T> mutation) {
+    write(() -> {
+      for (ObjectId id : ids) {
+        T stored = documents.get(id);
+        if (stored != null) {
+          removeFromIndexes(stored);
+          mutation.accept(stored);
+          addToIndexes(stored);
+        }
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Apply an in-place update to the single document with the given index key, inserting the
+   * document built by create first if there is none, atomically. The in-memory counterpart of an
+   * update with upsert. A document the mutation leaves failing keep is removed.
+   *
+   * @param index The index to look the key up in (should be unique)
+   * @param key The key to look up
+   * @param create Builds the document to insert when nothing matches
+   * @param mutation The change to apply
+   * @param keep Whether the updated document stays stored
+   * @return A copy of the document after the mutation, stored or not
+   */
+  protected final T upsertWhere(String index, Object key, Supplier<T> create,
+      Consumer<T> mutation, Predicate<T> keep) {
+    return write(() -> {
+      T stored = matching(index, Collections.singletonList(key), d -> true).stream().findFirst()
+          .orElse(null);
+      if (stored == null) {
+        stored = create.get();
+        assignId(stored, new ObjectId());
+        documents.put(idOf(stored), stored);
+      } else {
+        removeFromIndexes(stored);
+      }
+      mutation.accept(stored);
+      if (keep.test(stored)) {
+        addToIndexes(stored);
+      } else {
+        documents.remove(idOf(stored));
+      }
+      return copy(stored);
+    });
+  }
+
+  /**
+   * Find the first stored document matching filter in the given order and update it in place,
+   * atomically. The in-memory counterpart of findAndModify with returnNew.
+   *
+   * @param filter Which documents qualify
+   * @param order Which qualifying document wins
+   * @param mutation The change to apply
+   * @return A copy of the updated document, if one matched
+   */
+  protected final Optional<T> findAndModify(Predicate<T> filter, Comparator<T> order,
+      Consumer<T> mutation) {
+    return write(() -> {
+      Optional<T> match = documents.values().stream().filter(filter).min(order);
+      match.ifPresent(stored -> {
+        removeFromIndexes(stored);
+        mutation.accept(stored);
+        addToIndexes(stored);
+      });
+      return match.map(this::copy);
+    });
+  }
+
+  protected final <R> R read(Supplier<R> query) {
+    lock.readLock().lock();
+    try {
+      return query.get();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  protected final <R> R write(Supplier<R> command) {
+    lock.writeLock().lock();
+    try {
+      return command.get();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // CrudRepository / MongoRepository
+
+  @Override
+  public <S extends T> S save(S entity) {
+    return write(() -> store(entity, false));
+  }
+
+  @Override
+  public <S extends T> List<S> saveAll(Iterable<S> entities) {
+    return write(() -> {
+      List<S> saved = new ArrayList<>();
+      entities.forEach(e -> saved.add(store(e, false)));
+      return saved;
+    });
+  }
+
+  @Override
+  public <S extends T> S insert(S entity) {
+    return write(() -> store(entity, true));
+  }
+
+  @Override
+  public <S extends T> List<S> insert(Iterable<S> entities) {
+    return write(() -> {
+      List<S> toInsert = new ArrayList<>();
+      entities.forEach(toInsert::add);
+      // insertMany is all-or-nothing on a duplicate Id within the batch here, which is stricter
+      // than Mongo's ordered insert but never looser.
+      for (S entity : toInsert) {
+        if (idOf(entity) != null && documents.containsKey(idOf(entity))) {
+          throw duplicate(idOf(entity));
+        }
+      }
+      List<S> inserted = new ArrayList<>();
+      toInsert.forEach(e -> inserted.add(store(e, true)));
+      return inserted;
+    });
+  }
+
+  @Override
+  public Optional<T> findById(ObjectId id) {
+    return read(() -> Optional.ofNullable(documents.get(id)).map(this::copy));
+  }
+
+  @Override
+  public boolean existsById(ObjectId id) {
+    return read(() -> documents.containsKey(id));
+  }
+
+  @Override
+  public List<T> findAll() {
+    return read(() -> documents.values().stream().map(this::copy).toList());
+  }
+
+  @Override
+  public List<T> findAllById(Iterable<ObjectId> ids) {
+    return read(() -> {
+      List<T> found = new ArrayList<>();
+      for (ObjectId id : ids) {
+        T document = documents.get(id);
+        if (document != null) {
+          found.add(copy(document));
+        }
+      }
+      return found;
+    });
+  }
+
+  @Override
+  public long count() {
+    return read(() -> (long) documents.size());
+  }
+
+  @Override
+  public void deleteById(ObjectId id) {
+    write(() -> remove(id));
+  }
+
+  @Override
+  public void delete(T entity) {
+    deleteById(idOf(entity));
+  }
+
+  @Override
+  public void deleteAllById(Iterable<? extends ObjectId> ids) {
+    write(() -> {
+      ids.forEach(this::remove);
+      return null;
+    });
+  }
+
+  @Override
+  public void deleteAll(Iterable<? extends T> entities) {
+    write(() -> {
+      entities.forEach(e -> remove(idOf(e)));
+      return null;
+    });
+  }
+
+  @Override
+  public void deleteAll() {
+    write(() -> {
+      documents.clear();
+      indexes.values().forEach(HashIndex::clear);
+      return null;
+    });
+  }
+
+  @Override
+  public List<T> findAll(Sort sort) {
+    return sorted(findAll(), sort);
+  }
+
+  @Override
+  public Page<T> findAll(Pageable pageable) {
+    return page(findAll(), pageable);
+  }
+
+  // Query by Example is not used anywhere in the services.
+
+  @Override
+  public <S extends T> Optional<S> findOne(Example<S> example) {
+    throw new UnsupportedOperationException("Query by Example is not supported in memory.");
+  }
+
+  @Override
+  public <S extends T> List<S> findAll(Example<S> example) {
+    throw new UnsupportedOperationException("Query by Example is not supported in memory.");
+  }
+
+  @Override
+  public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+    throw new UnsupportedOperationException("Query by Example is not supported in memory.");
+  }
+
+  @Override
+  public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+    throw new UnsupportedOperationException("Query by Example is not supported in memory.");
+  }
+
+  @Override
+  public <S extends T> long count(Example<S> example) {
+    throw new UnsupportedOperationException("Query by Example is not supported in memory.");
+  }
+
+  @Override
+  public <S extends T> boolean exists(Example<S> example) {
+    throw new UnsupportedOperationException("Query by Example is not supported in memory.");
+  }
+
+  @Override
+  public <S extends T, R> R findBy(Example<S> example,
+      Function<FetchableFluentQuery<S>, R> queryFunction) {
+    throw new UnsupportedOperationException("Query by Example is not supported in memory.");
+  }
+
+  // Sorting and paging
+
+  /**
+   * Sort documents by the properties in sort. Nulls sort first in ascending order, as in Mongo.
+   *
+   * @param documents The documents to sort
+   * @param sort The sort order
+   * @return A sorted copy of the list
+   */
+  protected final List<T> sorted(List<T> documents, Sort sort) {
+    if (sort.isUnsorted()) {
+      return documents;
+    }
+    Comparator<T> comparator = null;
+    for (Sort.Order order : sort) {
+      String property = order.getProperty();
+      Comparator<T> next =
+          (a, b) -> compareValues(propertyOf(a, property), propertyOf(b, property));
+      if (order.isDescending()) {
+        next = next.reversed();
+      }
+      comparator = comparator == null ? next : comparator.thenComparing(next);
+    }
+    List<T> sorted = new ArrayList<>(documents);
+    sorted.sort(comparator);
+    return sorted;
+  }
+
+  protected final Page<T> page(List<T> documents, Pageable pageable) {
+    if (pageable.isUnpaged()) {
+      return new PageImpl<>(sorted(documents, pageable.getSort()));
+    }
+    List<T> sorted = sorted(documents, pageable.getSort());
+    int start = (int) Math.min(pageable.getOffset(), sorted.size());
+    int end = Math.min(start + pageable.getPageSize(), sorted.size());
+    return new PageImpl<>(sorted.subList(start, end), pageable, sorted.size());
+  }
+
+  /**
+   * Sort documents and return the first limit of them after a keyset position, like a Mongo query
+   * with the keyset's criteria, sort and limit.
+   *
+   * @param documents The documents matching the rest of the query
+   * @param keyset The sort order and the position the page starts after
+   * @param limit The most documents to return
+   * @return The page, in sort order
+   */
+  protected final List<T> pageAfter(List<T> documents, Keyset keyset, int limit) {
+    List<Object> after = keyset.getAfter();
+    return sorted(documents, keyset.getSort()).stream()
+        .filter(d -> after == null || compareToPosition(d, keyset.getSort(), after) > 0)
+        .limit(limit).toList();
+  }
+
+  private static int compareToPosition(Object document, Sort sort, List<Object> after) {
+    int i = 0;
+    for (Sort.Order order : sort) {
+      int compared = compareValues(propertyOf(document, order.getProperty()), after.get(i++));
+      if (compared != 0) {
+        return order.isAscending() ? compared : -compared;
+      }
+    }
+    return 0;
+  }
+
+  private static Object propertyOf(Object document, String property) {
+    String name = "_id".equals(property) ? "id" : property;
+    return new BeanWrapperImpl(document).getPropertyValue(name);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static int compareValues(Object a, Object b) {
+    if (a == b) {
+      return 0;
+    }
+    if (a == null) {
+      return -1;
+    }
+    if (b == null) {
+      return 1;
+    }
+    return ((Comparable) a).compareTo(b);
+  }
+
+  // Internals. Callers must hold the appropriate lock.
+
+  private Set<T> matching(String index, Collection<?> keys, Predicate<T> filter) {
+    HashIndex<T> hashIndex = indexes.get(index);
+    if (hashIndex == null) {
+      throw new IllegalArgumentException("No in-memory index named " + index);
+    }
+    Set<T> matches = new LinkedHashSet<>();
+    for (Object key : keys) {
+      for (ObjectId id : hashIndex.get(key)) {
+        T document = documents.get(id);
+        if (filter.test(document)) {
+          matches.add(document);
+        }
+      }
+    }
+    return matches;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <S extends T> S store(S entity, boolean insert) {
+    boolean isNew = idOf(entity) == null;
+    if (isNew) {
+      assignId(entity, new ObjectId());
+    } else if (insert && documents.containsKey(idOf(entity))) {
+      throw duplicate(idOf(entity));
+    }
+    audit(entity, Instant.now(), isNew);
+    T stored = copy(entity);
+    indexes.forEach((name, index) -> index.checkUnique(name, stored, idOf(stored)));
+    T previous = documents.put(idOf(stored), stored);
+    if (previous != null) {
+      removeFromIndexes(previous);
+    }
+    addToIndexes(stored);
+    return entity;
+  }
+
+  private Void remove(ObjectId id) {
+    T previous = documents.remove(id);
+    if (previous != null) {
+      removeFromIndexes(previous);
+    }
+    return null;
+  }
+
+  private void addToIndexes(T document) {
+    indexes.values().forEach(i -> i.add(document, idOf(document)));
+  }
+
+  private void removeFromIndexes(T document) {
+    indexes.values().forEach(i -> i.remove(document, idOf(document)));
+  }
+
+  private static DuplicateKeyException duplicate(ObjectId id) {
+    return new DuplicateKeyException("E11000 duplicate key error: _id " + id);
+  }
+
+  /**
+   * A hash index from key to the Ids of the documents carrying it.
+   */
+  private static final class HashIndex<T> {
+    private final Function<T, Collection<?>> keys;
+    private final boolean unique;
+    private final Map<Object, Set<ObjectId>> entries = new HashMap<>();
+
+    private HashIndex(Function<T, Collection<?>> keys, boolean unique) {
+      this.keys = keys;
+      this.unique = unique;
+    }
+
+    private void checkUnique(String name, T document, ObjectId id) {
+      if (!unique) {
+        return;
+      }
+      for (Object key : keys.apply(document)) {
+        if (get(key).stream().anyMatch(other -> !other.equals(id))) {
+          throw new DuplicateKeyException("E11000 duplicate key error: index " + name
+              + " dup key " + key);
+        }
+      }
+    }
+
+    private Set<ObjectId> get(Object key) {
+      return entries.getOrDefault(key, Set.of());
+    }
+
+    private void add(T document, ObjectId id) {
+      keys.apply(document)
+          .forEach(k -> entries.computeIfAbsent(k, x -> new LinkedHashSet<>()).add(id));
+    }
+
+    private void remove(T document, ObjectId id) {
+      keys.apply(document).forEach(k -> {
+        Set<ObjectId> ids = entries.get(k);
+        if (ids != null) {
+          ids.remove(id);
+          if (ids.isEmpty()) {
+            entries.remove(k);
+          }
+        }
+      });
+    }
+
+    private void clear() {
+      entries.clear();
+    }
+  }
+}
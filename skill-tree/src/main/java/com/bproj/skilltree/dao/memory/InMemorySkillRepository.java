@@ -0,0 +1,184 @@
+package com.bproj.skilltree.dao.memory;
+
+import com.bproj.skilltree.dao.SkillRepository;
+import com.bproj.skilltree.model.Skill;
+import com.bproj.skilltree.util.Keyset;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * In-memory stand-in for the Skills collection.
+ */
+@Profile("memory")
+@Repository("mongoSkillRepository")
+public class InMemorySkillRepository extends InMemoryRepository<Skill> implements SkillRepository {
+
+  /**
+   * Create an empty InMemorySkillRepository and register the indexes its queries use.
+   */
+  public InMemorySkillRepository() {
+    index("userId", Skill::getUserId);
+    index("treeId", Skill::getTreeId);
+    index("parentSkillId", Skill::getParentSkillId);
+    index("userId_parentSkillId", s -> key(s.getUserId(), s.getParentSkillId()));
+    index("name", Skill::getName);
+  }
+
+  @Override
+  protected ObjectId idOf(Skill document) {
+    return document.getId();
+  }
+
+  @Override
+  protected void assignId(Skill document, ObjectId id) {
+    document.setId(id);
+  }
+
+  @Override
+  protected Skill copy(Skill document) {
+    return new Skill(document);
+  }
+
+  @Override
+  protected void audit(Skill document, Instant now, boolean isNew) {
+    if (isNew) {
+      document.setCreatedAt(now);
+    }
+    document.setUpdatedAt(now);
+  }
+
+  @Override
+  public boolean existsByUserIdAndId(ObjectId userId, ObjectId id) {
+    return findByIdWhere(id, s -> Objects.equals(s.getUserId(), userId)).isPresent();
+  }
+
+  @Override
+  public Optional<Skill> findByUserIdAndId(ObjectId userId, ObjectId id) {
+    return findByIdWhere(id, s -> Objects.equals(s.getUserId(), userId));
+  }
+
+  @Override
+  public List<Skill> findByIdIn(List<ObjectId> ids) {
+    return findAllById(ids);
+  }
+
+  @Override
+  public List<Skill> findByUserId(ObjectId userId) {
+    return findWhere("userId", userId);
+  }
+
+  @Override
+  public long countByUserId(ObjectId userId) {
+    return countWhere("userId", userId);
+  }
+
+  @Override
+  public List<Skill> findByParentSkillId(ObjectId parentSkillId) {
+    return findWhere("parentSkillId", parentSkillId);
+  }
+
+  @Override
+  public List<Skill> findByUserIdAndParentSkillId(ObjectId userId, ObjectId parentSkillId) {
+    return findWhere("userId_parentSkillId", key(userId, parentSkillId));
+  }
+
+  @Override
+  public List<Skill> findByUserIdAndParentSkillIdIsNull(ObjectId userId) {
+    return findWhere("userId_parentSkillId", key(userId, null));
+  }
+
+  @Override
+  public List<Skill> findByTreeId(ObjectId treeId) {
+    return findWhere("treeId", treeId);
+  }
+
+  @Override
+  public List<Skill> findByTreeIdIn(List<ObjectId> treeIds) {
+    return findWhereIn("treeId", treeIds, s -> true);
+  }
+
+  @Override
+  public List<Skill> findByTreeIdAndParentSkillIdIsNull(ObjectId treeId) {
+    return findWhere("treeId", treeId, s -> s.getParentSkillId() == null);
+  }
+
+  @Override
+  public List<Skill> findByUserIdAndTreeId(ObjectId userId, ObjectId treeId) {
+    return findWhere("treeId", treeId, s -> Objects.equals(s.getUserId(), userId));
+  }
+
+  @Override
+  public List<Skill> findByName(String name) {
+    return findWhere("name", name);
+  }
+
+  @Override
+  public List<Skill> findByUserIdAndName(ObjectId userId, String name) {
+    return findWhere("name", name, s -> Objects.equals(s.getUserId(), userId));
+  }
+
+  @Override
+  public List<Skill> findByUserIdAndParentSkillIdIsNotNull(ObjectId userId) {
+    return findWhere("userId", userId, s -> s.getParentSkillId() != null);
+  }
+
+  @Override
+  public void deleteByUserIdAndId(ObjectId userId, ObjectId id) {
+    deleteWhere("userId", userId, s -> s.getId().equals(id));
+  }
+
+  @Override
+  public void deleteByUserId(ObjectId userId) {
+    deleteWhere("userId", userId, s -> true);
+  }
+
+  @Override
+  public void deleteByTreeId(ObjectId treeId) {
+    deleteWhere("treeId", treeId, s -> true);
+  }
+
+  @Override
+  public void deleteByTreeIdIn(List<ObjectId> treeIds) {
+    deleteWhereIn("treeId", treeIds, s -> true);
+  }
+
+  @Override
+  public void incrementHours(Map<ObjectId, Double> hoursBySkillId, Set<ObjectId> usedSkillIds,
+      Instant usedAt) {
+    if (hoursBySkillId.isEmpty()) {
+      return;
+    }
+    Instant now = Instant.now();
+    updateWhereIds(hoursBySkillId.keySet(), s -> {
+      s.setTimeSpentHours(s.getTimeSpentHours() + hoursBySkillId.get(s.getId()));
+      s.setUpdatedAt(now);
+      if (usedSkillIds.contains(s.getId())
+          && (s.getLastUsedAt() == null || s.getLastUsedAt().isBefore(usedAt))) {
+        s.setLastUsedAt(usedAt);
+      }
+    });
+  }
+
+  @Override
+  public List<Skill> findPage(ObjectId userId, ObjectId parentSkillId, Boolean root,
+      Keyset keyset, int limit) {
+    List<Skill> skills;
+    if (parentSkillId != null) {
+      skills = findByUserIdAndParentSkillId(userId, parentSkillId);
+    } else if (Boolean.TRUE.equals(root)) {
+      skills = findByUserIdAndParentSkillIdIsNull(userId);
+    } else if (Boolean.FALSE.equals(root)) {
+      skills = findByUserIdAndParentSkillIdIsNotNull(userId);
+    } else {
+      skills = findByUserId(userId);
+    }
+    return pageAfter(skills, keyset, limit);
+  }
+}
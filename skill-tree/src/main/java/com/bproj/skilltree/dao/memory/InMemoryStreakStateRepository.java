@@ -0,0 +1,35 @@
+package com.bproj.skilltree.dao.memory;
+
+import com.bproj.skilltree.dao.StreakStateRepository;
+import com.bproj.skilltree.model.StreakState;
+import java.time.Instant;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * In-memory stand-in for the StreakStates collection.
+ */
+@Profile("memory")
+@Repository("mongoStreakStateRepository")
+public class InMemoryStreakStateRepository extends InMemoryRepository<StreakState>
+    implements StreakStateRepository {
+
+  @Override
+  protected ObjectId idOf(StreakState document) {
+    return document.getUserId();
+  }
+
+  @Override
+  protected void assignId(StreakState document, ObjectId id) {
+    document.setUserId(id);
+  }
+
+  @Override
+  protected StreakState copy(StreakState document) {
+    return new StreakState(document);
+  }
+
+  @Override
+  protected void audit(StreakState document, Instant now, boolean isNew) {}
+}
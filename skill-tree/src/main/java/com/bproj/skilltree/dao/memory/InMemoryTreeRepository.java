@@ -0,0 +1,121 @@
+package com.bproj.skilltree.dao.memory;
+
+import com.bproj.skilltree.dao.TreeRepository;
+import com.bproj.skilltree.model.Tree;
+import com.bproj.skilltree.model.Visibility;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+/**
+ * In-memory stand-in for the Trees collection. PRESET Trees have no userId and are indexed
+ * under a null key.
+ */
+@Profile("memory")
+@Repository("mongoTreeRepository")
+public class InMemoryTreeRepository extends InMemoryRepository<Tree> implements TreeRepository {
+
+  /**
+   * Create an empty InMemoryTreeRepository and register the indexes its queries use.
+   */
+  public InMemoryTreeRepository() {
+    index("userId", Tree::getUserId);
+    index("userId_name", t -> key(t.getUserId(), t.getName()));
+    index("visibility", Tree::getVisibility);
+  }
+
+  @Override
+  protected ObjectId idOf(Tree document) {
+    return document.getId();
+  }
+
+  @Override
+  protected void assignId(Tree document, ObjectId id) {
+    document.setId(id);
+  }
+
+  @Override
+  protected Tree copy(Tree document) {
+    return new Tree(document);
+  }
+
+  @Override
+  protected void audit(Tree document, Instant now, boolean isNew) {
+    if (isNew) {
+      document.setCreatedAt(now);
+    }
+    document.setUpdatedAt(now);
+  }
+
+  @Override
+  public boolean existsByUserIdAndId(ObjectId userId, ObjectId id) {
+    return findByIdWhere(id, t -> Objects.equals(t.getUserId(), userId)).isPresent();
+  }
+
+  @Override
+  public Optional<Tree> findByUserIdAndId(ObjectId userId, ObjectId id) {
+    return findByIdWhere(id, t -> Objects.equals(t.getUserId(), userId));
+  }
+
+  @Override
+  public boolean existsByUserIdAndName(ObjectId userId, String name) {
+    return existsWhere("userId_name", key(userId, name), t -> true);
+  }
+
+  @Override
+  public Optional<Tree> findByUserIdAndName(ObjectId userId, String name) {
+    return findOneWhere("userId_name", key(userId, name), t -> true);
+  }
+
+  @Override
+  public List<Tree> findByUserId(ObjectId userId) {
+    return findWhere("userId", userId);
+  }
+
+  @Override
+  public Page<Tree> findByUserId(ObjectId userId, Pageable pageable) {
+    return pageWhere("userId", userId, pageable);
+  }
+
+  @Override
+  public List<Tree> findByUserIdInAndCreatedAtBetween(List<ObjectId> userIds, Instant start,
+      Instant end) {
+    return findWhereIn("userId", userIds, t -> between(t.getCreatedAt(), start, end));
+  }
+
+  @Override
+  public List<Tree> findByUserIdIsNull() {
+    return findWhere("userId", null);
+  }
+
+  @Override
+  public Page<Tree> findByUserIdIsNull(Pageable pageable) {
+    return pageWhere("userId", null, pageable);
+  }
+
+  @Override
+  public List<Tree> findByVisibility(Visibility visibility) {
+    return findWhere("visibility", visibility);
+  }
+
+  @Override
+  public Page<Tree> findByVisibility(Visibility visibility, Pageable pageable) {
+    return pageWhere("visibility", visibility, pageable);
+  }
+
+  @Override
+  public void deleteByUserId(ObjectId userId) {
+    deleteWhere("userId", userId, t -> true);
+  }
+
+  @Override
+  public void deleteByUserIdAndId(ObjectId userId, ObjectId id) {
+    deleteWhere("userId", userId, t -> t.getId().equals(id));
+  }
+}
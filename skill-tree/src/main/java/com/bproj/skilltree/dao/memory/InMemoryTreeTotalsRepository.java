@@ -0,0 +1,70 @@
+package com.bproj.skilltree.dao.memory;
+
+import com.bproj.skilltree.dao.TreeTotalsRepository;
+import com.bproj.skilltree.model.TreeTotals;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * In-memory stand-in for the TreeTotals collection.
+ */
+@Profile("memory")
+@Repository("mongoTreeTotalsRepository")
+public class InMemoryTreeTotalsRepository extends InMemoryRepository<TreeTotals>
+    implements TreeTotalsRepository {
+
+  /**
+   * Create an empty InMemoryTreeTotalsRepository and register the indexes its queries use.
+   */
+  public InMemoryTreeTotalsRepository() {
+    index("userId", TreeTotals::getUserId);
+  }
+
+  @Override
+  protected ObjectId idOf(TreeTotals document) {
+    return document.getTreeId();
+  }
+
+  @Override
+  protected void assignId(TreeTotals document, ObjectId id) {
+    document.setTreeId(id);
+  }
+
+  @Override
+  protected TreeTotals copy(TreeTotals document) {
+    return new TreeTotals(document);
+  }
+
+  @Override
+  protected void audit(TreeTotals document, Instant now, boolean isNew) {}
+
+  @Override
+  public List<TreeTotals> findByUserId(ObjectId userId) {
+    return findWhere("userId", userId);
+  }
+
+  @Override
+  public void deleteByUserId(ObjectId userId) {
+    deleteWhere("userId", userId, t -> true);
+  }
+
+  @Override
+  public Optional<TreeTotals> increment(ObjectId treeId, double hours, int achievements) {
+    updateWhereIds(List.of(treeId), t -> {
+      t.setHoursLogged(t.getHoursLogged() + hours);
+      t.setAchievementsCompleted(t.getAchievementsCompleted() + achievements);
+    });
+    return findById(treeId);
+  }
+
+  @Override
+  public void clearAchievementsCompleted(ObjectId userId, ObjectId treeId) {
+    List<ObjectId> treeIds = findWhere("userId", userId).stream().map(TreeTotals::getTreeId)
+        .filter(id -> treeId == null || id.equals(treeId)).toList();
+    updateWhereIds(treeIds, t -> t.setAchievementsCompleted(0));
+  }
+}
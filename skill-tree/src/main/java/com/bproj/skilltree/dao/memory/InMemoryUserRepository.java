@@ -0,0 +1,80 @@
+package com.bproj.skilltree.dao.memory;
+
+import com.bproj.skilltree.dao.UserRepository;
+import com.bproj.skilltree.model.User;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * In-memory stand-in for the Users collection.
+ */
+@Profile("memory")
+@Repository("mongoUserRepository")
+public class InMemoryUserRepository extends InMemoryRepository<User> implements UserRepository {
+
+  /**
+   * Create an empty InMemoryUserRepository and register the indexes its queries use.
+   */
+  public InMemoryUserRepository() {
+    index("firebaseId", User::getFirebaseId);
+    index("email", User::getEmail);
+    index("displayName", User::getDisplayName);
+  }
+
+  @Override
+  protected ObjectId idOf(User document) {
+    return document.getId();
+  }
+
+  @Override
+  protected void assignId(User document, ObjectId id) {
+    document.setId(id);
+  }
+
+  @Override
+  protected User copy(User document) {
+    return new User(document);
+  }
+
+  @Override
+  protected void audit(User document, Instant now, boolean isNew) {
+    if (isNew) {
+      document.setCreatedAt(now);
+    }
+    document.setUpdatedAt(now);
+  }
+
+  @Override
+  public Optional<User> findByFirebaseId(String firebaseId) {
+    return findOneWhere("firebaseId", firebaseId, u -> true);
+  }
+
+  @Override
+  public Optional<User> findByEmail(String email) {
+    return findOneWhere("email", email, u -> true);
+  }
+
+  @Override
+  public Optional<User> findByDisplayName(String displayName) {
+    return findOneWhere("displayName", displayName, u -> true);
+  }
+
+  @Override
+  public List<User> findByIdIn(List<ObjectId> ids) {
+    return findAllById(ids);
+  }
+
+  @Override
+  public boolean existsByDisplayName(String displayName) {
+    return existsWhere("displayName", displayName, u -> true);
+  }
+
+  @Override
+  public boolean existsByFirebaseId(String firebaseId) {
+    return existsWhere("firebaseId", firebaseId, u -> true);
+  }
+}
@@ -0,0 +1,53 @@
+package com.bproj.skilltree.dao.memory;
+
+import com.bproj.skilltree.dao.UserTotalsRepository;
+import com.bproj.skilltree.model.UserTotals;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+
+/**
+ * In-memory stand-in for the UserTotals collection.
+ */
+@Profile("memory")
+@Repository("mongoUserTotalsRepository")
+public class InMemoryUserTotalsRepository extends InMemoryRepository<UserTotals>
+    implements UserTotalsRepository {
+
+  @Override
+  protected ObjectId idOf(UserTotals document) {
+    return document.getUserId();
+  }
+
+  @Override
+  protected void assignId(UserTotals document, ObjectId id) {
+    document.setUserId(id);
+  }
+
+  @Override
+  protected UserTotals copy(UserTotals document) {
+    return new UserTotals(document);
+  }
+
+  @Override
+  protected void audit(UserTotals document, Instant now, boolean isNew) {}
+
+  @Override
+  public List<UserTotals> findByUserIdIn(Collection<ObjectId> userIds, Sort sort) {
+    return sorted(findAllById(userIds), sort);
+  }
+
+  @Override
+  public Optional<UserTotals> increment(ObjectId userId, double hours, int achievements) {
+    updateWhereIds(List.of(userId), t -> {
+      t.setHoursLogged(t.getHoursLogged() + hours);
+      t.setAchievementsCompleted(t.getAchievementsCompleted() + achievements);
+    });
+    return findById(userId);
+  }
+}
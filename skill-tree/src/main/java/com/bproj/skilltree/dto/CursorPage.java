@@ -0,0 +1,53 @@
+package com.bproj.skilltree.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * DTO for one page of a list paged by continuation token. nextPageToken is sent back as pageToken
+ * to get the following page, and is null on the last one.
+ *
+ * @param <T> The item type
+ */
+public class CursorPage<T> {
+  private List<T> content;
+  private String nextPageToken;
+
+  /**
+   * Explicit value constructor.
+   *
+   * @param content The items on this page
+   * @param nextPageToken The token for the following page, or null if this is the last
+   */
+  public CursorPage(List<T> content, String nextPageToken) {
+    this.content = content;
+    this.nextPageToken = nextPageToken;
+  }
+
+  /**
+   * Convert the items of this page, keeping its token.
+   *
+   * @param <R> The converted item type
+   * @param mapper Converts one item
+   * @return The converted page
+   */
+  public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+    return new CursorPage<>(content.stream().<R>map(mapper).toList(), nextPageToken);
+  }
+
+  public List<T> getContent() {
+    return content;
+  }
+
+  public void setContent(List<T> content) {
+    this.content = content;
+  }
+
+  public String getNextPageToken() {
+    return nextPageToken;
+  }
+
+  public void setNextPageToken(String nextPageToken) {
+    this.nextPageToken = nextPageToken;
+  }
+}
@@ -0,0 +1,73 @@
+package com.bproj.skilltree.dto;
+
+import java.util.List;
+
+/**
+ * Everything the home screen shows, in one response: the User, the combined and favorite Tree
+ * statistics, the Activity streak and the Friend Actions feed.
+ */
+public class Dashboard {
+  private UserResponse user;
+  private TreeStats stats;
+  private FavoriteTree favoriteTree;
+  private RecentActivity streak;
+  private List<FeedItem> friendFeed;
+
+  /**
+   * Explicit value constructor.
+   *
+   * @param user The authenticated User
+   * @param stats The stats of all of the User's Trees combined
+   * @param favoriteTree The User's favorite Tree, or null if they have no Trees
+   * @param streak The User's streak and recent daily activity
+   * @param friendFeed The Friend Actions feed, newest first
+   */
+  public Dashboard(UserResponse user, TreeStats stats, FavoriteTree favoriteTree,
+      RecentActivity streak, List<FeedItem> friendFeed) {
+    this.user = user;
+    this.stats = stats;
+    this.favoriteTree = favoriteTree;
+    this.streak = streak;
+    this.friendFeed = friendFeed;
+  }
+
+  public UserResponse getUser() {
+    return user;
+  }
+
+  public void setUser(UserResponse user) {
+    this.user = user;
+  }
+
+  public TreeStats getStats() {
+    return stats;
+  }
+
+  public void setStats(TreeStats stats) {
+    this.stats = stats;
+  }
+
+  public FavoriteTree getFavoriteTree() {
+    return favoriteTree;
+  }
+
+  public void setFavoriteTree(FavoriteTree favoriteTree) {
+    this.favoriteTree = favoriteTree;
+  }
+
+  public RecentActivity getStreak() {
+    return streak;
+  }
+
+  public void setStreak(RecentActivity streak) {
+    this.streak = streak;
+  }
+
+  public List<FeedItem> getFriendFeed() {
+    return friendFeed;
+  }
+
+  public void setFriendFeed(List<FeedItem> friendFeed) {
+    this.friendFeed = friendFeed;
+  }
+}
@@ -0,0 +1,36 @@
+package com.bproj.skilltree.dto;
+
+/**
+ * DTO for a User the caller isn't connected to yet but shares friends with.
+ */
+public class FriendSuggestion {
+  private UserResponse user;
+  private int mutualFriends;
+
+  /**
+   * Explicit value constructor.
+   *
+   * @param user The suggested User
+   * @param mutualFriends Number of accepted friends the caller and the User have in common
+   */
+  public FriendSuggestion(UserResponse user, int mutualFriends) {
+    this.user = user;
+    this.mutualFriends = mutualFriends;
+  }
+
+  public UserResponse getUser() {
+    return user;
+  }
+
+  public void setUser(UserResponse user) {
+    this.user = user;
+  }
+
+  public int getMutualFriends() {
+    return mutualFriends;
+  }
+
+  public void setMutualFriends(int mutualFriends) {
+    this.mutualFriends = mutualFriends;
+  }
+}
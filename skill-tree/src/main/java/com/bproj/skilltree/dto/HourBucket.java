@@ -0,0 +1,34 @@
+package com.bproj.skilltree.dto;
+
+import java.time.LocalDate;
+
+/**
+ * The hours logged in one bucket of an HourSeries.
+ */
+public class HourBucket {
+  private LocalDate start;
+  private double hours;
+
+  public HourBucket() {}
+
+  public HourBucket(LocalDate start, double hours) {
+    this.start = start;
+    this.hours = hours;
+  }
+
+  public LocalDate getStart() {
+    return start;
+  }
+
+  public void setStart(LocalDate start) {
+    this.start = start;
+  }
+
+  public double getHours() {
+    return hours;
+  }
+
+  public void setHours(double hours) {
+    this.hours = hours;
+  }
+}
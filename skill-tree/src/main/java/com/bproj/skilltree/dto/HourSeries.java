@@ -0,0 +1,88 @@
+package com.bproj.skilltree.dto;
+
+import com.bproj.skilltree.model.TimeBucket;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Hours logged on a Skill (including its sub-Skills) or a Tree between two dates, grouped into
+ * day, week, or month buckets. Every bucket in the range is present, empty ones with 0 hours.
+ */
+public class HourSeries {
+  private String id;
+  private TimeBucket bucket;
+  private LocalDate from;
+  private LocalDate to;
+  private double totalHours;
+  private List<HourBucket> buckets;
+
+  public HourSeries() {}
+
+  /**
+   * Explicit value constructor.
+   *
+   * @param id The Id of the Skill or Tree
+   * @param bucket The width of each bucket
+   * @param from The first day included
+   * @param to The last day included
+   * @param totalHours The hours logged between from and to
+   * @param buckets The hours per bucket, oldest first
+   */
+  public HourSeries(String id, TimeBucket bucket, LocalDate from, LocalDate to,
+      double totalHours, List<HourBucket> buckets) {
+    this.id = id;
+    this.bucket = bucket;
+    this.from = from;
+    this.to = to;
+    this.totalHours = totalHours;
+    this.buckets = buckets;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public TimeBucket getBucket() {
+    return bucket;
+  }
+
+  public void setBucket(TimeBucket bucket) {
+    this.bucket = bucket;
+  }
+
+  public LocalDate getFrom() {
+    return from;
+  }
+
+  public void setFrom(LocalDate from) {
+    this.from = from;
+  }
+
+  public LocalDate getTo() {
+    return to;
+  }
+
+  public void setTo(LocalDate to) {
+    this.to = to;
+  }
+
+  public double getTotalHours() {
+    return totalHours;
+  }
+
+  public void setTotalHours(double totalHours) {
+    this.totalHours = totalHours;
+  }
+
+  public List<HourBucket> getBuckets() {
+    return buckets;
+  }
+
+  public void setBuckets(List<HourBucket> buckets) {
+    this.buckets = buckets;
+  }
+}
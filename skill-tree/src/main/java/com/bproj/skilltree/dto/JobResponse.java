@@ -0,0 +1,105 @@
+package com.bproj.skilltree.dto;
+
+import com.bproj.skilltree.model.JobStatus;
+import com.bproj.skilltree.model.JobType;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
+
+/**
+ * Outgoing status of a background Job. Clients poll this until status is SUCCEEDED or FAILED.
+ */
+public class JobResponse {
+  private String id;
+  private JobType type;
+  private JobStatus status;
+  private String resultId;
+  private String error;
+  private Instant createdAt;
+  private Instant updatedAt;
+
+  /**
+   * Explicit value constructor.
+   *
+   * @param id The Id of the Job
+   * @param type The kind of work the Job performs
+   * @param status Where the Job is in its lifecycle
+   * @param resultId The Id of the object the Job produced (the new Tree for COPY_TREE)
+   * @param error Why the Job last failed, if it did
+   * @param createdAt When the Job was submitted
+   * @param updatedAt When the Job last made progress
+   */
+  @JsonCreator
+  public JobResponse(
+      @JsonProperty("id") String id,
+      @JsonProperty("type") JobType type,
+      @JsonProperty("status") JobStatus status,
+      @JsonProperty("resultId") String resultId,
+      @JsonProperty("error") String error,
+      @JsonProperty("createdAt") Instant createdAt,
+      @JsonProperty("updatedAt") Instant updatedAt) {
+    this.id = id;
+    this.type = type;
+    this.status = status;
+    this.resultId = resultId;
+    this.error = error;
+    this.createdAt = createdAt;
+    this.updatedAt = updatedAt;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public JobType getType() {
+    return type;
+  }
+
+  public void setType(JobType type) {
+    this.type = type;
+  }
+
+  public JobStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(JobStatus status) {
+    this.status = status;
+  }
+
+  public String getResultId() {
+    return resultId;
+  }
+
+  public void setResultId(String resultId) {
+    this.resultId = resultId;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+}
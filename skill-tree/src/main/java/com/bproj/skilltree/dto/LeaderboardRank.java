@@ -0,0 +1,47 @@
+package com.bproj.skilltree.dto;
+
+/**
+ * DTO for where a single User stands on a Leaderboard.
+ */
+public class LeaderboardRank {
+  private Integer rank;
+  private int total;
+  private LeaderboardEntry entry;
+
+  /**
+   * Explicit value constructor.
+   *
+   * @param rank 1-based rank of the User, null if they aren't on the Leaderboard
+   * @param total Number of Users on the Leaderboard
+   * @param entry The User's LeaderboardEntry, null if they aren't on the Leaderboard
+   */
+  public LeaderboardRank(Integer rank, int total, LeaderboardEntry entry) {
+    this.rank = rank;
+    this.total = total;
+    this.entry = entry;
+  }
+
+  public Integer getRank() {
+    return rank;
+  }
+
+  public void setRank(Integer rank) {
+    this.rank = rank;
+  }
+
+  public int getTotal() {
+    return total;
+  }
+
+  public void setTotal(int total) {
+    this.total = total;
+  }
+
+  public LeaderboardEntry getEntry() {
+    return entry;
+  }
+
+  public void setEntry(LeaderboardEntry entry) {
+    this.entry = entry;
+  }
+}
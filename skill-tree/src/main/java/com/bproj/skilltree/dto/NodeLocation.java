@@ -0,0 +1,49 @@
+package com.bproj.skilltree.dto;
+
+/**
+ * Where a Skill or Achievement sits in its Tree's view.
+ */
+public class NodeLocation {
+  private String id;
+  private double x;
+  private double y;
+
+  public NodeLocation() {}
+
+  /**
+   * Explicit value constructor.
+   *
+   * @param id The Id of the Skill or Achievement
+   * @param x The x location
+   * @param y The y location
+   */
+  public NodeLocation(String id, double x, double y) {
+    this.id = id;
+    this.x = x;
+    this.y = y;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public double getX() {
+    return x;
+  }
+
+  public void setX(double x) {
+    this.x = x;
+  }
+
+  public double getY() {
+    return y;
+  }
+
+  public void setY(double y) {
+    this.y = y;
+  }
+}
@@ -0,0 +1,50 @@
+package com.bproj.skilltree.dto;
+
+import java.util.List;
+
+/**
+ * Outgoing Orientation: where each Skill and Achievement of a Tree is drawn.
+ */
+public class OrientationResponse {
+  private String treeId;
+  private List<NodeLocation> skillLocations;
+  private List<NodeLocation> achievementLocations;
+
+  /**
+   * Explicit value constructor.
+   *
+   * @param treeId The Id of the Tree the Orientation belongs to
+   * @param skillLocations Where each Skill is drawn
+   * @param achievementLocations Where each Achievement is drawn
+   */
+  public OrientationResponse(String treeId, List<NodeLocation> skillLocations,
+      List<NodeLocation> achievementLocations) {
+    this.treeId = treeId;
+    this.skillLocations = skillLocations;
+    this.achievementLocations = achievementLocations;
+  }
+
+  public String getTreeId() {
+    return treeId;
+  }
+
+  public void setTreeId(String treeId) {
+    this.treeId = treeId;
+  }
+
+  public List<NodeLocation> getSkillLocations() {
+    return skillLocations;
+  }
+
+  public void setSkillLocations(List<NodeLocation> skillLocations) {
+    this.skillLocations = skillLocations;
+  }
+
+  public List<NodeLocation> getAchievementLocations() {
+    return achievementLocations;
+  }
+
+  public void setAchievementLocations(List<NodeLocation> achievementLocations) {
+    this.achievementLocations = achievementLocations;
+  }
+}
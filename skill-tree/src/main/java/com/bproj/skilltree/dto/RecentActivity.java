@@ -4,17 +4,30 @@ import java.time.LocalDate;
 import java.util.Map;
 
 /**
- * Shows the number of days in a row a User has logged an Activity and the number of Activities
- * logged per the last x days.
+ * Shows the number of days in a row a User has logged an Activity (now and at best), and the
+ * number of Activities and hours logged on each active day of the last x days.
  */
 
 public class RecentActivity {
   private int streak;
+  private int longestStreak;
   private Map<LocalDate, Integer> dailyActivityCounts;
+  private Map<LocalDate, Double> dailyHours;
 
-  public RecentActivity(int streak, Map<LocalDate, Integer> dailyActivityCounts) {
+  /**
+   * Explicit value constructor.
+   *
+   * @param streak The number of consecutive active days up to today
+   * @param longestStreak The longest run of consecutive active days ever
+   * @param dailyActivityCounts The number of Activities per active day
+   * @param dailyHours The hours logged per active day
+   */
+  public RecentActivity(int streak, int longestStreak,
+      Map<LocalDate, Integer> dailyActivityCounts, Map<LocalDate, Double> dailyHours) {
     this.streak = streak;
+    this.longestStreak = longestStreak;
     this.dailyActivityCounts = dailyActivityCounts;
+    this.dailyHours = dailyHours;
   }
 
   public int getStreak() {
@@ -25,6 +38,14 @@ public class RecentActivity {
     this.streak = streak;
   }
 
+  public int getLongestStreak() {
+    return longestStreak;
+  }
+
+  public void setLongestStreak(int longestStreak) {
+    this.longestStreak = longestStreak;
+  }
+
   public Map<LocalDate, Integer> getDailyActivityCounts() {
     return dailyActivityCounts;
   }
@@ -32,4 +53,12 @@ public class RecentActivity {
   public void setDailyActivityCounts(Map<LocalDate, Integer> dailyActivityCounts) {
     this.dailyActivityCounts = dailyActivityCounts;
   }
+
+  public Map<LocalDate, Double> getDailyHours() {
+    return dailyHours;
+  }
+
+  public void setDailyHours(Map<LocalDate, Double> dailyHours) {
+    this.dailyHours = dailyHours;
+  }
 }
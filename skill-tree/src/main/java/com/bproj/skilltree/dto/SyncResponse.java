@@ -0,0 +1,145 @@
+package com.bproj.skilltree.dto;
+
+import com.bproj.skilltree.model.SyncedCollection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO for one /api/sync response. A client applies it in order: drops everything of each cleared
+ * kind, drops the deleted Ids, then stores the changed documents, and sends nextToken as since
+ * next time. If reset is set, nothing else is filled in and the client reloads its lists before
+ * syncing from nextToken.
+ */
+public class SyncResponse {
+  private boolean reset;
+  private List<SyncedCollection> cleared;
+  private List<TreeResponse> trees;
+  private List<SkillResponse> skills;
+  private List<AchievementResponse> achievements;
+  private List<ActivityResponse> activities;
+  private List<OrientationResponse> orientations;
+  private Map<SyncedCollection, List<String>> deleted;
+  private String nextToken;
+  private boolean hasMore;
+
+  /**
+   * Explicit value constructor.
+   *
+   * @param reset Whether the client has to reload everything before syncing from nextToken
+   * @param cleared The kinds of document that were deleted entirely
+   * @param trees The changed Trees
+   * @param skills The changed Skills
+   * @param achievements The changed Achievements
+   * @param activities The changed Activities
+   * @param orientations The changed Orientations
+   * @param deleted The Ids of deleted documents by kind (Tree Ids for Orientations)
+   * @param nextToken The token to sync from next time
+   * @param hasMore Whether more changes are waiting to be synced right away
+   */
+  public SyncResponse(boolean reset, List<SyncedCollection> cleared, List<TreeResponse> trees,
+      List<SkillResponse> skills, List<AchievementResponse> achievements,
+      List<ActivityResponse> activities, List<OrientationResponse> orientations,
+      Map<SyncedCollection, List<String>> deleted, String nextToken, boolean hasMore) {
+    this.reset = reset;
+    this.cleared = cleared;
+    this.trees = trees;
+    this.skills = skills;
+    this.achievements = achievements;
+    this.activities = activities;
+    this.orientations = orientations;
+    this.deleted = deleted;
+    this.nextToken = nextToken;
+    this.hasMore = hasMore;
+  }
+
+  /**
+   * A response telling the client to reload everything.
+   *
+   * @param nextToken The token to sync from once the client has reloaded
+   * @return The response
+   */
+  public static SyncResponse reset(String nextToken) {
+    return new SyncResponse(true, List.of(), List.of(), List.of(), List.of(), List.of(),
+        List.of(), Map.of(), nextToken, false);
+  }
+
+  public boolean isReset() {
+    return reset;
+  }
+
+  public void setReset(boolean reset) {
+    this.reset = reset;
+  }
+
+  public List<SyncedCollection> getCleared() {
+    return cleared;
+  }
+
+  public void setCleared(List<SyncedCollection> cleared) {
+    this.cleared = cleared;
+  }
+
+  public List<TreeResponse> getTrees() {
+    return trees;
+  }
+
+  public void setTrees(List<TreeResponse> trees) {
+    this.trees = trees;
+  }
+
+  public List<SkillResponse> getSkills() {
+    return skills;
+  }
+
+  public void setSkills(List<SkillResponse> skills) {
+    this.skills = skills;
+  }
+
+  public List<AchievementResponse> getAchievements() {
+    return achievements;
+  }
+
+  public void setAchievements(List<AchievementResponse> achievements) {
+    this.achievements = achievements;
+  }
+
+  public List<ActivityResponse> getActivities() {
+    return activities;
+  }
+
+  public void setActivities(List<ActivityResponse> activities) {
+    this.activities = activities;
+  }
+
+  public List<OrientationResponse> getOrientations() {
+    return orientations;
+  }
+
+  public void setOrientations(List<OrientationResponse> orientations) {
+    this.orientations = orientations;
+  }
+
+  public Map<SyncedCollection, List<String>> getDeleted() {
+    return deleted;
+  }
+
+  public void setDeleted(Map<SyncedCollection, List<String>> deleted) {
+    this.deleted = deleted;
+  }
+
+  public String getNextToken() {
+    return nextToken;
+  }
+
+  public void setNextToken(String nextToken) {
+    this.nextToken = nextToken;
+  }
+
+  public boolean isHasMore() {
+    return hasMore;
+  }
+
+  public void setHasMore(boolean hasMore) {
+    this.hasMore = hasMore;
+  }
+}
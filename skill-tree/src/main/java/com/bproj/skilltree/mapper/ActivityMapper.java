@@ -7,11 +7,15 @@ import com.bproj.skilltree.dto.ActivitySummary;
 import com.bproj.skilltree.dto.RecentActivity;
 import com.bproj.skilltree.dto.WeightedSkill;
 import com.bproj.skilltree.model.Activity;
+import com.bproj.skilltree.model.DailyActivity;
 import com.bproj.skilltree.model.Skill;
 import com.bproj.skilltree.model.SkillWeight;
+import com.bproj.skilltree.model.StreakState;
 import com.bproj.skilltree.model.User;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -103,31 +107,71 @@ public class ActivityMapper {
   }
 
   /**
-   * Create a summary of recent activity given a list of Activities.
+   * Roll Activities up into one DailyActivity per User per UTC day. Used to build the rollups from
+   * scratch; day to day they are kept up to date incrementally.
    *
-   * @param activities The Activities to be summarized
-   * @return The RecentActivity DTO
+   * @param activities The Activities to roll up
+   * @return The rollups, in no particular order
    */
-  public static RecentActivity toRecentActivity(List<Activity> activities) {
-    Map<LocalDate, Integer> dailyCounts = activities.stream().collect(Collectors.groupingBy(
-        a -> a.getCreatedAt().atZone(ZoneOffset.UTC).toLocalDate(), Collectors.summingInt(x -> 1)));
-
-    List<LocalDate> sortedDates = dailyCounts.keySet().stream().sorted().toList();
-
-    int streak = 0;
+  public static List<DailyActivity> toDailyActivities(List<Activity> activities) {
+    Map<List<Object>, DailyActivity> days = new HashMap<>();
+    for (Activity activity : activities) {
+      Instant day = DailyActivity.dayOf(activity.getCreatedAt());
+      DailyActivity rollup = days.computeIfAbsent(List.of(activity.getUserId(), day),
+          k -> new DailyActivity(activity.getUserId(), day));
+      rollup.setCount(rollup.getCount() + 1);
+      rollup.setHours(rollup.getHours() + activity.getDuration());
+      for (SkillWeight sw : activity.getSkillWeights()) {
+        rollup.getSkillHours().merge(sw.getSkillId().toHexString(),
+            activity.getDuration() * sw.getWeight(), Double::sum);
+      }
+    }
+    return new ArrayList<>(days.values());
+  }
 
-    for (int i = sortedDates.size() - 1; i >= 0; i--) {
-      LocalDate date = sortedDates.get(i);
-      Integer count = dailyCounts.getOrDefault(date, 0);
+  /**
+   * Work out a User's streaks from scratch from their daily rollups. Used when a User has no
+   * StreakState yet and when the longest streak may have shrunk; otherwise StreakStates are kept
+   * up to date incrementally.
+   *
+   * @param userId The Id of the User
+   * @param days Every one of the User's DailyActivities, in any order
+   * @return The User's StreakState
+   */
+  public static StreakState toStreakState(ObjectId userId, List<DailyActivity> days) {
+    List<LocalDate> activeDates = days.stream().filter(d -> d.getCount() > 0)
+        .map(DailyActivity::getDate).distinct().sorted().toList();
+    int run = 0;
+    int longest = 0;
+    LocalDate previous = null;
+    for (LocalDate date : activeDates) {
+      run = previous != null && previous.plusDays(1).equals(date) ? run + 1 : 1;
+      longest = Math.max(longest, run);
+      previous = date;
+    }
+    return new StreakState(userId, run, longest,
+        previous == null ? null : DailyActivity.dayOf(previous));
+  }
 
-      if (count != null && count > 0) {
-        streak++;
-      } else {
-        if (streak > 0) { 
-          break;
-        }
+  /**
+   * Create a summary of recent activity from a User's daily rollups and streaks.
+   *
+   * @param days The User's DailyActivities over the period being summarized
+   * @param streak The User's StreakState
+   * @param today The current UTC date
+   * @return The RecentActivity DTO
+   */
+  public static RecentActivity toRecentActivity(List<DailyActivity> days, StreakState streak,
+      LocalDate today) {
+    Map<LocalDate, Integer> dailyCounts = new HashMap<>();
+    Map<LocalDate, Double> dailyHours = new HashMap<>();
+    for (DailyActivity day : days) {
+      if (day.getCount() > 0) {
+        dailyCounts.put(day.getDate(), day.getCount());
+        dailyHours.put(day.getDate(), day.getHours());
       }
     }
-    return new RecentActivity(streak, dailyCounts);
+    return new RecentActivity(streak.streakOn(today), streak.getLongestStreak(), dailyCounts,
+        dailyHours);
   }
 }
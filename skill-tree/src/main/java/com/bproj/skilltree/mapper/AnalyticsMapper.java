@@ -0,0 +1,61 @@
+package com.bproj.skilltree.mapper;
+
+import com.bproj.skilltree.dto.HourBucket;
+import com.bproj.skilltree.dto.HourSeries;
+import com.bproj.skilltree.model.DailyActivity;
+import com.bproj.skilltree.model.TimeBucket;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Analytics DTO conversions.
+ */
+public class AnalyticsMapper {
+  private AnalyticsMapper() {}
+
+  /**
+   * Sum the hours a set of Skills received each day into a bucketed series. Only the rollups are
+   * read, never the Activities behind them.
+   *
+   * @param id The Id of the Skill or Tree the series is for
+   * @param days The User's DailyActivities between from and to (others are ignored)
+   * @param skillIds The hex Ids of the Skills whose hours count
+   * @param bucket The width of each bucket
+   * @param from The first day included
+   * @param to The last day included
+   * @return The HourSeries, with a bucket for every period between from and to
+   */
+  public static HourSeries toHourSeries(String id, Collection<DailyActivity> days,
+      Set<String> skillIds, TimeBucket bucket, LocalDate from, LocalDate to) {
+    Map<LocalDate, Double> hoursByBucket = new LinkedHashMap<>();
+    LocalDate last = bucket.startOf(to);
+    for (LocalDate start = bucket.startOf(from); !start.isAfter(last); start = bucket.next(start)) {
+      hoursByBucket.put(start, 0.0);
+    }
+
+    double total = 0;
+    for (DailyActivity day : days) {
+      LocalDate date = day.getDate();
+      if (date.isBefore(from) || date.isAfter(to)) {
+        continue;
+      }
+      double hours = 0;
+      for (Map.Entry<String, Double> entry : day.getSkillHours().entrySet()) {
+        if (skillIds.contains(entry.getKey())) {
+          hours += entry.getValue();
+        }
+      }
+      hoursByBucket.merge(bucket.startOf(date), hours, Double::sum);
+      total += hours;
+    }
+
+    List<HourBucket> buckets = new ArrayList<>(hoursByBucket.size());
+    hoursByBucket.forEach((start, hours) -> buckets.add(new HourBucket(start, hours)));
+    return new HourSeries(id, bucket, from, to, total, buckets);
+  }
+}
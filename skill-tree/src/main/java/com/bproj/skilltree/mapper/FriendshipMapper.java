@@ -1,17 +1,19 @@
 package com.bproj.skilltree.mapper;
 
 import com.bproj.skilltree.dto.FriendList;
+import com.bproj.skilltree.dto.FriendSuggestion;
 import com.bproj.skilltree.dto.FriendshipUserResponse;
 import com.bproj.skilltree.dto.LeaderboardEntry;
 import com.bproj.skilltree.dto.UserResponse;
-import com.bproj.skilltree.model.Achievement;
-import com.bproj.skilltree.model.Activity;
 import com.bproj.skilltree.model.Friendship;
 import com.bproj.skilltree.model.User;
+import com.bproj.skilltree.model.UserTotals;
+import com.bproj.skilltree.util.SocialGraph;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import org.bson.types.ObjectId;
 
@@ -83,24 +85,49 @@ public class FriendshipMapper {
   }
 
   /**
-   * Return a LeaderboardEntry DTO given a User and their Achievements/Activities.
+   * Return a LeaderboardEntry DTO given a User and their totals.
    *
    * @param user The target User
-   * @param achievements The User's Achievements
-   * @param activities The User's Activities
+   * @param totals The User's totals, all-time or over the leaderboard's window
    * @return The User's LeaderboardEntry
    */
-  public static LeaderboardEntry leaderboardEntry(User user, List<Achievement> achievements,
-      List<Activity> activities) {
-    if (user == null || achievements == null || activities == null) {
+  public static LeaderboardEntry leaderboardEntry(User user, UserTotals totals) {
+    if (user == null || totals == null) {
       return null;
     }
+    return new LeaderboardEntry(user.getDisplayName(), user.getProfilePictureUrl(),
+        totals.getHoursLogged(), totals.getAchievementsCompleted());
+  }
 
-    double timeLogged = activities.stream().mapToDouble(Activity::getDuration).sum();
-
-    int achievementsCompleted = (int) achievements.stream().filter(a -> a.isComplete()).count();
+  /**
+   * Build a leaderboard, keeping the order of the ranked totals. Totals of Users that weren't
+   * found are skipped.
+   *
+   * @param ranked The totals, best first
+   * @param users The Users the totals belong to
+   * @return The LeaderboardEntries, best first
+   */
+  public static List<LeaderboardEntry> leaderboard(List<UserTotals> ranked, List<User> users) {
+    Map<ObjectId, User> userMap = users.stream().collect(Collectors.toMap(User::getId, u -> u));
+    return ranked.stream().map(t -> leaderboardEntry(userMap.get(t.getUserId()), t))
+        .filter(Objects::nonNull).toList();
+  }
 
-    return new LeaderboardEntry(user.getDisplayName(), user.getProfilePictureUrl(), timeLogged,
-        achievementsCompleted);
+  /**
+   * Build the FriendSuggestion DTOs, keeping the order of the ranked suggestions. Suggestions of
+   * Users that weren't found are skipped.
+   *
+   * @param ranked The suggested User Ids and their mutual friend counts, best first
+   * @param users The suggested Users
+   * @return The FriendSuggestions, best first
+   */
+  public static List<FriendSuggestion> suggestions(List<SocialGraph.Suggestion<ObjectId>> ranked,
+      List<User> users) {
+    Map<ObjectId, User> userMap = users.stream().collect(Collectors.toMap(User::getId, u -> u));
+    return ranked.stream().filter(s -> userMap.containsKey(s.getKey())).map(s -> {
+      User user = userMap.get(s.getKey());
+      return new FriendSuggestion(
+          new UserResponse(user.getDisplayName(), user.getProfilePictureUrl()), s.getMutual());
+    }).toList();
   }
 }
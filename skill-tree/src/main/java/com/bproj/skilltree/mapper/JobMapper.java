@@ -0,0 +1,28 @@
+package com.bproj.skilltree.mapper;
+
+import com.bproj.skilltree.dto.JobResponse;
+import com.bproj.skilltree.model.Job;
+import com.bproj.skilltree.model.JobStatus;
+
+/**
+ * Job DTO conversions.
+ */
+public class JobMapper {
+  private JobMapper() {}
+
+  /**
+   * Create a JobResponse from a Job. resultId is only exposed once the Job has succeeded.
+   *
+   * @param job The Job to be converted
+   * @return The JobResponse resulting from the conversion
+   */
+  public static JobResponse fromJob(Job job) {
+    if (job == null) {
+      return null;
+    }
+    String resultId = job.getStatus() == JobStatus.SUCCEEDED && job.getResultId() != null
+        ? job.getResultId().toString() : null;
+    return new JobResponse(job.getId().toString(), job.getType(), job.getStatus(), resultId,
+        job.getError(), job.getCreatedAt(), job.getUpdatedAt());
+  }
+}
@@ -1,6 +1,8 @@
 package com.bproj.skilltree.mapper;
 
+import com.bproj.skilltree.dto.NodeLocation;
 import com.bproj.skilltree.dto.OrientationRequest;
+import com.bproj.skilltree.dto.OrientationResponse;
 import com.bproj.skilltree.model.Orientation;
 
 /**
@@ -14,4 +16,19 @@ public class OrientationMapper {
     return new Orientation(orientationRequest.getTreeId(), orientationRequest.getSkillLocations(),
         orientationRequest.getAchievementLocations());
   }
+
+  /**
+   * Convert an Orientation to its outgoing form.
+   *
+   * @param orientation The Orientation
+   * @return The OrientationResponse
+   */
+  public static OrientationResponse fromOrientation(Orientation orientation) {
+    return new OrientationResponse(orientation.getTreeId().toString(),
+        orientation.getSkillLocations().stream()
+            .map(l -> new NodeLocation(l.getSkillId().toString(), l.getX(), l.getY())).toList(),
+        orientation.getAchievementLocations().stream()
+            .map(l -> new NodeLocation(l.getAchievementId().toString(), l.getX(), l.getY()))
+            .toList());
+  }
 }
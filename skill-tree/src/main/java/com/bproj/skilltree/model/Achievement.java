@@ -11,12 +11,21 @@ import org.bson.types.ObjectId;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
- * An accomplishment associated with a Tree. Belongs to a User and a Tree.
+ * An accomplishment associated with a Tree. Belongs to a User and a Tree. The compound indexes
+ * each back one AchievementSortMode of a User's paged Achievement list.
  */
 @Document(collection = "achievements")
+@CompoundIndexes({
+    @CompoundIndex(name = "user_title", def = "{'userId': 1, 'title': 1, '_id': 1}"),
+    @CompoundIndex(name = "user_created", def = "{'userId': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "user_completed",
+        def = "{'userId': 1, 'complete': -1, 'completedAt': -1, '_id': -1}")
+})
 @ToString(onlyExplicitlyIncluded = true)
 public class Achievement {
   @Id
@@ -201,6 +210,14 @@ public class Achievement {
     this.createdAt = createdAt;
   }
 
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -11,12 +11,15 @@ import org.bson.types.ObjectId;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
- * An activity completed by the User that used one or more of their Skills.
+ * An activity completed by the User that used one or more of their Skills. Indexed for a User's
+ * paged Activity list, newest first.
  */
 @Document(collection = "activities")
+@CompoundIndex(name = "user_created", def = "{'userId': 1, 'createdAt': -1, '_id': -1}")
 @ToString(onlyExplicitlyIncluded = false)
 public class Activity {
   @Id
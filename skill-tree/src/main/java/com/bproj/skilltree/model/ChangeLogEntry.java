@@ -0,0 +1,116 @@
+package com.bproj.skilltree.model;
+
+import java.time.Instant;
+import lombok.ToString;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * One change to a User's data, appended by the service layer after the change is written. seq
+ * counts up from 1 per User with no gaps, except where a write failed between reserving its
+ * numbers and inserting its entries. An entry only says which document changed; syncing reads
+ * the document's current state, or finds it deleted. A null documentId means every document of
+ * the collection was deleted. Entries older than the retention period are compacted away.
+ */
+@Document(collection = "changeLog")
+@CompoundIndex(name = "user_seq", def = "{'userId': 1, 'seq': 1}", unique = true)
+@ToString(onlyExplicitlyIncluded = true)
+public class ChangeLogEntry {
+  @Id
+  private ObjectId id;
+  @ToString.Include
+  private ObjectId userId;
+  @ToString.Include
+  private long seq;
+  @ToString.Include
+  private SyncedCollection collection;
+  @ToString.Include
+  private ObjectId documentId;
+  @Indexed
+  @ToString.Include
+  private Instant changedAt;
+
+  public ChangeLogEntry() {}
+
+  /**
+   * Explicit value constructor. The sequence number is assigned when the entry is appended.
+   *
+   * @param userId The User whose data changed
+   * @param collection The kind of document that changed
+   * @param documentId The Id of the document (a Tree's Id for an Orientation), or null if every
+   *        document of the collection was deleted
+   * @param changedAt When the change was written
+   */
+  public ChangeLogEntry(ObjectId userId, SyncedCollection collection, ObjectId documentId,
+      Instant changedAt) {
+    this.userId = userId;
+    this.collection = collection;
+    this.documentId = documentId;
+    this.changedAt = changedAt;
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other The ChangeLogEntry to copy
+   */
+  public ChangeLogEntry(ChangeLogEntry other) {
+    this.id = other.id;
+    this.userId = other.userId;
+    this.seq = other.seq;
+    this.collection = other.collection;
+    this.documentId = other.documentId;
+    this.changedAt = other.changedAt;
+  }
+
+  public ObjectId getId() {
+    return id;
+  }
+
+  public void setId(ObjectId id) {
+    this.id = id;
+  }
+
+  public ObjectId getUserId() {
+    return userId;
+  }
+
+  public void setUserId(ObjectId userId) {
+    this.userId = userId;
+  }
+
+  public long getSeq() {
+    return seq;
+  }
+
+  public void setSeq(long seq) {
+    this.seq = seq;
+  }
+
+  public SyncedCollection getCollection() {
+    return collection;
+  }
+
+  public void setCollection(SyncedCollection collection) {
+    this.collection = collection;
+  }
+
+  public ObjectId getDocumentId() {
+    return documentId;
+  }
+
+  public void setDocumentId(ObjectId documentId) {
+    this.documentId = documentId;
+  }
+
+  public Instant getChangedAt() {
+    return changedAt;
+  }
+
+  public void setChangedAt(Instant changedAt) {
+    this.changedAt = changedAt;
+  }
+}
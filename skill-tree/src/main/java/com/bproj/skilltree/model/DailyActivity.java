@@ -0,0 +1,133 @@
+package com.bproj.skilltree.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.ToString;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * One User's Activities on one UTC day, rolled up. Kept in step with the activities collection on
+ * every Activity write so that streaks and heatmaps read one small document per day instead of
+ * every raw Activity. skillHours is keyed by the Skill Id's hex string since Mongo field names
+ * must be strings.
+ */
+@Document(collection = "dailyActivities")
+@CompoundIndex(name = "user_day", def = "{'userId': 1, 'day': 1}", unique = true)
+@ToString(onlyExplicitlyIncluded = true)
+public class DailyActivity {
+  @Id
+  private ObjectId id;
+  @ToString.Include
+  private ObjectId userId;
+  @ToString.Include
+  private Instant day;
+  @ToString.Include
+  private int count;
+  @ToString.Include
+  private double hours;
+  private Map<String, Double> skillHours = new HashMap<>();
+
+  public DailyActivity() {}
+
+  /**
+   * Explicit value constructor for an empty day.
+   *
+   * @param userId The User the Activities belong to
+   * @param day The start of the UTC day
+   */
+  public DailyActivity(ObjectId userId, Instant day) {
+    this.userId = userId;
+    this.day = day;
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other The DailyActivity to copy
+   */
+  public DailyActivity(DailyActivity other) {
+    this.id = other.id;
+    this.userId = other.userId;
+    this.day = other.day;
+    this.count = other.count;
+    this.hours = other.hours;
+    this.skillHours = new HashMap<>(other.skillHours);
+  }
+
+  /**
+   * The start of the UTC day an instant falls on. Every Activity is filed under the day of its
+   * createdAt.
+   *
+   * @param instant Any instant
+   * @return Midnight UTC of that instant's day
+   */
+  public static Instant dayOf(Instant instant) {
+    return toDate(instant).atStartOfDay().toInstant(ZoneOffset.UTC);
+  }
+
+  public static Instant dayOf(LocalDate date) {
+    return date.atStartOfDay().toInstant(ZoneOffset.UTC);
+  }
+
+  public static LocalDate toDate(Instant instant) {
+    return instant.atZone(ZoneOffset.UTC).toLocalDate();
+  }
+
+  public LocalDate getDate() {
+    return toDate(day);
+  }
+
+  public ObjectId getId() {
+    return id;
+  }
+
+  public void setId(ObjectId id) {
+    this.id = id;
+  }
+
+  public ObjectId getUserId() {
+    return userId;
+  }
+
+  public void setUserId(ObjectId userId) {
+    this.userId = userId;
+  }
+
+  public Instant getDay() {
+    return day;
+  }
+
+  public void setDay(Instant day) {
+    this.day = day;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  public void setCount(int count) {
+    this.count = count;
+  }
+
+  public double getHours() {
+    return hours;
+  }
+
+  public void setHours(double hours) {
+    this.hours = hours;
+  }
+
+  public Map<String, Double> getSkillHours() {
+    return skillHours;
+  }
+
+  public void setSkillHours(Map<String, Double> skillHours) {
+    this.skillHours = skillHours;
+  }
+}
@@ -0,0 +1,77 @@
+package com.bproj.skilltree.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.ToString;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A User's data version stamps, one counter per VersionedCollection, bumped with $inc after every
+ * write that changes what the User sees in that list. Stored under the User's Id, one per User, and
+ * created by the first bump. versions is keyed by VersionedCollection name; a missing key is
+ * version 0. changeSeq is the sequence number of the User's latest ChangeLogEntry.
+ */
+@Document(collection = "dataVersions")
+@ToString(onlyExplicitlyIncluded = true)
+public class DataVersions {
+  @Id
+  @ToString.Include
+  private ObjectId userId;
+  @ToString.Include
+  private Map<String, Long> versions = new HashMap<>();
+  @ToString.Include
+  private long changeSeq;
+
+  public DataVersions() {}
+
+  public DataVersions(ObjectId userId) {
+    this.userId = userId;
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other The DataVersions to copy
+   */
+  public DataVersions(DataVersions other) {
+    this.userId = other.userId;
+    this.versions = new HashMap<>(other.versions);
+    this.changeSeq = other.changeSeq;
+  }
+
+  /**
+   * The current version of one of the User's lists.
+   *
+   * @param collection The list
+   * @return Its version, 0 if it was never bumped
+   */
+  public long versionOf(VersionedCollection collection) {
+    return versions.getOrDefault(collection.name(), 0L);
+  }
+
+  public ObjectId getUserId() {
+    return userId;
+  }
+
+  public void setUserId(ObjectId userId) {
+    this.userId = userId;
+  }
+
+  public Map<String, Long> getVersions() {
+    return versions;
+  }
+
+  public void setVersions(Map<String, Long> versions) {
+    this.versions = versions;
+  }
+
+  public long getChangeSeq() {
+    return changeSeq;
+  }
+
+  public void setChangeSeq(long changeSeq) {
+    this.changeSeq = changeSeq;
+  }
+}
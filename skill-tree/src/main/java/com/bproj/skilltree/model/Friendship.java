@@ -9,13 +9,18 @@ import org.bson.types.ObjectId;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 
 /**
- * A friend request sent from one user to another.
+ * A friend request sent from one user to another. userLowId and userHighId hold the same two Ids
+ * in a fixed order, so there is one key per pair of Users whoever sent the request. Their unique
+ * index makes every pair lookup a single point read and rejects a second request between the
+ * same two Users.
  */
 @Document(collection = "friends")
+@CompoundIndex(name = "user_pair", def = "{'userLowId': 1, 'userHighId': 1}", unique = true)
 @ToString(onlyExplicitlyIncluded = true)
 public class Friendship {
   @Id
@@ -28,6 +33,8 @@ public class Friendship {
   @NotBlank
   @ToString.Include
   private ObjectId addresseeId;
+  private ObjectId userLowId;
+  private ObjectId userHighId;
   @NotBlank
   @ToString.Include
   private FriendRequestStatus status;
@@ -51,6 +58,18 @@ public class Friendship {
     this.requesterId = requesterId;
     this.addresseeId = addresseeId;
     this.status = status;
+    orderUserPair();
+  }
+
+  public Friendship(Friendship other) {
+      this.id = other.id;
+      this.requesterId = other.requesterId;
+      this.addresseeId = other.addresseeId;
+      this.userLowId = other.userLowId;
+      this.userHighId = other.userHighId;
+      this.status = other.status;
+      this.createdAt = other.createdAt;
+      this.updatedAt = other.updatedAt;
   }
 
   public ObjectId getId() {
@@ -67,6 +86,7 @@ public class Friendship {
 
   public void setRequesterId(ObjectId requesterId) {
     this.requesterId = requesterId;
+    orderUserPair();
   }
 
   public ObjectId getAddresseeId() {
@@ -75,6 +95,32 @@ public class Friendship {
 
   public void setAddresseeId(ObjectId addresseeId) {
     this.addresseeId = addresseeId;
+    orderUserPair();
+  }
+
+  public ObjectId getUserLowId() {
+    return userLowId;
+  }
+
+  public ObjectId getUserHighId() {
+    return userHighId;
+  }
+
+  /**
+   * Set userLowId and userHighId from requesterId and addresseeId. Done by the constructor and
+   * setters; only needed directly for documents stored before the pair existed.
+   */
+  public void orderUserPair() {
+    if (requesterId == null || addresseeId == null) {
+      userLowId = null;
+      userHighId = null;
+    } else if (requesterId.compareTo(addresseeId) <= 0) {
+      userLowId = requesterId;
+      userHighId = addresseeId;
+    } else {
+      userLowId = addresseeId;
+      userHighId = requesterId;
+    }
   }
 
   public FriendRequestStatus getStatus() {
@@ -0,0 +1,223 @@
+package com.bproj.skilltree.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import java.time.Instant;
+import java.util.List;
+import lombok.ToString;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A unit of background work run by the job workers. checkpoint counts the stages that have
+ * finished, so a Job picked up again after a crash resumes from the first unfinished stage. A User
+ * has at most one pending DELETE_USER Job, enforced by the pending_delete_user index. A DELETE_USER
+ * Job records the User's friends before their Friendships are deleted, so a resumed Job still
+ * knows whose caches to evict.
+ */
+@Document(collection = "jobs")
+@CompoundIndex(name = "status_lease", def = "{'status': 1, 'leaseExpiresAt': 1, 'createdAt': 1}")
+@CompoundIndex(name = "pending_delete_user", def = "{'userId': 1, 'type': 1}", unique = true,
+    partialFilter = "{'type': 'DELETE_USER', 'status': {'$in': ['QUEUED', 'RUNNING']}}")
+@ToString(onlyExplicitlyIncluded = true)
+public class Job {
+  @Id
+  @JsonSerialize(using = ToStringSerializer.class)
+  @ToString.Include
+  private ObjectId id;
+  @JsonSerialize(using = ToStringSerializer.class)
+  @ToString.Include
+  private ObjectId userId;
+  @ToString.Include
+  private String firebaseId;
+  @ToString.Include
+  private JobType type;
+  @ToString.Include
+  private JobStatus status;
+  @JsonSerialize(using = ToStringSerializer.class)
+  @ToString.Include
+  private ObjectId targetId;
+  @JsonSerialize(using = ToStringSerializer.class)
+  @ToString.Include
+  private ObjectId resultId;
+  @ToString.Include
+  private int checkpoint;
+  @ToString.Include
+  private int attempts;
+  @ToString.Include
+  private String error;
+  @ToString.Include
+  private Instant leaseExpiresAt;
+  @ToString.Include
+  private Instant retryAt;
+  private List<ObjectId> friendIds;
+  @CreatedDate
+  @ToString.Include
+  private Instant createdAt;
+  @LastModifiedDate
+  @ToString.Include
+  private Instant updatedAt;
+
+  public Job() {}
+
+  /**
+   * Create a new QUEUED Job. Id, createdAt, and updatedAt filled automatically.
+   *
+   * @param userId The Id of the User the Job belongs to
+   * @param firebaseId The Firebase Id of the User, used to look the Job up after the User is gone
+   * @param type The kind of work to perform
+   * @param targetId The object the Job acts on (the source Tree for COPY_TREE)
+   * @param resultId The object the Job produces (the new Tree for COPY_TREE)
+   */
+  public Job(ObjectId userId, String firebaseId, JobType type, ObjectId targetId,
+      ObjectId resultId) {
+    this.userId = userId;
+    this.firebaseId = firebaseId;
+    this.type = type;
+    this.targetId = targetId;
+    this.resultId = resultId;
+    this.status = JobStatus.QUEUED;
+  }
+
+  public Job(Job other) {
+      this.id = other.id;
+      this.userId = other.userId;
+      this.firebaseId = other.firebaseId;
+      this.type = other.type;
+      this.status = other.status;
+      this.targetId = other.targetId;
+      this.resultId = other.resultId;
+      this.checkpoint = other.checkpoint;
+      this.attempts = other.attempts;
+      this.error = other.error;
+      this.leaseExpiresAt = other.leaseExpiresAt;
+      this.retryAt = other.retryAt;
+      this.friendIds = other.friendIds == null ? null : List.copyOf(other.friendIds);
+      this.createdAt = other.createdAt;
+      this.updatedAt = other.updatedAt;
+  }
+
+  public ObjectId getId() {
+    return id;
+  }
+
+  public void setId(ObjectId id) {
+    this.id = id;
+  }
+
+  public ObjectId getUserId() {
+    return userId;
+  }
+
+  public void setUserId(ObjectId userId) {
+    this.userId = userId;
+  }
+
+  public String getFirebaseId() {
+    return firebaseId;
+  }
+
+  public void setFirebaseId(String firebaseId) {
+    this.firebaseId = firebaseId;
+  }
+
+  public JobType getType() {
+    return type;
+  }
+
+  public void setType(JobType type) {
+    this.type = type;
+  }
+
+  public JobStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(JobStatus status) {
+    this.status = status;
+  }
+
+  public ObjectId getTargetId() {
+    return targetId;
+  }
+
+  public void setTargetId(ObjectId targetId) {
+    this.targetId = targetId;
+  }
+
+  public ObjectId getResultId() {
+    return resultId;
+  }
+
+  public void setResultId(ObjectId resultId) {
+    this.resultId = resultId;
+  }
+
+  public int getCheckpoint() {
+    return checkpoint;
+  }
+
+  public void setCheckpoint(int checkpoint) {
+    this.checkpoint = checkpoint;
+  }
+
+  public int getAttempts() {
+    return attempts;
+  }
+
+  public void setAttempts(int attempts) {
+    this.attempts = attempts;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+
+  public Instant getLeaseExpiresAt() {
+    return leaseExpiresAt;
+  }
+
+  public void setLeaseExpiresAt(Instant leaseExpiresAt) {
+    this.leaseExpiresAt = leaseExpiresAt;
+  }
+
+  public Instant getRetryAt() {
+    return retryAt;
+  }
+
+  public void setRetryAt(Instant retryAt) {
+    this.retryAt = retryAt;
+  }
+
+  public List<ObjectId> getFriendIds() {
+    return friendIds;
+  }
+
+  public void setFriendIds(List<ObjectId> friendIds) {
+    this.friendIds = friendIds;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+}
@@ -0,0 +1,8 @@
+package com.bproj.skilltree.model;
+
+/**
+ * The lifecycle state of a background Job.
+ */
+public enum JobStatus {
+  QUEUED, RUNNING, SUCCEEDED, FAILED
+}
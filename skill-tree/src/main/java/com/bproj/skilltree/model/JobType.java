@@ -0,0 +1,8 @@
+package com.bproj.skilltree.model;
+
+/**
+ * The kind of work a background Job performs.
+ */
+public enum JobType {
+  DELETE_USER, COPY_TREE
+}
@@ -0,0 +1,85 @@
+package com.bproj.skilltree.model;
+
+import java.time.Instant;
+import lombok.ToString;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The marker of a one-off data migration, such as a backfill run on startup. An instance claims
+ * the migration by setting lockedUntil before running it and sets completedAt once it is done, so
+ * each migration runs once across all instances. A claim that lapses (its instance died) can be
+ * taken over.
+ */
+@Document(collection = "migrations")
+@ToString(onlyExplicitlyIncluded = true)
+public class Migration {
+  @Id
+  private ObjectId id;
+  @Indexed(unique = true)
+  @ToString.Include
+  private String name;
+  @ToString.Include
+  private Instant lockedUntil;
+  @ToString.Include
+  private Instant completedAt;
+
+  public Migration() {}
+
+  /**
+   * Create the marker of a migration that is being claimed.
+   *
+   * @param name Identifies the migration
+   * @param lockedUntil When the claim lapses
+   */
+  public Migration(String name, Instant lockedUntil) {
+    this.name = name;
+    this.lockedUntil = lockedUntil;
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other The Migration to copy
+   */
+  public Migration(Migration other) {
+    this.id = other.id;
+    this.name = other.name;
+    this.lockedUntil = other.lockedUntil;
+    this.completedAt = other.completedAt;
+  }
+
+  public ObjectId getId() {
+    return id;
+  }
+
+  public void setId(ObjectId id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public Instant getLockedUntil() {
+    return lockedUntil;
+  }
+
+  public void setLockedUntil(Instant lockedUntil) {
+    this.lockedUntil = lockedUntil;
+  }
+
+  public Instant getCompletedAt() {
+    return completedAt;
+  }
+
+  public void setCompletedAt(Instant completedAt) {
+    this.completedAt = completedAt;
+  }
+}
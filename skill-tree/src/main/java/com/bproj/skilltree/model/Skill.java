@@ -9,13 +9,23 @@ import org.bson.types.ObjectId;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
  * A skill. Tied to a User and a Tree. Has a name, tracks hours spent, and optionally a background
- * image URL. image url.
+ * image URL. image url. The compound indexes each back one SkillSortMode of a User's paged
+ * Skill list.
  */
 @Document(collection = "skills")
+@CompoundIndexes({
+    @CompoundIndex(name = "user_name", def = "{'userId': 1, 'name': 1, '_id': 1}"),
+    @CompoundIndex(name = "user_created", def = "{'userId': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "user_time_spent",
+        def = "{'userId': 1, 'timeSpentHours': -1, '_id': -1}"),
+    @CompoundIndex(name = "user_last_used", def = "{'userId': 1, 'lastUsedAt': -1, '_id': -1}")
+})
 @ToString(onlyExplicitlyIncluded = true)
 public class Skill {
   @Id
@@ -47,6 +57,8 @@ public class Skill {
   @LastModifiedDate
   @ToString.Include
   private Instant updatedAt;
+  @ToString.Include
+  private Instant lastUsedAt;
 
 
   public Skill() {}
@@ -100,6 +112,7 @@ public class Skill {
       this.parentSkillId = other.parentSkillId;
       this.createdAt = other.createdAt;
       this.updatedAt = other.updatedAt;
+      this.lastUsedAt = other.lastUsedAt;
   }
 
   public ObjectId getId() {
@@ -174,6 +187,19 @@ public class Skill {
     this.updatedAt = updatedAt;
   }
 
+  /**
+   * When an Activity last logged time on this Skill or one below it.
+   *
+   * @return The time, or null if no Activity ever has
+   */
+  public Instant getLastUsedAt() {
+    return lastUsedAt;
+  }
+
+  public void setLastUsedAt(Instant lastUsedAt) {
+    this.lastUsedAt = lastUsedAt;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -2,6 +2,10 @@ package com.bproj.skilltree.model;
 
 /**
  * Enum for deciding how Skills are sorted.
+ *
+ * <p>RECENTLY_USED orders by Skill.lastUsedAt, which only ever moves forward: an Activity logging
+ * time sets it with $max. Deleting an Activity, or editing a Skill out of it, doesn't move it back,
+ * so a Skill whose latest Activity is gone keeps that Activity's time until it is used again.
  */
 public enum SkillSortMode {
   CREATED_AT, TIME_SPENT, RECENTLY_USED, NAME
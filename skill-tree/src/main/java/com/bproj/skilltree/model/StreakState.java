@@ -0,0 +1,109 @@
+package com.bproj.skilltree.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import lombok.ToString;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A User's streaks, kept up to date as days become active or inactive so reading them doesn't
+ * depend on how long the User's history is. Stored under the User's Id, one per User.
+ * currentStreak is the length of the run of active days ending on lastActiveDay; whether that run
+ * is still alive depends on the day it is read, see {@link #streakOn(LocalDate)}.
+ */
+@Document(collection = "streakStates")
+@ToString(onlyExplicitlyIncluded = true)
+public class StreakState {
+  @Id
+  @ToString.Include
+  private ObjectId userId;
+  @ToString.Include
+  private int currentStreak;
+  @ToString.Include
+  private int longestStreak;
+  @ToString.Include
+  private Instant lastActiveDay;
+
+  public StreakState() {}
+
+  /**
+   * Explicit value constructor.
+   *
+   * @param userId The User the streaks belong to
+   * @param currentStreak The length of the run of active days ending on lastActiveDay
+   * @param longestStreak The length of the longest run of active days ever
+   * @param lastActiveDay The start of the latest UTC day with an Activity, null if there is none
+   */
+  public StreakState(ObjectId userId, int currentStreak, int longestStreak,
+      Instant lastActiveDay) {
+    this.userId = userId;
+    this.currentStreak = currentStreak;
+    this.longestStreak = longestStreak;
+    this.lastActiveDay = lastActiveDay;
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other The StreakState to copy
+   */
+  public StreakState(StreakState other) {
+    this.userId = other.userId;
+    this.currentStreak = other.currentStreak;
+    this.longestStreak = other.longestStreak;
+    this.lastActiveDay = other.lastActiveDay;
+  }
+
+  /**
+   * The User's streak as seen on the given day. A run ending yesterday still counts, since the
+   * User has the rest of today to keep it going.
+   *
+   * @param today The current UTC date
+   * @return The number of consecutive active days up to today, or 0 if the run has been broken
+   */
+  public int streakOn(LocalDate today) {
+    LocalDate last = getLastActiveDate();
+    if (last == null || last.isBefore(today.minusDays(1))) {
+      return 0;
+    }
+    return currentStreak;
+  }
+
+  public LocalDate getLastActiveDate() {
+    return lastActiveDay == null ? null : DailyActivity.toDate(lastActiveDay);
+  }
+
+  public ObjectId getUserId() {
+    return userId;
+  }
+
+  public void setUserId(ObjectId userId) {
+    this.userId = userId;
+  }
+
+  public int getCurrentStreak() {
+    return currentStreak;
+  }
+
+  public void setCurrentStreak(int currentStreak) {
+    this.currentStreak = currentStreak;
+  }
+
+  public int getLongestStreak() {
+    return longestStreak;
+  }
+
+  public void setLongestStreak(int longestStreak) {
+    this.longestStreak = longestStreak;
+  }
+
+  public Instant getLastActiveDay() {
+    return lastActiveDay;
+  }
+
+  public void setLastActiveDay(Instant lastActiveDay) {
+    this.lastActiveDay = lastActiveDay;
+  }
+}
@@ -0,0 +1,9 @@
+package com.bproj.skilltree.model;
+
+/**
+ * The kinds of documents /api/sync hands out changes for. An Orientation is identified by its
+ * Tree's Id.
+ */
+public enum SyncedCollection {
+  TREES, SKILLS, ACHIEVEMENTS, ACTIVITIES, ORIENTATIONS
+}
@@ -0,0 +1,46 @@
+package com.bproj.skilltree.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Enum for the width of the buckets a time series is grouped into. Weeks start on Monday.
+ */
+public enum TimeBucket {
+  DAY, WEEK, MONTH;
+
+  /**
+   * The first day of the bucket a date falls in.
+   *
+   * @param date Any date
+   * @return The start of its bucket
+   */
+  public LocalDate startOf(LocalDate date) {
+    switch (this) {
+      case WEEK:
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+      case MONTH:
+        return date.withDayOfMonth(1);
+      default:
+        return date;
+    }
+  }
+
+  /**
+   * The first day of the bucket after the one starting on start.
+   *
+   * @param start The start of a bucket
+   * @return The start of the next bucket
+   */
+  public LocalDate next(LocalDate start) {
+    switch (this) {
+      case WEEK:
+        return start.plusWeeks(1);
+      case MONTH:
+        return start.plusMonths(1);
+      default:
+        return start.plusDays(1);
+    }
+  }
+}
@@ -81,6 +81,7 @@ public class Tree {
       this.id = other.id;
       this.userId = other.userId;
       this.name = other.name;
+      this.backgroundUrl = other.backgroundUrl;
       this.description = other.description;
       this.visibility = other.visibility;
       this.createdAt = other.createdAt;
@@ -0,0 +1,102 @@
+package com.bproj.skilltree.model;
+
+import lombok.ToString;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The totals of one copy of a PRESET Tree, kept so Users can be ranked per PRESET. Stored under
+ * the copied Tree's Id and created when the copy is made, which is when both totals are 0 (copies
+ * start with no hours and no completed Achievements). Only copies of PRESET Trees have one.
+ */
+@Document(collection = "treeTotals")
+@ToString(onlyExplicitlyIncluded = true)
+public class TreeTotals {
+  @Id
+  @ToString.Include
+  private ObjectId treeId;
+  @Indexed
+  @ToString.Include
+  private ObjectId userId;
+  @ToString.Include
+  private ObjectId presetTreeId;
+  @ToString.Include
+  private double hoursLogged;
+  @ToString.Include
+  private int achievementsCompleted;
+
+  public TreeTotals() {}
+
+  /**
+   * Explicit value constructor.
+   *
+   * @param treeId The Id of the copied Tree
+   * @param userId The User the copy belongs to
+   * @param presetTreeId The Id of the PRESET Tree it was copied from
+   * @param hoursLogged Hours logged on the copy's Skills
+   * @param achievementsCompleted Number of the copy's Achievements that are complete
+   */
+  public TreeTotals(ObjectId treeId, ObjectId userId, ObjectId presetTreeId, double hoursLogged,
+      int achievementsCompleted) {
+    this.treeId = treeId;
+    this.userId = userId;
+    this.presetTreeId = presetTreeId;
+    this.hoursLogged = hoursLogged;
+    this.achievementsCompleted = achievementsCompleted;
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other The TreeTotals to copy
+   */
+  public TreeTotals(TreeTotals other) {
+    this.treeId = other.treeId;
+    this.userId = other.userId;
+    this.presetTreeId = other.presetTreeId;
+    this.hoursLogged = other.hoursLogged;
+    this.achievementsCompleted = other.achievementsCompleted;
+  }
+
+  public ObjectId getTreeId() {
+    return treeId;
+  }
+
+  public void setTreeId(ObjectId treeId) {
+    this.treeId = treeId;
+  }
+
+  public ObjectId getUserId() {
+    return userId;
+  }
+
+  public void setUserId(ObjectId userId) {
+    this.userId = userId;
+  }
+
+  public ObjectId getPresetTreeId() {
+    return presetTreeId;
+  }
+
+  public void setPresetTreeId(ObjectId presetTreeId) {
+    this.presetTreeId = presetTreeId;
+  }
+
+  public double getHoursLogged() {
+    return hoursLogged;
+  }
+
+  public void setHoursLogged(double hoursLogged) {
+    this.hoursLogged = hoursLogged;
+  }
+
+  public int getAchievementsCompleted() {
+    return achievementsCompleted;
+  }
+
+  public void setAchievementsCompleted(int achievementsCompleted) {
+    this.achievementsCompleted = achievementsCompleted;
+  }
+}
@@ -0,0 +1,74 @@
+package com.bproj.skilltree.model;
+
+import lombok.ToString;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A User's all-time totals, kept up to date with $inc as Activities and Achievements change so a
+ * leaderboard reads one small document per User. Stored under the User's Id, one per User. A
+ * missing UserTotals is rebuilt from the rollups and Achievements the first time it is read, so
+ * bulk deletes only need to remove it.
+ */
+@Document(collection = "userTotals")
+@ToString(onlyExplicitlyIncluded = true)
+public class UserTotals {
+  @Id
+  @ToString.Include
+  private ObjectId userId;
+  @ToString.Include
+  private double hoursLogged;
+  @ToString.Include
+  private int achievementsCompleted;
+
+  public UserTotals() {}
+
+  /**
+   * Explicit value constructor.
+   *
+   * @param userId The User the totals belong to
+   * @param hoursLogged The total duration of the User's Activities in hours
+   * @param achievementsCompleted The number of the User's Achievements that are complete
+   */
+  public UserTotals(ObjectId userId, double hoursLogged, int achievementsCompleted) {
+    this.userId = userId;
+    this.hoursLogged = hoursLogged;
+    this.achievementsCompleted = achievementsCompleted;
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other The UserTotals to copy
+   */
+  public UserTotals(UserTotals other) {
+    this.userId = other.userId;
+    this.hoursLogged = other.hoursLogged;
+    this.achievementsCompleted = other.achievementsCompleted;
+  }
+
+  public ObjectId getUserId() {
+    return userId;
+  }
+
+  public void setUserId(ObjectId userId) {
+    this.userId = userId;
+  }
+
+  public double getHoursLogged() {
+    return hoursLogged;
+  }
+
+  public void setHoursLogged(double hoursLogged) {
+    this.hoursLogged = hoursLogged;
+  }
+
+  public int getAchievementsCompleted() {
+    return achievementsCompleted;
+  }
+
+  public void setAchievementsCompleted(int achievementsCompleted) {
+    this.achievementsCompleted = achievementsCompleted;
+  }
+}
@@ -0,0 +1,9 @@
+package com.bproj.skilltree.model;
+
+/**
+ * The lists a User can fetch conditionally. Each has its own version in the User's DataVersions,
+ * bumped whenever something the list shows changes.
+ */
+public enum VersionedCollection {
+  TREES, SKILLS, ACHIEVEMENTS, ACTIVITIES, FRIENDSHIPS
+}
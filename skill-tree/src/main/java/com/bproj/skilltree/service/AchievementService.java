@@ -5,15 +5,19 @@ import com.bproj.skilltree.dao.OrientationRepository;
 import com.bproj.skilltree.dao.TreeRepository;
 import com.bproj.skilltree.dao.UserRepository;
 import com.bproj.skilltree.dto.AchievementFeedItem;
+import com.bproj.skilltree.dto.CursorPage;
 import com.bproj.skilltree.exception.BadRequestException;
 import com.bproj.skilltree.exception.NotFoundException;
 import com.bproj.skilltree.model.*;
+import com.bproj.skilltree.util.Keyset;
 import com.bproj.skilltree.util.PatchUtils;
+import com.bproj.skilltree.util.TreeGraphs;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,10 +33,16 @@ import java.util.stream.Collectors;
 @Service
 public class AchievementService {
   private static final Logger logger = LoggerFactory.getLogger(AchievementService.class);
+  private static final int MAX_PAGE_SIZE = 100;
   private final AchievementRepository achievementRepository;
   private final UserRepository userRepository;
   private final TreeRepository treeRepository;
   private final OrientationRepository orientationRepository;
+  private final UserTotalsService userTotalsService;
+  private final RankingService rankingService;
+  private final SearchService searchService;
+  private final DataVersionService dataVersionService;
+  private final ChangeLogService changeLogService;
 
 
   /**
@@ -42,17 +52,31 @@ public class AchievementService {
    * @param achievementRepository DB operations for Achievements
    * @param userRepository DB operations for Users
    * @param treeRepository DB operations for Trees
+   * @param orientationRepository DB operations for Orientations
+   * @param userTotalsService Told when Achievements are completed or un-completed
+   * @param rankingService Told when Achievements in a Tree are completed or un-completed
+   * @param searchService Told about every Achievement written or deleted
+   * @param dataVersionService Bumped after every Achievement write
+   * @param changeLogService Told which Achievements every write changed
    */
   @Autowired
   public AchievementService(
       @Qualifier("mongoAchievementRepository") AchievementRepository achievementRepository,
       @Qualifier("mongoUserRepository") UserRepository userRepository,
       @Qualifier("mongoTreeRepository") TreeRepository treeRepository,
-      @Qualifier("mongoOrientationRepository") OrientationRepository orientationRepository) {
+      @Qualifier("mongoOrientationRepository") OrientationRepository orientationRepository,
+      UserTotalsService userTotalsService, RankingService rankingService,
+      SearchService searchService, DataVersionService dataVersionService,
+      ChangeLogService changeLogService) {
     this.achievementRepository = achievementRepository;
     this.userRepository = userRepository;
     this.treeRepository = treeRepository;
     this.orientationRepository = orientationRepository;
+    this.userTotalsService = userTotalsService;
+    this.rankingService = rankingService;
+    this.searchService = searchService;
+    this.dataVersionService = dataVersionService;
+    this.changeLogService = changeLogService;
   }
 
   /**
@@ -81,11 +105,12 @@ public class AchievementService {
       throw new BadRequestException("Achievement tree must be owned by the same user.");
     }
 
-    // Prerequisites
-    for (ObjectId prereqId : achievement.getPrerequisites()) {
-      Optional<Achievement> optionalPrerequisite =
-          achievementRepository.findByUserIdAndTreeIdAndId(userId, treeId, prereqId);
-      if (optionalPrerequisite.isEmpty()) {
+    // Prerequisites, checked with one query
+    List<ObjectId> prereqIds = achievement.getPrerequisites().stream().distinct().toList();
+    if (!prereqIds.isEmpty()) {
+      long matching = achievementRepository.findAllById(prereqIds).stream()
+          .filter(p -> userId.equals(p.getUserId()) && treeId.equals(p.getTreeId())).count();
+      if (matching != prereqIds.size()) {
         throw new BadRequestException("Prerequisite must have matching userId and treeId.");
       }
     }
@@ -97,30 +122,9 @@ public class AchievementService {
   }
 
   private boolean wouldCreateCycle(Achievement achievement, List<ObjectId> newPrerequisites) {
-    Map<ObjectId, Achievement> achievementMap =
-        achievementRepository.findByTreeId(achievement.getTreeId()).stream()
-            .collect(Collectors.toMap(Achievement::getId, a -> a));
-
-    ObjectId targetId = achievement.getId();
-    Deque<ObjectId> stack = new ArrayDeque<>(newPrerequisites);
-    while (!stack.isEmpty()) {
-      ObjectId currentId = stack.pop();
-      if (currentId == null) {
-        continue;
-      }
-      if (currentId.equals(targetId)) {
-        return true;
-      }
-
-      Achievement currentAch = achievementMap.get(currentId);
-      if (currentAch == null) {
-        continue;
-      }
-      for (ObjectId prereqId : currentAch.getPrerequisites()) {
-        stack.push(prereqId);
-      }
-    }
-    return false;
+    return TreeGraphs.wouldCreatePrerequisiteCycle(
+        achievementRepository.findByTreeId(achievement.getTreeId()), achievement.getId(),
+        newPrerequisites);
   }
 
 
@@ -133,33 +137,36 @@ public class AchievementService {
    */
   @Transactional
   public Achievement create(Achievement achievement, ObjectId userId) {
-    logger.info("create(achievement={}, userId={})", achievement, userId);
+    logger.debug("create(achievement={}, userId={})", achievement, userId);
     achievement.setUserId(userId);
     validateAchievement(achievement);
-    logger.info("achievementRepository.insert(achievement={})", achievement);
     Achievement createdAchievement = achievementRepository.insert(achievement);
-    logger.info("orientationRepository.findByUserIdAndTreeId(userId={}, treeId={})", userId,
-        achievement.getTreeId());
     Orientation orientation =
         orientationRepository.findByUserIdAndTreeId(userId, achievement.getTreeId())
             .orElseThrow(() -> new NotFoundException("orientations",
                 Map.of("userId", userId.toString(), "treeId", achievement.getTreeId().toString())));
     orientation.getAchievementLocations()
         .add(new AchievementLocation(createdAchievement.getId(), 0, 0));
-    logger.info("orientationRepository.save(orientation={})", orientation);
     orientationRepository.save(orientation);
+    if (createdAchievement.isComplete()) {
+      userTotalsService.addAchievementsCompleted(userId, 1);
+      rankingService.addTreeAchievementsCompleted(createdAchievement.getTreeId(), 1);
+    }
+    searchService.achievementChanged(createdAchievement);
+    dataVersionService.bump(userId, VersionedCollection.ACHIEVEMENTS);
+    changeLogService.changed(userId, Map.of(
+        SyncedCollection.ACHIEVEMENTS, List.of(createdAchievement.getId()),
+        SyncedCollection.ORIENTATIONS, List.of(createdAchievement.getTreeId())));
     return createdAchievement;
   }
 
   public boolean existsById(ObjectId achievementId) {
-    logger.info("existsById(achievementId={})", achievementId);
-    logger.info("achievementRepository.existsById(achievementId={})", achievementId);
+    logger.debug("existsById(achievementId={})", achievementId);
     return achievementRepository.existsById(achievementId);
   }
 
   public boolean existsByUserIdAndId(ObjectId userId, ObjectId id) {
-    logger.info("existsByUserIdAndId(userId={}, id={})", userId, id);
-    logger.info("achievementRepository.existsByUserIdAndId(userId={}, id={})", userId, id);
+    logger.debug("existsByUserIdAndId(userId={}, id={})", userId, id);
     return achievementRepository.existsByUserIdAndId(userId, id);
   }
 
@@ -170,8 +177,7 @@ public class AchievementService {
    * @return The Achievement associated with the Id. Otherwise throws.
    */
   public Achievement findById(ObjectId achievementId) {
-    logger.info("findById(achievementId={})", achievementId);
-    logger.info("achievementRepository.findById(achievementId={})", achievementId);
+    logger.debug("findById(achievementId={})", achievementId);
     return achievementRepository.findById(achievementId)
         .orElseThrow(() -> new NotFoundException("achievements",
             Map.of("achievementId", achievementId.toString())));
@@ -185,74 +191,72 @@ public class AchievementService {
    * @return The Achievement associated with userId and Id. Throws otherwise.
    */
   public Achievement findByUserIdAndId(ObjectId userId, ObjectId achievementId) {
-    logger.info("findByUserIdAndId(userId={}, achievementId={})", userId, achievementId);
-    logger.info("achievementRepository.findByUserIdAndId(userId={}, achievementId={})", userId,
-        achievementId);
+    logger.debug("findByUserIdAndId(userId={}, achievementId={})", userId, achievementId);
     return achievementRepository.findByUserIdAndId(userId, achievementId)
         .orElseThrow(() -> new NotFoundException("achievements",
             Map.of("userId", userId.toString(), "achievementId", achievementId.toString())));
   }
 
   public List<Achievement> findAll() {
-    logger.info("findAll()");
-    logger.info("achievementRepository.findAll()");
+    logger.debug("findAll()");
     return achievementRepository.findAll();
   }
 
   /**
-   * Returns all Achievements belonging to a specific User. Supports query parameters. 'next' and
-   * 'complete' don't work together (handled in controller).
+   * Get one page of a User's Achievements. Each sort mode is served by an index and paged by
+   * keyset, so a page costs the same however deep it is.
    *
-   * @param userId The User we find Achievements for.
-   * @param treeId (optional) The Tree returned Achievements must belong to.
-   * @param next (optional) The returned achievements are incomplete with completed prerequisites.
-   * @return A list of Achievements belonging to the provided userId, satisfying the query.
-   */
-  public List<Achievement> findByUserId(ObjectId userId, ObjectId treeId, Boolean next) {
-    logger.info("findByUserId(userId={}, treeId={}, next={})", userId, treeId, next);
-    if (treeId != null) {
-      if (Boolean.TRUE.equals(next)) {
-        return findByUserIdAndNext(userId, treeId);
-      } else {
-        logger.info("achievementRepository.findByUserIdAndTreeId(userId={}, treeId={})", userId,
-            treeId);
-        return achievementRepository.findByUserIdAndTreeId(userId, treeId);
-      }
-    }
-    if (Boolean.TRUE.equals(next)) {
-      return findByUserIdAndNext(userId, null);
-    }
-    logger.info("achievementRepository.findByUserId(userId={})", userId);
-    return achievementRepository.findByUserId(userId);
-  }
-
-  /**
-   * Handles query params treeId and next, sorts resulting list of Achievements.
+   * <p>With next, only incomplete Achievements whose prerequisites are all complete are returned.
+   * The incomplete ones are paged in the DB and the prerequisites of each page are then checked,
+   * so a page may hold fewer than size Achievements, or none, while nextPageToken is still set.
    *
    * @param userId The Id of the User the Achievements belong to
    * @param treeId (optional) Returned Achievements belong to the matching Tree
    * @param next (optional) Returned Achievements have fully complete prerequisites and are
    *        incomplete themselves
-   * @param sortMode How the resulting list will be sorted
-   * @return The filtered and sorted list of Achievements
+   * @param sortMode How the Achievements are ordered, TITLE if null
+   * @param pageToken The token from the previous page, or null for the first page
+   * @param size The page size, at most 100
+   * @return The filtered and sorted page of Achievements
    */
-  public List<Achievement> query(ObjectId userId, ObjectId treeId, Boolean next,
-      AchievementSortMode sortMode) {
-    logger.info("query(userId={}, treeId={}, next={}, sortMode={})", userId, treeId, next,
-        sortMode);
-    List<Achievement> achievements = findByUserId(userId, treeId, next);
+  public CursorPage<Achievement> query(ObjectId userId, ObjectId treeId, Boolean next,
+      AchievementSortMode sortMode, String pageToken, int size) {
+    logger.debug("query(userId={}, treeId={}, next={}, sortMode={}, pageToken={}, size={})",
+        userId, treeId, next, sortMode, pageToken, size);
+    if (size < 1 || size > MAX_PAGE_SIZE) {
+      throw new BadRequestException("size must be 1-" + MAX_PAGE_SIZE);
+    }
+    Keyset keyset =
+        Keyset.of(sortOf(sortMode == null ? AchievementSortMode.TITLE : sortMode), pageToken);
+    if (!Boolean.TRUE.equals(next)) {
+      return keyset.page(
+          achievementRepository.findPage(userId, treeId, null, keyset, size + 1), size);
+    }
+    if (treeId != null && !treeRepository.existsByUserIdAndId(userId, treeId)) {
+      throw new NotFoundException("trees",
+          Map.of("userId", userId.toString(), "treeId", treeId.toString()));
+    }
+    CursorPage<Achievement> incomplete = keyset.page(
+        achievementRepository.findPage(userId, treeId, false, keyset, size + 1), size);
+    Set<ObjectId> prerequisiteIds = incomplete.getContent().stream()
+        .flatMap(a -> a.getPrerequisites().stream()).collect(Collectors.toSet());
+    Set<ObjectId> completeIds = prerequisiteIds.isEmpty() ? Set.of()
+        : achievementRepository.findAllById(prerequisiteIds).stream()
+            .filter(Achievement::isComplete).map(Achievement::getId).collect(Collectors.toSet());
+    return new CursorPage<>(incomplete.getContent().stream()
+        .filter(a -> completeIds.containsAll(a.getPrerequisites())).toList(),
+        incomplete.getNextPageToken());
+  }
+
+  // Completed Achievements come first, most recent first, and incomplete ones after them.
+  private static Sort sortOf(AchievementSortMode sortMode) {
     switch (sortMode) {
       case TITLE:
-        return achievements.stream().sorted(Comparator.comparing(Achievement::getTitle)).toList();
+        return Sort.by(Sort.Direction.ASC, "title", "_id");
       case COMPLETED_AT:
-        List<Achievement> complete = achievements.stream().filter(Achievement::isComplete)
-            .sorted(Comparator.comparing(Achievement::getCompletedAt).reversed()).toList();
-        List<Achievement> incomplete = achievements.stream().filter(a -> !a.isComplete()).toList();
-        complete.addAll(incomplete);
-        return complete;
+        return Sort.by(Sort.Direction.DESC, "complete", "completedAt", "_id");
       case CREATED_AT:
-        return achievements.stream()
-            .sorted(Comparator.comparing(Achievement::getCreatedAt).reversed()).toList();
+        return Sort.by(Sort.Direction.DESC, "createdAt", "_id");
       default:
         throw new BadRequestException("Invalid AchievementSortMode.");
     }
@@ -266,52 +270,14 @@ public class AchievementService {
    * @return The children list for the provided Achievement. Throws otherwise.
    */
   public List<Achievement> findChildren(ObjectId userId, ObjectId achievementId) {
-    logger.info("findChildren(userId={}, achievementId={})", userId, achievementId);
-    logger.info("achievementRepository.existsByUserIdAndId(userId={}, achievementId={})", userId,
-        achievementId);
+    logger.debug("findChildren(userId={}, achievementId={})", userId, achievementId);
     if (!achievementRepository.existsByUserIdAndId(userId, achievementId)) {
       throw new NotFoundException("achievements",
           Map.of("userId", userId.toString(), "achievementId", achievementId.toString()));
     }
-    logger.info(
-        "achievementRepository.findByUserIdAndPrerequisitesContaining(userId={}, achievementId={})",
-        userId, achievementId);
     return achievementRepository.findByUserIdAndPrerequisitesContaining(userId, achievementId);
   }
 
-  /**
-   * Returns all Achievements belonging to a specific User that have their prerequisites completed.
-   * Supports query parameter 'treeId'.
-   *
-   * @param userId The User the returned Achievements must belong to.
-   * @param treeId (optional) The Tree the returned Achievements must belong to.
-   * @return The Achievements matching the userId and possible the treeId.
-   */
-  public List<Achievement> findByUserIdAndNext(ObjectId userId, ObjectId treeId) {
-    logger.info("findByUserIdAndNext(userId={}, treeId={})", userId, treeId);
-    if (treeId != null && !treeRepository.existsByUserIdAndId(userId, treeId)) {
-      throw new NotFoundException("trees",
-          Map.of("userId", userId.toString(), "treeId", treeId.toString()));
-    }
-    if (treeId == null) {
-      logger.info("achievementRepository.findByUserId(userId={})", userId);
-    } else {
-      logger.info("achievementRepository.findByUserIdAndTreeId(userId={}, treeId={})", userId,
-          treeId);
-    }
-    List<Achievement> all = treeId == null ? achievementRepository.findByUserId(userId)
-        : achievementRepository.findByUserIdAndTreeId(userId, treeId);
-
-    Map<ObjectId, Boolean> completeMap =
-        all.stream().collect(Collectors.toMap(Achievement::getId, Achievement::isComplete));
-
-    List<Achievement> res = all.stream()
-        .filter(a -> a.getPrerequisites().stream()
-            .allMatch(prereqId -> Boolean.TRUE.equals(completeMap.get(prereqId))))
-        .collect(Collectors.toList());
-    return res.stream().filter(a -> !a.isComplete()).toList();
-  }
-
   /**
    * Get the list of AchievementFeedItems for the given users over the past 'days' days.
    *
@@ -321,7 +287,7 @@ public class AchievementService {
    */
   public List<AchievementFeedItem> getAchievementFeedItemsByUserIds(List<ObjectId> userIds,
       int days) {
-    logger.info("getAchievementFeedItemsByUserIds(userIds={}, days={})", userIds, days);
+    logger.debug("getAchievementFeedItemsByUserIds(userIds={}, days={})", userIds, days);
     if (userIds.isEmpty()) {
       return List.of();
     }
@@ -330,12 +296,8 @@ public class AchievementService {
     Instant endInstant =
         LocalDate.now(ZoneOffset.UTC).plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC);
 
-    logger.info(
-        "achievementRepository.findByUserIdInAndCompletedAtBetween(userIds={}, startInstant={}, endInstant={})",
-        userIds, startInstant, endInstant);
     List<Achievement> achievements = achievementRepository
         .findByUserIdInAndCompletedAtBetween(userIds, startInstant, endInstant);
-    logger.info("userRepository.findByIdIn(userIds={})", userIds);
     Map<ObjectId, User> userMap =
         userRepository.findByIdIn(userIds).stream().collect(Collectors.toMap(User::getId, u -> u));
 
@@ -348,54 +310,69 @@ public class AchievementService {
 
 
   public List<Achievement> findCompletedByUserId(ObjectId userId) {
-    logger.info("findCompletedByUserId(userId={})", userId);
-    logger.info("achievementRepository.findByUserIdAndComplete(userId={}, complete=true)", userId);
+    logger.debug("findCompletedByUserId(userId={})", userId);
     return achievementRepository.findByUserIdAndComplete(userId, true);
   }
 
   public List<Achievement> findIncompleteByUserId(ObjectId userId) {
-    logger.info("findIncompleteByUserId(userId={})", userId);
-    logger.info("achievementRepository.findByUserIdAndComplete(userId={}, complete=false)", userId);
+    logger.debug("findIncompleteByUserId(userId={})", userId);
     return achievementRepository.findByUserIdAndComplete(userId, false);
   }
 
   public List<Achievement> findByTitle(String title) {
-    logger.info("findByTitle(title={})", title);
-    logger.info("achievementRepository.findByTitle(title={})", title);
+    logger.debug("findByTitle(title={})", title);
     return achievementRepository.findByTitle(title);
   }
 
   public List<Achievement> findByUserIdAndTitle(ObjectId userId, String title) {
-    logger.info("findByUserIdAndTitle(userId={}, title={})", userId, title);
-    logger.info("achievementRepository.findByUserIdAndTitle(userId={}, title={})", userId, title);
+    logger.debug("findByUserIdAndTitle(userId={}, title={})", userId, title);
     return achievementRepository.findByUserIdAndTitle(userId, title);
   }
 
-  // O(n^2)
-  private int cascadeIncompleteStatus(ObjectId achievementId) {
-    Achievement root = achievementRepository.findById(achievementId)
-        .orElseThrow(() -> new NotFoundException("achievements",
-            Map.of("achievementId", achievementId.toString())));
-    int achievementsTouched = 0;
-    Deque<Achievement> stack = new ArrayDeque<>();
-    stack.push(root);
-    Map<ObjectId, Achievement> achievementMap = achievementRepository.findByTreeId(root.getTreeId())
-        .stream().collect(Collectors.toMap(a -> a.getId(), a -> a));
-    List<Achievement> modified = new ArrayList<>();
-    while (!stack.isEmpty()) {
-      Achievement current = stack.pop();
-      modified.add(current);
-      achievementsTouched++;
-      List<Achievement> currentChildren = achievementMap.values().stream()
-          .filter(a -> a.getPrerequisites().contains(current.getId())).toList();
-      for (Achievement a : currentChildren) {
-        stack.push(a);
-      }
-      current.setComplete(false);
-      current.setCompletedAt(null);
+  /**
+   * Mark an Achievement and everything depending on it incomplete.
+   *
+   * @param root The Achievement the cascade starts from
+   * @param marked Collects the Ids of every Achievement marked incomplete
+   * @return How many of the root's dependents (not counting the root) were complete before
+   */
+  private int cascadeIncompleteStatus(Achievement root, Set<ObjectId> marked) {
+    List<Achievement> modified =
+        TreeGraphs.dependentsOf(achievementRepository.findByTreeId(root.getTreeId()), root.getId());
+    List<ObjectId> modifiedIds = modified.stream().map(Achievement::getId).toList();
+    achievementRepository.markIncomplete(modifiedIds);
+    marked.addAll(modifiedIds);
+    return (int) modified.stream()
+        .filter(a -> a.isComplete() && !a.getId().equals(root.getId())).count();
+  }
+
+  /**
+   * Set complete=false and completedAt=null on an updated Achievement and everything depending on
+   * it, if it was changed from complete to incomplete or gained a prerequisite that isn't complete.
+   * The new prerequisites are looked up together and the cascade runs at most once.
+   *
+   * @param existingAchievement The Achievement as stored
+   * @param updatedAchievement The Achievement about to be saved
+   * @param marked Collects the Ids of every Achievement the cascade marked incomplete
+   * @return The change in the User's completed Achievements once updatedAchievement is saved
+   */
+  private int cascadeIncompleteOnUpdate(Achievement existingAchievement,
+      Achievement updatedAchievement, Set<ObjectId> marked) {
+    List<ObjectId> addedPrereqs = updatedAchievement.getPrerequisites().stream()
+        .filter(id -> !existingAchievement.getPrerequisites().contains(id)).distinct().toList();
+    boolean incompletePrereqAdded = !addedPrereqs.isEmpty() && achievementRepository
+        .findAllById(addedPrereqs).stream().anyMatch(p -> !p.isComplete());
+    if (incompletePrereqAdded) {
+      updatedAchievement.setComplete(false);
+      updatedAchievement.setCompletedAt(null);
     }
-    achievementRepository.saveAll(modified);
-    return achievementsTouched;
+    int delta = (updatedAchievement.isComplete() ? 1 : 0)
+        - (existingAchievement.isComplete() ? 1 : 0);
+    if (incompletePrereqAdded
+        || (existingAchievement.isComplete() && !updatedAchievement.isComplete())) {
+      delta -= cascadeIncompleteStatus(updatedAchievement, marked);
+    }
+    return delta;
   }
 
   /**
@@ -409,10 +386,8 @@ public class AchievementService {
   @Transactional
   public Achievement update(ObjectId userId, ObjectId achievementId,
       Achievement updatedAchievement) {
-    logger.info("update(userId={}, achievementId={}, updatedAchievement={})", userId, achievementId,
+    logger.debug("update(userId={}, achievementId={}, updatedAchievement={})", userId, achievementId,
         updatedAchievement);
-    logger.info("achievementRepository.findByUserIdAndId(userId={}, achievementId={})", userId,
-        achievementId);
     Achievement existingAchievement = achievementRepository.findByUserIdAndId(userId, achievementId)
         .orElseThrow(() -> new NotFoundException("achievements",
             Map.of("userId", userId.toString(), "achievementId", achievementId.toString())));
@@ -423,24 +398,15 @@ public class AchievementService {
     if (wouldCreateCycle(updatedAchievement, updatedAchievement.getPrerequisites())) {
       throw new BadRequestException("Making this change would create a circular Tree.");
     }
-    // if an incomplete prerequisite is added, set complete=false and completedAt=null for this and
-    // children
-    updatedAchievement.getPrerequisites().forEach(objId -> {
-      if (!existingAchievement.getPrerequisites().contains(objId)) {
-        Achievement newPrerequisite = achievementRepository.findById(objId).orElseThrow(
-            () -> new NotFoundException("achievements", Map.of("achievementId", objId.toString())));
-        if (!newPrerequisite.isComplete()) {
-          cascadeIncompleteStatus(updatedAchievement.getId());
-        }
-      }
-    });
-    // if this achievement has been changed complete -> incomplete, change all children to
-    // incomplete and set completedAt=null.
-    if (existingAchievement.isComplete() && !updatedAchievement.isComplete()) {
-      cascadeIncompleteStatus(updatedAchievement.getId());
-    }
-    logger.info("achievementRepository.save(updatedAchievement={})", updatedAchievement);
+    Set<ObjectId> changed = new HashSet<>(List.of(achievementId));
+    int completedDelta =
+        cascadeIncompleteOnUpdate(existingAchievement, updatedAchievement, changed);
     achievementRepository.save(updatedAchievement);
+    userTotalsService.addAchievementsCompleted(userId, completedDelta);
+    rankingService.addTreeAchievementsCompleted(existingAchievement.getTreeId(), completedDelta);
+    searchService.achievementChanged(updatedAchievement);
+    dataVersionService.bump(userId, VersionedCollection.ACHIEVEMENTS);
+    changeLogService.changed(userId, Map.of(SyncedCollection.ACHIEVEMENTS, changed));
     return updatedAchievement;
   }
 
@@ -454,7 +420,7 @@ public class AchievementService {
    */
   @Transactional
   public Achievement patch(ObjectId userId, ObjectId achievementId, Map<String, Object> updates) {
-    logger.info("patch(userId={}, achievementId={}, updates={})", userId, achievementId, updates);
+    logger.debug("patch(userId={}, achievementId={}, updates={})", userId, achievementId, updates);
     Achievement existingAchievement = findByUserIdAndId(userId, achievementId);
     Achievement updatedAchievement = PatchUtils.applyAchievementPatch(existingAchievement, updates);
     updatedAchievement.setId(achievementId);
@@ -464,24 +430,16 @@ public class AchievementService {
     if (wouldCreateCycle(updatedAchievement, updatedAchievement.getPrerequisites())) {
       throw new BadRequestException("Making this change would create a circular Tree.");
     }
-    // if an incomplete prerequisite is added, set complete=false and completedAt=null for this and
-    // children.
-    updatedAchievement.getPrerequisites().forEach(objId -> {
-      if (!existingAchievement.getPrerequisites().contains(objId)) {
-        Achievement newPrerequisite = achievementRepository.findById(objId).orElseThrow(
-            () -> new NotFoundException("achievements", Map.of("achievementId", objId.toString())));
-        if (!newPrerequisite.isComplete()) {
-          cascadeIncompleteStatus(updatedAchievement.getId());
-        }
-      }
-    });
-    // if this achievement has been changed complete -> incomplete, change all children to
-    // incomplete and set completedAt=null.
-    if (existingAchievement.isComplete() && !updatedAchievement.isComplete()) {
-      cascadeIncompleteStatus(updatedAchievement.getId());
-    }
-    logger.info("achievementRepository.save(updatedAchievement={})", updatedAchievement);
-    return achievementRepository.save(updatedAchievement);
+    Set<ObjectId> changed = new HashSet<>(List.of(achievementId));
+    int completedDelta =
+        cascadeIncompleteOnUpdate(existingAchievement, updatedAchievement, changed);
+    Achievement saved = achievementRepository.save(updatedAchievement);
+    userTotalsService.addAchievementsCompleted(userId, completedDelta);
+    rankingService.addTreeAchievementsCompleted(existingAchievement.getTreeId(), completedDelta);
+    searchService.achievementChanged(saved);
+    dataVersionService.bump(userId, VersionedCollection.ACHIEVEMENTS);
+    changeLogService.changed(userId, Map.of(SyncedCollection.ACHIEVEMENTS, changed));
+    return saved;
   }
 
   /**
@@ -492,15 +450,11 @@ public class AchievementService {
    */
   @Transactional
   public void deleteById(ObjectId achievementId) {
-    logger.info("deleteById(achievementId={})", achievementId);
-    logger.info("achievementRepository.findById(achievementId={})", achievementId);
+    logger.debug("deleteById(achievementId={})", achievementId);
     Achievement achievement = achievementRepository.findById(achievementId)
         .orElseThrow(() -> new NotFoundException("achievements",
             Map.of("achievementId", achievementId.toString())));
     List<ObjectId> prerequisites = achievement.getPrerequisites();
-    logger.info(
-        "achievementRepository.findByUserIdAndPrerequisitesContaining(userId={}, achievementId={})",
-        achievement.getUserId(), achievementId);
     List<Achievement> children = achievementRepository
         .findByUserIdAndPrerequisitesContaining(achievement.getUserId(), achievementId);
     for (Achievement child : children) {
@@ -509,10 +463,18 @@ public class AchievementService {
       merged.addAll(prerequisites);
       child.setPrerequisites(new ArrayList<>(merged));
     }
-    logger.info("achievementRepository.saveAll(children={})", children);
     achievementRepository.saveAll(children);
-    logger.info("achievementRepository.deleteById(achievementId={})", achievementId);
     achievementRepository.deleteById(achievementId);
+    searchService.achievementRemoved(achievement.getUserId(), achievementId);
+    dataVersionService.bump(achievement.getUserId(), VersionedCollection.ACHIEVEMENTS);
+    Set<ObjectId> changed = children.stream().map(Achievement::getId).collect(Collectors.toSet());
+    changed.add(achievementId);
+    changeLogService.changed(achievement.getUserId(),
+        Map.of(SyncedCollection.ACHIEVEMENTS, changed));
+    if (achievement.isComplete()) {
+      userTotalsService.addAchievementsCompleted(achievement.getUserId(), -1);
+      rankingService.addTreeAchievementsCompleted(achievement.getTreeId(), -1);
+    }
   }
 
   /**
@@ -522,9 +484,7 @@ public class AchievementService {
    * @param achievementId The Id of the Achievement
    */
   public void deleteByUserIdAndId(ObjectId userId, ObjectId achievementId) {
-    logger.info("deleteByUserIdAndId(userId={}, achievementId={})", userId, achievementId);
-    logger.info("achievementRepository.findByUserIdAndId(userId={}, achievementId={})", userId,
-        achievementId);
+    logger.debug("deleteByUserIdAndId(userId={}, achievementId={})", userId, achievementId);
     achievementRepository.findByUserIdAndId(userId, achievementId)
         .orElseThrow(() -> new NotFoundException("achievements",
             Map.of("userId", userId.toString(), "achievementId", achievementId.toString())));
@@ -532,15 +492,24 @@ public class AchievementService {
   }
 
   public void deleteByUserId(ObjectId userId) {
-    logger.info("deleteByUserId(userId={})", userId);
-    logger.info("achievementRepository.deleteByUserId(userId={})", userId);
+    logger.debug("deleteByUserId(userId={})", userId);
     achievementRepository.deleteByUserId(userId);
+    userTotalsService.rebuild(userId);
+    rankingService.achievementsRemoved(userId, null);
+    searchService.evict(userId);
+    dataVersionService.bump(userId, VersionedCollection.ACHIEVEMENTS);
+    changeLogService.cleared(userId, SyncedCollection.ACHIEVEMENTS);
   }
 
   public void deleteByUserIdAndTreeId(ObjectId userId, ObjectId treeId) {
-    logger.info("deleteByUserIdAndTreeId(userId={}, treeId={})", userId, treeId);
-    logger.info("achievementRepository.deleteByUserIdAndTreeId(userId={}, treeId={})", userId,
-        treeId);
+    logger.debug("deleteByUserIdAndTreeId(userId={}, treeId={})", userId, treeId);
+    List<ObjectId> deletedIds = achievementRepository.findByUserIdAndTreeId(userId, treeId)
+        .stream().map(Achievement::getId).toList();
     achievementRepository.deleteByUserIdAndTreeId(userId, treeId);
+    userTotalsService.rebuild(userId);
+    rankingService.achievementsRemoved(userId, treeId);
+    searchService.evict(userId);
+    dataVersionService.bump(userId, VersionedCollection.ACHIEVEMENTS);
+    changeLogService.changed(userId, Map.of(SyncedCollection.ACHIEVEMENTS, deletedIds));
   }
 }
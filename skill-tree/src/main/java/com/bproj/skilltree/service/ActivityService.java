@@ -5,6 +5,7 @@ import com.bproj.skilltree.dao.SkillRepository;
 import com.bproj.skilltree.dao.UserRepository;
 import com.bproj.skilltree.dto.ActivityFeedItem;
 import com.bproj.skilltree.dto.ActivityResponse;
+import com.bproj.skilltree.dto.CursorPage;
 import com.bproj.skilltree.dto.RecentActivity;
 import com.bproj.skilltree.exception.BadRequestException;
 import com.bproj.skilltree.exception.NotFoundException;
@@ -12,13 +13,17 @@ import com.bproj.skilltree.mapper.ActivityMapper;
 import com.bproj.skilltree.model.Activity;
 import com.bproj.skilltree.model.Skill;
 import com.bproj.skilltree.model.SkillWeight;
+import com.bproj.skilltree.model.SyncedCollection;
 import com.bproj.skilltree.model.User;
+import com.bproj.skilltree.model.VersionedCollection;
+import com.bproj.skilltree.util.Keyset;
 import com.bproj.skilltree.util.PatchUtils;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,6 +33,7 @@ import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -36,10 +42,17 @@ import java.util.stream.Collectors;
 @Service
 public class ActivityService {
   private static final Logger logger = LoggerFactory.getLogger(ActivityService.class);
+  private static final int MAX_PAGE_SIZE = 100;
+  private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "_id");
   private final ActivityRepository activityRepository;
   private final UserRepository userRepository;
   private final SkillRepository skillRepository;
   private final SkillService skillService;
+  private final DailyActivityService dailyActivityService;
+  private final CascadeDeletePlanner cascadeDeletePlanner;
+  private final UserTotalsService userTotalsService;
+  private final DataVersionService dataVersionService;
+  private final ChangeLogService changeLogService;
 
 
   /**
@@ -48,17 +61,30 @@ public class ActivityService {
    * @param activityRepository Activity DB operations
    * @param userRepository User DB operations
    * @param skillRepository Skill DB operations
+   * @param skillService Skill hour propagation
+   * @param dailyActivityService Per-day Activity rollups
+   * @param cascadeDeletePlanner Set-based bulk deletes
+   * @param userTotalsService Rebuilt after all of a User's Activities are deleted
+   * @param dataVersionService Bumped after every Activity write
+   * @param changeLogService Told about every Activity written or deleted, and the Skills it moved
    */
   @Autowired
   public ActivityService(
       @Qualifier("mongoActivityRepository") ActivityRepository activityRepository,
       @Qualifier("mongoUserRepository") UserRepository userRepository,
       @Qualifier("mongoSkillRepository") SkillRepository skillRepository,
-      SkillService skillService) {
+      SkillService skillService, DailyActivityService dailyActivityService,
+      CascadeDeletePlanner cascadeDeletePlanner, UserTotalsService userTotalsService,
+      DataVersionService dataVersionService, ChangeLogService changeLogService) {
     this.activityRepository = activityRepository;
     this.userRepository = userRepository;
     this.skillRepository = skillRepository;
     this.skillService = skillService;
+    this.dailyActivityService = dailyActivityService;
+    this.cascadeDeletePlanner = cascadeDeletePlanner;
+    this.userTotalsService = userTotalsService;
+    this.dataVersionService = dataVersionService;
+    this.changeLogService = changeLogService;
   }
 
   /**
@@ -97,21 +123,40 @@ public class ActivityService {
         throw new BadRequestException("Skill weight cannot be greater than 1.");
       }
       sumWeights += weight;
-
-      ObjectId skillId = sw.getSkillId();
-      if (!skillRepository.existsByUserIdAndId(userId, skillId)) {
-        throw new BadRequestException(
-            "Skill weight must reference an existing skill owned by the user.");
-      }
     }
     if (Math.abs(sumWeights - 1.0) > 0.05) {
       throw new BadRequestException("Skill weights must sum to approximately 1.");
     }
+
+    // Every referenced Skill is checked with one query
+    List<ObjectId> skillIds =
+        skillWeights.stream().map(SkillWeight::getSkillId).distinct().toList();
+    long ownedSkills = skillRepository.findByIdIn(skillIds).stream()
+        .filter(s -> userId.equals(s.getUserId())).count();
+    if (ownedSkills != skillIds.size()) {
+      throw new BadRequestException(
+          "Skill weight must reference an existing skill owned by the user.");
+    }
+  }
+
+  /**
+   * The hours an Activity adds to each of its Skills, keyed by Skill Id.
+   *
+   * @param activity The Activity
+   * @param sign 1 to add the Activity's hours, -1 to take them off
+   * @return The hours per Skill
+   */
+  private static Map<ObjectId, Double> hoursBySkillId(Activity activity, int sign) {
+    Map<ObjectId, Double> hours = new HashMap<>();
+    double duration = activity.getDuration();
+    for (SkillWeight sw : activity.getSkillWeights()) {
+      hours.merge(sw.getSkillId(), duration * sw.getWeight() * sign, Double::sum);
+    }
+    return hours;
   }
 
   public List<Skill> getSkillsForActivity(Activity activity) {
-    logger.info("getSkillsForActivity(activity={})", activity);
-    logger.info("skillRepository.findByIdIn(skillIds={})", activity.getSkillWeights().stream().map(sw -> sw.getSkillId()).toList());
+    logger.debug("getSkillsForActivity(activity={})", activity);
     return skillRepository
         .findByIdIn(activity.getSkillWeights().stream().map(sw -> sw.getSkillId()).toList());
   }
@@ -123,14 +168,13 @@ public class ActivityService {
    * @return The List of ActivityResponses
    */
   public List<ActivityResponse> mapActivitiesToResponses(List<Activity> activities) {
-    logger.info("mapActivitiesToResponses(activities={})", activities);
+    logger.debug("mapActivitiesToResponses(activities={})", activities);
     if (activities.isEmpty()) {
       return List.of();
     }
     List<ObjectId> skillIds =
         activities.stream().flatMap(a -> a.getSkillWeights().stream().map(SkillWeight::getSkillId))
             .distinct().toList();
-    logger.info("skillRepository.findByIdIn(skillIds={})", skillIds);
     Map<ObjectId, Skill> skillMap = skillRepository.findByIdIn(skillIds).stream()
         .collect(Collectors.toMap(Skill::getId, s -> s));
     return activities.stream().map(a -> {
@@ -142,7 +186,8 @@ public class ActivityService {
 
 
   /**
-   * Create a new Activity. Add weight * duration hours to each referenced Skill.
+   * Create a new Activity. Add weight * duration hours to each referenced Skill, and mark them and
+   * their predecessors as used now.
    *
    * @param activity The Activity to be created
    * @param userId The Id of the User the Activity belongs to
@@ -150,27 +195,26 @@ public class ActivityService {
    */
   @Transactional
   public Activity create(Activity activity, ObjectId userId) {
-    logger.info("create(activity={}, userId={})", activity, userId);
+    logger.debug("create(activity={}, userId={})", activity, userId);
     activity.setUserId(userId);
     validateActivity(activity);
-    logger.info("activityRepository.insert(activity={})", activity);
     Activity createdActivity = activityRepository.insert(activity);
-    double duration = createdActivity.getDuration();
-    createdActivity.getSkillWeights().forEach(sw -> {
-      skillService.addHours(sw.getSkillId(), duration * sw.getWeight());
-    });
+    Set<ObjectId> skillIds =
+        skillService.addHours(userId, hoursBySkillId(createdActivity, 1), Instant.now());
+    dailyActivityService.record(createdActivity, 1);
+    dataVersionService.bump(userId, VersionedCollection.SKILLS, VersionedCollection.ACTIVITIES);
+    changeLogService.changed(userId, Map.of(SyncedCollection.SKILLS, skillIds,
+        SyncedCollection.ACTIVITIES, List.of(createdActivity.getId())));
     return createdActivity;
   }
 
   public boolean existsById(ObjectId activityId) {
-    logger.info("existsById(activityId={})", activityId);
-    logger.info("activityRepository.existsById(activityId={})", activityId);
+    logger.debug("existsById(activityId={})", activityId);
     return activityRepository.existsById(activityId);
   }
 
   public boolean existsByUserIdAndId(ObjectId userId, ObjectId activityId) {
-    logger.info("existsByUserIdAndId(userId={}, activityId={})", userId, activityId);
-    logger.info("activityRepository.existsByUserIdAndId(userId={}, activityId={})", userId, activityId);
+    logger.debug("existsByUserIdAndId(userId={}, activityId={})", userId, activityId);
     return activityRepository.existsByUserIdAndId(userId, activityId);
   }
 
@@ -181,33 +225,35 @@ public class ActivityService {
    * @return The Activity. If not found, throws NFE.
    */
   public Activity findById(ObjectId activityId) {
-    logger.info("findById(activityId={})", activityId);
-    logger.info("activityRepository.findById(activityId={})", activityId);
+    logger.debug("findById(activityId={})", activityId);
     return activityRepository.findById(activityId).orElseThrow(
         () -> new NotFoundException("activities", Map.of("activityId", activityId.toString())));
   }
 
   public List<Activity> findByUserId(ObjectId userId) {
-    logger.info("findByUserId(userId={})", userId);
-    logger.info("activityRepository.findByUserId(userId={})", userId);
+    logger.debug("findByUserId(userId={})", userId);
     return activityRepository.findByUserId(userId);
   }
 
   /**
-   * Finds Activities matching userId and optionally skillId.
+   * Get one page of a User's Activities, newest first, optionally only those that used a Skill.
+   * Paged by keyset on an index, so a page costs the same however deep it is.
    *
    * @param userId The Id of the User the Activity belongs to
    * @param skillId (optional) The skillId Activities must have to be pat of the return list.
-   * @return A List of Activities satisfying all query parameters.
+   * @param pageToken The token from the previous page, or null for the first page
+   * @param size The page size, at most 100
+   * @return A page of Activities satisfying all query parameters.
    */
-  public List<Activity> findByUserId(ObjectId userId, ObjectId skillId) {
-    logger.info("findByUserId(userId={}, skillId={})", userId, skillId);
-    if (skillId != null) {
-      logger.info("activityRepository.findByUserIdAndSkillWeightsSkillId(userId={}, skillId={})", userId, skillId);
-      return activityRepository.findByUserIdAndSkillWeightsSkillId(userId, skillId);
+  public CursorPage<Activity> findByUserId(ObjectId userId, ObjectId skillId, String pageToken,
+      int size) {
+    logger.debug("findByUserId(userId={}, skillId={}, pageToken={}, size={})", userId, skillId,
+        pageToken, size);
+    if (size < 1 || size > MAX_PAGE_SIZE) {
+      throw new BadRequestException("size must be 1-" + MAX_PAGE_SIZE);
     }
-    logger.info("activityRepository.findByUserId(userId={})", userId);
-    return activityRepository.findByUserId(userId);
+    Keyset keyset = Keyset.of(NEWEST_FIRST, pageToken);
+    return keyset.page(activityRepository.findPage(userId, skillId, keyset, size + 1), size);
   }
 
   /**
@@ -218,8 +264,7 @@ public class ActivityService {
    * @return The matching Activity. Throws NFE otherwise.
    */
   public Activity findByUserIdAndId(ObjectId userId, ObjectId activityId) {
-    logger.info("findByUserIdAndId(userId={}, activityId={})", userId, activityId);
-    logger.info("activityRepository.findByUserIdAndId(userId={}, activityId={})", userId, activityId);
+    logger.debug("findByUserIdAndId(userId={}, activityId={})", userId, activityId);
     return activityRepository.findByUserIdAndId(userId, activityId)
         .orElseThrow(() -> new NotFoundException("activities",
             Map.of("userId", userId.toString(), "activityId", activityId.toString())));
@@ -249,7 +294,7 @@ public class ActivityService {
    * @return The List of ActivityFeedItems
    */
   public List<ActivityFeedItem> getActivityFeedItemsByUserIds(List<ObjectId> userIds, int days) {
-    logger.info("getActivityFeedItemsByUserIds(userIds={}, days={})", userIds, days);
+    logger.debug("getActivityFeedItemsByUserIds(userIds={}, days={})", userIds, days);
     if (userIds.isEmpty()) {
       return List.of();
     }
@@ -258,7 +303,6 @@ public class ActivityService {
     Instant endInstant =
         LocalDate.now(ZoneOffset.UTC).plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC);
 
-    logger.info("activityRepository.findByUserIdInAndCreatedAtBetween(userIds={}, startInstant={}, endInstant={})", userIds, startInstant, endInstant);
     List<Activity> activities =
         activityRepository.findByUserIdInAndCreatedAtBetween(userIds, startInstant, endInstant);
     return mapActivitiesToFeedItems(activities);
@@ -274,39 +318,29 @@ public class ActivityService {
    */
   @Transactional
   public Activity update(ObjectId userId, ObjectId activityId, Activity updatedActivity) {
-    logger.info("update(userId={}, activityId={}, updatedActivity={})", userId, activityId, updatedActivity);
+    logger.debug("update(userId={}, activityId={}, updatedActivity={})", userId, activityId, updatedActivity);
     Activity existingActivity = findByUserIdAndId(userId, activityId);
 
     updatedActivity.setId(existingActivity.getId());
     updatedActivity.setUserId(userId);
+    updatedActivity.setCreatedAt(existingActivity.getCreatedAt());
 
     validateActivity(updatedActivity);
 
-    Map<ObjectId, Double> skillTimeDiffs = new HashMap<>();
-
-    double oldDuration = existingActivity.getDuration();
-    for (SkillWeight sw : existingActivity.getSkillWeights()) {
-      skillTimeDiffs.put(sw.getSkillId(), oldDuration * sw.getWeight() * -1);
-    }
-
-    double newDuration = updatedActivity.getDuration();
-    for (SkillWeight sw : updatedActivity.getSkillWeights()) {
-      if (skillTimeDiffs.containsKey(sw.getSkillId())) {
-        double temp = skillTimeDiffs.get(sw.getSkillId());
-        skillTimeDiffs.put(sw.getSkillId(), temp + sw.getWeight() * newDuration);
-      } else {
-        skillTimeDiffs.put(sw.getSkillId(), sw.getWeight() * newDuration);
-      }
-    }
-
-    skillTimeDiffs.entrySet().forEach(e -> {
-      ObjectId skillId = e.getKey();
-      double value = e.getValue();
-      skillService.addHours(skillId, value);
+    Map<ObjectId, Double> skillTimeDiffs = hoursBySkillId(existingActivity, -1);
+    hoursBySkillId(updatedActivity, 1).forEach((skillId, hours) -> {
+      skillTimeDiffs.merge(skillId, hours, Double::sum);
     });
-
-    logger.info("activityRepository.save(updatedActivity={})", updatedActivity);
-    return activityRepository.save(updatedActivity);
+    // An edit doesn't make the Skills more recently used than the Activity itself.
+    Set<ObjectId> skillIds =
+        skillService.addHours(userId, skillTimeDiffs, existingActivity.getCreatedAt());
+    dailyActivityService.recordChange(existingActivity, updatedActivity);
+
+    Activity saved = activityRepository.save(updatedActivity);
+    dataVersionService.bump(userId, VersionedCollection.SKILLS, VersionedCollection.ACTIVITIES);
+    changeLogService.changed(userId, Map.of(SyncedCollection.SKILLS, skillIds,
+        SyncedCollection.ACTIVITIES, List.of(activityId)));
+    return saved;
   }
 
   /**
@@ -319,8 +353,7 @@ public class ActivityService {
    */
   @Transactional
   public Activity patch(ObjectId userId, ObjectId activityId, Map<String, Object> updates) {
-    logger.info("patch(userId={}, activityId={}, updates={})", userId, activityId, updates);
-    logger.info("activityRepository.findByUserIdAndId(userId={}, activityId={})", userId, activityId);
+    logger.debug("patch(userId={}, activityId={}, updates={})", userId, activityId, updates);
     Activity existingActivity = activityRepository.findByUserIdAndId(userId, activityId)
         .orElseThrow(() -> new NotFoundException("activities",
             Map.of("userId", userId.toString(), "activityId", activityId.toString())));
@@ -332,51 +365,33 @@ public class ActivityService {
 
     validateActivity(updatedActivity);
 
-    Map<ObjectId, Double> skillTimeDiffs = new HashMap<>();
-
-    double oldDuration = existingActivity.getDuration();
-    for (SkillWeight sw : existingActivity.getSkillWeights()) {
-      skillTimeDiffs.put(sw.getSkillId(), oldDuration * sw.getWeight() * -1);
-    }
-
-    double newDuration = updatedActivity.getDuration();
-    for (SkillWeight sw : updatedActivity.getSkillWeights()) {
-      if (skillTimeDiffs.containsKey(sw.getSkillId())) {
-        double temp = skillTimeDiffs.get(sw.getSkillId());
-        skillTimeDiffs.put(sw.getSkillId(), temp + sw.getWeight() * newDuration);
-      } else {
-        skillTimeDiffs.put(sw.getSkillId(), sw.getWeight() * newDuration);
-      }
-    }
-
-    skillTimeDiffs.entrySet().forEach(e -> {
-      ObjectId skillId = e.getKey();
-      double value = e.getValue();
-      skillService.addHours(skillId, value);
+    Map<ObjectId, Double> skillTimeDiffs = hoursBySkillId(existingActivity, -1);
+    hoursBySkillId(updatedActivity, 1).forEach((skillId, hours) -> {
+      skillTimeDiffs.merge(skillId, hours, Double::sum);
     });
-
-    logger.info("activityRepository.save(updatedActivity={})", updatedActivity);
-    return activityRepository.save(updatedActivity);
+    // An edit doesn't make the Skills more recently used than the Activity itself.
+    Set<ObjectId> skillIds =
+        skillService.addHours(userId, skillTimeDiffs, existingActivity.getCreatedAt());
+    dailyActivityService.recordChange(existingActivity, updatedActivity);
+
+    Activity saved = activityRepository.save(updatedActivity);
+    dataVersionService.bump(userId, VersionedCollection.SKILLS, VersionedCollection.ACTIVITIES);
+    changeLogService.changed(userId, Map.of(SyncedCollection.SKILLS, skillIds,
+        SyncedCollection.ACTIVITIES, List.of(activityId)));
+    return saved;
   }
 
   /**
    * Given a userId and a number of days, return the RecentActivity DTO for the User in those days.
+   * Read from the daily rollups, so the cost depends on the number of active days, not Activities.
    *
    * @param userId The Id of the User
    * @param days The number of days
    * @return The RecentActivityDTO
    */
   public RecentActivity getRecentActivityByUserId(ObjectId userId, int days) {
-    logger.info("getRecentActivityByUserId(userId={}, days={})", userId, days);
-    Instant startInstant =
-        LocalDate.now(ZoneOffset.UTC).minusDays(days).atStartOfDay().toInstant(ZoneOffset.UTC);
-    Instant endInstant =
-        LocalDate.now(ZoneOffset.UTC).plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC);
-
-    logger.info("activityRepository.findByUserIdAndCreatedAtBetween(userId={}, startInstant={}, endInstant={})", userId, startInstant, endInstant);
-    List<Activity> activities =
-        activityRepository.findByUserIdAndCreatedAtBetween(userId, startInstant, endInstant);
-    return ActivityMapper.toRecentActivity(activities);
+    logger.debug("getRecentActivityByUserId(userId={}, days={})", userId, days);
+    return dailyActivityService.getRecentActivity(userId, days);
   }
 
   /**
@@ -387,39 +402,50 @@ public class ActivityService {
    */
   @Transactional
   public void deleteById(ObjectId activityId) {
-    logger.info("deleteById(activityId={})", activityId);
-    logger.info("activityRepository.findById(activityId={})", activityId);
+    logger.debug("deleteById(activityId={})", activityId);
     Activity activity = activityRepository.findById(activityId).orElseThrow(
         () -> new NotFoundException("activities", Map.of("activityId", activityId.toString())));
-    double duration = activity.getDuration();
-    activity.getSkillWeights().forEach(sw -> {
-      skillService.addHours(sw.getSkillId(), sw.getWeight() * duration * -1);
-    });
-    logger.info("activityRepository.deleteById(activityId={})", activityId);
+    Set<ObjectId> skillIds =
+        skillService.addHours(activity.getUserId(), hoursBySkillId(activity, -1));
+    dailyActivityService.record(activity, -1);
     activityRepository.deleteById(activityId);
+    dataVersionService.bump(activity.getUserId(), VersionedCollection.SKILLS,
+        VersionedCollection.ACTIVITIES);
+    changeLogService.changed(activity.getUserId(), Map.of(SyncedCollection.SKILLS, skillIds,
+        SyncedCollection.ACTIVITIES, List.of(activityId)));
   }
 
-  @Transactional
+  /**
+   * Delete all of a User's Activities. Hours are reversed in one bulk update and the Activities are
+   * removed with a single deleteMany.
+   *
+   * @param userId The Id of the User
+   */
   public void deleteByUserId(ObjectId userId) {
-    logger.info("deleteByUserId(userId={})", userId);
-    logger.info("activityRepository.findByUserId(userId={})", userId);
-    activityRepository.findByUserId(userId).forEach(activity -> deleteById(activity.getId()));
+    logger.debug("deleteByUserId(userId={})", userId);
+    cascadeDeletePlanner.deleteActivitiesByUserId(userId);
+    userTotalsService.rebuild(userId);
   }
 
   /**
    * Delete an Activity given its userId and Id. Also removes the duration * weight from each
-   * involved skill's timeSpentHours.
+   * involved skill's timeSpentHours, as deleteById and deleteByUserId always have, so a Skill's
+   * hours keep matching the Activities logged on it.
    *
    * @param userId The Id of the User the Activity belongs to
    * @param activityId The Id of the Activity
    */
+  @Transactional
   public void deleteByUserIdAndId(ObjectId userId, ObjectId activityId) {
-    logger.info("deleteByUserIdAndId(userId={}, activityId={})", userId, activityId);
-    logger.info("activityRepository.findByUserIdAndId(userId={}, activityId={})", userId, activityId);
-    activityRepository.findByUserIdAndId(userId, activityId)
+    logger.debug("deleteByUserIdAndId(userId={}, activityId={})", userId, activityId);
+    Activity activity = activityRepository.findByUserIdAndId(userId, activityId)
         .orElseThrow(() -> new NotFoundException("activities",
             Map.of("userId", userId.toString(), "activityId", activityId.toString())));
-    logger.info("activityRepository.deleteByUserIdAndId(userId={}, activityId={})", userId, activityId);
+    Set<ObjectId> skillIds = skillService.addHours(userId, hoursBySkillId(activity, -1));
+    dailyActivityService.record(activity, -1);
     activityRepository.deleteByUserIdAndId(userId, activityId);
+    dataVersionService.bump(userId, VersionedCollection.SKILLS, VersionedCollection.ACTIVITIES);
+    changeLogService.changed(userId, Map.of(SyncedCollection.SKILLS, skillIds,
+        SyncedCollection.ACTIVITIES, List.of(activityId)));
   }
 }
@@ -0,0 +1,127 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.DailyActivityRepository;
+import com.bproj.skilltree.dao.SkillRepository;
+import com.bproj.skilltree.dao.TreeRepository;
+import com.bproj.skilltree.dto.HourSeries;
+import com.bproj.skilltree.exception.BadRequestException;
+import com.bproj.skilltree.exception.NotFoundException;
+import com.bproj.skilltree.mapper.AnalyticsMapper;
+import com.bproj.skilltree.model.DailyActivity;
+import com.bproj.skilltree.model.Skill;
+import com.bproj.skilltree.model.TimeBucket;
+import com.bproj.skilltree.util.TreeGraphs;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Answers "how many hours, per day/week/month" questions for a Skill or a Tree. Hours come from the
+ * per-day rollups (DailyActivity.skillHours), which only hold the hours logged directly on each
+ * Skill, so a Skill's descendants are worked out at query time from the Tree's current shape.
+ * A year of history is at most 366 small documents no matter how many Activities were logged.
+ */
+@Service
+public class AnalyticsService {
+  private static final Logger logger = LoggerFactory.getLogger(AnalyticsService.class);
+  private static final long MAX_RANGE_DAYS = 366 * 5;
+  private final DailyActivityRepository dailyActivityRepository;
+  private final SkillRepository skillRepository;
+  private final TreeRepository treeRepository;
+
+
+  /**
+   * Create an AnalyticsService.
+   *
+   * @param dailyActivityRepository DailyActivity DB operations
+   * @param skillRepository Skill DB operations
+   * @param treeRepository Tree DB operations
+   */
+  @Autowired
+  public AnalyticsService(
+      @Qualifier("mongoDailyActivityRepository") DailyActivityRepository dailyActivityRepository,
+      @Qualifier("mongoSkillRepository") SkillRepository skillRepository,
+      @Qualifier("mongoTreeRepository") TreeRepository treeRepository) {
+    this.dailyActivityRepository = dailyActivityRepository;
+    this.skillRepository = skillRepository;
+    this.treeRepository = treeRepository;
+  }
+
+  /**
+   * Hours logged on a Skill and every Skill below it, bucketed.
+   *
+   * @param userId The Id of the User the Skill belongs to
+   * @param skillId The Id of the Skill
+   * @param bucket The width of each bucket
+   * @param from The first day included
+   * @param to The last day included
+   * @return The HourSeries. Throws NFE if the User has no such Skill.
+   */
+  public HourSeries getSkillHours(ObjectId userId, ObjectId skillId, TimeBucket bucket,
+      LocalDate from, LocalDate to) {
+    logger.debug("getSkillHours(userId={}, skillId={}, bucket={}, from={}, to={})", userId,
+        skillId, bucket, from, to);
+    validateRange(from, to);
+    Skill skill = skillRepository.findByUserIdAndId(userId, skillId)
+        .orElseThrow(() -> new NotFoundException("skills",
+            Map.of("userId", userId.toString(), "skillId", skillId.toString())));
+    List<Skill> treeSkills = skillRepository.findByTreeId(skill.getTreeId());
+    Set<ObjectId> skillIds = TreeGraphs.descendantsOf(treeSkills, skillId);
+    return AnalyticsMapper.toHourSeries(skillId.toHexString(), findDays(userId, from, to),
+        toHex(skillIds), bucket, from, to);
+  }
+
+  /**
+   * Hours logged on any Skill of a Tree, bucketed.
+   *
+   * @param userId The Id of the User the Tree belongs to
+   * @param treeId The Id of the Tree
+   * @param bucket The width of each bucket
+   * @param from The first day included
+   * @param to The last day included
+   * @return The HourSeries. Throws NFE if the User has no such Tree.
+   */
+  public HourSeries getTreeHours(ObjectId userId, ObjectId treeId, TimeBucket bucket,
+      LocalDate from, LocalDate to) {
+    logger.debug("getTreeHours(userId={}, treeId={}, bucket={}, from={}, to={})", userId, treeId,
+        bucket, from, to);
+    validateRange(from, to);
+    if (!treeRepository.existsByUserIdAndId(userId, treeId)) {
+      throw new NotFoundException("trees",
+          Map.of("userId", userId.toString(), "treeId", treeId.toString()));
+    }
+    Set<ObjectId> skillIds = skillRepository.findByUserIdAndTreeId(userId, treeId).stream()
+        .map(Skill::getId).collect(Collectors.toSet());
+    return AnalyticsMapper.toHourSeries(treeId.toHexString(), findDays(userId, from, to),
+        toHex(skillIds), bucket, from, to);
+  }
+
+  private static void validateRange(LocalDate from, LocalDate to) {
+    if (from.isAfter(to)) {
+      throw new BadRequestException("'from' must not be after 'to'.");
+    }
+    if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+      throw new BadRequestException("Date range can't be longer than " + MAX_RANGE_DAYS
+          + " days.");
+    }
+  }
+
+  private List<DailyActivity> findDays(ObjectId userId, LocalDate from, LocalDate to) {
+    return dailyActivityRepository.findByUserIdAndDayGreaterThanEqualAndDayLessThan(userId,
+        DailyActivity.dayOf(from), DailyActivity.dayOf(to.plusDays(1)));
+  }
+
+  private static Set<String> toHex(Set<ObjectId> ids) {
+    return ids.stream().map(ObjectId::toHexString).collect(Collectors.toSet());
+  }
+}
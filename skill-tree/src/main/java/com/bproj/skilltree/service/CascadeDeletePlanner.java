@@ -0,0 +1,322 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.AchievementRepository;
+import com.bproj.skilltree.dao.ActivityRepository;
+import com.bproj.skilltree.dao.DailyActivityRepository;
+import com.bproj.skilltree.dao.FriendshipRepository;
+import com.bproj.skilltree.dao.OrientationRepository;
+import com.bproj.skilltree.dao.SkillRepository;
+import com.bproj.skilltree.dao.StreakStateRepository;
+import com.bproj.skilltree.dao.TreeRepository;
+import com.bproj.skilltree.dao.TreeTotalsRepository;
+import com.bproj.skilltree.dao.UserRepository;
+import com.bproj.skilltree.dao.UserTotalsRepository;
+import com.bproj.skilltree.model.Activity;
+import com.bproj.skilltree.model.Skill;
+import com.bproj.skilltree.model.SkillWeight;
+import com.bproj.skilltree.model.SyncedCollection;
+import com.bproj.skilltree.model.Tree;
+import com.bproj.skilltree.model.VersionedCollection;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Plans and runs set-based cascading deletes. Every cascade issues a single deleteMany per
+ * collection inside one transaction (see MongoConfig), and Skill hours are only reversed for Skills
+ * that survive the delete. Reversing hours on a Skill that is about to be removed is wasted work.
+ * In-memory indexes are only told about a delete once its transaction commits.
+ */
+@Service
+public class CascadeDeletePlanner {
+  private static final Logger logger = LoggerFactory.getLogger(CascadeDeletePlanner.class);
+  private final UserRepository userRepository;
+  private final TreeRepository treeRepository;
+  private final SkillRepository skillRepository;
+  private final AchievementRepository achievementRepository;
+  private final OrientationRepository orientationRepository;
+  private final ActivityRepository activityRepository;
+  private final FriendshipRepository friendshipRepository;
+  private final DailyActivityRepository dailyActivityRepository;
+  private final StreakStateRepository streakStateRepository;
+  private final UserTotalsRepository userTotalsRepository;
+  private final TreeTotalsRepository treeTotalsRepository;
+  private final SkillService skillService;
+  private final RankingService rankingService;
+  private final FriendSetCache friendSetCache;
+  private final FriendSuggestionService friendSuggestionService;
+  private final DisplayNameIndex displayNameIndex;
+  private final SearchService searchService;
+  private final DataVersionService dataVersionService;
+  private final ChangeLogService changeLogService;
+
+
+  /**
+   * Create a CascadeDeletePlanner. Needs a reference to every collection a cascade can reach.
+   *
+   * @param userRepository DB ops for Users
+   * @param treeRepository DB ops for Trees
+   * @param skillRepository DB ops for Skills
+   * @param achievementRepository DB ops for Achievements
+   * @param orientationRepository DB ops for Orientations
+   * @param activityRepository DB ops for Activities
+   * @param friendshipRepository DB ops for Friendships
+   * @param dailyActivityRepository DB ops for DailyActivities
+   * @param streakStateRepository DB ops for StreakStates
+   * @param userTotalsRepository DB ops for UserTotals
+   * @param treeTotalsRepository DB ops for TreeTotals
+   * @param skillService Used to reverse hours on surviving Skills
+   * @param rankingService Stops ranking deleted Users
+   * @param friendSetCache Evicted for the deleted User's friends
+   * @param friendSuggestionService Drops the deleted User from the social graph
+   * @param displayNameIndex Stops suggesting the deleted User's display name
+   * @param searchService Forgets the deleted User's Trees, Skills and Achievements
+   * @param dataVersionService Bumped for whoever sees the deleted data in a list
+   * @param changeLogService Tells the User's synced clients what was deleted
+   */
+  @Autowired
+  public CascadeDeletePlanner(@Qualifier("mongoUserRepository") UserRepository userRepository,
+      @Qualifier("mongoTreeRepository") TreeRepository treeRepository,
+      @Qualifier("mongoSkillRepository") SkillRepository skillRepository,
+      @Qualifier("mongoAchievementRepository") AchievementRepository achievementRepository,
+      @Qualifier("mongoOrientationRepository") OrientationRepository orientationRepository,
+      @Qualifier("mongoActivityRepository") ActivityRepository activityRepository,
+      @Qualifier("mongoFriendshipRepository") FriendshipRepository friendshipRepository,
+      @Qualifier("mongoDailyActivityRepository") DailyActivityRepository dailyActivityRepository,
+      @Qualifier("mongoStreakStateRepository") StreakStateRepository streakStateRepository,
+      @Qualifier("mongoUserTotalsRepository") UserTotalsRepository userTotalsRepository,
+      @Qualifier("mongoTreeTotalsRepository") TreeTotalsRepository treeTotalsRepository,
+      SkillService skillService, RankingService rankingService, FriendSetCache friendSetCache,
+      FriendSuggestionService friendSuggestionService, DisplayNameIndex displayNameIndex,
+      SearchService searchService, DataVersionService dataVersionService,
+      ChangeLogService changeLogService) {
+    this.userRepository = userRepository;
+    this.treeRepository = treeRepository;
+    this.skillRepository = skillRepository;
+    this.achievementRepository = achievementRepository;
+    this.orientationRepository = orientationRepository;
+    this.activityRepository = activityRepository;
+    this.friendshipRepository = friendshipRepository;
+    this.dailyActivityRepository = dailyActivityRepository;
+    this.streakStateRepository = streakStateRepository;
+    this.userTotalsRepository = userTotalsRepository;
+    this.treeTotalsRepository = treeTotalsRepository;
+    this.skillService = skillService;
+    this.rankingService = rankingService;
+    this.friendSetCache = friendSetCache;
+    this.friendSuggestionService = friendSuggestionService;
+    this.displayNameIndex = displayNameIndex;
+    this.searchService = searchService;
+    this.dataVersionService = dataVersionService;
+    this.changeLogService = changeLogService;
+  }
+
+  /**
+   * Work out the net hours to take off each Skill when the given Activities are removed.
+   *
+   * @param activities The Activities being removed
+   * @return The (negative) hours to add to each Skill, keyed by Skill Id
+   */
+  static Map<ObjectId, Double> planHourReversal(List<Activity> activities) {
+    Map<ObjectId, Double> reversal = new HashMap<>();
+    for (Activity activity : activities) {
+      double duration = activity.getDuration();
+      for (SkillWeight sw : activity.getSkillWeights()) {
+        reversal.merge(sw.getSkillId(), duration * sw.getWeight() * -1, Double::sum);
+      }
+    }
+    return reversal;
+  }
+
+  /**
+   * Delete all of a User's Activities, their daily rollups and streaks. Their Skills survive, so
+   * the hours each Activity added are reversed in one bulk update before a single deleteMany.
+   *
+   * @param userId The Id of the User
+   */
+  @Transactional
+  public void deleteActivitiesByUserId(ObjectId userId) {
+    logger.debug("deleteActivitiesByUserId(userId={})", userId);
+    List<Activity> activities = activityRepository.findByUserId(userId);
+    if (activities.isEmpty()) {
+      return;
+    }
+    Set<ObjectId> skillIds = skillService.addHours(userId, planHourReversal(activities));
+    activityRepository.deleteByUserId(userId);
+    dailyActivityRepository.deleteByUserId(userId);
+    streakStateRepository.deleteById(userId);
+    dataVersionService.bump(userId, VersionedCollection.SKILLS, VersionedCollection.ACTIVITIES);
+    changeLogService.cleared(userId, SyncedCollection.ACTIVITIES);
+    changeLogService.changed(userId, Map.of(SyncedCollection.SKILLS, skillIds));
+  }
+
+  /**
+   * Delete all of a User's Trees along with their Skills, Achievements, and Orientations. Activities
+   * are left alone, same as deleting a single Tree.
+   *
+   * @param userId The Id of the User
+   */
+  @Transactional
+  public void deleteTreesByUserId(ObjectId userId) {
+    logger.debug("deleteTreesByUserId(userId={})", userId);
+    List<ObjectId> treeIds = treeRepository.findByUserId(userId).stream().map(Tree::getId).toList();
+    if (treeIds.isEmpty()) {
+      return;
+    }
+    // Activities survive, but the ones that logged time on these Skills stop showing them
+    List<ObjectId> skillIds =
+        skillRepository.findByTreeIdIn(treeIds).stream().map(Skill::getId).toList();
+    boolean activitiesChanged = !skillIds.isEmpty()
+        && activityRepository.existsByUserIdAndSkillWeightsSkillIdIn(userId, skillIds);
+    orientationRepository.deleteByTreeIdIn(treeIds);
+    skillRepository.deleteByTreeIdIn(treeIds);
+    achievementRepository.deleteByTreeIdIn(treeIds);
+    treeRepository.deleteByUserId(userId);
+    if (activitiesChanged) {
+      dataVersionService.bump(userId, VersionedCollection.TREES, VersionedCollection.SKILLS,
+          VersionedCollection.ACHIEVEMENTS, VersionedCollection.ACTIVITIES);
+    } else {
+      dataVersionService.bump(userId, VersionedCollection.TREES, VersionedCollection.SKILLS,
+          VersionedCollection.ACHIEVEMENTS);
+    }
+    changeLogService.cleared(userId, SyncedCollection.TREES, SyncedCollection.SKILLS,
+        SyncedCollection.ACHIEVEMENTS, SyncedCollection.ORIENTATIONS);
+  }
+
+  /**
+   * Delete a User and everything they own. Every one of the User's Skills is removed, so no hour
+   * reversal is planned at all and each collection gets exactly one deleteMany.
+   *
+   * @param userId The Id of the User
+   */
+  @Transactional
+  public void deleteUser(ObjectId userId) {
+    logger.debug("deleteUser(userId={})", userId);
+    List<ObjectId> friendIds = friendIdsOf(userId);
+    for (UserStage stage : UserStage.values()) {
+      deleteUserStage(userId, stage, friendIds);
+    }
+  }
+
+  /**
+   * Find the other Users in a User's Friendships, pending or accepted. Read before the FRIENDSHIPS
+   * stage, which deletes the Friendships these are found through.
+   *
+   * @param userId The Id of the User
+   * @return The Ids of the User's friends and pending friends
+   */
+  public List<ObjectId> friendIdsOf(ObjectId userId) {
+    logger.debug("friendIdsOf(userId={})", userId);
+    return friendshipRepository.findByRequesterIdOrAddresseeId(userId, userId).stream()
+        .map(f -> userId.equals(f.getRequesterId()) ? f.getAddresseeId() : f.getRequesterId())
+        .distinct().toList();
+  }
+
+  /**
+   * Run a single stage of a User deletion. Each stage is one deleteMany keyed on the User's Id, so
+   * running a stage again after a partial failure is harmless: whatever the interrupted deleteMany
+   * left behind still matches the same filter. That is also why stages aren't split into chunks; a
+   * chunk would only checkpoint progress the filter already tracks.
+   *
+   * @param userId The Id of the User being deleted
+   * @param stage The stage to run
+   * @param friendIds The User's friends as returned by friendIdsOf before any stage ran
+   */
+  public void deleteUserStage(ObjectId userId, UserStage stage, List<ObjectId> friendIds) {
+    switch (stage) {
+      case USER:
+        userRepository.deleteById(userId);
+        afterCommit(() -> displayNameIndex.userRemoved(userId));
+        break;
+      case ACTIVITIES:
+        activityRepository.deleteByUserId(userId);
+        break;
+      case FRIENDSHIPS:
+        friendshipRepository.deleteByRequesterIdOrAddresseeId(userId, userId);
+        ObjectId[] friendshipUserIds =
+            Stream.concat(Stream.of(userId), friendIds.stream()).toArray(ObjectId[]::new);
+        afterCommit(() -> {
+          friendSetCache.evict(friendshipUserIds);
+          friendSuggestionService.userRemoved(userId);
+        });
+        dataVersionService.bump(VersionedCollection.FRIENDSHIPS, friendshipUserIds);
+        break;
+      case SKILLS:
+        skillRepository.deleteByUserId(userId);
+        break;
+      case ACHIEVEMENTS:
+        achievementRepository.deleteByUserId(userId);
+        break;
+      case ORIENTATIONS:
+        orientationRepository.deleteByUserId(userId);
+        break;
+      case TREES:
+        treeRepository.deleteByUserId(userId);
+        afterCommit(() -> searchService.userRemoved(userId));
+        break;
+      case DAILY_ACTIVITIES:
+        dailyActivityRepository.deleteByUserId(userId);
+        break;
+      case STREAK_STATE:
+        streakStateRepository.deleteById(userId);
+        break;
+      case USER_TOTALS:
+        userTotalsRepository.deleteById(userId);
+        rankingService.userRemoved(userId);
+        break;
+      case TREE_TOTALS:
+        treeTotalsRepository.deleteByUserId(userId);
+        break;
+      case DATA_VERSIONS:
+        dataVersionService.userRemoved(userId);
+        break;
+      case CHANGE_LOG:
+        changeLogService.userRemoved(userId);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown user delete stage: " + stage);
+    }
+  }
+
+  /**
+   * Update an in-memory index once the delete it mirrors is committed, or straight away when the
+   * delete isn't part of a transaction. Dropped if the transaction rolls back, so the indexes never
+   * forget data that is still in Mongo.
+   *
+   * @param change The change to the index
+   */
+  private static void afterCommit(Runnable change) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      change.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        change.run();
+      }
+    });
+  }
+
+  /**
+   * The stages of a User deletion, in the order they run. The User document goes first so the
+   * account stops resolving and can't create new data while the rest is cleaned up. Stage ordinals
+   * are stored as Job checkpoints, so new stages are only ever added at the end.
+   */
+  public enum UserStage {
+    USER, ACTIVITIES, FRIENDSHIPS, SKILLS, ACHIEVEMENTS, ORIENTATIONS, TREES, DAILY_ACTIVITIES,
+    STREAK_STATE, USER_TOTALS, TREE_TOTALS, DATA_VERSIONS, CHANGE_LOG
+  }
+}
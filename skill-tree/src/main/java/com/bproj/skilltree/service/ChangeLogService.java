@@ -0,0 +1,137 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.ChangeLogRepository;
+import com.bproj.skilltree.dao.DataVersionsRepository;
+import com.bproj.skilltree.model.ChangeLogEntry;
+import com.bproj.skilltree.model.SyncedCollection;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Appends to each User's change log, which /api/sync reads to hand out only what changed since a
+ * client last synced. The service write paths record the Ids of the documents they wrote after
+ * the write; one call reserves a block of sequence numbers with a single $inc on the User's
+ * DataVersions and inserts its entries in one insertMany. Entries older than
+ * skilltree.sync.retention-days are deleted periodically.
+ */
+@Service
+public class ChangeLogService {
+  private static final Logger logger = LoggerFactory.getLogger(ChangeLogService.class);
+  private final ChangeLogRepository changeLogRepository;
+  private final DataVersionsRepository dataVersionsRepository;
+  private final Duration retention;
+
+  /**
+   * Create a ChangeLogService.
+   *
+   * @param changeLogRepository DB ops for ChangeLogEntries
+   * @param dataVersionsRepository Hands out each User's sequence numbers
+   * @param retentionDays How long entries are kept
+   */
+  @Autowired
+  public ChangeLogService(
+      @Qualifier("mongoChangeLogRepository") ChangeLogRepository changeLogRepository,
+      @Qualifier("mongoDataVersionsRepository") DataVersionsRepository dataVersionsRepository,
+      @Value("${skilltree.sync.retention-days:30}") long retentionDays) {
+    this.changeLogRepository = changeLogRepository;
+    this.dataVersionsRepository = dataVersionsRepository;
+    this.retention = Duration.ofDays(retentionDays);
+  }
+
+  /**
+   * Record that some of a User's documents were created, changed or deleted.
+   *
+   * @param userId The Id of the User
+   * @param collection The kind of document
+   * @param documentIds The Ids of the documents (Tree Ids for Orientations)
+   */
+  public void changed(ObjectId userId, SyncedCollection collection, ObjectId... documentIds) {
+    changed(userId, Map.of(collection, List.of(documentIds)));
+  }
+
+  /**
+   * Record that documents of several kinds changed in one write, under one block of sequence
+   * numbers.
+   *
+   * @param userId The Id of the User
+   * @param documentIds The Ids of the documents, by kind. Repeated Ids are recorded once.
+   */
+  public void changed(ObjectId userId,
+      Map<SyncedCollection, ? extends Collection<ObjectId>> documentIds) {
+    logger.debug("changed(userId={}, documentIds={})", userId, documentIds);
+    Instant now = Instant.now();
+    List<ChangeLogEntry> entries = new ArrayList<>();
+    documentIds.forEach((collection, ids) -> new LinkedHashSet<>(ids)
+        .forEach(id -> entries.add(new ChangeLogEntry(userId, collection, id, now))));
+    append(userId, entries);
+  }
+
+  /**
+   * Record that every document of some kinds was deleted, e.g. when a User deletes all of their
+   * Activities. Clients drop what they hold of those kinds instead of being sent each Id.
+   *
+   * @param userId The Id of the User
+   * @param collections The kinds of document deleted
+   */
+  public void cleared(ObjectId userId, SyncedCollection... collections) {
+    logger.debug("cleared(userId={}, collections={})", userId, collections);
+    Instant now = Instant.now();
+    List<ChangeLogEntry> entries = new ArrayList<>();
+    for (SyncedCollection collection : collections) {
+      entries.add(new ChangeLogEntry(userId, collection, null, now));
+    }
+    append(userId, entries);
+  }
+
+  /**
+   * Forget a deleted User's change log.
+   *
+   * @param userId The Id of the User
+   */
+  public void userRemoved(ObjectId userId) {
+    logger.debug("userRemoved(userId={})", userId);
+    changeLogRepository.deleteByUserId(userId);
+  }
+
+  /**
+   * Delete entries past the retention period. Clients holding a token from before it are told to
+   * reload everything on their next sync.
+   */
+  @Scheduled(fixedDelayString = "${skilltree.sync.compact-seconds:3600}",
+      initialDelayString = "${skilltree.sync.compact-seconds:3600}",
+      timeUnit = TimeUnit.SECONDS)
+  public void compact() {
+    logger.debug("compact()");
+    try {
+      long deleted = changeLogRepository.deleteChangedBefore(Instant.now().minus(retention));
+      logger.info("Compacted {} change log entries", deleted);
+    } catch (RuntimeException e) {
+      logger.error("Failed to compact the change log", e);
+    }
+  }
+
+  private void append(ObjectId userId, List<ChangeLogEntry> entries) {
+    if (entries.isEmpty()) {
+      return;
+    }
+    long seq = dataVersionsRepository.reserveChangeSeqs(userId, entries.size()) - entries.size();
+    for (ChangeLogEntry entry : entries) {
+      entry.setSeq(++seq);
+    }
+    changeLogRepository.insert(entries);
+  }
+}
@@ -0,0 +1,163 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.ActivityRepository;
+import com.bproj.skilltree.dao.DailyActivityRepository;
+import com.bproj.skilltree.dto.RecentActivity;
+import com.bproj.skilltree.mapper.ActivityMapper;
+import com.bproj.skilltree.model.Activity;
+import com.bproj.skilltree.model.DailyActivity;
+import com.bproj.skilltree.model.SkillWeight;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the per-User, per-day Activity rollups in step with the activities collection and serves
+ * streaks and heatmaps from them. Every Activity write costs one extra upsert on the rollup and one
+ * $inc on the User's totals; every read costs one document per active day instead of one per
+ * Activity.
+ */
+@Service
+public class DailyActivityService {
+  private static final Logger logger = LoggerFactory.getLogger(DailyActivityService.class);
+  public static final String BACKFILL_MIGRATION = "daily-activity-rollups";
+  private final DailyActivityRepository dailyActivityRepository;
+  private final ActivityRepository activityRepository;
+  private final StreakService streakService;
+  private final UserTotalsService userTotalsService;
+  private final MigrationService migrationService;
+  private final boolean backfillOnStartup;
+
+
+  /**
+   * Create a DailyActivityService.
+   *
+   * @param dailyActivityRepository DailyActivity DB operations
+   * @param activityRepository Activity DB operations, only used to backfill the rollups
+   * @param streakService Told when a day becomes active or inactive
+   * @param userTotalsService Told how many hours were added or removed
+   * @param migrationService Runs the backfill once across all instances
+   * @param backfillOnStartup Whether to build the rollups on startup when they are missing
+   */
+  @Autowired
+  public DailyActivityService(
+      @Qualifier("mongoDailyActivityRepository") DailyActivityRepository dailyActivityRepository,
+      @Qualifier("mongoActivityRepository") ActivityRepository activityRepository,
+      StreakService streakService, UserTotalsService userTotalsService,
+      MigrationService migrationService,
+      @Value("${skilltree.rollups.backfill-on-startup:true}") boolean backfillOnStartup) {
+    this.dailyActivityRepository = dailyActivityRepository;
+    this.activityRepository = activityRepository;
+    this.streakService = streakService;
+    this.userTotalsService = userTotalsService;
+    this.migrationService = migrationService;
+    this.backfillOnStartup = backfillOnStartup;
+  }
+
+  /**
+   * Build the rollups from the raw Activities on the first start after rollups were introduced.
+   * Afterwards they are maintained on write. The BACKFILL_MIGRATION marker makes this happen on
+   * one instance, once, however many start together or how soon they take writes. Each rollup
+   * is overwritten with the totals of the day's Activities, so running it again is harmless.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(0)
+  public void backfill() {
+    if (!backfillOnStartup) {
+      return;
+    }
+    migrationService.runOnce(BACKFILL_MIGRATION, () -> {
+      List<DailyActivity> rollups =
+          ActivityMapper.toDailyActivities(activityRepository.findAll());
+      dailyActivityRepository.replaceAll(rollups);
+      logger.info("Backfilled {} daily activity rollups", rollups.size());
+    });
+  }
+
+  /**
+   * Add an Activity to (or take it off) the rollup for the day it was created and the User's
+   * totals. If that was the day's first (or last) Activity the User's streaks are updated too.
+   *
+   * @param activity The Activity
+   * @param sign 1 when the Activity was created, -1 when it was deleted
+   */
+  public void record(Activity activity, int sign) {
+    logger.debug("record(activity={}, sign={})", activity, sign);
+    Map<ObjectId, Double> skillHours = new HashMap<>();
+    double duration = activity.getDuration();
+    for (SkillWeight sw : activity.getSkillWeights()) {
+      skillHours.merge(sw.getSkillId(), duration * sw.getWeight() * sign, Double::sum);
+    }
+    DailyActivity day = dailyActivityRepository.increment(activity.getUserId(), dayOf(activity),
+        sign, duration * sign, skillHours);
+    userTotalsService.addHours(activity.getUserId(), duration * sign);
+    if (sign > 0 && day.getCount() == sign) {
+      streakService.dayActivated(activity.getUserId(), day.getDate());
+    } else if (sign < 0 && day.getCount() <= 0) {
+      streakService.dayDeactivated(activity.getUserId(), day.getDate());
+    }
+  }
+
+  /**
+   * Move an updated Activity's contribution from its old values to its new ones. Stays on one
+   * upsert when the Activity's day didn't change.
+   *
+   * @param before The Activity as it was
+   * @param after The Activity as it is now
+   */
+  public void recordChange(Activity before, Activity after) {
+    logger.debug("recordChange(before={}, after={})", before, after);
+    Instant day = dayOf(after);
+    if (!day.equals(dayOf(before))) {
+      record(before, -1);
+      record(after, 1);
+      return;
+    }
+    Map<ObjectId, Double> skillHours = new HashMap<>();
+    for (SkillWeight sw : before.getSkillWeights()) {
+      skillHours.merge(sw.getSkillId(), before.getDuration() * sw.getWeight() * -1, Double::sum);
+    }
+    for (SkillWeight sw : after.getSkillWeights()) {
+      skillHours.merge(sw.getSkillId(), after.getDuration() * sw.getWeight(), Double::sum);
+    }
+    dailyActivityRepository.increment(after.getUserId(), day, 0,
+        after.getDuration() - before.getDuration(), skillHours);
+    userTotalsService.addHours(after.getUserId(), after.getDuration() - before.getDuration());
+  }
+
+  /**
+   * Summarize a User's Activity over the last 'days' days plus today. The streaks come from the
+   * User's StreakState, so they cover the User's whole history whatever the window.
+   *
+   * @param userId The Id of the User
+   * @param days The number of days before today to include
+   * @return The RecentActivity DTO
+   */
+  public RecentActivity getRecentActivity(ObjectId userId, int days) {
+    logger.debug("getRecentActivity(userId={}, days={})", userId, days);
+    LocalDate today = LocalDate.now(ZoneOffset.UTC);
+    List<DailyActivity> window = dailyActivityRepository
+        .findByUserIdAndDayGreaterThanEqual(userId, DailyActivity.dayOf(today.minusDays(days)));
+    return ActivityMapper.toRecentActivity(window, streakService.findByUserId(userId), today);
+  }
+
+  private static Instant dayOf(Activity activity) {
+    Instant createdAt = Objects.requireNonNullElseGet(activity.getCreatedAt(), Instant::now);
+    return DailyActivity.dayOf(createdAt);
+  }
+}
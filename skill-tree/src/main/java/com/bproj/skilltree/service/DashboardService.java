@@ -0,0 +1,154 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.AchievementRepository;
+import com.bproj.skilltree.dao.SkillRepository;
+import com.bproj.skilltree.dao.TreeRepository;
+import com.bproj.skilltree.dto.Dashboard;
+import com.bproj.skilltree.dto.FeedItem;
+import com.bproj.skilltree.dto.RecentActivity;
+import com.bproj.skilltree.mapper.UserMapper;
+import com.bproj.skilltree.model.Achievement;
+import com.bproj.skilltree.model.Skill;
+import com.bproj.skilltree.model.Tree;
+import com.bproj.skilltree.model.User;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Assembles the home screen. Every section is read concurrently on the fan-out executor, and the
+ * User's Trees, Skills and Achievements are loaded once and shared by the combined stats and the
+ * favorite Tree, so the whole dashboard costs about as much as its slowest section.
+ */
+@Service
+public class DashboardService {
+  private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+  private final TreeRepository treeRepository;
+  private final SkillRepository skillRepository;
+  private final AchievementRepository achievementRepository;
+  private final FriendshipService friendshipService;
+  private final TreeService treeService;
+  private final AchievementService achievementService;
+  private final ActivityService activityService;
+  private final Executor fanOutExecutor;
+
+  /**
+   * Explicit value constructor.
+   *
+   * @param treeRepository DB ops for Trees
+   * @param skillRepository DB ops for Skills
+   * @param achievementRepository DB ops for Achievements
+   * @param friendshipService Finds the User's friends
+   * @param treeService Tree feed items
+   * @param achievementService Achievement feed items
+   * @param activityService Activity feed items and the streak
+   * @param fanOutExecutor Runs the sections concurrently
+   */
+  @Autowired
+  public DashboardService(@Qualifier("mongoTreeRepository") TreeRepository treeRepository,
+      @Qualifier("mongoSkillRepository") SkillRepository skillRepository,
+      @Qualifier("mongoAchievementRepository") AchievementRepository achievementRepository,
+      FriendshipService friendshipService, TreeService treeService,
+      AchievementService achievementService, ActivityService activityService,
+      @Qualifier("fanOutExecutor") Executor fanOutExecutor) {
+    this.treeRepository = treeRepository;
+    this.skillRepository = skillRepository;
+    this.achievementRepository = achievementRepository;
+    this.friendshipService = friendshipService;
+    this.treeService = treeService;
+    this.achievementService = achievementService;
+    this.activityService = activityService;
+    this.fanOutExecutor = fanOutExecutor;
+  }
+
+  /**
+   * Build the dashboard of an already resolved User.
+   *
+   * @param user The authenticated User
+   * @param streakDays The number of days of daily activity to include with the streak
+   * @param feedDays The number of days from the present to search for FeedItems
+   * @return The Dashboard
+   */
+  public Dashboard getDashboard(User user, int streakDays, int feedDays) {
+    logger.debug("getDashboard(userId={}, streakDays={}, feedDays={})", user.getId(), streakDays,
+        feedDays);
+    ObjectId userId = user.getId();
+    CompletableFuture<List<Tree>> trees =
+        CompletableFuture.supplyAsync(() -> treeRepository.findByUserId(userId), fanOutExecutor);
+    CompletableFuture<List<Skill>> skills =
+        CompletableFuture.supplyAsync(() -> skillRepository.findByUserId(userId), fanOutExecutor);
+    CompletableFuture<List<Achievement>> achievements = CompletableFuture
+        .supplyAsync(() -> achievementRepository.findByUserId(userId), fanOutExecutor);
+    CompletableFuture<RecentActivity> streak = CompletableFuture.supplyAsync(
+        () -> activityService.getRecentActivityByUserId(userId, streakDays), fanOutExecutor);
+    CompletableFuture<List<FeedItem>> friendFeed = CompletableFuture
+        .supplyAsync(() -> friendshipService.getFriendIds(userId), fanOutExecutor)
+        .thenCompose(friendIds -> friendFeedOf(friendIds, feedDays));
+
+    List<Tree> userTrees = join(trees);
+    List<Skill> userSkills = join(skills);
+    List<Achievement> userAchievements = join(achievements);
+    Map<ObjectId, List<Achievement>> achievementsByTree =
+        userAchievements.stream().collect(Collectors.groupingBy(Achievement::getTreeId));
+    return new Dashboard(UserMapper.fromUser(user),
+        TreeService.statsOf(userTrees, userSkills, userAchievements),
+        TreeService.favoriteOf(userTrees, userSkills,
+            treeId -> achievementsByTree.getOrDefault(treeId, List.of())),
+        join(streak), join(friendFeed));
+  }
+
+  /**
+   * Retrieve the Friend Actions feed of a User. The Tree, Achievement and Activity items are read
+   * concurrently.
+   *
+   * @param userId The Id of the User
+   * @param days The number of days from the present to search for FeedItems
+   * @return The FeedItems, newest first
+   */
+  public List<FeedItem> getFriendFeed(ObjectId userId, int days) {
+    logger.debug("getFriendFeed(userId={}, days={})", userId, days);
+    return join(friendFeedOf(friendshipService.getFriendIds(userId), days));
+  }
+
+  private CompletableFuture<List<FeedItem>> friendFeedOf(List<ObjectId> friendIds, int days) {
+    CompletableFuture<? extends List<? extends FeedItem>> trees = CompletableFuture.supplyAsync(
+        () -> treeService.getTreeFeedItemsByUserIds(friendIds, days), fanOutExecutor);
+    CompletableFuture<? extends List<? extends FeedItem>> achievements =
+        CompletableFuture.supplyAsync(
+            () -> achievementService.getAchievementFeedItemsByUserIds(friendIds, days),
+            fanOutExecutor);
+    CompletableFuture<? extends List<? extends FeedItem>> activities =
+        CompletableFuture.supplyAsync(
+            () -> activityService.getActivityFeedItemsByUserIds(friendIds, days), fanOutExecutor);
+    return CompletableFuture.allOf(trees, achievements, activities).thenApply(done -> {
+      List<FeedItem> feed = new ArrayList<>();
+      feed.addAll(trees.join());
+      feed.addAll(achievements.join());
+      feed.addAll(activities.join());
+      feed.sort(Comparator.comparing(FeedItem::getPostedAt).reversed());
+      return feed;
+    });
+  }
+
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.DataVersionsRepository;
+import com.bproj.skilltree.dao.FriendshipRepository;
+import com.bproj.skilltree.model.VersionedCollection;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps each User's data version stamps, so list endpoints can answer a conditional GET with 304
+ * Not Modified after reading one small document instead of the whole list. Services bump a
+ * version after every write that changes what the list shows, and list endpoints read the version
+ * before the list, so a response is never tagged with a version newer than its content.
+ */
+@Service
+public class DataVersionService {
+  private static final Logger logger = LoggerFactory.getLogger(DataVersionService.class);
+  private final DataVersionsRepository dataVersionsRepository;
+  private final FriendshipRepository friendshipRepository;
+
+  /**
+   * Create a DataVersionService.
+   *
+   * @param dataVersionsRepository DB ops for DataVersions
+   * @param friendshipRepository DB ops for Friendships, to find who shows a User in their list
+   */
+  @Autowired
+  public DataVersionService(
+      @Qualifier("mongoDataVersionsRepository") DataVersionsRepository dataVersionsRepository,
+      @Qualifier("mongoFriendshipRepository") FriendshipRepository friendshipRepository) {
+    this.dataVersionsRepository = dataVersionsRepository;
+    this.friendshipRepository = friendshipRepository;
+  }
+
+  /**
+   * Get the entity tag of one of a User's lists. It changes whenever the list is bumped, and is
+   * the same for every page and filter of the list, each of which the client caches under its own
+   * URL.
+   *
+   * @param userId The Id of the User
+   * @param collection The list
+   * @return The entity tag, unquoted
+   */
+  public String getETag(ObjectId userId, VersionedCollection collection) {
+    logger.debug("getETag(userId={}, collection={})", userId, collection);
+    long version = dataVersionsRepository.findById(userId).map(d -> d.versionOf(collection))
+        .orElse(0L);
+    return collection.name().toLowerCase(Locale.ROOT) + "-" + version;
+  }
+
+  /**
+   * Bump some of a User's versions in one write. Call after the change is written.
+   *
+   * @param userId The Id of the User
+   * @param collections The lists that changed
+   */
+  public void bump(ObjectId userId, VersionedCollection... collections) {
+    logger.debug("bump(userId={}, collections={})", userId, collections);
+    dataVersionsRepository.increment(List.of(userId), List.of(collections));
+  }
+
+  /**
+   * Bump one version of many Users in one write. Call after the change is written.
+   *
+   * @param collection The list that changed
+   * @param userIds The Ids of the Users
+   */
+  public void bump(VersionedCollection collection, ObjectId... userIds) {
+    logger.debug("bump(collection={}, userIds={})", collection, userIds);
+    dataVersionsRepository.increment(List.of(userIds), List.of(collection));
+  }
+
+  /**
+   * A User's display name or profile picture changed. Everyone they have a Friendship with, of any
+   * status, shows it in their FriendList.
+   *
+   * @param userId The Id of the User
+   */
+  public void profileChanged(ObjectId userId) {
+    logger.debug("profileChanged(userId={})", userId);
+    Collection<ObjectId> others = friendshipRepository
+        .findByRequesterIdOrAddresseeId(userId, userId).stream()
+        .flatMap(f -> Stream.of(f.getRequesterId(), f.getAddresseeId()))
+        .filter(id -> !id.equals(userId)).collect(Collectors.toSet());
+    dataVersionsRepository.increment(others, List.of(VersionedCollection.FRIENDSHIPS));
+  }
+
+  /**
+   * Forget a deleted User's versions.
+   *
+   * @param userId The Id of the User
+   */
+  public void userRemoved(ObjectId userId) {
+    logger.debug("userRemoved(userId={})", userId);
+    dataVersionsRepository.deleteById(userId);
+  }
+}
@@ -0,0 +1,198 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.UserRepository;
+import com.bproj.skilltree.dto.UserResponse;
+import com.bproj.skilltree.exception.BadRequestException;
+import com.bproj.skilltree.model.User;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Every User's display name and picture, sorted case-insensitively so a typeahead prefix is a
+ * seek followed by reading the next few names, without touching the users collection. Loaded on
+ * startup and reloaded periodically, which also picks up Users created or renamed by other
+ * instances. In between, UserService and the User cascade push every change in as it is
+ * persisted. A reload reads the users collection without holding the lock those pushes take,
+ * records the pushes made meanwhile, and replays them onto the new index as it swaps it in.
+ */
+@Component
+public class DisplayNameIndex {
+  private static final Logger logger = LoggerFactory.getLogger(DisplayNameIndex.class);
+  private static final int MAX_LIMIT = 50;
+  private static final int MAX_PREFIX_LENGTH = 64;
+  private final UserRepository userRepository;
+  private final Object refreshLock = new Object();
+  private volatile Names names = new Names();
+  // Changes pushed while a refresh is loading, guarded by this; null when no refresh is running.
+  private List<Consumer<Names>> changesDuringLoad;
+
+
+  /**
+   * Create a DisplayNameIndex.
+   *
+   * @param userRepository DB ops for Users, the snapshot of the index
+   */
+  @Autowired
+  public DisplayNameIndex(@Qualifier("mongoUserRepository") UserRepository userRepository) {
+    this.userRepository = userRepository;
+  }
+
+  /**
+   * Load the index once the application is up.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warm() {
+    refresh();
+  }
+
+  /**
+   * Reload periodically to pick up changes made by other instances.
+   */
+  @Scheduled(fixedDelayString = "${skilltree.users.name-index-refresh-seconds:300}",
+      initialDelayString = "${skilltree.users.name-index-refresh-seconds:300}",
+      timeUnit = TimeUnit.SECONDS)
+  public void scheduledRefresh() {
+    refresh();
+  }
+
+  /**
+   * Rebuild the index from the users collection. If loading fails the previous index is kept.
+   */
+  public void refresh() {
+    logger.debug("refresh()");
+    synchronized (refreshLock) {
+      synchronized (this) {
+        changesDuringLoad = new ArrayList<>();
+      }
+      try {
+        Names loaded = new Names();
+        userRepository.findAll().forEach(loaded::put);
+        synchronized (this) {
+          changesDuringLoad.forEach(change -> change.accept(loaded));
+          names = loaded;
+        }
+        logger.info("Indexed {} display names", loaded.keysByUser.size());
+      } catch (RuntimeException e) {
+        logger.error("Failed to refresh the display name index", e);
+      } finally {
+        synchronized (this) {
+          changesDuringLoad = null;
+        }
+      }
+    }
+  }
+
+  /**
+   * Index a User after they were created or updated, replacing their previous name.
+   *
+   * @param user The User as persisted
+   */
+  public void userChanged(User user) {
+    apply(n -> n.put(user));
+  }
+
+  /**
+   * Stop suggesting a deleted User.
+   *
+   * @param userId The Id of the User
+   */
+  public void userRemoved(ObjectId userId) {
+    logger.debug("userRemoved(userId={})", userId);
+    apply(n -> n.remove(userId));
+  }
+
+  // Applies a change to the current index, and keeps it for the index being loaded, if any.
+  private synchronized void apply(Consumer<Names> change) {
+    change.accept(names);
+    if (changesDuringLoad != null) {
+      changesDuringLoad.add(change);
+    }
+  }
+
+  /**
+   * Find the Users whose display name starts with a prefix, ignoring case.
+   *
+   * @param prefix The start of the display name
+   * @param limit The most Users to return, at most 50
+   * @param excludedUserId A User never to return, e.g. the one searching
+   * @return The Users, in case-insensitive display name order
+   */
+  public List<UserResponse> search(String prefix, int limit, ObjectId excludedUserId) {
+    logger.debug("search(prefix={}, limit={}, excludedUserId={})", prefix, limit,
+        excludedUserId);
+    if (prefix == null || prefix.isBlank() || prefix.length() > MAX_PREFIX_LENGTH) {
+      throw new BadRequestException("prefix must be 1-" + MAX_PREFIX_LENGTH + " characters");
+    }
+    if (limit < 1 || limit > MAX_LIMIT) {
+      throw new BadRequestException("limit must be 1-" + MAX_LIMIT);
+    }
+    String normalized = normalize(prefix);
+    List<UserResponse> found = new ArrayList<>();
+    for (Map.Entry<String, Entry> e : names.byKey.tailMap(normalized).entrySet()) {
+      if (!e.getKey().startsWith(normalized) || found.size() == limit) {
+        break;
+      }
+      if (!e.getValue().userId.equals(excludedUserId)) {
+        found.add(e.getValue().user);
+      }
+    }
+    return found;
+  }
+
+  private static String normalize(String displayName) {
+    return displayName.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * One generation of the index. Once swapped in, only mutated while holding the
+   * DisplayNameIndex's lock; byKey can be read at any time.
+   */
+  private static final class Names {
+    private final ConcurrentSkipListMap<String, Entry> byKey = new ConcurrentSkipListMap<>();
+    private final Map<ObjectId, String> keysByUser = new ConcurrentHashMap<>();
+
+    private void put(User user) {
+      remove(user.getId());
+      if (user.getDisplayName() == null) {
+        return;
+      }
+      // Names are unique as typed, so the original is appended to keep case variants apart.
+      String key = normalize(user.getDisplayName()) + '\0' + user.getDisplayName();
+      byKey.put(key, new Entry(user.getId(),
+          new UserResponse(user.getDisplayName(), user.getProfilePictureUrl())));
+      keysByUser.put(user.getId(), key);
+    }
+
+    private void remove(ObjectId userId) {
+      String key = keysByUser.remove(userId);
+      if (key != null) {
+        byKey.remove(key);
+      }
+    }
+  }
+
+  private static final class Entry {
+    private final ObjectId userId;
+    private final UserResponse user;
+
+    private Entry(ObjectId userId, UserResponse user) {
+      this.userId = userId;
+      this.user = user;
+    }
+  }
+}
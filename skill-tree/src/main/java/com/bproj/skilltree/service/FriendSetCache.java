@@ -0,0 +1,125 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.FriendshipRepository;
+import com.bproj.skilltree.model.FriendRequestStatus;
+import com.bproj.skilltree.model.Friendship;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory sets of each User's accepted friends, kept as sorted ObjectId arrays so a friendship
+ * check is a binary search. A set is loaded with one query the first time it's needed and evicted
+ * whenever this instance changes one of the User's Friendships. Sets also expire after
+ * skilltree.friends.cache-seconds so changes made by other instances are picked up. The least
+ * recently used sets are dropped past skilltree.friends.cache-size.
+ */
+@Component
+public class FriendSetCache {
+  private final FriendshipRepository friendshipRepository;
+  private final long ttlNanos;
+  private final int maxUsers;
+  private final Map<ObjectId, FriendSet> sets;
+  private long evictions;
+
+
+  /**
+   * Create a FriendSetCache.
+   *
+   * @param friendshipRepository DB ops for Friendships
+   * @param ttlSeconds How long a set is served before it is reloaded
+   * @param maxUsers How many Users' sets are kept at most
+   */
+  @Autowired
+  public FriendSetCache(
+      @Qualifier("mongoFriendshipRepository") FriendshipRepository friendshipRepository,
+      @Value("${skilltree.friends.cache-seconds:60}") long ttlSeconds,
+      @Value("${skilltree.friends.cache-size:10000}") int maxUsers) {
+    this.friendshipRepository = friendshipRepository;
+    this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    this.maxUsers = maxUsers;
+    this.sets = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<ObjectId, FriendSet> eldest) {
+        return size() > FriendSetCache.this.maxUsers;
+      }
+    };
+  }
+
+  /**
+   * Get the Ids of a User's accepted friends.
+   *
+   * @param userId The Id of the User
+   * @return The friends' Ids, in ascending order
+   */
+  public List<ObjectId> getFriendIds(ObjectId userId) {
+    return List.of(friendsOf(userId));
+  }
+
+  /**
+   * See whether two Users are accepted friends.
+   *
+   * @param user1 The first User
+   * @param user2 The second User
+   * @return True if they are friends
+   */
+  public boolean areFriends(ObjectId user1, ObjectId user2) {
+    return Arrays.binarySearch(friendsOf(user1), user2) >= 0;
+  }
+
+  /**
+   * Drop the sets of Users whose Friendships changed. Call after the change is persisted.
+   *
+   * @param userIds The Ids of the Users
+   */
+  public synchronized void evict(ObjectId... userIds) {
+    evictions++;
+    for (ObjectId userId : userIds) {
+      sets.remove(userId);
+    }
+  }
+
+  private ObjectId[] friendsOf(ObjectId userId) {
+    long evictionsAtLoad;
+    synchronized (this) {
+      FriendSet cached = sets.get(userId);
+      if (cached != null && System.nanoTime() - cached.loadedAt < ttlNanos) {
+        return cached.friendIds;
+      }
+      evictionsAtLoad = evictions;
+    }
+    ObjectId[] friendIds = friendshipRepository.findByRequesterIdOrAddresseeId(userId, userId)
+        .stream().filter(f -> f.getStatus() == FriendRequestStatus.ACCEPTED)
+        .map(f -> otherUser(f, userId)).sorted().toArray(ObjectId[]::new);
+    synchronized (this) {
+      // Anything evicted while loading may have been read before the change; don't keep it.
+      if (evictions == evictionsAtLoad) {
+        sets.put(userId, new FriendSet(friendIds, System.nanoTime()));
+      }
+    }
+    return friendIds;
+  }
+
+  private static ObjectId otherUser(Friendship friendship, ObjectId userId) {
+    return friendship.getRequesterId().equals(userId) ? friendship.getAddresseeId()
+        : friendship.getRequesterId();
+  }
+
+  private static final class FriendSet {
+    private final ObjectId[] friendIds;
+    private final long loadedAt;
+
+    private FriendSet(ObjectId[] friendIds, long loadedAt) {
+      this.friendIds = friendIds;
+      this.loadedAt = loadedAt;
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.FriendshipRepository;
+import com.bproj.skilltree.dao.UserRepository;
+import com.bproj.skilltree.dto.FriendSuggestion;
+import com.bproj.skilltree.exception.BadRequestException;
+import com.bproj.skilltree.mapper.FriendshipMapper;
+import com.bproj.skilltree.model.FriendRequestStatus;
+import com.bproj.skilltree.model.Friendship;
+import com.bproj.skilltree.util.SocialGraph;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Suggests friends of friends, ranked by mutual friends, from a SocialGraph of every accepted
+ * Friendship. The graph is loaded on startup and rebuilt periodically, which also picks up changes
+ * made by other instances and compacts the rows patched in between. FriendshipService and the
+ * User cascade push every accepted or ended Friendship in as it is persisted. A rebuild loads the
+ * new graph without holding the lock those pushes take, records the pushes made meanwhile, and
+ * replays them onto the new graph as it swaps it in.
+ */
+@Service
+public class FriendSuggestionService {
+  private static final Logger logger = LoggerFactory.getLogger(FriendSuggestionService.class);
+  private static final int MAX_LIMIT = 50;
+  private final FriendshipRepository friendshipRepository;
+  private final UserRepository userRepository;
+  private final Object refreshLock = new Object();
+  private volatile SocialGraph<ObjectId> graph = new SocialGraph<>(List.of());
+  // Changes pushed while a refresh is loading, guarded by this; null when no refresh is running.
+  private List<Consumer<SocialGraph<ObjectId>>> changesDuringLoad;
+
+
+  /**
+   * Create a FriendSuggestionService.
+   *
+   * @param friendshipRepository DB ops for Friendships, the snapshot of the graph
+   * @param userRepository DB ops for Users, only used to render suggestions
+   */
+  @Autowired
+  public FriendSuggestionService(
+      @Qualifier("mongoFriendshipRepository") FriendshipRepository friendshipRepository,
+      @Qualifier("mongoUserRepository") UserRepository userRepository) {
+    this.friendshipRepository = friendshipRepository;
+    this.userRepository = userRepository;
+  }
+
+  /**
+   * Load the graph once the application is up.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warm() {
+    refresh();
+  }
+
+  /**
+   * Rebuild periodically to pick up changes made by other instances.
+   */
+  @Scheduled(fixedDelayString = "${skilltree.friends.graph-refresh-seconds:300}",
+      initialDelayString = "${skilltree.friends.graph-refresh-seconds:300}",
+      timeUnit = TimeUnit.SECONDS)
+  public void scheduledRefresh() {
+    refresh();
+  }
+
+  /**
+   * Rebuild the graph from the accepted Friendships. If loading fails the previous graph is kept.
+   */
+  public void refresh() {
+    logger.debug("refresh()");
+    synchronized (refreshLock) {
+      synchronized (this) {
+        changesDuringLoad = new ArrayList<>();
+      }
+      try {
+        List<Map.Entry<ObjectId, ObjectId>> edges =
+            friendshipRepository.findByStatus(FriendRequestStatus.ACCEPTED).stream()
+                .map(f -> Map.entry(f.getRequesterId(), f.getAddresseeId())).toList();
+        SocialGraph<ObjectId> loaded = new SocialGraph<>(edges);
+        synchronized (this) {
+          changesDuringLoad.forEach(change -> change.accept(loaded));
+          graph = loaded;
+        }
+        logger.info("Loaded {} friendships into the social graph", edges.size());
+      } catch (RuntimeException e) {
+        logger.error("Failed to refresh the social graph", e);
+      } finally {
+        synchronized (this) {
+          changesDuringLoad = null;
+        }
+      }
+    }
+  }
+
+  /**
+   * Add an edge after a Friendship was accepted.
+   *
+   * @param user1 One User
+   * @param user2 The other User
+   */
+  public void friendshipAccepted(ObjectId user1, ObjectId user2) {
+    apply(g -> g.addEdge(user1, user2));
+  }
+
+  /**
+   * Remove an edge after an accepted Friendship was blocked or deleted.
+   *
+   * @param user1 One User
+   * @param user2 The other User
+   */
+  public void friendshipEnded(ObjectId user1, ObjectId user2) {
+    apply(g -> g.removeEdge(user1, user2));
+  }
+
+  /**
+   * Remove every edge of a deleted User.
+   *
+   * @param userId The Id of the User
+   */
+  public void userRemoved(ObjectId userId) {
+    logger.debug("userRemoved(userId={})", userId);
+    apply(g -> g.removeNode(userId));
+  }
+
+  // Applies a change to the current graph, and keeps it for the graph being loaded, if any.
+  private synchronized void apply(Consumer<SocialGraph<ObjectId>> change) {
+    change.accept(graph);
+    if (changesDuringLoad != null) {
+      changesDuringLoad.add(change);
+    }
+  }
+
+  /**
+   * Get the Users a User may know: friends of their friends, most mutual friends first. Users
+   * they already have a Friendship with, in any status, are left out.
+   *
+   * @param userId The Id of the User
+   * @param limit The most suggestions to return, at most 50
+   * @return The suggestions
+   */
+  public List<FriendSuggestion> getSuggestions(ObjectId userId, int limit) {
+    logger.debug("getSuggestions(userId={}, limit={})", userId, limit);
+    if (limit < 1 || limit > MAX_LIMIT) {
+      throw new BadRequestException("limit must be 1-" + MAX_LIMIT);
+    }
+    // Friends are already left out by the graph, but it may lag behind other instances.
+    Set<ObjectId> connected = friendshipRepository.findByRequesterIdOrAddresseeId(userId, userId)
+        .stream().map(f -> otherUser(f, userId)).collect(Collectors.toSet());
+    List<SocialGraph.Suggestion<ObjectId>> suggestions =
+        graph.suggest(userId, limit + connected.size()).stream()
+            .filter(s -> !connected.contains(s.getKey())).limit(limit).toList();
+    if (suggestions.isEmpty()) {
+      return List.of();
+    }
+    return FriendshipMapper.suggestions(suggestions, userRepository.findByIdIn(
+        suggestions.stream().map(SocialGraph.Suggestion::getKey).toList()));
+  }
+
+  private static ObjectId otherUser(Friendship friendship, ObjectId userId) {
+    return friendship.getRequesterId().equals(userId) ? friendship.getAddresseeId()
+        : friendship.getRequesterId();
+  }
+}
@@ -9,6 +9,7 @@ import com.bproj.skilltree.mapper.FriendshipMapper;
 import com.bproj.skilltree.model.FriendRequestStatus;
 import com.bproj.skilltree.model.Friendship;
 import com.bproj.skilltree.model.User;
+import com.bproj.skilltree.model.VersionedCollection;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -18,6 +19,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 /**
@@ -28,18 +34,51 @@ public class FriendshipService {
   private static final Logger logger = LoggerFactory.getLogger(FriendshipService.class);
   private final FriendshipRepository friendshipRepository;
   private final UserRepository userRepository;
+  private final FriendSetCache friendSetCache;
+  private final FriendSuggestionService friendSuggestionService;
+  private final DataVersionService dataVersionService;
 
+  /**
+   * Create a FriendshipService.
+   *
+   * @param friendshipRepository DB ops for Friendships
+   * @param userRepository DB ops for Users
+   * @param friendSetCache Answers friend lookups from memory, evicted on every change
+   * @param friendSuggestionService Told about every Friendship accepted or ended
+   * @param dataVersionService Bumped for both Users on every change
+   */
   @Autowired
   public FriendshipService(
       @Qualifier("mongoFriendshipRepository") FriendshipRepository friendshipRepository,
-      @Qualifier("mongoUserRepository") UserRepository userRepository) {
+      @Qualifier("mongoUserRepository") UserRepository userRepository,
+      FriendSetCache friendSetCache, FriendSuggestionService friendSuggestionService,
+      DataVersionService dataVersionService) {
     this.friendshipRepository = friendshipRepository;
     this.userRepository = userRepository;
+    this.friendSetCache = friendSetCache;
+    this.friendSuggestionService = friendSuggestionService;
+    this.dataVersionService = dataVersionService;
+  }
+
+  /**
+   * Give Friendships stored before userLowId and userHighId existed their pair, so the unique
+   * user_pair index can be built over them. Runs before MongoIndexes builds it.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void backfillUserPairs() {
+    List<Friendship> unpaired = friendshipRepository.findByUserLowIdIsNull();
+    if (unpaired.isEmpty()) {
+      return;
+    }
+    unpaired.forEach(Friendship::orderUserPair);
+    friendshipRepository.saveAll(unpaired);
+    logger.info("Backfilled the user pair of {} friendships", unpaired.size());
   }
 
   /**
-   * Validates a Friend. requesterId and addresseeId must point to two different, existing users. No
-   * duplicate sets of requester and addressee.
+   * Validates a Friend. requesterId and addresseeId must point to two different, existing users.
+   * Duplicate requests between the same two users are rejected by the user_pair index instead.
    *
    * @param friend The Friend to be validated
    */
@@ -59,67 +98,50 @@ public class FriendshipService {
     if (!userRepository.existsById(addresseeId)) {
       throw new BadRequestException("Addressee must reference an existing user.");
     }
-
-    // this friendship doesnt already exist
-    if (friendshipRepository.existsByRequesterIdAndAddresseeId(requesterId, addresseeId)) {
-      Friendship f =
-          friendshipRepository.findByRequesterIdAndAddresseeId(requesterId, addresseeId).get();
-      if (!f.getId().equals(friend.getId())) {
-        throw new BadRequestException("Friend request already exists.");
-      }
-    }
-    if (friendshipRepository.existsByRequesterIdAndAddresseeId(addresseeId, requesterId)) {
-      Friendship f =
-          friendshipRepository.findByRequesterIdAndAddresseeId(addresseeId, requesterId).get();
-      if (!f.getId().equals(friend.getId())) {
-        throw new BadRequestException("Friend request already exists.");
-      }
-    }
   }
 
-  private boolean doesFriendshipExist(ObjectId user1, ObjectId user2) {
-    Optional<Friendship> check1 =
-        friendshipRepository.findByRequesterIdAndAddresseeId(user1, user2);
-    Optional<Friendship> check2 =
-        friendshipRepository.findByRequesterIdAndAddresseeId(user2, user1);
-    return check1.isPresent() || check2.isPresent();
+  /**
+   * Find the Friendship between two Users, whoever sent it, with one point lookup.
+   */
+  private Optional<Friendship> findPair(ObjectId user1, ObjectId user2) {
+    return user1.compareTo(user2) <= 0
+        ? friendshipRepository.findByUserLowIdAndUserHighId(user1, user2)
+        : friendshipRepository.findByUserLowIdAndUserHighId(user2, user1);
   }
 
   /**
-   * Send a friend request given the id of the sender and display name of the addressee.
+   * Send a friend request given the id of the sender and display name of the addressee. The insert
+   * itself is the duplicate check, so two concurrent requests between the same Users can't both
+   * succeed.
    *
    * @param userId The Id of the user sending the friend request
    * @param displayName The display name of the user receiving the friend request
    * @return The new Friendship relationship
    */
   public Friendship addFriend(ObjectId userId, String displayName) {
-    logger.info("addFriend(userId={}, displayName={})", userId, displayName);
-    logger.info("userRepository.findByDisplayName(displayName={})", displayName);
+    logger.debug("addFriend(userId={}, displayName={})", userId, displayName);
     ObjectId friendId = userRepository.findByDisplayName(displayName)
         .orElseThrow(() -> new NotFoundException("users", Map.of("displayName", displayName)))
         .getId();
-    if (doesFriendshipExist(userId, friendId)) {
+    Friendship friendship = new Friendship(userId, friendId, FriendRequestStatus.PENDING);
+    validateFriendship(friendship);
+    try {
+      friendshipRepository.insert(friendship);
+    } catch (DuplicateKeyException e) {
       throw new BadRequestException("Friend request already exists.");
     }
-    Friendship friendship = new Friendship();
-    friendship.setAddresseeId(friendId);
-    friendship.setRequesterId(userId);
-    friendship.setStatus(FriendRequestStatus.PENDING);
-    validateFriendship(friendship);
-    logger.info("friendshipRepository.insert(friendship={})", friendship);
-    friendshipRepository.insert(friendship);
+    friendSetCache.evict(userId, friendId);
+    dataVersionService.bump(VersionedCollection.FRIENDSHIPS, userId, friendId);
     return friendship;
   }
 
   public boolean existsById(ObjectId friendId) {
-    logger.info("existsById(friendId={})", friendId);
-    logger.info("friendshipRepository.existsById(friendId={})", friendId);
+    logger.debug("existsById(friendId={})", friendId);
     return friendshipRepository.existsById(friendId);
   }
 
   public boolean existsByRequesterIdAndAddresseeId(ObjectId requesterId, ObjectId addresseeId) {
-    logger.info("existsByRequesterIdAndAddresseeId(requesterId={}, addresseeId={})", requesterId, addresseeId);
-    logger.info("friendshipRepository.existsByRequesterIdAndAddresseeId(requesterId={}, addresseeId={})", requesterId, addresseeId);
+    logger.debug("existsByRequesterIdAndAddresseeId(requesterId={}, addresseeId={})", requesterId, addresseeId);
     return friendshipRepository.existsByRequesterIdAndAddresseeId(requesterId, addresseeId);
   }
 
@@ -130,8 +152,7 @@ public class FriendshipService {
    * @return The Friend. Throws NFE otherwise.
    */
   public Friendship findById(ObjectId friendId) {
-    logger.info("findById(friendId={})", friendId);
-    logger.info("friendshipRepository.findById(friendId={})", friendId);
+    logger.debug("findById(friendId={})", friendId);
     Optional<Friendship> optionalFriend = friendshipRepository.findById(friendId);
     if (optionalFriend.isEmpty()) {
       throw new NotFoundException("friendships", Map.of("friendshipId", friendId.toString()));
@@ -147,16 +168,14 @@ public class FriendshipService {
    * @return The Friend between the two Users. Throws NFE otherwise.
    */
   public Friendship findByRequesterIdAndAddresseeId(ObjectId requesterId, ObjectId addresseeId) {
-    logger.info("findByRequesterIdAndAddresseeId(requesterId={}, addresseeId={})", requesterId, addresseeId);
-    logger.info("friendshipRepository.findByRequesterIdAndAddresseeId(requesterId={}, addresseeId={})", requesterId, addresseeId);
+    logger.debug("findByRequesterIdAndAddresseeId(requesterId={}, addresseeId={})", requesterId, addresseeId);
     return friendshipRepository.findByRequesterIdAndAddresseeId(requesterId, addresseeId)
         .orElseThrow(() -> new NotFoundException("friendships",
             Map.of("requesterId", requesterId.toString(), "addresseeId", addresseeId.toString())));
   }
 
   public List<Friendship> findAll() {
-    logger.info("findAll()");
-    logger.info("friendshipRepository.findAll()");
+    logger.debug("findAll()");
     return friendshipRepository.findAll();
   }
 
@@ -167,8 +186,7 @@ public class FriendshipService {
    * @return List of Friends.
    */
   public List<Friendship> findByUserId(ObjectId userId) {
-    logger.info("findByUserId(userId={})", userId);
-    logger.info("friendshipRepository.findByRequesterIdOrAddresseeId(userId={}, userId={})", userId, userId);
+    logger.debug("findByUserId(userId={})", userId);
     List<Friendship> res = new ArrayList<>();
     res.addAll(friendshipRepository.findByRequesterIdOrAddresseeId(userId, userId));
     return res;
@@ -182,52 +200,36 @@ public class FriendshipService {
    * @return A list of Friends of the User with Status=status (if status was provided)
    */
   public List<Friendship> findByUserId(ObjectId userId, FriendRequestStatus status) {
-    logger.info("findByUserId(userId={}, status={})", userId, status);
+    logger.debug("findByUserId(userId={}, status={})", userId, status);
     List<Friendship> friends = findByUserId(userId);
     if (status == null) {
       return friends;
     }
-    logger.info("friendshipRepository.findByRequesterIdOrAddresseeIdAndStatus(userId={}, userId={}, status={})", userId, userId, status);
-    return friendshipRepository.findByRequesterIdOrAddresseeIdAndStatus(userId, userId, status);
+    return friends.stream().filter(f -> f.getStatus() == status).toList();
   }
 
   /**
-   * Returns the Ids of all friends of the given User where status=ACCEPTED.
+   * Returns the Ids of all friends of the given User where status=ACCEPTED. Served by
+   * FriendSetCache.
    *
    * @param userId The Id of the User
    * @return List of Ids belonging to that User's friends.
    */
   public List<ObjectId> getFriendIds(ObjectId userId) {
-    logger.info("getFriendIds(userId={})", userId);
-    logger.info("friendshipRepository.findByRequesterIdOrAddresseeIdAndStatus(userId={}, userId={}, status=ACCEPTED)", userId, userId);
-    List<Friendship> accepted = friendshipRepository.findByRequesterIdOrAddresseeIdAndStatus(userId,
-        userId, FriendRequestStatus.ACCEPTED);
-    List<ObjectId> friendIds = new ArrayList<ObjectId>();
-    for (Friendship a : accepted) {
-      if (!a.getAddresseeId().equals(userId)) {
-        friendIds.add(a.getAddresseeId());
-      } else {
-        friendIds.add(a.getRequesterId());
-      }
-    }
-    return friendIds;
+    logger.debug("getFriendIds(userId={})", userId);
+    return friendSetCache.getFriendIds(userId);
   }
 
   /**
-   * See whether or not two Users are friends.
+   * See whether or not two Users are friends. Served by FriendSetCache.
    *
    * @param user1 The first user
    * @param user2 The seconds user
    * @return True if the users are friends, false otherwise.
    */
   public boolean areFriends(ObjectId user1, ObjectId user2) {
-    logger.info("areFriends(user1={}, user2={})", user1, user2);
-    logger.info("friendshipRepository.existsByRequesterIdAndAddresseeIdAndStatus(user1={}, user2={}, status=ACCEPTED)", user1, user2);
-    logger.info("friendshipRepository.existsByRequesterIdAndAddresseeIdAndStatus(user2={}, user1={}, status=ACCEPTED)", user2, user1);
-    return friendshipRepository.existsByRequesterIdAndAddresseeIdAndStatus(user1, user2,
-        FriendRequestStatus.ACCEPTED)
-        || friendshipRepository.existsByRequesterIdAndAddresseeIdAndStatus(user2, user1,
-            FriendRequestStatus.ACCEPTED);
+    logger.debug("areFriends(user1={}, user2={})", user1, user2);
+    return friendSetCache.areFriends(user1, user2);
   }
 
   /**
@@ -238,22 +240,9 @@ public class FriendshipService {
    * @return The Friend relationship between the two users. Throws NFE otherwise.
    */
   public Friendship findFriendshipByUserPair(ObjectId user1, ObjectId user2) {
-    logger.info("findFriendshipByUserPair(user1={}, user2={})", user1, user2);
-    logger.info("friendshipRepository.findByRequesterIdAndAddresseeId(user1={}, user2={})", user1, user2);
-    Optional<Friendship> sender1 =
-        friendshipRepository.findByRequesterIdAndAddresseeId(user1, user2);
-    logger.info("friendshipRepository.findByRequesterIdAndAddresseeId(user2={}, user1={})", user2, user1);
-    Optional<Friendship> sender2 =
-        friendshipRepository.findByRequesterIdAndAddresseeId(user2, user1);
-
-    if (sender1.isPresent()) {
-      return sender1.get();
-    } else if (sender2.isPresent()) {
-      return sender2.get();
-    } else {
-      throw new NotFoundException("friendships",
-          Map.of("user1", user1.toString(), "user2", user2.toString()));
-    }
+    logger.debug("findFriendshipByUserPair(user1={}, user2={})", user1, user2);
+    return findPair(user1, user2).orElseThrow(() -> new NotFoundException("friendships",
+        Map.of("user1", user1.toString(), "user2", user2.toString())));
   }
 
   private List<User> getOtherUsersInFrienships(ObjectId userId, List<Friendship> friendships) {
@@ -276,8 +265,7 @@ public class FriendshipService {
    * @return The FriendList for the provided User
    */
   public FriendList getFriendList(ObjectId userId) {
-    logger.info("getFriendList(userId={})", userId);
-    logger.info("friendshipRepository.findByRequesterIdOrAddresseeId(userId={}, userId={})", userId, userId);
+    logger.debug("getFriendList(userId={})", userId);
     List<Friendship> friendships =
         friendshipRepository.findByRequesterIdOrAddresseeId(userId, userId);
     List<User> otherUsers = getOtherUsersInFrienships(userId, friendships);
@@ -332,31 +320,56 @@ public class FriendshipService {
    */
   public Friendship changeStatus(ObjectId userId, ObjectId friendshipId,
       FriendRequestStatus status) {
-    logger.info("changeStatus(userId={}, friendshipId={}, status={})", userId, friendshipId, status);
-    logger.info("friendshipRepository.findByRequesterIdOrAddresseeIdAndId(userId={}, userId={}, friendshipId={})", userId, userId, friendshipId);
-    Friendship friendship =
-        friendshipRepository.findByRequesterIdOrAddresseeIdAndId(userId, userId, friendshipId)
-            .orElseThrow(() -> new NotFoundException("friendships",
-                Map.of("userId", userId.toString(), "friendshipId", friendshipId.toString())));
+    logger.debug("changeStatus(userId={}, friendshipId={}, status={})", userId, friendshipId, status);
+    Friendship friendship = friendshipRepository.findById(friendshipId)
+        .filter(f -> f.getRequesterId().equals(userId) || f.getAddresseeId().equals(userId))
+        .orElseThrow(() -> new NotFoundException("friendships",
+            Map.of("userId", userId.toString(), "friendshipId", friendshipId.toString())));
     if (!isValidStatusChange(userId, friendship, status)) {
       throw new BadRequestException("Invalid friendship status change.");
     }
 
+    FriendRequestStatus previous = friendship.getStatus();
     friendship.setStatus(status);
     validateFriendship(friendship);
-    logger.info("friendshipRepository.save(friendship={})", friendship);
-    return friendshipRepository.save(friendship);
+    Friendship saved = friendshipRepository.save(friendship);
+    friendSetCache.evict(saved.getRequesterId(), saved.getAddresseeId());
+    dataVersionService.bump(VersionedCollection.FRIENDSHIPS, saved.getRequesterId(),
+        saved.getAddresseeId());
+    if (status == FriendRequestStatus.ACCEPTED) {
+      friendSuggestionService.friendshipAccepted(saved.getRequesterId(), saved.getAddresseeId());
+    } else if (previous == FriendRequestStatus.ACCEPTED) {
+      friendSuggestionService.friendshipEnded(saved.getRequesterId(), saved.getAddresseeId());
+    }
+    return saved;
   }
 
   public void deleteById(ObjectId friendId) {
-    logger.info("deleteById(friendId={})", friendId);
-    logger.info("friendshipRepository.deleteById(friendId={})", friendId);
-    friendshipRepository.deleteById(friendId);
+    logger.debug("deleteById(friendId={})", friendId);
+    friendshipRepository.findById(friendId).ifPresent(this::delete);
   }
 
+  /**
+   * Delete a Friendship the User is part of. Does nothing if there is no such Friendship.
+   *
+   * @param userId The Id of the User
+   * @param friendshipId The Id of the Friendship
+   */
   public void deleteByUserIdAndId(ObjectId userId, ObjectId friendshipId) {
-    logger.info("deleteByUserIdAndId(userId={}, friendshipId={})", userId, friendshipId);
-    logger.info("friendshipRepository.deleteByRequesterIdOrAddresseeIdAndId(userId={}, userId={}, friendshipId={})", userId, userId, friendshipId);
-    friendshipRepository.deleteByRequesterIdOrAddresseeIdAndId(userId, userId, friendshipId);
+    logger.debug("deleteByUserIdAndId(userId={}, friendshipId={})", userId, friendshipId);
+    friendshipRepository.findById(friendshipId)
+        .filter(f -> f.getRequesterId().equals(userId) || f.getAddresseeId().equals(userId))
+        .ifPresent(this::delete);
+  }
+
+  private void delete(Friendship friendship) {
+    friendshipRepository.deleteById(friendship.getId());
+    friendSetCache.evict(friendship.getRequesterId(), friendship.getAddresseeId());
+    dataVersionService.bump(VersionedCollection.FRIENDSHIPS, friendship.getRequesterId(),
+        friendship.getAddresseeId());
+    if (friendship.getStatus() == FriendRequestStatus.ACCEPTED) {
+      friendSuggestionService.friendshipEnded(friendship.getRequesterId(),
+          friendship.getAddresseeId());
+    }
   }
 }
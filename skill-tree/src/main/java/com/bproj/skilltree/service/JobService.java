@@ -0,0 +1,257 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.JobRepository;
+import com.bproj.skilltree.exception.BadRequestException;
+import com.bproj.skilltree.exception.ForbiddenException;
+import com.bproj.skilltree.exception.NotFoundException;
+import com.bproj.skilltree.model.Job;
+import com.bproj.skilltree.model.JobStatus;
+import com.bproj.skilltree.model.JobType;
+import com.bproj.skilltree.service.CascadeDeletePlanner.UserStage;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Implements business logic for the 'jobs' collection. Long running work (account deletion, tree
+ * copies) is queued here and run by JobWorker off the request thread. Every stage of a Job is
+ * idempotent and the Job is checkpointed after each one, so a Job whose worker crashed is picked up
+ * again once its lease lapses and resumes where it stopped. Every write a worker makes to its Job
+ * is conditioned on the attempt it claimed, so a worker that outlived its lease stops at its next
+ * checkpoint instead of overwriting the worker that took over.
+ */
+@Service
+public class JobService {
+  private static final Logger logger = LoggerFactory.getLogger(JobService.class);
+  private final JobRepository jobRepository;
+  private final CascadeDeletePlanner cascadeDeletePlanner;
+  private final TreeService treeService;
+  private final Duration lease;
+  private final int maxAttempts;
+  private final Duration retryBase;
+
+
+  /**
+   * Create a JobService.
+   *
+   * @param jobRepository DB ops for Jobs
+   * @param cascadeDeletePlanner Runs the stages of a User deletion
+   * @param treeService Runs tree copies
+   * @param leaseSeconds How long a worker owns a Job before another may take it over
+   * @param maxAttempts How many times a Job is tried before it is marked FAILED
+   * @param retryBaseSeconds How long a Job waits before its first retry. Each later retry waits
+   *     twice as long as the one before, up to the lease.
+   */
+  @Autowired
+  public JobService(@Qualifier("mongoJobRepository") JobRepository jobRepository,
+      CascadeDeletePlanner cascadeDeletePlanner, TreeService treeService,
+      @Value("${skilltree.jobs.lease-seconds:300}") long leaseSeconds,
+      @Value("${skilltree.jobs.max-attempts:5}") int maxAttempts,
+      @Value("${skilltree.jobs.retry-base-seconds:5}") long retryBaseSeconds) {
+    this.jobRepository = jobRepository;
+    this.cascadeDeletePlanner = cascadeDeletePlanner;
+    this.treeService = treeService;
+    this.lease = Duration.ofSeconds(leaseSeconds);
+    this.maxAttempts = maxAttempts;
+    this.retryBase = Duration.ofSeconds(retryBaseSeconds);
+  }
+
+  /**
+   * Queue the deletion of a User and everything they own. Submitting twice returns the Job that is
+   * already pending. Two concurrent submissions can both miss the pending Job; the
+   * pending_delete_user index lets only one insert through and the other returns its Job.
+   *
+   * @param userId The Id of the User to be deleted
+   * @param firebaseId The Firebase Id of the User
+   * @return The queued Job
+   */
+  public Job submitDeleteUser(ObjectId userId, String firebaseId) {
+    logger.debug("submitDeleteUser(userId={})", userId);
+    Optional<Job> pending = findPendingDeleteUser(userId);
+    if (pending.isPresent()) {
+      return pending.get();
+    }
+    Job job = new Job(userId, firebaseId, JobType.DELETE_USER, userId, null);
+    try {
+      return jobRepository.insert(job);
+    } catch (DuplicateKeyException e) {
+      return findPendingDeleteUser(userId).orElseThrow(() -> e);
+    }
+  }
+
+  private Optional<Job> findPendingDeleteUser(ObjectId userId) {
+    return jobRepository.findFirstByUserIdAndTypeAndStatusIn(userId, JobType.DELETE_USER,
+        List.of(JobStatus.QUEUED, JobStatus.RUNNING));
+  }
+
+  /**
+   * Queue a copy of a Tree into a User's account. Permission and space checks run immediately so
+   * the caller gets the usual 400/403 instead of a failed Job. The Id of the new Tree is chosen
+   * here and is available on the Job as resultId.
+   *
+   * @param userId The Id of the User the Tree will be copied to
+   * @param firebaseId The Firebase Id of the User
+   * @param treeId The Id of the Tree being copied
+   * @return The queued Job
+   */
+  public Job submitCopyTree(ObjectId userId, String firebaseId, ObjectId treeId) {
+    logger.debug("submitCopyTree(userId={}, treeId={})", userId, treeId);
+    treeService.canCopyTree(userId, treeId);
+    Job job = new Job(userId, firebaseId, JobType.COPY_TREE, treeId, new ObjectId());
+    return jobRepository.insert(job);
+  }
+
+  /**
+   * Find a Job by its owner's Firebase Id and its Id. Looked up by Firebase Id because a finished
+   * DELETE_USER Job outlives the User it belonged to.
+   *
+   * @param firebaseId The Firebase Id of the Job's owner
+   * @param jobId The Id of the Job
+   * @return The matching Job. Throws NFE otherwise.
+   */
+  public Job findByFirebaseIdAndId(String firebaseId, ObjectId jobId) {
+    logger.debug("findByFirebaseIdAndId(jobId={})", jobId);
+    return jobRepository.findByFirebaseIdAndId(firebaseId, jobId)
+        .orElseThrow(() -> new NotFoundException("jobs", Map.of("jobId", jobId.toString())));
+  }
+
+  /**
+   * Claim the next runnable Job, if any.
+   *
+   * @return The claimed Job, now RUNNING and leased to the caller
+   */
+  public Optional<Job> claimNext() {
+    Instant now = Instant.now();
+    return jobRepository.claimNext(now, now.plus(lease));
+  }
+
+  /**
+   * Hand a claimed Job back to the queue without running it, e.g. when no worker thread would take
+   * it. If the lease was already lost the Job is left to whoever holds it now.
+   *
+   * @param job A Job returned by claimNext
+   */
+  public void release(Job job) {
+    logger.debug("release(job={})", job);
+    if (!jobRepository.release(job.getId(), job.getAttempts())) {
+      logger.warn("Job {} was taken over before attempt {} was released", job.getId(),
+          job.getAttempts());
+    }
+  }
+
+  /**
+   * Run a claimed Job to completion. Client errors (bad input, lost permissions) fail the Job
+   * straight away, anything else puts it back in the queue, with an exponential backoff, until
+   * maxAttempts is reached.
+   *
+   * @param job A Job returned by claimNext
+   */
+  public void run(Job job) {
+    logger.debug("run(job={})", job);
+    try {
+      switch (job.getType()) {
+        case DELETE_USER:
+          runDeleteUser(job);
+          break;
+        case COPY_TREE:
+          runCopyTree(job);
+          break;
+        default:
+          throw new IllegalStateException("Unknown job type: " + job.getType());
+      }
+      job.setStatus(JobStatus.SUCCEEDED);
+      job.setError(null);
+      job.setRetryAt(null);
+    } catch (LeaseLostException e) {
+      logger.warn("Job {} was taken over during attempt {}", job.getId(), job.getAttempts());
+      return;
+    } catch (BadRequestException | ForbiddenException | NotFoundException e) {
+      job.setStatus(JobStatus.FAILED);
+      job.setError(e.getMessage());
+      job.setRetryAt(null);
+    } catch (RuntimeException e) {
+      logger.error("Job {} failed on attempt {}", job.getId(), job.getAttempts(), e);
+      boolean retry = job.getAttempts() < maxAttempts;
+      job.setStatus(retry ? JobStatus.QUEUED : JobStatus.FAILED);
+      job.setError(e.getMessage());
+      job.setRetryAt(retry ? Instant.now().plus(backoff(job.getAttempts())) : null);
+    }
+    job.setLeaseExpiresAt(null);
+    if (!jobRepository.finish(job.getId(), job.getAttempts(), job.getStatus(), job.getError(),
+        job.getRetryAt())) {
+      logger.warn("Job {} was taken over before attempt {} finished", job.getId(),
+          job.getAttempts());
+    }
+  }
+
+  private void runDeleteUser(Job job) {
+    UserStage[] stages = UserStage.values();
+    if (job.getFriendIds() == null && job.getCheckpoint() <= UserStage.FRIENDSHIPS.ordinal()) {
+      // Read before the Friendships stage deletes them, and kept in case that stage is retried
+      List<ObjectId> friendIds = cascadeDeletePlanner.friendIdsOf(job.getUserId());
+      if (!jobRepository.recordFriendIds(job.getId(), job.getAttempts(), friendIds)) {
+        throw new LeaseLostException();
+      }
+      job.setFriendIds(friendIds);
+    }
+    List<ObjectId> friendIds = job.getFriendIds() == null ? List.of() : job.getFriendIds();
+    for (int i = job.getCheckpoint(); i < stages.length; i++) {
+      cascadeDeletePlanner.deleteUserStage(job.getUserId(), stages[i], friendIds);
+      checkpoint(job, i + 1);
+    }
+  }
+
+  private void runCopyTree(Job job) {
+    // The copy commits in a single transaction and writes the new Tree last, so if the Tree exists
+    // the copy finished and only the checkpoint was lost.
+    if (!treeService.existsById(job.getResultId())) {
+      treeService.copyToUserAccount(job.getUserId(), job.getTargetId(), job.getResultId());
+    }
+    checkpoint(job, 1);
+  }
+
+  /**
+   * How long a Job waits after a failed attempt: retryBase doubled for each earlier attempt, capped
+   * at the lease.
+   *
+   * @param attempts The number of attempts made so far
+   * @return The delay before the Job may be claimed again
+   */
+  private Duration backoff(int attempts) {
+    Duration delay = retryBase.multipliedBy(1L << Math.min(attempts - 1, 20));
+    return delay.compareTo(lease) > 0 ? lease : delay;
+  }
+
+  /**
+   * Record that a stage finished and renew the lease for the next one. Throws LeaseLostException
+   * if another worker has taken the Job over.
+   *
+   * @param job The running Job
+   * @param checkpoint The number of stages now complete
+   */
+  private void checkpoint(Job job, int checkpoint) {
+    Instant leaseExpiresAt = Instant.now().plus(lease);
+    if (!jobRepository.renewLease(job.getId(), job.getAttempts(), checkpoint, leaseExpiresAt)) {
+      throw new LeaseLostException();
+    }
+    job.setCheckpoint(checkpoint);
+    job.setLeaseExpiresAt(leaseExpiresAt);
+  }
+
+  /**
+   * Thrown when a worker finds its Job has been reclaimed by another worker.
+   */
+  private static final class LeaseLostException extends RuntimeException {
+  }
+}
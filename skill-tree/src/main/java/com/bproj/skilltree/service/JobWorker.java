@@ -0,0 +1,82 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.model.Job;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Polls the 'jobs' collection and hands claimed Jobs to the bounded job executor. A Job is only
+ * claimed when a worker is free to run it, so nothing sits leased in a local queue.
+ */
+@Component
+public class JobWorker {
+  private static final Logger logger = LoggerFactory.getLogger(JobWorker.class);
+  private final JobService jobService;
+  private final ThreadPoolTaskExecutor jobExecutor;
+  private final Semaphore freeWorkers;
+
+  /**
+   * Create a JobWorker.
+   *
+   * @param jobService Claims and runs Jobs
+   * @param jobExecutor The pool Jobs run on
+   * @param workers The number of Jobs that may run at once
+   */
+  public JobWorker(JobService jobService,
+      @Qualifier("jobExecutor") ThreadPoolTaskExecutor jobExecutor,
+      @Value("${skilltree.jobs.workers:2}") int workers) {
+    this.jobService = jobService;
+    this.jobExecutor = jobExecutor;
+    this.freeWorkers = new Semaphore(workers);
+  }
+
+  /**
+   * Claim Jobs until either the queue is empty or every worker is busy.
+   */
+  @Scheduled(fixedDelayString = "${skilltree.jobs.poll-millis:1000}")
+  public void poll() {
+    while (freeWorkers.tryAcquire()) {
+      Optional<Job> claimed;
+      try {
+        claimed = jobService.claimNext();
+      } catch (RuntimeException e) {
+        freeWorkers.release();
+        logger.error("Failed to claim a job", e);
+        return;
+      }
+      if (claimed.isEmpty()) {
+        freeWorkers.release();
+        return;
+      }
+      Job job = claimed.get();
+      try {
+        jobExecutor.execute(() -> {
+          try {
+            jobService.run(job);
+          } finally {
+            freeWorkers.release();
+          }
+        });
+      } catch (TaskRejectedException e) {
+        // Shutting down or out of threads: hand the Job back rather than leave it leased
+        freeWorkers.release();
+        logger.warn("Job executor rejected job {}, releasing it", job.getId(), e);
+        try {
+          jobService.release(job);
+        } catch (RuntimeException releaseFailure) {
+          logger.error("Failed to release job {}, it is reclaimed when its lease lapses",
+              job.getId(), releaseFailure);
+        }
+        return;
+      }
+    }
+  }
+}
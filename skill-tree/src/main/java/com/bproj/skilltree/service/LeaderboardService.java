@@ -0,0 +1,178 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.UserRepository;
+import com.bproj.skilltree.dto.LeaderboardEntry;
+import com.bproj.skilltree.dto.LeaderboardRank;
+import com.bproj.skilltree.exception.BadRequestException;
+import com.bproj.skilltree.exception.NotFoundException;
+import com.bproj.skilltree.mapper.FriendshipMapper;
+import com.bproj.skilltree.model.DailyActivity;
+import com.bproj.skilltree.model.TimeBucket;
+import com.bproj.skilltree.model.UserTotals;
+import com.bproj.skilltree.util.RankedScoreIndex;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ranks a User and their accepted friends by hours logged, then by Achievements completed. The
+ * all-time board is one sorted read of UserTotals; a windowed board adds up the per-day rollups
+ * and counts recent completions with one aggregation each. Neither depends on how many friends
+ * the User has.
+ *
+ * <p>The global board and the per-PRESET boards come from the RankingService, so a page or a
+ * User's rank costs one read of the Users on it, however many Users are ranked.
+ */
+@Service
+public class LeaderboardService {
+  private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+  private static final int MAX_PAGE_SIZE = 100;
+  private final UserRepository userRepository;
+  private final FriendshipService friendshipService;
+  private final UserTotalsService userTotalsService;
+  private final RankingService rankingService;
+  private final PresetTreeCache presetTreeCache;
+
+
+  /**
+   * Create a LeaderboardService.
+   *
+   * @param userRepository User DB operations
+   * @param friendshipService Finds the User's friends
+   * @param userTotalsService Ranks Users by their totals
+   * @param rankingService Holds the global and PRESET rankings
+   * @param presetTreeCache Checks PRESET Trees exist
+   */
+  @Autowired
+  public LeaderboardService(@Qualifier("mongoUserRepository") UserRepository userRepository,
+      FriendshipService friendshipService, UserTotalsService userTotalsService,
+      RankingService rankingService, PresetTreeCache presetTreeCache) {
+    this.userRepository = userRepository;
+    this.friendshipService = friendshipService;
+    this.userTotalsService = userTotalsService;
+    this.rankingService = rankingService;
+    this.presetTreeCache = presetTreeCache;
+  }
+
+  /**
+   * Get the leaderboard of a User and their accepted friends.
+   *
+   * @param userId The Id of the User
+   * @param period (optional) Only count the current DAY, WEEK, or MONTH (UTC). Null for all time.
+   * @return The LeaderboardEntries, best first. The User is included.
+   */
+  public List<LeaderboardEntry> getFriendLeaderboard(ObjectId userId, TimeBucket period) {
+    logger.debug("getFriendLeaderboard(userId={}, period={})", userId, period);
+    Set<ObjectId> userIds = new LinkedHashSet<>(friendshipService.getFriendIds(userId));
+    userIds.add(userId);
+    List<UserTotals> ranked = period == null
+        ? userTotalsService.findByUserIds(userIds)
+        : userTotalsService.findByUserIdsSince(userIds,
+            DailyActivity.dayOf(period.startOf(LocalDate.now(ZoneOffset.UTC))));
+    return FriendshipMapper.leaderboard(ranked,
+        userRepository.findByIdIn(new ArrayList<>(userIds)));
+  }
+
+  /**
+   * Page through every User, ranked by hours logged, then by Achievements completed.
+   *
+   * @param page The page number
+   * @param size The page size, at most 100
+   * @return The requested page of LeaderboardEntries, best first
+   */
+  public Page<LeaderboardEntry> getGlobalLeaderboard(int page, int size) {
+    logger.debug("getGlobalLeaderboard(page={}, size={})", page, size);
+    return page(rankingService.global(), page, size);
+  }
+
+  /**
+   * Get where a User stands on the global leaderboard.
+   *
+   * @param userId The Id of the User
+   * @return The User's rank
+   */
+  public LeaderboardRank getGlobalRank(ObjectId userId) {
+    logger.debug("getGlobalRank(userId={})", userId);
+    return rank(rankingService.global(), userId);
+  }
+
+  /**
+   * Page through the Users who copied a PRESET Tree, ranked by hours logged on their copies, then
+   * by Achievements completed in them.
+   *
+   * @param presetTreeId The Id of the PRESET Tree
+   * @param page The page number
+   * @param size The page size, at most 100
+   * @return The requested page of LeaderboardEntries, best first
+   */
+  public Page<LeaderboardEntry> getPresetLeaderboard(ObjectId presetTreeId, int page, int size) {
+    logger.debug("getPresetLeaderboard(presetTreeId={}, page={}, size={})", presetTreeId, page,
+        size);
+    return page(presetRanking(presetTreeId), page, size);
+  }
+
+  /**
+   * Get where a User stands on a PRESET Tree's leaderboard.
+   *
+   * @param userId The Id of the User
+   * @param presetTreeId The Id of the PRESET Tree
+   * @return The User's rank. Unranked if they never copied the Tree.
+   */
+  public LeaderboardRank getPresetRank(ObjectId userId, ObjectId presetTreeId) {
+    logger.debug("getPresetRank(userId={}, presetTreeId={})", userId, presetTreeId);
+    return rank(presetRanking(presetTreeId), userId);
+  }
+
+  private RankedScoreIndex<ObjectId> presetRanking(ObjectId presetTreeId) {
+    if (presetTreeCache.getTemplate(presetTreeId).isEmpty()) {
+      throw new NotFoundException("trees", Map.of("treeId", presetTreeId.toString()));
+    }
+    return rankingService.preset(presetTreeId);
+  }
+
+  private Page<LeaderboardEntry> page(RankedScoreIndex<ObjectId> ranking, int page, int size) {
+    if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+      throw new BadRequestException("page must be >= 0 and size must be 1-" + MAX_PAGE_SIZE);
+    }
+    Pageable pageable = PageRequest.of(page, size);
+    int total = ranking.size();
+    List<UserTotals> ranked = ranking.range((int) Math.min(pageable.getOffset(), total), size)
+        .stream().map(LeaderboardService::toTotals).toList();
+    if (ranked.isEmpty()) {
+      return new PageImpl<>(List.of(), pageable, total);
+    }
+    List<ObjectId> userIds = ranked.stream().map(UserTotals::getUserId).toList();
+    return new PageImpl<>(FriendshipMapper.leaderboard(ranked, userRepository.findByIdIn(userIds)),
+        pageable, total);
+  }
+
+  private LeaderboardRank rank(RankedScoreIndex<ObjectId> ranking, ObjectId userId) {
+    // One read, so the entry, rank and total all come from the same state of the ranking
+    RankedScoreIndex.Standing<ObjectId> standing = ranking.standingOf(userId);
+    if (standing.getEntry() == null) {
+      return new LeaderboardRank(null, standing.getTotal(), null);
+    }
+    LeaderboardEntry leaderboardEntry = FriendshipMapper.leaderboardEntry(
+        userRepository.findById(userId).orElse(null), toTotals(standing.getEntry()));
+    return new LeaderboardRank(standing.getRank() + 1, standing.getTotal(), leaderboardEntry);
+  }
+
+  private static UserTotals toTotals(RankedScoreIndex.Entry<ObjectId> entry) {
+    return new UserTotals(entry.getKey(), entry.getScore(), entry.getTiebreak());
+  }
+}
@@ -0,0 +1,66 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.MigrationRepository;
+import java.time.Duration;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs one-off data migrations, such as the backfills done on startup, once across all instances.
+ * Whether a migration is due is decided by its marker in the 'migrations' collection rather than
+ * by looking at the data it writes, which live writes and other instances change underneath it.
+ */
+@Service
+public class MigrationService {
+  private static final Logger logger = LoggerFactory.getLogger(MigrationService.class);
+  private final MigrationRepository migrationRepository;
+  private final Duration lease;
+
+  /**
+   * Create a MigrationService.
+   *
+   * @param migrationRepository DB ops for Migrations
+   * @param leaseSeconds How long an instance holds a migration before another may take it over
+   */
+  @Autowired
+  public MigrationService(
+      @Qualifier("mongoMigrationRepository") MigrationRepository migrationRepository,
+      @Value("${skilltree.migrations.lease-seconds:900}") long leaseSeconds) {
+    this.migrationRepository = migrationRepository;
+    this.lease = Duration.ofSeconds(leaseSeconds);
+  }
+
+  /**
+   * Run a migration unless it has completed or another instance is running it. A migration that
+   * throws stays incomplete and is run again once its claim lapses, so it must be safe to repeat.
+   *
+   * @param name Identifies the migration
+   * @param migration The work to do
+   * @return Whether the migration ran
+   */
+  public boolean runOnce(String name, Runnable migration) {
+    logger.debug("runOnce(name={})", name);
+    Instant now = Instant.now();
+    if (!migrationRepository.claim(name, now, now.plus(lease))) {
+      return false;
+    }
+    migration.run();
+    migrationRepository.complete(name);
+    return true;
+  }
+
+  /**
+   * Whether a migration has completed.
+   *
+   * @param name Identifies the migration
+   * @return Whether it has run to completion on some instance
+   */
+  public boolean isComplete(String name) {
+    return migrationRepository.existsByNameAndCompletedAtNotNull(name);
+  }
+}
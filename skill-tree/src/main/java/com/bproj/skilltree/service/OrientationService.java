@@ -7,6 +7,7 @@ import com.bproj.skilltree.exception.NotFoundException;
 import com.bproj.skilltree.model.AchievementLocation;
 import com.bproj.skilltree.model.Orientation;
 import com.bproj.skilltree.model.SkillLocation;
+import com.bproj.skilltree.model.SyncedCollection;
 import com.bproj.skilltree.util.PatchUtils;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
@@ -30,6 +31,7 @@ public class OrientationService {
   private final SkillRepository skillRepository;
   private final AchievementRepository achievementRepository;
   private final UserRepository userRepository;
+  private final ChangeLogService changeLogService;
 
 
   /**
@@ -40,6 +42,7 @@ public class OrientationService {
    * @param skillRepository DB operations for Skills
    * @param achievementRepository DB operations for Achievements
    * @param userRepository DB operations for Users
+   * @param changeLogService Told about every Orientation written
    */
   @Autowired
   public OrientationService(
@@ -47,18 +50,21 @@ public class OrientationService {
       @Qualifier("mongoTreeRepository") TreeRepository treeRepository,
       @Qualifier("mongoSkillRepository") SkillRepository skillRepository,
       @Qualifier("mongoAchievementRepository") AchievementRepository achievementRepository,
-      @Qualifier("mongoUserRepository") UserRepository userRepository) {
+      @Qualifier("mongoUserRepository") UserRepository userRepository,
+      ChangeLogService changeLogService) {
     this.orientationRepository = orientationRepository;
     this.treeRepository = treeRepository;
     this.skillRepository = skillRepository;
     this.achievementRepository = achievementRepository;
     this.userRepository = userRepository;
+    this.changeLogService = changeLogService;
   }
 
   /**
    * Validate an Orientation. userId must point to an existing user. treeId must point to an
    * existing tree of userId. Skill/Achievement Locations must reference valid objects belonging to
-   * the same user. X and Y coordinates must be >= 0.
+   * the same user. X and Y coordinates must be >= 0. The referenced Skills and Achievements are
+   * each checked with a single query, so validation cost doesn't grow with the size of the Tree.
    *
    * @param orientation The Orientation to be validated
    */
@@ -79,11 +85,14 @@ public class OrientationService {
 
     // skillLocations
     List<SkillLocation> skillLocations = orientation.getSkillLocations();
+    List<ObjectId> skillIds =
+        skillLocations.stream().map(SkillLocation::getSkillId).distinct().toList();
+    if (!skillIds.isEmpty() && skillRepository.findByIdIn(skillIds).stream()
+        .filter(s -> userId.equals(s.getUserId())).count() != skillIds.size()) {
+      throw new BadRequestException(
+          "Skill location must reference an existing skill owned by the user.");
+    }
     for (SkillLocation sl : skillLocations) {
-      if (!skillRepository.existsByUserIdAndId(userId, sl.getSkillId())) {
-        throw new BadRequestException(
-            "Skill location must reference an existing skill owned by the user.");
-      }
       if (sl.getX() < 0 || sl.getY() < 0) {
         throw new BadRequestException("X and Y coordinates must be greater than or equal to 0.");
       }
@@ -91,11 +100,14 @@ public class OrientationService {
 
     // achievementLocations
     List<AchievementLocation> achievementLocations = orientation.getAchievementLocations();
+    List<ObjectId> achievementIds = achievementLocations.stream()
+        .map(AchievementLocation::getAchievementId).distinct().toList();
+    if (!achievementIds.isEmpty() && achievementRepository.findAllById(achievementIds).stream()
+        .filter(a -> userId.equals(a.getUserId())).count() != achievementIds.size()) {
+      throw new BadRequestException(
+          "Achievement location must reference an existing achievement owned by the user.");
+    }
     for (AchievementLocation al : achievementLocations) {
-      if (!achievementRepository.existsByUserIdAndId(userId, al.getAchievementId())) {
-        throw new BadRequestException(
-            "Achievement location must reference an existing achievement owned by the user.");
-      }
       if (al.getX() < 0 || al.getY() < 0) {
         throw new BadRequestException("X and Y coordinates must be greater than or equal to 0.");
       }
@@ -103,8 +115,7 @@ public class OrientationService {
   }
 
   public boolean existsById(ObjectId orientationId) {
-    logger.info("existsById(orientationId={})", orientationId);
-    logger.info("orientationRepository.existsById(orientationId={})", orientationId);
+    logger.debug("existsById(orientationId={})", orientationId);
     return orientationRepository.existsById(orientationId);
   }
 
@@ -115,8 +126,7 @@ public class OrientationService {
    * @return The Orientation associated with the provided Id. Throws NFE otherwise
    */
   public Orientation findById(ObjectId orientationId) {
-    logger.info("findById(orientationId={})", orientationId);
-    logger.info("orientationRepository.findById(orientationId={})", orientationId);
+    logger.debug("findById(orientationId={})", orientationId);
     Optional<Orientation> optionalOrientation = orientationRepository.findById(orientationId);
     if (optionalOrientation.isEmpty()) {
       throw new NotFoundException("orientations",
@@ -133,8 +143,7 @@ public class OrientationService {
    * @return The Orientation matching userId and Id. Throws NFE otherwise.
    */
   public Orientation findByUserIdAndId(ObjectId userId, ObjectId orientationId) {
-    logger.info("findByUserIdAndId(userId={}, orientationId={})", userId, orientationId);
-    logger.info("orientationRepository.findByUserIdAndId(userId={}, orientationId={})", userId, orientationId);
+    logger.debug("findByUserIdAndId(userId={}, orientationId={})", userId, orientationId);
     Orientation orientation = orientationRepository.findByUserIdAndId(userId, orientationId)
         .orElseThrow(() -> new NotFoundException("orientations",
             Map.of("userId", userId.toString(), "orientationId", orientationId.toString())));
@@ -148,12 +157,10 @@ public class OrientationService {
    * @return A list of the specified User's Orientations
    */
   public List<Orientation> findByUserId(ObjectId userId) {
-    logger.info("findByUserId(userId={})", userId);
-    logger.info("userRepository.existsById(userId={})", userId);
+    logger.debug("findByUserId(userId={})", userId);
     if (!userRepository.existsById(userId)) {
       throw new NotFoundException("users", Map.of("userId", userId.toString()));
     }
-    logger.info("orientationRepository.findByUserId(userId={})", userId);
     return orientationRepository.findByUserId(userId);
   }
 
@@ -165,13 +172,11 @@ public class OrientationService {
    * @return The Orientation with userId and treeId matching
    */
   public Orientation findByUserIdAndTreeId(ObjectId userId, ObjectId treeId) {
-    logger.info("findByUserIdAndTreeId(userId={}, treeId={})", userId, treeId);
-    logger.info("treeRepository.existsByUserIdAndId(userId={}, treeId={})", userId, treeId);
+    logger.debug("findByUserIdAndTreeId(userId={}, treeId={})", userId, treeId);
     if (!treeRepository.existsByUserIdAndId(userId, treeId)) {
       throw new NotFoundException("trees",
           Map.of("userId", userId.toString(), "treeId", treeId.toString()));
     }
-    logger.info("orientationRepository.findByUserIdAndTreeId(userId={}, treeId={})", userId, treeId);
     return orientationRepository.findByUserIdAndTreeId(userId, treeId)
         .orElseThrow(() -> new NotFoundException("orientations",
             Map.of("userId", userId.toString(), "treeId", treeId.toString())));
@@ -186,8 +191,7 @@ public class OrientationService {
    * @return The updated Orientation
    */
   public Orientation update(ObjectId userId, ObjectId treeId, Orientation updatedOrientation) {
-    logger.info("update(userId={}, treeId={}, updatedOrientation={})", userId, treeId, updatedOrientation);
-    logger.info("orientationRepository.findByUserIdAndTreeId(userId={}, treeId={})", userId, treeId);
+    logger.debug("update(userId={}, treeId={}, updatedOrientation={})", userId, treeId, updatedOrientation);
     Orientation existingOrientation = orientationRepository.findByUserIdAndTreeId(userId, treeId)
         .orElseThrow(() -> new NotFoundException("orientations",
             Map.of("userId", userId.toString(), "treeId", treeId.toString())));
@@ -195,8 +199,9 @@ public class OrientationService {
     updatedOrientation.setTreeId(treeId);
     updatedOrientation.setId(existingOrientation.getId());
     validateOrientation(updatedOrientation);
-    logger.info("orientationRepository.save(updatedOrientation={})", updatedOrientation);
-    return orientationRepository.save(updatedOrientation);
+    Orientation saved = orientationRepository.save(updatedOrientation);
+    changeLogService.changed(userId, SyncedCollection.ORIENTATIONS, treeId);
+    return saved;
   }
 
   /**
@@ -208,32 +213,30 @@ public class OrientationService {
    * @return The updated Orientation.
    */
   public Orientation patch(ObjectId userId, ObjectId treeId, List<OrientationMovePatch> updates) {
-    logger.info("patch(userId={}, treeId={}, updates={})", userId, treeId, updates);
+    logger.debug("patch(userId={}, treeId={}, updates={})", userId, treeId, updates);
     Orientation existingOrientation = findByUserIdAndTreeId(userId, treeId);
     Orientation updated = PatchUtils.applyOrientationPatch(existingOrientation, updates);
     updated.setUserId(userId);
     updated.setTreeId(treeId);
     updated.setId(existingOrientation.getId());
     validateOrientation(updated);
-    logger.info("orientationRepository.save(updated={})", updated);
-    return orientationRepository.save(updated);
+    Orientation saved = orientationRepository.save(updated);
+    changeLogService.changed(userId, SyncedCollection.ORIENTATIONS, treeId);
+    return saved;
   }
 
   public void deleteById(ObjectId id) {
-    logger.info("deleteById(id={})", id);
-    logger.info("orientationRepository.deleteById(id={})", id);
+    logger.debug("deleteById(id={})", id);
     orientationRepository.deleteById(id);
   }
 
   public void deleteByUserId(ObjectId userId) {
-    logger.info("deleteByUserId(userId={})", userId);
-    logger.info("orientationRepository.deleteByUserId(userId={})", userId);
+    logger.debug("deleteByUserId(userId={})", userId);
     orientationRepository.deleteByUserId(userId);
   }
 
   public void deleteByTreeId(ObjectId treeId) {
-    logger.info("deleteByTreeId(treeId={})", treeId);
-    logger.info("orientationRepository.deleteByTreeId(treeId={})", treeId);
+    logger.debug("deleteByTreeId(treeId={})", treeId);
     orientationRepository.deleteByTreeId(treeId);
   }
 }
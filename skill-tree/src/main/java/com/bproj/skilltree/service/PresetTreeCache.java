@@ -0,0 +1,245 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.AchievementRepository;
+import com.bproj.skilltree.dao.OrientationRepository;
+import com.bproj.skilltree.dao.SkillRepository;
+import com.bproj.skilltree.dao.TreeRepository;
+import com.bproj.skilltree.dto.TreeLayout;
+import com.bproj.skilltree.mapper.TreeMapper;
+import com.bproj.skilltree.model.Achievement;
+import com.bproj.skilltree.model.Orientation;
+import com.bproj.skilltree.model.Skill;
+import com.bproj.skilltree.model.Tree;
+import com.bproj.skilltree.model.Visibility;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of every PRESET Tree along with its TreeLayout and TreeCopyTemplate. PRESET
+ * Trees are read by every user (the public store, signup copies) and almost never change, so the
+ * whole set is loaded with four queries, served from memory, and swapped out wholesale on refresh.
+ * Readers never block: they see either the old snapshot or the new one.
+ */
+@Component
+public class PresetTreeCache {
+  private static final Logger logger = LoggerFactory.getLogger(PresetTreeCache.class);
+  private static final Comparator<Tree> NEWEST_FIRST = Comparator.comparing(Tree::getCreatedAt,
+      Comparator.nullsLast(Comparator.reverseOrder()));
+  private final TreeRepository treeRepository;
+  private final SkillRepository skillRepository;
+  private final AchievementRepository achievementRepository;
+  private final OrientationRepository orientationRepository;
+  private volatile Snapshot snapshot;
+
+
+  /**
+   * Create a PresetTreeCache.
+   *
+   * @param treeRepository DB ops for Trees
+   * @param skillRepository DB ops for Skills
+   * @param achievementRepository DB ops for Achievements
+   * @param orientationRepository DB ops for Orientations
+   */
+  @Autowired
+  public PresetTreeCache(@Qualifier("mongoTreeRepository") TreeRepository treeRepository,
+      @Qualifier("mongoSkillRepository") SkillRepository skillRepository,
+      @Qualifier("mongoAchievementRepository") AchievementRepository achievementRepository,
+      @Qualifier("mongoOrientationRepository") OrientationRepository orientationRepository) {
+    this.treeRepository = treeRepository;
+    this.skillRepository = skillRepository;
+    this.achievementRepository = achievementRepository;
+    this.orientationRepository = orientationRepository;
+  }
+
+  /**
+   * Load the cache once the application is up so the first store visit doesn't pay for it.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warm() {
+    refresh();
+  }
+
+  /**
+   * Reload periodically to pick up PRESET Trees edited directly in the database.
+   */
+  @Scheduled(fixedDelayString = "${skilltree.preset-cache.refresh-seconds:300}",
+      initialDelayString = "${skilltree.preset-cache.refresh-seconds:300}",
+      timeUnit = TimeUnit.SECONDS)
+  public void scheduledRefresh() {
+    refresh();
+  }
+
+  /**
+   * Rebuild the cache from the database. If loading fails the previous snapshot is kept.
+   */
+  public synchronized void refresh() {
+    logger.debug("refresh()");
+    try {
+      snapshot = load();
+    } catch (RuntimeException e) {
+      logger.error("Failed to refresh preset tree cache", e);
+      if (snapshot == null) {
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Drop a Tree from the cache. Called when a PRESET Tree is deleted or stops being PRESET.
+   *
+   * @param treeId The Id of the Tree
+   */
+  public synchronized void evict(ObjectId treeId) {
+    Snapshot current = snapshot;
+    if (current == null || !current.templates.containsKey(treeId)) {
+      return;
+    }
+    List<Tree> trees = current.trees.stream().filter(t -> !t.getId().equals(treeId)).toList();
+    Map<ObjectId, TreeLayout> layouts = new HashMap<>(current.layouts);
+    layouts.remove(treeId);
+    Map<ObjectId, TreeCopyTemplate> templates = new HashMap<>(current.templates);
+    templates.remove(treeId);
+    snapshot = new Snapshot(trees, Map.copyOf(layouts), Map.copyOf(templates));
+  }
+
+  /**
+   * Bring a Tree up to date after it was created or updated. A PRESET Tree is reloaded along with
+   * its Skills, Achievements and Orientation; any other Tree is dropped in case it was PRESET
+   * before. Does nothing before the first load, which will pick the Tree up anyway.
+   *
+   * @param tree The Tree as persisted
+   */
+  public synchronized void treeChanged(Tree tree) {
+    logger.debug("treeChanged(treeId={})", tree.getId());
+    Snapshot current = snapshot;
+    if (current == null) {
+      return;
+    }
+    if (tree.getVisibility() != Visibility.PRESET) {
+      evict(tree.getId());
+      return;
+    }
+    ObjectId treeId = tree.getId();
+    Tree cached = new Tree(tree);
+    List<Skill> skills = skillRepository.findByTreeIdIn(List.of(treeId));
+    List<Achievement> achievements = achievementRepository.findByTreeIdIn(List.of(treeId));
+    Optional<Orientation> orientation = orientationRepository.findByTreeIdIn(List.of(treeId))
+        .stream().findFirst();
+
+    List<Tree> trees = new ArrayList<>(current.trees);
+    trees.removeIf(t -> t.getId().equals(treeId));
+    Map<ObjectId, TreeLayout> layouts = new HashMap<>(current.layouts);
+    layouts.remove(treeId);
+    Map<ObjectId, TreeCopyTemplate> templates = new HashMap<>(current.templates);
+    templates.remove(treeId);
+    if (orientation.isEmpty()) {
+      logger.warn("Preset tree {} has no orientation, not caching it", treeId);
+    } else {
+      templates.put(treeId, new TreeCopyTemplate(cached, skills, achievements, orientation.get()));
+      trees.add(cached);
+      trees.sort(NEWEST_FIRST);
+      try {
+        layouts.put(treeId, TreeMapper.toTreeLayout(skills, achievements, orientation.get()));
+      } catch (IllegalStateException e) {
+        logger.warn("Preset tree {} has an inconsistent layout: {}", treeId, e.getMessage());
+      }
+    }
+    snapshot = new Snapshot(List.copyOf(trees), Map.copyOf(layouts), Map.copyOf(templates));
+  }
+
+  /**
+   * Every PRESET Tree, newest first. The returned Trees are copies.
+   *
+   * @return The PRESET Trees
+   */
+  public List<Tree> getTrees() {
+    return current().trees.stream().map(Tree::new).toList();
+  }
+
+  public Optional<TreeLayout> getLayout(ObjectId treeId) {
+    return Optional.ofNullable(current().layouts.get(treeId));
+  }
+
+  public Optional<TreeCopyTemplate> getTemplate(ObjectId treeId) {
+    return Optional.ofNullable(current().templates.get(treeId));
+  }
+
+  private Snapshot current() {
+    Snapshot current = snapshot;
+    if (current == null) {
+      refresh();
+      current = snapshot;
+    }
+    return current;
+  }
+
+  private Snapshot load() {
+    List<Tree> trees = treeRepository.findByVisibility(Visibility.PRESET).stream()
+        .sorted(NEWEST_FIRST)
+        .toList();
+    List<ObjectId> treeIds = trees.stream().map(Tree::getId).toList();
+    if (treeIds.isEmpty()) {
+      return new Snapshot(List.of(), Map.of(), Map.of());
+    }
+
+    Map<ObjectId, List<Skill>> skillsByTree = skillRepository.findByTreeIdIn(treeIds).stream()
+        .collect(Collectors.groupingBy(Skill::getTreeId));
+    Map<ObjectId, List<Achievement>> achievementsByTree = achievementRepository
+        .findByTreeIdIn(treeIds).stream().collect(Collectors.groupingBy(Achievement::getTreeId));
+    Map<ObjectId, Orientation> orientationByTree = orientationRepository.findByTreeIdIn(treeIds)
+        .stream().collect(Collectors.toMap(Orientation::getTreeId, o -> o, (a, b) -> a));
+
+    Map<ObjectId, TreeLayout> layouts = new HashMap<>();
+    Map<ObjectId, TreeCopyTemplate> templates = new HashMap<>();
+    for (Tree tree : trees) {
+      Orientation orientation = orientationByTree.get(tree.getId());
+      if (orientation == null) {
+        logger.warn("Preset tree {} has no orientation, not caching it", tree.getId());
+        continue;
+      }
+      List<Skill> skills = skillsByTree.getOrDefault(tree.getId(), List.of());
+      List<Achievement> achievements = achievementsByTree.getOrDefault(tree.getId(), List.of());
+      templates.put(tree.getId(), new TreeCopyTemplate(tree, skills, achievements, orientation));
+      try {
+        layouts.put(tree.getId(), TreeMapper.toTreeLayout(skills, achievements, orientation));
+      } catch (IllegalStateException e) {
+        logger.warn("Preset tree {} has an inconsistent layout: {}", tree.getId(), e.getMessage());
+      }
+    }
+    List<Tree> cachedTrees = trees.stream().filter(t -> templates.containsKey(t.getId())).toList();
+    logger.info("Cached {} preset trees", cachedTrees.size());
+    return new Snapshot(cachedTrees, Map.copyOf(layouts), Map.copyOf(templates));
+  }
+
+  /**
+   * One immutable generation of the cache.
+   */
+  private static final class Snapshot {
+    private final List<Tree> trees;
+    private final Map<ObjectId, TreeLayout> layouts;
+    private final Map<ObjectId, TreeCopyTemplate> templates;
+
+    private Snapshot(List<Tree> trees, Map<ObjectId, TreeLayout> layouts,
+        Map<ObjectId, TreeCopyTemplate> templates) {
+      this.trees = trees;
+      this.layouts = layouts;
+      this.templates = templates;
+    }
+  }
+}
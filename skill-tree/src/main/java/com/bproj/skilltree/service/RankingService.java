@@ -0,0 +1,307 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.TreeTotalsRepository;
+import com.bproj.skilltree.dao.UserTotalsRepository;
+import com.bproj.skilltree.model.TreeTotals;
+import com.bproj.skilltree.model.UserTotals;
+import com.bproj.skilltree.util.RankedScoreIndex;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process rankings of every User (by their UserTotals) and of every User who copied a PRESET
+ * Tree (by the TreeTotals of their copies), held in RankedScoreIndexes so a page of the top Users
+ * or one User's rank never touches the users collection. The persisted totals are the snapshot:
+ * they are loaded on startup and reloaded periodically, which also picks up writes handled by
+ * other instances. In between, the write paths push every change in as it is persisted. A change
+ * made inside a transaction is only ranked once the transaction commits, so a write that rolls
+ * back is never ranked.
+ *
+ * <p>Users who copied a PRESET more than once are ranked by the sum of their copies.
+ */
+@Service
+public class RankingService {
+  private static final Logger logger = LoggerFactory.getLogger(RankingService.class);
+  private final UserTotalsRepository userTotalsRepository;
+  private final TreeTotalsRepository treeTotalsRepository;
+  private volatile Rankings rankings = new Rankings();
+
+
+  /**
+   * Create a RankingService.
+   *
+   * @param userTotalsRepository UserTotals DB operations, the snapshot of the global ranking
+   * @param treeTotalsRepository TreeTotals DB operations, the snapshot of the PRESET rankings
+   */
+  @Autowired
+  public RankingService(
+      @Qualifier("mongoUserTotalsRepository") UserTotalsRepository userTotalsRepository,
+      @Qualifier("mongoTreeTotalsRepository") TreeTotalsRepository treeTotalsRepository) {
+    this.userTotalsRepository = userTotalsRepository;
+    this.treeTotalsRepository = treeTotalsRepository;
+  }
+
+  /**
+   * Load the rankings once the application is up, after any UserTotals backfill.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(2)
+  public void warm() {
+    refresh();
+  }
+
+  /**
+   * Reload periodically to pick up changes made by other instances.
+   */
+  @Scheduled(fixedDelayString = "${skilltree.rankings.refresh-seconds:300}",
+      initialDelayString = "${skilltree.rankings.refresh-seconds:300}",
+      timeUnit = TimeUnit.SECONDS)
+  public void scheduledRefresh() {
+    refresh();
+  }
+
+  /**
+   * Rebuild the rankings from the persisted totals. If loading fails the previous rankings are
+   * kept.
+   */
+  public synchronized void refresh() {
+    logger.debug("refresh()");
+    try {
+      Rankings loaded = new Rankings();
+      userTotalsRepository.findAll().forEach(loaded::putUser);
+      treeTotalsRepository.findAll().forEach(loaded::putCopy);
+      rankings = loaded;
+      logger.info("Ranked {} users and {} preset tree copies", loaded.global.size(),
+          loaded.copies.size());
+    } catch (RuntimeException e) {
+      logger.error("Failed to refresh rankings", e);
+    }
+  }
+
+  /**
+   * Re-rank a User after their UserTotals were written.
+   *
+   * @param totals The User's totals as persisted
+   */
+  public void userTotalsChanged(UserTotals totals) {
+    afterCommit(() -> rankings.putUser(totals));
+  }
+
+  /**
+   * Stop ranking a User and their PRESET copies. Called when the User is deleted.
+   *
+   * @param userId The Id of the User
+   */
+  public void userRemoved(ObjectId userId) {
+    logger.debug("userRemoved(userId={})", userId);
+    afterCommit(() -> {
+      rankings.global.remove(userId);
+      rankings.removeCopiesOf(userId);
+    });
+  }
+
+  /**
+   * Start tracking a new copy of a PRESET Tree.
+   *
+   * @param treeId The Id of the copy
+   * @param userId The User the copy belongs to
+   * @param presetTreeId The Id of the PRESET Tree
+   */
+  public void presetCopied(ObjectId treeId, ObjectId userId, ObjectId presetTreeId) {
+    logger.debug("presetCopied(treeId={}, userId={}, presetTreeId={})", treeId, userId,
+        presetTreeId);
+    copyChanged(treeTotalsRepository.insert(new TreeTotals(treeId, userId, presetTreeId, 0, 0)));
+  }
+
+  /**
+   * Add hours to Trees. Trees that aren't PRESET copies are skipped by the database, so this
+   * works for copies made by other instances too.
+   *
+   * @param hoursByTreeId The change in hours, keyed by Tree Id
+   */
+  public void addTreeHours(Map<ObjectId, Double> hoursByTreeId) {
+    logger.debug("addTreeHours(hoursByTreeId={})", hoursByTreeId);
+    hoursByTreeId.forEach((treeId, hours) -> {
+      if (hours != 0) {
+        treeTotalsRepository.increment(treeId, hours, 0).ifPresent(this::copyChanged);
+      }
+    });
+  }
+
+  /**
+   * Add to a Tree's completed Achievements, if the Tree is a PRESET copy.
+   *
+   * @param treeId The Id of the Tree
+   * @param achievements The change in completed Achievements
+   */
+  public void addTreeAchievementsCompleted(ObjectId treeId, int achievements) {
+    logger.debug("addTreeAchievementsCompleted(treeId={}, achievements={})", treeId,
+        achievements);
+    if (achievements != 0) {
+      treeTotalsRepository.increment(treeId, 0, achievements).ifPresent(this::copyChanged);
+    }
+  }
+
+  /**
+   * Zero the completed Achievements of a User's PRESET copies after their Achievements were
+   * deleted in bulk.
+   *
+   * @param userId The Id of the User
+   * @param treeId The Id of the one Tree whose Achievements were deleted, or null for all of them
+   */
+  public void achievementsRemoved(ObjectId userId, ObjectId treeId) {
+    logger.debug("achievementsRemoved(userId={}, treeId={})", userId, treeId);
+    treeTotalsRepository.clearAchievementsCompleted(userId, treeId);
+    List<TreeTotals> copies = treeTotalsRepository.findByUserId(userId);
+    afterCommit(() -> copies.forEach(c -> rankings.putCopy(c)));
+  }
+
+  /**
+   * Stop tracking a deleted Tree.
+   *
+   * @param treeId The Id of the Tree
+   */
+  public void treeRemoved(ObjectId treeId) {
+    logger.debug("treeRemoved(treeId={})", treeId);
+    treeTotalsRepository.deleteById(treeId);
+    afterCommit(() -> rankings.removeCopy(treeId));
+  }
+
+  /**
+   * Stop tracking all of a User's Trees after they were deleted in bulk.
+   *
+   * @param userId The Id of the User
+   */
+  public void treesRemoved(ObjectId userId) {
+    logger.debug("treesRemoved(userId={})", userId);
+    treeTotalsRepository.deleteByUserId(userId);
+    afterCommit(() -> rankings.removeCopiesOf(userId));
+  }
+
+  /**
+   * The global ranking of Users by hours logged, then Achievements completed.
+   *
+   * @return The ranking, keyed by User Id. Callers must not modify it.
+   */
+  public RankedScoreIndex<ObjectId> global() {
+    return rankings.global;
+  }
+
+  /**
+   * The ranking of the Users who copied a PRESET Tree, by hours logged on their copies, then
+   * Achievements completed in them.
+   *
+   * @param presetTreeId The Id of the PRESET Tree
+   * @return The ranking, keyed by User Id, empty if nobody copied the Tree. Callers must not
+   *     modify it.
+   */
+  public RankedScoreIndex<ObjectId> preset(ObjectId presetTreeId) {
+    RankedScoreIndex<ObjectId> ranking = rankings.presets.get(presetTreeId);
+    return ranking != null ? ranking : new RankedScoreIndex<>();
+  }
+
+  private void copyChanged(TreeTotals totals) {
+    afterCommit(() -> rankings.putCopy(totals));
+  }
+
+  /**
+   * Apply a change to the rankings once the write it mirrors is committed, or straight away when
+   * the write isn't part of a transaction. Dropped if the transaction rolls back.
+   *
+   * @param change The change, which reads the current generation of rankings when it runs
+   */
+  private void afterCommit(Runnable change) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      apply(change);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        apply(change);
+      }
+    });
+  }
+
+  private synchronized void apply(Runnable change) {
+    change.run();
+  }
+
+  /**
+   * One generation of rankings. Only mutated while holding the RankingService's lock; the
+   * indexes themselves can be read at any time.
+   */
+  private static final class Rankings {
+    private final RankedScoreIndex<ObjectId> global = new RankedScoreIndex<>();
+    private final Map<ObjectId, RankedScoreIndex<ObjectId>> presets = new ConcurrentHashMap<>();
+    private final Map<ObjectId, TreeTotals> copies = new HashMap<>();
+    private final Map<ObjectId, Set<ObjectId>> copiesByUser = new HashMap<>();
+
+    private void putUser(UserTotals totals) {
+      global.put(totals.getUserId(), totals.getHoursLogged(), totals.getAchievementsCompleted());
+    }
+
+    private void putCopy(TreeTotals totals) {
+      copies.put(totals.getTreeId(), totals);
+      copiesByUser.computeIfAbsent(totals.getUserId(), k -> new HashSet<>())
+          .add(totals.getTreeId());
+      rerank(totals.getPresetTreeId(), totals.getUserId());
+    }
+
+    private void removeCopy(ObjectId treeId) {
+      TreeTotals removed = copies.remove(treeId);
+      if (removed == null) {
+        return;
+      }
+      Set<ObjectId> treeIds = copiesByUser.get(removed.getUserId());
+      treeIds.remove(treeId);
+      if (treeIds.isEmpty()) {
+        copiesByUser.remove(removed.getUserId());
+      }
+      rerank(removed.getPresetTreeId(), removed.getUserId());
+    }
+
+    private void removeCopiesOf(ObjectId userId) {
+      List.copyOf(copiesByUser.getOrDefault(userId, Set.of())).forEach(this::removeCopy);
+    }
+
+    private void rerank(ObjectId presetTreeId, ObjectId userId) {
+      double hours = 0;
+      int achievements = 0;
+      boolean hasCopy = false;
+      for (ObjectId treeId : copiesByUser.getOrDefault(userId, Set.of())) {
+        TreeTotals copy = copies.get(treeId);
+        if (copy.getPresetTreeId().equals(presetTreeId)) {
+          hours += copy.getHoursLogged();
+          achievements += copy.getAchievementsCompleted();
+          hasCopy = true;
+        }
+      }
+      RankedScoreIndex<ObjectId> ranking =
+          presets.computeIfAbsent(presetTreeId, k -> new RankedScoreIndex<>());
+      if (hasCopy) {
+        ranking.put(userId, hours, achievements);
+      } else {
+        ranking.remove(userId);
+      }
+    }
+  }
+}
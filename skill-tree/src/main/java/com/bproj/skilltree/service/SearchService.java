@@ -0,0 +1,408 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.AchievementRepository;
+import com.bproj.skilltree.dao.SkillRepository;
+import com.bproj.skilltree.dao.TreeRepository;
+import com.bproj.skilltree.exception.BadRequestException;
+import com.bproj.skilltree.model.Achievement;
+import com.bproj.skilltree.model.Skill;
+import com.bproj.skilltree.model.Tree;
+import com.bproj.skilltree.model.Visibility;
+import com.bproj.skilltree.util.InvertedIndex;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Full-text search over a User's Skills and Achievements and over every PUBLIC and PRESET Tree,
+ * answered from InvertedIndexes so a query reads posting lists instead of scanning a collection.
+ * Only the page of matches is read from Mongo, by Id.
+ *
+ * <p>The Tree index is loaded on startup and reloaded periodically, without blocking the write
+ * paths while it loads. A User's index is loaded with
+ * two queries the first time they search and kept for skilltree.search.user-cache-seconds, at most
+ * skilltree.search.user-cache-size Users, least recently used first out. The service write paths
+ * push every change into whichever indexes are loaded; bulk deletes drop the User's index instead.
+ */
+@Service
+public class SearchService {
+  private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+  private static final int MAX_PAGE_SIZE = 100;
+  private static final Set<Visibility> SEARCHABLE_TREES = Set.of(Visibility.PUBLIC,
+      Visibility.PRESET);
+  private final SkillRepository skillRepository;
+  private final AchievementRepository achievementRepository;
+  private final TreeRepository treeRepository;
+  private final long ttlNanos;
+  private final Map<ObjectId, UserIndex> users;
+  private long changes;
+  private final Object refreshLock = new Object();
+  private volatile TreeIndex trees = new TreeIndex();
+  // Tree changes pushed while a refresh is loading, guarded by this; null when none is running.
+  private List<Consumer<TreeIndex>> treeChangesDuringLoad;
+
+
+  /**
+   * Create a SearchService.
+   *
+   * @param skillRepository DB ops for Skills
+   * @param achievementRepository DB ops for Achievements
+   * @param treeRepository DB ops for Trees
+   * @param ttlSeconds How long a User's index is served before it is reloaded
+   * @param maxUsers How many Users' indexes are kept at most
+   */
+  @Autowired
+  public SearchService(@Qualifier("mongoSkillRepository") SkillRepository skillRepository,
+      @Qualifier("mongoAchievementRepository") AchievementRepository achievementRepository,
+      @Qualifier("mongoTreeRepository") TreeRepository treeRepository,
+      @Value("${skilltree.search.user-cache-seconds:300}") long ttlSeconds,
+      @Value("${skilltree.search.user-cache-size:1000}") int maxUsers) {
+    this.skillRepository = skillRepository;
+    this.achievementRepository = achievementRepository;
+    this.treeRepository = treeRepository;
+    this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    this.users = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<ObjectId, UserIndex> eldest) {
+        return size() > maxUsers;
+      }
+    };
+  }
+
+  /**
+   * Load the Tree index once the application is up.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warm() {
+    refresh();
+  }
+
+  /**
+   * Reload periodically to pick up changes made by other instances.
+   */
+  @Scheduled(fixedDelayString = "${skilltree.search.refresh-seconds:300}",
+      initialDelayString = "${skilltree.search.refresh-seconds:300}",
+      timeUnit = TimeUnit.SECONDS)
+  public void scheduledRefresh() {
+    refresh();
+  }
+
+  /**
+   * Rebuild the Tree index from the PUBLIC and PRESET Trees. The Trees are read without holding
+   * the lock the write paths take; changes pushed meanwhile are replayed onto the new index before
+   * it replaces the old one. If loading fails the previous index is kept.
+   */
+  public void refresh() {
+    logger.debug("refresh()");
+    synchronized (refreshLock) {
+      synchronized (this) {
+        treeChangesDuringLoad = new ArrayList<>();
+      }
+      try {
+        TreeIndex loaded = new TreeIndex();
+        SEARCHABLE_TREES.forEach(v -> treeRepository.findByVisibility(v).forEach(loaded::put));
+        synchronized (this) {
+          treeChangesDuringLoad.forEach(change -> change.accept(loaded));
+          trees = loaded;
+        }
+        logger.info("Indexed {} public and preset trees", loaded.index.size());
+      } catch (RuntimeException e) {
+        logger.error("Failed to refresh the tree search index", e);
+      } finally {
+        synchronized (this) {
+          treeChangesDuringLoad = null;
+        }
+      }
+    }
+  }
+
+  /**
+   * Index a Tree after it was created or updated. Trees that aren't PUBLIC or PRESET are removed.
+   *
+   * @param tree The Tree as persisted
+   */
+  public void treeChanged(Tree tree) {
+    if (SEARCHABLE_TREES.contains(tree.getVisibility())) {
+      applyToTrees(t -> t.put(tree));
+    } else {
+      applyToTrees(t -> t.remove(tree.getId()));
+    }
+  }
+
+  /**
+   * Stop finding a deleted Tree.
+   *
+   * @param treeId The Id of the Tree
+   */
+  public void treeRemoved(ObjectId treeId) {
+    applyToTrees(t -> t.remove(treeId));
+  }
+
+  /**
+   * Forget everything of a User's after their Trees, Skills and Achievements were deleted in
+   * bulk.
+   *
+   * @param userId The Id of the User
+   */
+  public synchronized void userRemoved(ObjectId userId) {
+    logger.debug("userRemoved(userId={})", userId);
+    applyToTrees(t -> t.removeTreesOf(userId));
+    evict(userId);
+  }
+
+  // Applies a change to the current Tree index, and keeps it for the index being loaded, if any.
+  private synchronized void applyToTrees(Consumer<TreeIndex> change) {
+    change.accept(trees);
+    if (treeChangesDuringLoad != null) {
+      treeChangesDuringLoad.add(change);
+    }
+  }
+
+  /**
+   * Drop a User's index after a bulk change to their Skills or Achievements. It is reloaded the
+   * next time they search.
+   *
+   * @param userId The Id of the User
+   */
+  public synchronized void evict(ObjectId userId) {
+    changes++;
+    users.remove(userId);
+  }
+
+  /**
+   * Index a Skill after it was created or updated.
+   *
+   * @param skill The Skill as persisted
+   */
+  public synchronized void skillChanged(Skill skill) {
+    changes++;
+    UserIndex index = users.get(skill.getUserId());
+    if (index != null) {
+      index.skills.put(skill.getId(), skill.getName());
+    }
+  }
+
+  /**
+   * Stop finding a deleted Skill.
+   *
+   * @param userId The Id of the User the Skill belonged to
+   * @param skillId The Id of the Skill
+   */
+  public synchronized void skillRemoved(ObjectId userId, ObjectId skillId) {
+    changes++;
+    UserIndex index = users.get(userId);
+    if (index != null) {
+      index.skills.remove(skillId);
+    }
+  }
+
+  /**
+   * Index an Achievement after it was created or updated.
+   *
+   * @param achievement The Achievement as persisted
+   */
+  public synchronized void achievementChanged(Achievement achievement) {
+    changes++;
+    UserIndex index = users.get(achievement.getUserId());
+    if (index != null) {
+      index.achievements.put(achievement.getId(), achievement.getTitle(),
+          achievement.getDescription());
+    }
+  }
+
+  /**
+   * Stop finding a deleted Achievement.
+   *
+   * @param userId The Id of the User the Achievement belonged to
+   * @param achievementId The Id of the Achievement
+   */
+  public synchronized void achievementRemoved(ObjectId userId, ObjectId achievementId) {
+    changes++;
+    UserIndex index = users.get(userId);
+    if (index != null) {
+      index.achievements.remove(achievementId);
+    }
+  }
+
+  /**
+   * Search a User's Skills by name.
+   *
+   * @param userId The Id of the User
+   * @param query The search text
+   * @param page The page number
+   * @param size The page size, at most 100
+   * @return A page of Skills, best match first
+   */
+  public Page<Skill> searchSkills(ObjectId userId, String query, int page, int size) {
+    logger.debug("searchSkills(userId={}, query={}, page={}, size={})", userId, query, page,
+        size);
+    validate(query, page, size);
+    InvertedIndex.Hits<ObjectId> hits =
+        userIndex(userId).skills.search(query, offsetOf(page, size), size);
+    return toPage(hits, skillRepository::findAllById, Skill::getId, s -> true,
+        id -> skillRemoved(userId, id), page, size);
+  }
+
+  /**
+   * Search a User's Achievements by title and description.
+   *
+   * @param userId The Id of the User
+   * @param query The search text
+   * @param page The page number
+   * @param size The page size, at most 100
+   * @return A page of Achievements, best match first
+   */
+  public Page<Achievement> searchAchievements(ObjectId userId, String query, int page,
+      int size) {
+    logger.debug("searchAchievements(userId={}, query={}, page={}, size={})", userId, query, page,
+        size);
+    validate(query, page, size);
+    InvertedIndex.Hits<ObjectId> hits =
+        userIndex(userId).achievements.search(query, offsetOf(page, size), size);
+    return toPage(hits, achievementRepository::findAllById, Achievement::getId, a -> true,
+        id -> achievementRemoved(userId, id), page, size);
+  }
+
+  /**
+   * Search the PUBLIC and PRESET Trees by name and description. The index may be behind changes
+   * made on other instances until the next refresh, so matches are checked against the Trees as
+   * stored and the ones no longer PUBLIC or PRESET are dropped from the page and the index.
+   *
+   * @param query The search text
+   * @param page The page number
+   * @param size The page size, at most 100
+   * @return A page of Trees, best match first
+   */
+  public Page<Tree> searchTrees(String query, int page, int size) {
+    logger.debug("searchTrees(query={}, page={}, size={})", query, page, size);
+    validate(query, page, size);
+    InvertedIndex.Hits<ObjectId> hits = trees.index.search(query, offsetOf(page, size), size);
+    return toPage(hits, treeRepository::findAllById, Tree::getId,
+        t -> SEARCHABLE_TREES.contains(t.getVisibility()), this::treeRemoved, page, size);
+  }
+
+  private static void validate(String query, int page, int size) {
+    if (query == null || InvertedIndex.tokenize(query).isEmpty()) {
+      throw new BadRequestException("q must contain at least one letter or digit");
+    }
+    if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+      throw new BadRequestException("page must be >= 0 and size must be 1-" + MAX_PAGE_SIZE);
+    }
+  }
+
+  // The offset of a page, clamped instead of overflowing; a page past the end is just empty.
+  private static int offsetOf(int page, int size) {
+    return (int) Math.min((long) page * size, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Read one page of matches by Id, in ranked order. Matches deleted since they were indexed, or
+   * that no longer qualify, are skipped and handed to stale so they stop matching.
+   */
+  private static <T> Page<T> toPage(InvertedIndex.Hits<ObjectId> hits,
+      Function<List<ObjectId>, List<T>> findAllById, Function<T, ObjectId> idOf,
+      Predicate<T> searchable, Consumer<ObjectId> stale, int page, int size) {
+    List<T> found = hits.getKeys().isEmpty() ? List.of() : findAllById.apply(hits.getKeys());
+    Map<ObjectId, T> byId = found.stream().filter(searchable)
+        .collect(Collectors.toMap(idOf, t -> t));
+    List<T> ranked = new ArrayList<>();
+    for (ObjectId key : hits.getKeys()) {
+      T match = byId.get(key);
+      if (match == null) {
+        stale.accept(key);
+      } else {
+        ranked.add(match);
+      }
+    }
+    return new PageImpl<>(ranked, PageRequest.of(page, size), hits.getTotal());
+  }
+
+  private UserIndex userIndex(ObjectId userId) {
+    long changesAtLoad;
+    synchronized (this) {
+      UserIndex cached = users.get(userId);
+      if (cached != null && System.nanoTime() - cached.loadedAt < ttlNanos) {
+        return cached;
+      }
+      changesAtLoad = changes;
+    }
+    UserIndex loaded = new UserIndex(System.nanoTime());
+    skillRepository.findByUserId(userId)
+        .forEach(s -> loaded.skills.put(s.getId(), s.getName()));
+    achievementRepository.findByUserId(userId)
+        .forEach(a -> loaded.achievements.put(a.getId(), a.getTitle(), a.getDescription()));
+    synchronized (this) {
+      // A change made while loading may be missing from what was read; don't keep it.
+      if (changes == changesAtLoad) {
+        users.put(userId, loaded);
+      }
+    }
+    return loaded;
+  }
+
+  private static final class UserIndex {
+    private final InvertedIndex<ObjectId> skills = new InvertedIndex<>();
+    private final InvertedIndex<ObjectId> achievements = new InvertedIndex<>();
+    private final long loadedAt;
+
+    private UserIndex(long loadedAt) {
+      this.loadedAt = loadedAt;
+    }
+  }
+
+  /**
+   * One generation of the Tree index. Only mutated while holding the SearchService's lock; the
+   * index itself can be searched at any time.
+   */
+  private static final class TreeIndex {
+    private final InvertedIndex<ObjectId> index = new InvertedIndex<>();
+    private final Map<ObjectId, ObjectId> ownerByTree = new HashMap<>();
+    private final Map<ObjectId, Set<ObjectId>> treesByOwner = new HashMap<>();
+
+    private void put(Tree tree) {
+      index.put(tree.getId(), tree.getName(), tree.getDescription());
+      if (tree.getUserId() != null) {
+        ownerByTree.put(tree.getId(), tree.getUserId());
+        treesByOwner.computeIfAbsent(tree.getUserId(), k -> new HashSet<>()).add(tree.getId());
+      }
+    }
+
+    private void remove(ObjectId treeId) {
+      index.remove(treeId);
+      ObjectId owner = ownerByTree.remove(treeId);
+      if (owner != null) {
+        Set<ObjectId> owned = treesByOwner.get(owner);
+        owned.remove(treeId);
+        if (owned.isEmpty()) {
+          treesByOwner.remove(owner);
+        }
+      }
+    }
+
+    private void removeTreesOf(ObjectId userId) {
+      List.copyOf(treesByOwner.getOrDefault(userId, Set.of())).forEach(this::remove);
+    }
+  }
+}
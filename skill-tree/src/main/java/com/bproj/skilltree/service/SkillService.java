@@ -4,18 +4,23 @@ import com.bproj.skilltree.dao.OrientationRepository;
 import com.bproj.skilltree.dao.SkillRepository;
 import com.bproj.skilltree.dao.TreeRepository;
 import com.bproj.skilltree.dao.UserRepository;
+import com.bproj.skilltree.dto.CursorPage;
 import com.bproj.skilltree.exception.BadRequestException;
 import com.bproj.skilltree.exception.NotFoundException;
 import com.bproj.skilltree.model.*;
+import com.bproj.skilltree.util.Keyset;
 import com.bproj.skilltree.util.PatchUtils;
+import com.bproj.skilltree.util.TreeGraphs;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -25,10 +30,15 @@ import java.util.stream.Collectors;
 @Service
 public class SkillService {
   private static final Logger logger = LoggerFactory.getLogger(SkillService.class);
+  private static final int MAX_PAGE_SIZE = 100;
   private final SkillRepository skillRepository;
   private final UserRepository userRepository;
   private final TreeRepository treeRepository;
   private final OrientationRepository orientationRepository;
+  private final RankingService rankingService;
+  private final SearchService searchService;
+  private final DataVersionService dataVersionService;
+  private final ChangeLogService changeLogService;
 
 
   /**
@@ -37,16 +47,26 @@ public class SkillService {
    * @param skillRepository Skill DB operations
    * @param userRepository User DB operations
    * @param treeRepository Tree DB operations
+   * @param rankingService Told about the hours added to each Tree
+   * @param searchService Told about every Skill written or deleted
+   * @param dataVersionService Bumped after every Skill write
+   * @param changeLogService Told about every Skill written or deleted
    */
   @Autowired
   public SkillService(@Qualifier("mongoSkillRepository") SkillRepository skillRepository,
       @Qualifier("mongoUserRepository") UserRepository userRepository,
       @Qualifier("mongoTreeRepository") TreeRepository treeRepository,
-      @Qualifier("mongoOrientationRepository") OrientationRepository orientationRepository) {
+      @Qualifier("mongoOrientationRepository") OrientationRepository orientationRepository,
+      RankingService rankingService, SearchService searchService,
+      DataVersionService dataVersionService, ChangeLogService changeLogService) {
     this.skillRepository = skillRepository;
     this.userRepository = userRepository;
     this.treeRepository = treeRepository;
     this.orientationRepository = orientationRepository;
+    this.rankingService = rankingService;
+    this.searchService = searchService;
+    this.dataVersionService = dataVersionService;
+    this.changeLogService = changeLogService;
   }
 
   /**
@@ -100,32 +120,8 @@ public class SkillService {
     if (newParentId == null) {
       return false;
     }
-
-    ObjectId target = skill.getId();
-    Map<ObjectId, Skill> skillMap = skillRepository.findByTreeId(skill.getTreeId()).stream()
-        .collect(Collectors.toMap(Skill::getId, s -> s));
-
-    Deque<ObjectId> stack = new ArrayDeque<>();
-    Set<ObjectId> visited = new HashSet<>();
-    stack.push(newParentId);
-
-    while (!stack.isEmpty()) {
-      ObjectId currentId = stack.pop();
-      if (currentId == null || !visited.add(currentId)) {
-        continue;
-      }
-      if (currentId.equals(target)) {
-        return true;
-      }
-
-      Skill current = skillMap.get(currentId);
-      if (current == null) {
-        continue;
-      }
-      stack.push(current.getParentSkillId());
-    }
-
-    return false;
+    return TreeGraphs.wouldCreateParentCycle(skillRepository.findByTreeId(skill.getTreeId()),
+        skill.getId(), newParentId);
   }
 
 
@@ -138,34 +134,32 @@ public class SkillService {
    */
   @Transactional
   public Skill create(Skill skill, ObjectId userId) {
-    logger.info("create(skill={}, userId={})", skill, userId);
-    logger.info("userRepository.existsById(userId={})", userId);
+    logger.debug("create(skill={}, userId={})", skill, userId);
     if (!userRepository.existsById(userId)) {
       throw new NotFoundException("users", Map.of("userId", userId.toString()));
     }
     skill.setUserId(userId);
     validateSkill(skill);
-    logger.info("skillRepository.insert(skill={})", skill);
     Skill createdSkill = skillRepository.insert(skill);
-    logger.info("orientationRepository.findByUserIdAndTreeId(userId={}, treeId={})", userId, skill.getTreeId());
     Orientation orientation = orientationRepository.findByUserIdAndTreeId(userId, skill.getTreeId())
         .orElseThrow(() -> new NotFoundException("orientations",
             Map.of("userId", userId.toString(), "treeId", skill.getTreeId().toString())));
     orientation.getSkillLocations().add(new SkillLocation(createdSkill.getId(), 0, 0));
-    logger.info("orientationRepository.save(orientation={})", orientation);
     orientationRepository.save(orientation);
+    searchService.skillChanged(createdSkill);
+    dataVersionService.bump(userId, VersionedCollection.SKILLS);
+    changeLogService.changed(userId, Map.of(SyncedCollection.SKILLS,
+        List.of(createdSkill.getId()), SyncedCollection.ORIENTATIONS, List.of(skill.getTreeId())));
     return createdSkill;
   }
 
   public boolean existsById(ObjectId skillId) {
-    logger.info("existsById(skillId={})", skillId);
-    logger.info("skillRepository.existsById(skillId={})", skillId);
+    logger.debug("existsById(skillId={})", skillId);
     return skillRepository.existsById(skillId);
   }
 
   public boolean existsByUserIdAndId(ObjectId userId, ObjectId id) {
-    logger.info("existsByUserIdAndId(userId={}, id={})", userId, id);
-    logger.info("skillRepository.existsByUserIdAndId(userId={}, id={})", userId, id);
+    logger.debug("existsByUserIdAndId(userId={}, id={})", userId, id);
     return skillRepository.existsByUserIdAndId(userId, id);
   }
 
@@ -176,15 +170,13 @@ public class SkillService {
    * @return The found Skill. Throws NFE otherwise.
    */
   public Skill findById(ObjectId skillId) {
-    logger.info("findById(skillId={})", skillId);
-    logger.info("skillRepository.findById(skillId={})", skillId);
+    logger.debug("findById(skillId={})", skillId);
     return skillRepository.findById(skillId)
         .orElseThrow(() -> new NotFoundException("skills", Map.of("skillId", skillId.toString())));
   }
 
   public List<Skill> findAll() {
-    logger.info("findAll()");
-    logger.info("skillRepository.findAll()");
+    logger.debug("findAll()");
     return skillRepository.findAll();
   }
 
@@ -195,71 +187,49 @@ public class SkillService {
    * @return The List of Skills with a matching userId
    */
   public List<Skill> findByUserId(ObjectId userId) {
-    logger.info("findByUserId(userId={})", userId);
-    logger.info("userRepository.existsById(userId={})", userId);
+    logger.debug("findByUserId(userId={})", userId);
     if (!userRepository.existsById(userId)) {
       throw new NotFoundException("users", Map.of("userId", userId.toString()));
     }
-    logger.info("skillRepository.findByUserId(userId={})", userId);
-    return skillRepository.findByUserId(userId);
-  }
-
-  /**
-   * Return all Skills belonging to a specified User. Query parameters 'parentSkillId' and 'root'
-   * supported, however, they are incompatible with each other.
-   *
-   * @param userId The Id of the User
-   * @param parentSkillId The Id of the parentSkill we are finding children for
-   * @param root Whether or not the skills returned are to be root skills.
-   * @return The List of Skills matching the userId and query parameters.
-   */
-  public List<Skill> findByUserId(ObjectId userId, ObjectId parentSkillId, Boolean root) {
-    logger.info("findByUserId(userId={}, parentSkillId={}, root={})", userId, parentSkillId, root);
-    if (parentSkillId != null) {
-      logger.info("skillRepository.findByUserIdAndParentSkillId(userId={}, parentSkillId={})", userId, parentSkillId);
-      return skillRepository.findByUserIdAndParentSkillId(userId, parentSkillId);
-    }
-    if (Boolean.TRUE.equals(root)) {
-      logger.info("skillRepository.findByUserIdAndParentSkillIdIsNull(userId={})", userId);
-      return skillRepository.findByUserIdAndParentSkillIdIsNull(userId);
-    } else if (Boolean.FALSE.equals(root)) {
-      logger.info("skillRepository.findByUserIdAndParentSkillIdIsNotNull(userId={})", userId);
-      return skillRepository.findByUserIdAndParentSkillIdIsNotNull(userId);
-    }
-    logger.info("skillRepository.findByUserId(userId={})", userId);
     return skillRepository.findByUserId(userId);
   }
 
   /**
-   * Filter and sort skills owned by the User with userId. Note that the sorting on RECENTLY_USED
-   * lazily uses Skill.getUpdatedAt(). This saves lots of work for the server but results in
-   * changing a Skill name to count as "using" that Skill.
+   * Get one page of the Skills owned by the User with userId. Each sort mode is served by an index
+   * and paged by keyset, so a page costs the same however deep it is. RECENTLY_USED orders by
+   * Skill.getLastUsedAt(), so Skills no Activity has logged time on come last.
    *
    * @param userId The Id of the User
    * @param parentSkillId The Id of the parent Skill for all returned Skills
    * @param root Whether or not returned Skills will be root Skills
-   * @param sortMode How the final List will be sorted.
-   * @return The filtered and sorted List of Skills
+   * @param sortMode How the Skills are ordered, NAME if null
+   * @param pageToken The token from the previous page, or null for the first page
+   * @param size The page size, at most 100
+   * @return The filtered and sorted page of Skills
    */
-  public List<Skill> findAndSortSkills(ObjectId userId, ObjectId parentSkillId, Boolean root,
-      SkillSortMode sortMode) {
-    logger.info("findAndSortSkills(userId={}, parentSkillId={}, root={}, sortMode={})", userId, parentSkillId, root, sortMode);
-    List<Skill> skills = findByUserId(userId, parentSkillId, root);
-    if (sortMode == null) {
-      sortMode = SkillSortMode.NAME;
+  public CursorPage<Skill> findAndSortSkills(ObjectId userId, ObjectId parentSkillId,
+      Boolean root, SkillSortMode sortMode, String pageToken, int size) {
+    logger.debug(
+        "findAndSortSkills(userId={}, parentSkillId={}, root={}, sortMode={}, pageToken={}, "
+            + "size={})", userId, parentSkillId, root, sortMode, pageToken, size);
+    if (size < 1 || size > MAX_PAGE_SIZE) {
+      throw new BadRequestException("size must be 1-" + MAX_PAGE_SIZE);
     }
+    Keyset keyset = Keyset.of(sortOf(sortMode == null ? SkillSortMode.NAME : sortMode), pageToken);
+    return keyset.page(
+        skillRepository.findPage(userId, parentSkillId, root, keyset, size + 1), size);
+  }
+
+  private static Sort sortOf(SkillSortMode sortMode) {
     switch (sortMode) {
       case CREATED_AT:
-        return skills.stream().sorted(Comparator.comparing(Skill::getCreatedAt).reversed())
-            .toList();
+        return Sort.by(Sort.Direction.DESC, "createdAt", "_id");
       case TIME_SPENT:
-        return skills.stream().sorted(Comparator.comparing(Skill::getTimeSpentHours).reversed())
-            .toList();
+        return Sort.by(Sort.Direction.DESC, "timeSpentHours", "_id");
       case RECENTLY_USED:
-        return skills.stream().sorted(Comparator.comparing(Skill::getUpdatedAt).reversed())
-            .toList();
+        return Sort.by(Sort.Direction.DESC, "lastUsedAt", "_id");
       case NAME:
-        return skills.stream().sorted(Comparator.comparing(Skill::getName)).toList();
+        return Sort.by(Sort.Direction.ASC, "name", "_id");
       default:
         throw new BadRequestException("Invalid SkillSortMode.");
     }
@@ -273,8 +243,7 @@ public class SkillService {
    * @return The skill with matching userid and id. Null if not found.
    */
   public Skill findByUserIdAndId(ObjectId userId, ObjectId skillId) {
-    logger.info("findByUserIdAndId(userId={}, skillId={})", userId, skillId);
-    logger.info("skillRepository.findByUserIdAndId(userId={}, skillId={})", userId, skillId);
+    logger.debug("findByUserIdAndId(userId={}, skillId={})", userId, skillId);
     return skillRepository.findByUserIdAndId(userId, skillId)
         .orElseThrow(() -> new NotFoundException("skills",
             Map.of("userId", userId.toString(), "skillId", skillId.toString())));
@@ -290,13 +259,14 @@ public class SkillService {
    */
   @Transactional
   public Skill update(ObjectId userId, ObjectId skillId, Skill updatedSkill) {
-    logger.info("update(userId={}, skillId={}, updatedSkill={})", userId, skillId, updatedSkill);
+    logger.debug("update(userId={}, skillId={}, updatedSkill={})", userId, skillId, updatedSkill);
     Skill existingSkill = findByUserIdAndId(userId, skillId);
 
     updatedSkill.setId(existingSkill.getId());
     updatedSkill.setTreeId(existingSkill.getTreeId());
     updatedSkill.setUserId(userId);
     updatedSkill.setTimeSpentHours(existingSkill.getTimeSpentHours());
+    updatedSkill.setLastUsedAt(existingSkill.getLastUsedAt());
 
     validateSkill(updatedSkill);
     if (wouldCreateCycle(updatedSkill, updatedSkill.getParentSkillId())) {
@@ -305,17 +275,15 @@ public class SkillService {
     }
 
     // parent change, subtract hours of this skill from old parent.
-    if (!Objects.equals(existingSkill.getParentSkillId(), (updatedSkill.getParentSkillId()))) {
-      if (existingSkill.getParentSkillId() != null) {
-        addHours(existingSkill.getParentSkillId(), existingSkill.getTimeSpentHours() * -1);
-      }
-      if (updatedSkill.getParentSkillId() != null) {
-        addHours(updatedSkill.getParentSkillId(), updatedSkill.getTimeSpentHours());
-      }
-    }
-
-    logger.info("skillRepository.save(updatedSkill={})", updatedSkill);
-    return skillRepository.save(updatedSkill);
+    Set<ObjectId> written = moveHours(userId, existingSkill, updatedSkill);
+
+    Skill saved = skillRepository.save(updatedSkill);
+    searchService.skillChanged(saved);
+    // ActivityResponses show the names and backgrounds of their Skills.
+    dataVersionService.bump(userId, VersionedCollection.SKILLS, VersionedCollection.ACTIVITIES);
+    written.add(skillId);
+    changeLogService.changed(userId, Map.of(SyncedCollection.SKILLS, written));
+    return saved;
   }
 
   /**
@@ -328,8 +296,7 @@ public class SkillService {
    */
   @Transactional
   public Skill patch(ObjectId userId, ObjectId skillId, Map<String, Object> updates) {
-    logger.info("patch(userId={}, skillId={}, updates={})", userId, skillId, updates);
-    logger.info("skillRepository.findByUserIdAndId(userId={}, skillId={})", userId, skillId);
+    logger.debug("patch(userId={}, skillId={}, updates={})", userId, skillId, updates);
     Skill existingSkill = skillRepository.findByUserIdAndId(userId, skillId)
         .orElseThrow(() -> new NotFoundException("skills",
             Map.of("userId", userId.toString(), "skillId", skillId.toString())));
@@ -341,47 +308,103 @@ public class SkillService {
       throw new BadRequestException(
           "This parentSkillId would create a cycle within the Skill's Tree.");
     }
-    if (!Objects.equals(existingSkill.getParentSkillId(), (updatedSkill.getParentSkillId()))) {
-      if (existingSkill.getParentSkillId() != null) {
-        addHours(existingSkill.getParentSkillId(), existingSkill.getTimeSpentHours() * -1);
-      }
-      if (updatedSkill.getParentSkillId() != null) {
-        addHours(updatedSkill.getParentSkillId(), updatedSkill.getTimeSpentHours());
-      }
+    Set<ObjectId> written = moveHours(userId, existingSkill, updatedSkill);
+    Skill saved = skillRepository.save(updatedSkill);
+    searchService.skillChanged(saved);
+    dataVersionService.bump(userId, VersionedCollection.SKILLS, VersionedCollection.ACTIVITIES);
+    written.add(skillId);
+    changeLogService.changed(userId, Map.of(SyncedCollection.SKILLS, written));
+    return saved;
+  }
+
+  /**
+   * Move a Skill's hours from its old parent chain to its new one when its parent changes. Both
+   * chains are adjusted in one bulk update; shared ancestors net out to no change.
+   *
+   * @param userId The Id of the User the Skill belongs to
+   * @param existingSkill The Skill as stored
+   * @param updatedSkill The Skill about to be saved
+   * @return The Ids of the Skills whose hours changed
+   */
+  private Set<ObjectId> moveHours(ObjectId userId, Skill existingSkill, Skill updatedSkill) {
+    if (Objects.equals(existingSkill.getParentSkillId(), updatedSkill.getParentSkillId())) {
+      return new HashSet<>();
+    }
+    Map<ObjectId, Double> hoursBySkillId = new HashMap<>();
+    if (existingSkill.getParentSkillId() != null) {
+      hoursBySkillId.merge(existingSkill.getParentSkillId(),
+          existingSkill.getTimeSpentHours() * -1, Double::sum);
+    }
+    if (updatedSkill.getParentSkillId() != null) {
+      hoursBySkillId.merge(updatedSkill.getParentSkillId(), updatedSkill.getTimeSpentHours(),
+          Double::sum);
     }
-    logger.info("skillRepository.save(updatedSkill={})", updatedSkill);
-    return skillRepository.save(updatedSkill);
+    return addHours(userId, hoursBySkillId);
   }
 
   /**
-   * Add hours to a Skill and its predecessors.
+   * Add hours to many of a User's Skills and their predecessors at once. The User's Skills are
+   * loaded in one query, hours are propagated up each parent chain in memory, and the totals are
+   * written back in a single bulk update. The hours are also added to each Tree's TreeTotals.
+   * Callers bump the User's SKILLS version and record the written Skills in the change log, along
+   * with whatever else they changed.
    *
-   * @param skillId The Id of the Skill hours are added to
-   * @param hours The amount of hours added to the Skill
-   * @return The number of Skills hours were added to in the process
+   * @param userId The Id of the User the Skills belong to
+   * @param hoursBySkillId The hours to be added, keyed by Skill Id
+   * @return The Ids of the Skills hours were added to in the process
    */
   @Transactional
-  public int addHours(ObjectId skillId, double hours) {
-    logger.info("addHours(skillId={}, hours={})", skillId, hours);
-    int skillsTouched = 0;
-
-    logger.info("skillRepository.findById(skillId={})", skillId);
-    Optional<Skill> currentOptional = skillRepository.findById(skillId);
-    while (currentOptional.isPresent()) {
-      Skill current = currentOptional.get();
-      current.setTimeSpentHours(current.getTimeSpentHours() + hours);
-      logger.info("skillRepository.save(current={})", current);
-      skillRepository.save(current);
-      skillsTouched++;
-
-      ObjectId parentId = current.getParentSkillId();
-      if (parentId == null) {
-        break;
-      }
-      logger.info("skillRepository.findById(parentId={})", parentId);
-      currentOptional = skillRepository.findById(parentId);
+  public Set<ObjectId> addHours(ObjectId userId, Map<ObjectId, Double> hoursBySkillId) {
+    logger.debug("addHours(userId={}, hoursBySkillId={})", userId, hoursBySkillId);
+    return addHours(userId, hoursBySkillId, null);
+  }
+
+  /**
+   * Add hours logged by an Activity to many of a User's Skills and their predecessors at once.
+   * Every Skill given more hours, and each of its predecessors, is marked as used at usedAt in
+   * the same bulk update, unless it was used later.
+   *
+   * @param userId The Id of the User the Skills belong to
+   * @param hoursBySkillId The hours to be added, keyed by Skill Id
+   * @param usedAt When the Activity logged the hours, or null if they are only being moved or
+   *        taken back
+   * @return The Ids of the Skills written in the process
+   */
+  @Transactional
+  public Set<ObjectId> addHours(ObjectId userId, Map<ObjectId, Double> hoursBySkillId,
+      Instant usedAt) {
+    logger.debug("addHours(userId={}, hoursBySkillId={}, usedAt={})", userId, hoursBySkillId,
+        usedAt);
+    if (hoursBySkillId.isEmpty()) {
+      return new HashSet<>();
     }
-    return skillsTouched;
+    Map<ObjectId, Skill> skillMap = skillRepository.findByUserId(userId).stream()
+        .collect(Collectors.toMap(Skill::getId, s -> s));
+
+    Map<ObjectId, Double> totals = new HashMap<>();
+    Map<ObjectId, Double> treeTotals = new HashMap<>();
+    Set<ObjectId> used = new HashSet<>();
+    hoursBySkillId.forEach((skillId, hours) -> {
+      Skill current = skillMap.get(skillId);
+      if (current != null) {
+        treeTotals.merge(current.getTreeId(), hours, Double::sum);
+      }
+      Set<ObjectId> visited = new HashSet<>();
+      while (current != null && visited.add(current.getId())) {
+        totals.merge(current.getId(), hours, Double::sum);
+        if (usedAt != null && hours > 0) {
+          used.add(current.getId());
+        }
+        current = current.getParentSkillId() == null ? null
+            : skillMap.get(current.getParentSkillId());
+      }
+    });
+    // A used ancestor can net out to no hours, e.g. when an Activity moves between siblings.
+    totals.entrySet().removeIf(e -> e.getValue() == 0 && !used.contains(e.getKey()));
+
+    skillRepository.incrementHours(totals, used, usedAt);
+    rankingService.addTreeHours(treeTotals);
+    return new HashSet<>(totals.keySet());
   }
 
   /**
@@ -392,43 +415,52 @@ public class SkillService {
    */
   @Transactional
   public void deleteById(ObjectId skillId) {
-    logger.info("deleteById(skillId={})", skillId);
-    logger.info("skillRepository.findById(skillId={})", skillId);
+    logger.debug("deleteById(skillId={})", skillId);
     Skill skill = skillRepository.findById(skillId)
         .orElseThrow(() -> new NotFoundException("skills", Map.of("skillId", skillId.toString())));
 
     // Recalculate parent timeSpentHours post delete, change subskills parent this -> this.parent
-    logger.info("skillRepository.findByParentSkillId(skillId={})", skillId);
     List<Skill> subSkills = skillRepository.findByParentSkillId(skillId);
     for (Skill subSkill : subSkills) {
       subSkill.setParentSkillId(skill.getParentSkillId());
     }
+    // The hours logged directly on this Skill leave its ancestors and its Tree's totals with it
     double hourDifference = skill.getTimeSpentHours()
         - subSkills.stream().collect(Collectors.summingDouble(Skill::getTimeSpentHours));
-    if (skill.getParentSkillId() != null && skillRepository.existsById(skill.getParentSkillId())) {
-      addHours(skill.getParentSkillId(), hourDifference * -1);
+    Set<ObjectId> written;
+    if (skill.getParentSkillId() == null) {
+      rankingService.addTreeHours(Map.of(skill.getTreeId(), hourDifference * -1));
+      written = new HashSet<>();
+    } else {
+      // addHours takes them off the Tree's totals too
+      written =
+          addHours(skill.getUserId(), Map.of(skill.getParentSkillId(), hourDifference * -1));
     }
-    logger.info("skillRepository.saveAll(subSkills={})", subSkills);
     skillRepository.saveAll(subSkills);
 
     // Remove this skill from its Tree's Orientation
-    logger.info("orientationRepository.findByUserIdAndTreeId(userId={}, treeId={})", skill.getUserId(), skill.getTreeId());
     Orientation orientation =
         orientationRepository.findByUserIdAndTreeId(skill.getUserId(), skill.getTreeId())
             .orElseThrow(() -> new NotFoundException("orientations",
                 Map.of("treeId", skill.getTreeId().toString())));
     orientation.getSkillLocations().removeIf(sl -> sl.getSkillId().equals(skillId));
-    logger.info("orientationRepository.save(orientation={})", orientation);
     orientationRepository.save(orientation);
-    logger.info("skillRepository.deleteById(skillId={})", skillId);
     skillRepository.deleteById(skillId);
+    searchService.skillRemoved(skill.getUserId(), skillId);
+    dataVersionService.bump(skill.getUserId(), VersionedCollection.SKILLS,
+        VersionedCollection.ACTIVITIES);
+    subSkills.forEach(s -> written.add(s.getId()));
+    written.add(skillId);
+    changeLogService.changed(skill.getUserId(), Map.of(SyncedCollection.SKILLS, written,
+        SyncedCollection.ORIENTATIONS, List.of(skill.getTreeId())));
   }
 
-  // No extra logic needed.
   public void deleteByUserId(ObjectId userId) {
-    logger.info("deleteByUserId(userId={})", userId);
-    logger.info("skillRepository.deleteByUserId(userId={})", userId);
+    logger.debug("deleteByUserId(userId={})", userId);
     skillRepository.deleteByUserId(userId);
+    searchService.evict(userId);
+    dataVersionService.bump(userId, VersionedCollection.SKILLS, VersionedCollection.ACTIVITIES);
+    changeLogService.cleared(userId, SyncedCollection.SKILLS);
   }
 
 
@@ -439,8 +471,7 @@ public class SkillService {
    * @param skillId The Id of the Skill
    */
   public void deleteByUserIdAndId(ObjectId userId, ObjectId skillId) {
-    logger.info("deleteByUserIdAndId(userId={}, skillId={})", userId, skillId);
-    logger.info("skillRepository.findByUserIdAndId(userId={}, skillId={})", userId, skillId);
+    logger.debug("deleteByUserIdAndId(userId={}, skillId={})", userId, skillId);
     Skill skill = skillRepository.findByUserIdAndId(userId, skillId)
         .orElseThrow(() -> new NotFoundException("skills",
             Map.of("userId", userId.toString(), "skillId", skillId.toString())));
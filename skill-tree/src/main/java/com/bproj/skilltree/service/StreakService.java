@@ -0,0 +1,164 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.DailyActivityRepository;
+import com.bproj.skilltree.dao.StreakStateRepository;
+import com.bproj.skilltree.mapper.ActivityMapper;
+import com.bproj.skilltree.model.DailyActivity;
+import com.bproj.skilltree.model.StreakState;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Keeps each User's StreakState up to date as days become active (their first Activity) or
+ * inactive (their last Activity is deleted). Logging on the day after the last active day, the
+ * everyday case, is a read and a write of the one StreakState. A backdated change only reads the
+ * rollups of the runs of active days either side of the changed day, and a User's whole history
+ * is only read when they have no StreakState yet or when a day is taken out of their longest run.
+ */
+@Service
+public class StreakService {
+  private static final Logger logger = LoggerFactory.getLogger(StreakService.class);
+  private final StreakStateRepository streakStateRepository;
+  private final DailyActivityRepository dailyActivityRepository;
+
+
+  /**
+   * Create a StreakService.
+   *
+   * @param streakStateRepository StreakState DB operations
+   * @param dailyActivityRepository DailyActivity DB operations, read to recompute streaks
+   */
+  @Autowired
+  public StreakService(
+      @Qualifier("mongoStreakStateRepository") StreakStateRepository streakStateRepository,
+      @Qualifier("mongoDailyActivityRepository") DailyActivityRepository dailyActivityRepository) {
+    this.streakStateRepository = streakStateRepository;
+    this.dailyActivityRepository = dailyActivityRepository;
+  }
+
+  /**
+   * Get a User's StreakState, building it from their rollups if they don't have one yet.
+   *
+   * @param userId The Id of the User
+   * @return The StreakState
+   */
+  public StreakState findByUserId(ObjectId userId) {
+    logger.debug("findByUserId(userId={})", userId);
+    return streakStateRepository.findById(userId).orElseGet(() -> rebuild(userId));
+  }
+
+  /**
+   * Record that a day has just become active. Must be called after the day's rollup was written.
+   *
+   * @param userId The Id of the User
+   * @param day The UTC date that got its first Activity
+   */
+  public void dayActivated(ObjectId userId, LocalDate day) {
+    logger.debug("dayActivated(userId={}, day={})", userId, day);
+    Optional<StreakState> found = streakStateRepository.findById(userId);
+    if (found.isEmpty()) {
+      rebuild(userId);
+      return;
+    }
+    StreakState state = found.get();
+    LocalDate last = state.getLastActiveDate();
+    if (last == null || day.isAfter(last.plusDays(1))) {
+      state.setCurrentStreak(1);
+      state.setLastActiveDay(DailyActivity.dayOf(day));
+    } else if (day.equals(last.plusDays(1))) {
+      state.setCurrentStreak(state.getCurrentStreak() + 1);
+      state.setLastActiveDay(DailyActivity.dayOf(day));
+    } else {
+      // Backdated: the new day may join two runs, and may extend the current one.
+      int before = runLength(userId, day, -1);
+      int after = runLength(userId, day, 1);
+      int joined = before + 1 + after;
+      if (day.plusDays(after).equals(last)) {
+        state.setCurrentStreak(joined);
+      }
+      state.setLongestStreak(Math.max(state.getLongestStreak(), joined));
+    }
+    state.setLongestStreak(Math.max(state.getLongestStreak(), state.getCurrentStreak()));
+    streakStateRepository.save(state);
+  }
+
+  /**
+   * Record that a day has just become inactive. Must be called after the day's rollup was removed.
+   *
+   * @param userId The Id of the User
+   * @param day The UTC date that lost its last Activity
+   */
+  public void dayDeactivated(ObjectId userId, LocalDate day) {
+    logger.debug("dayDeactivated(userId={}, day={})", userId, day);
+    Optional<StreakState> found = streakStateRepository.findById(userId);
+    if (found.isEmpty()) {
+      rebuild(userId);
+      return;
+    }
+    StreakState state = found.get();
+    LocalDate last = state.getLastActiveDate();
+    int before = runLength(userId, day, -1);
+    int after = runLength(userId, day, 1);
+    if (day.equals(last)) {
+      LocalDate newLast = before > 0 ? day.minusDays(1) : dailyActivityRepository
+          .findFirstByUserIdAndDayLessThanOrderByDayDesc(userId, DailyActivity.dayOf(day))
+          .map(DailyActivity::getDate).orElse(null);
+      if (newLast == null) {
+        state.setCurrentStreak(0);
+        state.setLastActiveDay(null);
+      } else {
+        state.setCurrentStreak(before > 0 ? before : 1 + runLength(userId, newLast, -1));
+        state.setLastActiveDay(DailyActivity.dayOf(newLast));
+      }
+    } else if (last != null && day.plusDays(after).equals(last)) {
+      state.setCurrentStreak(after);
+    }
+    if (before + 1 + after >= state.getLongestStreak()) {
+      // The day came out of a longest run. Another run may be just as long, so count again.
+      state.setLongestStreak(ActivityMapper
+          .toStreakState(userId, dailyActivityRepository.findByUserId(userId)).getLongestStreak());
+    }
+    streakStateRepository.save(state);
+  }
+
+  private StreakState rebuild(ObjectId userId) {
+    StreakState state =
+        ActivityMapper.toStreakState(userId, dailyActivityRepository.findByUserId(userId));
+    return streakStateRepository.save(state);
+  }
+
+  /**
+   * Count the active days directly before or after a day, stopping at the first gap. Rollups are
+   * streamed in order, so only the run itself (plus one batch) is read.
+   *
+   * @param userId The Id of the User
+   * @param day The day to start from (not counted)
+   * @param direction -1 to count backwards, 1 to count forwards
+   * @return The number of consecutive active days next to day
+   */
+  private int runLength(ObjectId userId, LocalDate day, int direction) {
+    try (Stream<DailyActivity> days = direction < 0
+        ? dailyActivityRepository.findByUserIdAndDayLessThanOrderByDayDesc(userId,
+            DailyActivity.dayOf(day))
+        : dailyActivityRepository.findByUserIdAndDayGreaterThanOrderByDayAsc(userId,
+            DailyActivity.dayOf(day))) {
+      Iterator<DailyActivity> iterator = days.iterator();
+      LocalDate expected = day.plusDays(direction);
+      int run = 0;
+      while (iterator.hasNext() && iterator.next().getDate().equals(expected)) {
+        run++;
+        expected = expected.plusDays(direction);
+      }
+      return run;
+    }
+  }
+}
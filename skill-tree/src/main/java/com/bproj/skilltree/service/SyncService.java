@@ -0,0 +1,271 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.AchievementRepository;
+import com.bproj.skilltree.dao.ActivityRepository;
+import com.bproj.skilltree.dao.ChangeLogRepository;
+import com.bproj.skilltree.dao.DataVersionsRepository;
+import com.bproj.skilltree.dao.OrientationRepository;
+import com.bproj.skilltree.dao.SkillRepository;
+import com.bproj.skilltree.dao.TreeRepository;
+import com.bproj.skilltree.dto.ActivityResponse;
+import com.bproj.skilltree.dto.SyncResponse;
+import com.bproj.skilltree.exception.BadRequestException;
+import com.bproj.skilltree.mapper.AchievementMapper;
+import com.bproj.skilltree.mapper.OrientationMapper;
+import com.bproj.skilltree.mapper.SkillMapper;
+import com.bproj.skilltree.mapper.TreeMapper;
+import com.bproj.skilltree.model.Achievement;
+import com.bproj.skilltree.model.Activity;
+import com.bproj.skilltree.model.ChangeLogEntry;
+import com.bproj.skilltree.model.DataVersions;
+import com.bproj.skilltree.model.Orientation;
+import com.bproj.skilltree.model.Skill;
+import com.bproj.skilltree.model.SyncedCollection;
+import com.bproj.skilltree.model.Tree;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Answers /api/sync from the change log. A token holds the sequence number of the last entry a
+ * client has applied and when it was handed out. A sync reads the entries after it with one seek,
+ * looks up the current state of the documents they name with one query per kind, run
+ * concurrently, and reports the ones that are gone as deleted, so the work depends on how much
+ * changed rather than on how much the User has.
+ *
+ * <p>Sequence numbers are reserved before their entries are inserted, so a sync can see a later
+ * entry while an earlier one is still being written. It stops short of such a gap, unless the
+ * entry after it is older than skilltree.sync.gap-seconds, in which case the write that reserved
+ * the missing numbers is taken to have failed. A token older than the retention period may point
+ * at compacted entries and gets a reset. A token is stamped with the time it was handed out only
+ * when the client is caught up; a sync that stops early (hasMore, or at a gap) keeps the time of
+ * the first entry it left behind, so the token ages with the oldest change the client still needs
+ * and is reset before compaction can drop that change.
+ */
+@Service
+public class SyncService {
+  private static final Logger logger = LoggerFactory.getLogger(SyncService.class);
+  private final ChangeLogRepository changeLogRepository;
+  private final DataVersionsRepository dataVersionsRepository;
+  private final TreeRepository treeRepository;
+  private final SkillRepository skillRepository;
+  private final AchievementRepository achievementRepository;
+  private final ActivityRepository activityRepository;
+  private final OrientationRepository orientationRepository;
+  private final ActivityService activityService;
+  private final Executor fanOutExecutor;
+  private final Duration retention;
+  private final Duration gapTimeout;
+  private final int maxChanges;
+
+  /**
+   * Create a SyncService.
+   *
+   * @param changeLogRepository DB ops for ChangeLogEntries
+   * @param dataVersionsRepository Holds the latest sequence number of each User
+   * @param treeRepository DB ops for Trees
+   * @param skillRepository DB ops for Skills
+   * @param achievementRepository DB ops for Achievements
+   * @param activityRepository DB ops for Activities
+   * @param orientationRepository DB ops for Orientations
+   * @param activityService Maps Activities to responses
+   * @param fanOutExecutor Reads the changed documents of each kind concurrently
+   * @param retentionDays How long change log entries are kept
+   * @param gapSeconds How long a gap in the sequence is waited on
+   * @param maxChanges The most entries one sync applies
+   */
+  @Autowired
+  public SyncService(
+      @Qualifier("mongoChangeLogRepository") ChangeLogRepository changeLogRepository,
+      @Qualifier("mongoDataVersionsRepository") DataVersionsRepository dataVersionsRepository,
+      @Qualifier("mongoTreeRepository") TreeRepository treeRepository,
+      @Qualifier("mongoSkillRepository") SkillRepository skillRepository,
+      @Qualifier("mongoAchievementRepository") AchievementRepository achievementRepository,
+      @Qualifier("mongoActivityRepository") ActivityRepository activityRepository,
+      @Qualifier("mongoOrientationRepository") OrientationRepository orientationRepository,
+      ActivityService activityService, @Qualifier("fanOutExecutor") Executor fanOutExecutor,
+      @Value("${skilltree.sync.retention-days:30}") long retentionDays,
+      @Value("${skilltree.sync.gap-seconds:60}") long gapSeconds,
+      @Value("${skilltree.sync.max-changes:500}") int maxChanges) {
+    this.changeLogRepository = changeLogRepository;
+    this.dataVersionsRepository = dataVersionsRepository;
+    this.treeRepository = treeRepository;
+    this.skillRepository = skillRepository;
+    this.achievementRepository = achievementRepository;
+    this.activityRepository = activityRepository;
+    this.orientationRepository = orientationRepository;
+    this.activityService = activityService;
+    this.fanOutExecutor = fanOutExecutor;
+    this.retention = Duration.ofDays(retentionDays);
+    this.gapTimeout = Duration.ofSeconds(gapSeconds);
+    this.maxChanges = maxChanges;
+  }
+
+  /**
+   * Get what changed in a User's data since a token.
+   *
+   * @param userId The Id of the User
+   * @param since A token from an earlier sync, or null to start syncing
+   * @return The changes after the token. Without a token, or with one past the retention period,
+   *     a reset with a token for the User's latest change. Throws BadRequestException if the
+   *     token is malformed.
+   */
+  public SyncResponse getChanges(ObjectId userId, String since) {
+    logger.debug("getChanges(userId={}, since={})", userId, since);
+    Instant now = Instant.now();
+    if (since == null || since.isEmpty()) {
+      return SyncResponse.reset(tokenOf(latestSeq(userId), now));
+    }
+    long[] token = parseToken(since);
+    if (Instant.ofEpochSecond(token[1]).isBefore(now.minus(retention).plus(gapTimeout))) {
+      return SyncResponse.reset(tokenOf(latestSeq(userId), now));
+    }
+
+    long seq = token[0];
+    boolean hasMore = false;
+    Instant issuedAt = now;
+    Instant settled = now.minus(gapTimeout);
+    Map<SyncedCollection, Set<ObjectId>> changed = new EnumMap<>(SyncedCollection.class);
+    Set<SyncedCollection> cleared = EnumSet.noneOf(SyncedCollection.class);
+    int applied = 0;
+    for (ChangeLogEntry entry : changeLogRepository.findAfter(userId, seq, maxChanges + 1)) {
+      if (applied == maxChanges) {
+        hasMore = true;
+        issuedAt = earlier(entry.getChangedAt(), now);
+        break;
+      }
+      if (entry.getSeq() != seq + 1 && entry.getChangedAt().isAfter(settled)) {
+        // An earlier change may still be being written; pick it up next time.
+        issuedAt = earlier(entry.getChangedAt(), now);
+        break;
+      }
+      Set<ObjectId> ids = changed.computeIfAbsent(entry.getCollection(),
+          c -> new LinkedHashSet<>());
+      if (entry.getDocumentId() == null) {
+        cleared.add(entry.getCollection());
+        ids.clear();
+      } else {
+        ids.add(entry.getDocumentId());
+      }
+      seq = entry.getSeq();
+      applied++;
+    }
+
+    CompletableFuture<List<Tree>> trees = fetch(changed, SyncedCollection.TREES,
+        treeRepository::findAllById, Tree::getUserId, userId);
+    CompletableFuture<List<Skill>> skills = fetch(changed, SyncedCollection.SKILLS,
+        skillRepository::findAllById, Skill::getUserId, userId);
+    CompletableFuture<List<Achievement>> achievements = fetch(changed,
+        SyncedCollection.ACHIEVEMENTS, achievementRepository::findAllById,
+        Achievement::getUserId, userId);
+    CompletableFuture<List<Activity>> activities = fetch(changed, SyncedCollection.ACTIVITIES,
+        activityRepository::findAllById, Activity::getUserId, userId);
+    CompletableFuture<List<ActivityResponse>> activityResponses =
+        activities.thenApply(activityService::mapActivitiesToResponses);
+    CompletableFuture<List<Orientation>> orientations = fetch(changed,
+        SyncedCollection.ORIENTATIONS, orientationRepository::findByTreeIdIn,
+        Orientation::getUserId, userId);
+
+    Map<SyncedCollection, List<String>> deleted = new EnumMap<>(SyncedCollection.class);
+    List<Tree> changedTrees = join(trees);
+    putDeleted(deleted, changed, SyncedCollection.TREES, changedTrees, Tree::getId);
+    List<Skill> changedSkills = join(skills);
+    putDeleted(deleted, changed, SyncedCollection.SKILLS, changedSkills, Skill::getId);
+    List<Achievement> changedAchievements = join(achievements);
+    putDeleted(deleted, changed, SyncedCollection.ACHIEVEMENTS, changedAchievements,
+        Achievement::getId);
+    putDeleted(deleted, changed, SyncedCollection.ACTIVITIES, join(activities), Activity::getId);
+    List<Orientation> changedOrientations = join(orientations);
+    putDeleted(deleted, changed, SyncedCollection.ORIENTATIONS, changedOrientations,
+        Orientation::getTreeId);
+
+    return new SyncResponse(false, new ArrayList<>(cleared),
+        changedTrees.stream().map(TreeMapper::fromTree).toList(),
+        changedSkills.stream().map(SkillMapper::fromSkill).toList(),
+        changedAchievements.stream().map(AchievementMapper::fromAchievement).toList(),
+        join(activityResponses),
+        changedOrientations.stream().map(OrientationMapper::fromOrientation).toList(),
+        deleted, tokenOf(seq, issuedAt), hasMore);
+  }
+
+  private long latestSeq(ObjectId userId) {
+    return dataVersionsRepository.findById(userId).map(DataVersions::getChangeSeq).orElse(0L);
+  }
+
+  // Reads the current state of the changed documents of one kind, skipping anything that isn't
+  // the User's, without a query when none changed.
+  private <T> CompletableFuture<List<T>> fetch(Map<SyncedCollection, Set<ObjectId>> changed,
+      SyncedCollection collection, Function<List<ObjectId>, List<T>> finder,
+      Function<T, ObjectId> owner, ObjectId userId) {
+    List<ObjectId> ids = List.copyOf(changed.getOrDefault(collection, Set.of()));
+    if (ids.isEmpty()) {
+      return CompletableFuture.completedFuture(List.of());
+    }
+    Supplier<List<T>> read = () -> finder.apply(ids).stream()
+        .filter(d -> userId.equals(owner.apply(d))).toList();
+    return CompletableFuture.supplyAsync(read, fanOutExecutor);
+  }
+
+  private static <T> void putDeleted(Map<SyncedCollection, List<String>> deleted,
+      Map<SyncedCollection, Set<ObjectId>> changed, SyncedCollection collection, List<T> found,
+      Function<T, ObjectId> key) {
+    Set<ObjectId> gone = new LinkedHashSet<>(changed.getOrDefault(collection, Set.of()));
+    found.forEach(d -> gone.remove(key.apply(d)));
+    if (!gone.isEmpty()) {
+      deleted.put(collection, gone.stream().map(ObjectId::toString).toList());
+    }
+  }
+
+  private static Instant earlier(Instant a, Instant b) {
+    return a.isBefore(b) ? a : b;
+  }
+
+  private static String tokenOf(long seq, Instant issuedAt) {
+    return seq + "." + issuedAt.getEpochSecond();
+  }
+
+  private static long[] parseToken(String token) {
+    String[] parts = token.split("\\.", -1);
+    try {
+      if (parts.length == 2) {
+        long seq = Long.parseLong(parts[0]);
+        long issuedAt = Long.parseLong(parts[1]);
+        if (seq >= 0) {
+          return new long[] {seq, issuedAt};
+        }
+      }
+    } catch (NumberFormatException e) {
+      // falls through to the error below
+    }
+    throw new BadRequestException("Invalid since token: " + token);
+  }
+
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
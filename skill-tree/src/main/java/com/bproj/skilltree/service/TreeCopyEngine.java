@@ -0,0 +1,168 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.AchievementRepository;
+import com.bproj.skilltree.dao.OrientationRepository;
+import com.bproj.skilltree.dao.SkillRepository;
+import com.bproj.skilltree.dao.TreeRepository;
+import com.bproj.skilltree.exception.BadRequestException;
+import com.bproj.skilltree.exception.NotFoundException;
+import com.bproj.skilltree.model.Achievement;
+import com.bproj.skilltree.model.Orientation;
+import com.bproj.skilltree.model.Skill;
+import com.bproj.skilltree.model.SyncedCollection;
+import com.bproj.skilltree.model.Tree;
+import com.bproj.skilltree.model.VersionedCollection;
+import com.bproj.skilltree.model.Visibility;
+import com.bproj.skilltree.service.TreeCopyTemplate.TreeCopy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Reads source Trees into TreeCopyTemplates and writes copies of them. The four source reads are
+ * issued concurrently and each copied collection is written with a single insertMany. PRESET Trees,
+ * which every new user copies from, are served by PresetTreeCache without touching Mongo.
+ */
+@Service
+public class TreeCopyEngine {
+  private static final Logger logger = LoggerFactory.getLogger(TreeCopyEngine.class);
+  private final TreeRepository treeRepository;
+  private final SkillRepository skillRepository;
+  private final AchievementRepository achievementRepository;
+  private final OrientationRepository orientationRepository;
+  private final Executor fanOutExecutor;
+  private final PresetTreeCache presetTreeCache;
+  private final RankingService rankingService;
+  private final SearchService searchService;
+  private final DataVersionService dataVersionService;
+  private final ChangeLogService changeLogService;
+
+
+  /**
+   * Create a TreeCopyEngine.
+   *
+   * @param treeRepository DB ops for Trees
+   * @param skillRepository DB ops for Skills
+   * @param achievementRepository DB ops for Achievements
+   * @param orientationRepository DB ops for Orientations
+   * @param fanOutExecutor Runs the source reads concurrently
+   * @param presetTreeCache Templates of PRESET Trees
+   * @param rankingService Starts ranking copies of PRESET Trees
+   * @param searchService Told about the copied Tree and the User's new Skills and Achievements
+   * @param dataVersionService Bumped for the User's Trees, Skills and Achievements
+   * @param changeLogService Told about the copied Tree, Skills, Achievements and Orientation
+   */
+  @Autowired
+  public TreeCopyEngine(@Qualifier("mongoTreeRepository") TreeRepository treeRepository,
+      @Qualifier("mongoSkillRepository") SkillRepository skillRepository,
+      @Qualifier("mongoAchievementRepository") AchievementRepository achievementRepository,
+      @Qualifier("mongoOrientationRepository") OrientationRepository orientationRepository,
+      @Qualifier("fanOutExecutor") Executor fanOutExecutor, PresetTreeCache presetTreeCache,
+      RankingService rankingService, SearchService searchService,
+      DataVersionService dataVersionService, ChangeLogService changeLogService) {
+    this.treeRepository = treeRepository;
+    this.skillRepository = skillRepository;
+    this.achievementRepository = achievementRepository;
+    this.orientationRepository = orientationRepository;
+    this.fanOutExecutor = fanOutExecutor;
+    this.presetTreeCache = presetTreeCache;
+    this.rankingService = rankingService;
+    this.searchService = searchService;
+    this.dataVersionService = dataVersionService;
+    this.changeLogService = changeLogService;
+  }
+
+  /**
+   * Get the copy template for a Tree. PRESET templates come straight from PresetTreeCache.
+   *
+   * <p>Other Trees are read with four concurrent queries on the fan-out executor. These run
+   * outside any transaction the caller holds and don't share a snapshot, so a Tree edited while
+   * it is read can give a template mixing its state before and after the edit. That is fine for
+   * a copy, which is a new Tree the User edits independently; instantiating the template drops
+   * any reference that ended up dangling. Only the copy's writes run in the caller's transaction.
+   *
+   * @param treeId The Id of the source Tree
+   * @return The template for the Tree. Throws BRE if the Tree doesn't exist.
+   */
+  public TreeCopyTemplate loadTemplate(ObjectId treeId) {
+    logger.debug("loadTemplate(treeId={})", treeId);
+    Optional<TreeCopyTemplate> preset = presetTreeCache.getTemplate(treeId);
+    if (preset.isPresent()) {
+      return preset.get();
+    }
+
+    CompletableFuture<Optional<Tree>> tree =
+        CompletableFuture.supplyAsync(() -> treeRepository.findById(treeId), fanOutExecutor);
+    CompletableFuture<List<Skill>> skills =
+        CompletableFuture.supplyAsync(() -> skillRepository.findByTreeId(treeId), fanOutExecutor);
+    CompletableFuture<List<Achievement>> achievements = CompletableFuture
+        .supplyAsync(() -> achievementRepository.findByTreeId(treeId), fanOutExecutor);
+    CompletableFuture<Optional<Orientation>> orientation = CompletableFuture
+        .supplyAsync(() -> orientationRepository.findByTreeId(treeId), fanOutExecutor);
+
+    Tree source = join(tree).orElseThrow(() -> new BadRequestException("Tree does not exist."));
+    Orientation sourceOrientation = join(orientation).orElseThrow(
+        () -> new NotFoundException("orientations", Map.of("treeId", treeId.toString())));
+    return new TreeCopyTemplate(source, join(skills), join(achievements), sourceOrientation);
+  }
+
+  /**
+   * Write a copy of a template into a User's account. Callers are expected to have checked the copy
+   * is allowed and to provide the transaction. Copies of PRESET Trees also get TreeTotals. The Tree
+   * itself is written last, so a copy whose Tree exists is complete even if it ran without a
+   * transaction.
+   *
+   * @param template The template being copied
+   * @param userId The Id of the User receiving the copy
+   * @param newTreeId The Id the copied Tree will have
+   * @return The copied Tree
+   */
+  public Tree copy(TreeCopyTemplate template, ObjectId userId, ObjectId newTreeId) {
+    logger.debug("copy(treeId={}, userId={}, newTreeId={})", template.getTreeId(), userId,
+        newTreeId);
+    TreeCopy copy = template.instantiate(userId, newTreeId);
+    if (!copy.getSkills().isEmpty()) {
+      skillRepository.insert(copy.getSkills());
+    }
+    if (!copy.getAchievements().isEmpty()) {
+      achievementRepository.insert(copy.getAchievements());
+    }
+    orientationRepository.insert(copy.getOrientation());
+    Tree newTree = treeRepository.insert(copy.getTree());
+    if (template.getVisibility() == Visibility.PRESET) {
+      rankingService.presetCopied(newTree.getId(), userId, template.getTreeId());
+    }
+    searchService.treeChanged(newTree);
+    searchService.evict(userId);
+    dataVersionService.bump(userId, VersionedCollection.TREES, VersionedCollection.SKILLS,
+        VersionedCollection.ACHIEVEMENTS);
+    changeLogService.changed(userId, Map.of(
+        SyncedCollection.TREES, List.of(newTreeId),
+        SyncedCollection.SKILLS, copy.getSkills().stream().map(Skill::getId).toList(),
+        SyncedCollection.ACHIEVEMENTS,
+        copy.getAchievements().stream().map(Achievement::getId).toList(),
+        SyncedCollection.ORIENTATIONS, List.of(newTreeId)));
+    return newTree;
+  }
+
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
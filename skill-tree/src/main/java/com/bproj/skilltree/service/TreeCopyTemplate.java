@@ -0,0 +1,156 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.model.Achievement;
+import com.bproj.skilltree.model.AchievementLocation;
+import com.bproj.skilltree.model.Orientation;
+import com.bproj.skilltree.model.Skill;
+import com.bproj.skilltree.model.SkillLocation;
+import com.bproj.skilltree.model.Tree;
+import com.bproj.skilltree.model.Visibility;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.bson.types.ObjectId;
+
+/**
+ * A read-only snapshot of a Tree and everything hanging off it, ready to be stamped into any
+ * User's account. Templates are shared between threads (PRESET templates are cached), so nothing
+ * held here is ever handed out or mutated.
+ */
+public final class TreeCopyTemplate {
+  private final Tree tree;
+  private final List<Skill> skills;
+  private final List<Achievement> achievements;
+  private final Orientation orientation;
+
+  /**
+   * Snapshot the given source objects. Each is copied so later changes to the originals don't leak
+   * into the template.
+   *
+   * @param tree The source Tree
+   * @param skills The Skills of the source Tree
+   * @param achievements The Achievements of the source Tree
+   * @param orientation The Orientation of the source Tree
+   */
+  public TreeCopyTemplate(Tree tree, List<Skill> skills, List<Achievement> achievements,
+      Orientation orientation) {
+    this.tree = new Tree(tree);
+    this.skills = skills.stream().map(Skill::new).toList();
+    this.achievements = achievements.stream().map(Achievement::new).toList();
+    this.orientation = new Orientation(orientation);
+  }
+
+  public ObjectId getTreeId() {
+    return tree.getId();
+  }
+
+  public ObjectId getOwnerId() {
+    return tree.getUserId();
+  }
+
+  public Visibility getVisibility() {
+    return tree.getVisibility();
+  }
+
+  /**
+   * The number of nodes (skills + achievements) a copy of this template adds to an account.
+   *
+   * @return The node count of the source Tree
+   */
+  public int getNodeCount() {
+    return skills.size() + achievements.size();
+  }
+
+  /**
+   * Build brand new objects for a copy of this template. Nothing is written; ids are assigned up
+   * front so parent, prerequisite, and location references can be remapped in one pass. A
+   * reference to a Skill or Achievement the template doesn't hold (the source was edited while it
+   * was being read) is dropped rather than copied dangling.
+   *
+   * @param userId The Id of the User receiving the copy
+   * @param newTreeId The Id the copied Tree will have
+   * @return The objects to be inserted
+   */
+  public TreeCopy instantiate(ObjectId userId, ObjectId newTreeId) {
+    // Ids are set by hand, so Spring Data treats these as existing documents and won't fill
+    // createdAt. Set it here instead.
+    Instant now = Instant.now();
+    Map<ObjectId, ObjectId> idMapping = new HashMap<>();
+    skills.forEach(s -> idMapping.put(s.getId(), new ObjectId()));
+    achievements.forEach(a -> idMapping.put(a.getId(), new ObjectId()));
+
+    Tree newTree = new Tree(userId, tree.getName(), tree.getBackgroundUrl(), tree.getDescription(),
+        Visibility.FRIENDS);
+    newTree.setId(newTreeId);
+    newTree.setCreatedAt(now);
+
+    List<Skill> newSkills = skills.stream().map(s -> {
+      ObjectId newParentId = idMapping.get(s.getParentSkillId());
+      Skill newSkill =
+          new Skill(userId, newTreeId, s.getName(), s.getBackgroundUrl(), 0, newParentId);
+      newSkill.setId(idMapping.get(s.getId()));
+      newSkill.setCreatedAt(now);
+      return newSkill;
+    }).toList();
+
+    List<Achievement> newAchievements = achievements.stream().map(a -> {
+      List<ObjectId> newPrereqs = a.getPrerequisites() == null ? List.of()
+          : a.getPrerequisites().stream().filter(idMapping::containsKey).map(idMapping::get)
+              .toList();
+      Achievement newAchievement = new Achievement(userId, newTreeId, a.getTitle(),
+          a.getBackgroundUrl(), a.getDescription(), newPrereqs, false);
+      newAchievement.setId(idMapping.get(a.getId()));
+      newAchievement.setCreatedAt(now);
+      return newAchievement;
+    }).toList();
+
+    List<SkillLocation> newSkillLocations = orientation.getSkillLocations().stream()
+        .filter(sl -> idMapping.containsKey(sl.getSkillId()))
+        .map(sl -> new SkillLocation(idMapping.get(sl.getSkillId()), sl.getX(), sl.getY()))
+        .toList();
+    List<AchievementLocation> newAchievementLocations = orientation.getAchievementLocations()
+        .stream().filter(al -> idMapping.containsKey(al.getAchievementId()))
+        .map(al -> new AchievementLocation(idMapping.get(al.getAchievementId()), al.getX(),
+            al.getY()))
+        .toList();
+    Orientation newOrientation =
+        new Orientation(userId, newTreeId, newSkillLocations, newAchievementLocations);
+
+    return new TreeCopy(newTree, newSkills, newAchievements, newOrientation);
+  }
+
+  /**
+   * The freshly built objects for one copy of a template.
+   */
+  public static final class TreeCopy {
+    private final Tree tree;
+    private final List<Skill> skills;
+    private final List<Achievement> achievements;
+    private final Orientation orientation;
+
+    TreeCopy(Tree tree, List<Skill> skills, List<Achievement> achievements,
+        Orientation orientation) {
+      this.tree = tree;
+      this.skills = skills;
+      this.achievements = achievements;
+      this.orientation = orientation;
+    }
+
+    public Tree getTree() {
+      return tree;
+    }
+
+    public List<Skill> getSkills() {
+      return skills;
+    }
+
+    public List<Achievement> getAchievements() {
+      return achievements;
+    }
+
+    public Orientation getOrientation() {
+      return orientation;
+    }
+  }
+}
@@ -14,6 +14,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -23,9 +24,10 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -40,15 +42,33 @@ public class TreeService {
   private final AchievementRepository achievementRepository;
   private final OrientationRepository orientationRepository;
   private final FriendshipService friendService;
+  private final CascadeDeletePlanner cascadeDeletePlanner;
+  private final TreeCopyEngine treeCopyEngine;
+  private final PresetTreeCache presetTreeCache;
+  private final UserTotalsService userTotalsService;
+  private final RankingService rankingService;
+  private final SearchService searchService;
+  private final DataVersionService dataVersionService;
+  private final ChangeLogService changeLogService;
 
 
   /**
-   * 4-arg constructor. Needs various repository references.
+   * Needs various repository references.
    *
    * @param treeRepository Tree db operations
    * @param userRepository user db operations
    * @param skillRepository skill db operations
    * @param achievementRepository achievement db operations
+   * @param orientationRepository orientation db operations
+   * @param friendService friendship checks for friend trees
+   * @param cascadeDeletePlanner set-based bulk deletes
+   * @param treeCopyEngine reads and writes tree copies
+   * @param presetTreeCache serves PRESET trees from memory, refreshed when one is written
+   * @param userTotalsService rebuilt when a deleted tree takes completed achievements with it
+   * @param rankingService stops ranking deleted copies of PRESET trees
+   * @param searchService indexes PUBLIC and PRESET trees, forgets deleted ones
+   * @param dataVersionService bumped after every Tree write
+   * @param changeLogService told which Trees every write changed
    */
   @Autowired
   public TreeService(@Qualifier("mongoTreeRepository") TreeRepository treeRepository,
@@ -56,13 +76,25 @@ public class TreeService {
       @Qualifier("mongoSkillRepository") SkillRepository skillRepository,
       @Qualifier("mongoAchievementRepository") AchievementRepository achievementRepository,
       @Qualifier("mongoOrientationRepository") OrientationRepository orientationRepository,
-      FriendshipService friendService) {
+      FriendshipService friendService, CascadeDeletePlanner cascadeDeletePlanner,
+      TreeCopyEngine treeCopyEngine, PresetTreeCache presetTreeCache,
+      UserTotalsService userTotalsService, RankingService rankingService,
+      SearchService searchService, DataVersionService dataVersionService,
+      ChangeLogService changeLogService) {
     this.treeRepository = treeRepository;
     this.userRepository = userRepository;
     this.skillRepository = skillRepository;
     this.achievementRepository = achievementRepository;
     this.orientationRepository = orientationRepository;
     this.friendService = friendService;
+    this.cascadeDeletePlanner = cascadeDeletePlanner;
+    this.treeCopyEngine = treeCopyEngine;
+    this.presetTreeCache = presetTreeCache;
+    this.userTotalsService = userTotalsService;
+    this.rankingService = rankingService;
+    this.searchService = searchService;
+    this.dataVersionService = dataVersionService;
+    this.changeLogService = changeLogService;
   }
 
   /**
@@ -89,26 +121,27 @@ public class TreeService {
    */
   @Transactional
   public Tree create(Tree tree, ObjectId userId) {
-    logger.info("create(tree={}, userId={})", tree, userId);
+    logger.debug("create(tree={}, userId={})", tree, userId);
     tree.setUserId(userId);
     validateTree(tree);
-    logger.info("treeRepository.insert(tree={})", tree);
     Tree createdTree = treeRepository.insert(tree);
-    logger.info("orientationRepository.insert(orientation=new Orientation(userId={}, treeId={}))", userId, createdTree.getId());
     Orientation orientation = new Orientation(userId, createdTree.getId());
     orientationRepository.insert(orientation);
+    presetTreeCache.treeChanged(createdTree);
+    searchService.treeChanged(createdTree);
+    dataVersionService.bump(userId, VersionedCollection.TREES);
+    changeLogService.changed(userId, Map.of(SyncedCollection.TREES, List.of(createdTree.getId()),
+        SyncedCollection.ORIENTATIONS, List.of(createdTree.getId())));
     return createdTree;
   }
 
   public boolean existsById(ObjectId treeId) {
-    logger.info("existsById(treeId={})", treeId);
-    logger.info("treeRepository.existsById(treeId={})", treeId);
+    logger.debug("existsById(treeId={})", treeId);
     return treeRepository.existsById(treeId);
   }
 
   public boolean existsByUserIdAndId(ObjectId userId, ObjectId treeId) {
-    logger.info("existsByUserIdAndId(userId={}, treeId={})", userId, treeId);
-    logger.info("treeRepository.existsByUserIdAndId(userId={}, treeId={})", userId, treeId);
+    logger.debug("existsByUserIdAndId(userId={}, treeId={})", userId, treeId);
     return treeRepository.existsByUserIdAndId(userId, treeId);
   }
 
@@ -119,8 +152,7 @@ public class TreeService {
    * @return The Tree, if its found.
    */
   public Tree findById(ObjectId treeId) {
-    logger.info("findById(treeId={})", treeId);
-    logger.info("treeRepository.findById(treeId={})", treeId);
+    logger.debug("findById(treeId={})", treeId);
     return treeRepository.findById(treeId)
         .orElseThrow(() -> new NotFoundException("trees", Map.of("treeId", treeId.toString())));
   }
@@ -133,8 +165,7 @@ public class TreeService {
    * @return The Tree associated with the provided owner and id
    */
   public Tree findByUserIdAndId(ObjectId userId, ObjectId treeId) {
-    logger.info("findByUserIdAndId(userId={}, treeId={})", userId, treeId);
-    logger.info("treeRepository.findByUserIdAndId(userId={}, treeId={})", userId, treeId);
+    logger.debug("findByUserIdAndId(userId={}, treeId={})", userId, treeId);
     return treeRepository.findByUserIdAndId(userId, treeId)
         .orElseThrow(() -> new NotFoundException("trees",
             Map.of("userId", userId.toString(), "treeId", treeId.toString())));
@@ -147,20 +178,39 @@ public class TreeService {
    * @return All Trees belonging to said user.
    */
   public List<Tree> findByUserId(ObjectId userId) {
-    logger.info("findByUserId(userId={})", userId);
-    logger.info("userRepository.existsById(userId={})", userId);
+    logger.debug("findByUserId(userId={})", userId);
     if (!userRepository.existsById(userId)) {
       throw new NotFoundException("users", Map.of("userId", userId.toString()));
     }
-    logger.info("treeRepository.findByUserId(userId={})", userId);
     return treeRepository.findByUserId(userId);
   }
 
+  /**
+   * Page through the PRESET Trees, newest first. Served from PresetTreeCache.
+   *
+   * @param page The page number
+   * @param size The page size
+   * @return The requested page of PRESET Trees
+   */
   public Page<Tree> findPublicTrees(int page, int size) {
-    logger.info("findPublicTrees(page={}, size={})", page, size);
+    logger.debug("findPublicTrees(page={}, size={})", page, size);
     Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-    logger.info("treeRepository.findByVisibility(visibility=PRESET, pageable={})", pageable);
-    return treeRepository.findByVisibility(Visibility.PRESET, pageable);
+    List<Tree> presets = presetTreeCache.getTrees();
+    int start = (int) Math.min(pageable.getOffset(), presets.size());
+    int end = Math.min(start + pageable.getPageSize(), presets.size());
+    return new PageImpl<>(presets.subList(start, end), pageable, presets.size());
+  }
+
+  /**
+   * Get the TreeLayout of a PRESET Tree. Served from PresetTreeCache.
+   *
+   * @param treeId The Id of the PRESET Tree
+   * @return The Tree's layout. Throws NFE if the Tree isn't a PRESET.
+   */
+  public TreeLayout getPublicLayoutById(ObjectId treeId) {
+    logger.debug("getPublicLayoutById(treeId={})", treeId);
+    return presetTreeCache.getLayout(treeId)
+        .orElseThrow(() -> new NotFoundException("trees", Map.of("treeId", treeId.toString())));
   }
 
   /**
@@ -172,13 +222,17 @@ public class TreeService {
    * @return The updated Tree
    */
   public Tree update(ObjectId userId, ObjectId treeId, Tree tree) {
-    logger.info("update(userId={}, treeId={}, tree={})", userId, treeId, tree);
+    logger.debug("update(userId={}, treeId={}, tree={})", userId, treeId, tree);
     Tree existingTree = findByUserIdAndId(userId, treeId);
     tree.setId(existingTree.getId());
     tree.setUserId(existingTree.getUserId());
     validateTree(tree);
-    logger.info("treeRepository.save(tree={})", tree);
-    return treeRepository.save(tree);
+    Tree saved = treeRepository.save(tree);
+    presetTreeCache.treeChanged(saved);
+    searchService.treeChanged(saved);
+    dataVersionService.bump(userId, VersionedCollection.TREES);
+    changeLogService.changed(userId, SyncedCollection.TREES, saved.getId());
+    return saved;
   }
 
   /**
@@ -190,12 +244,16 @@ public class TreeService {
    * @return The updated Tree
    */
   public Tree patch(ObjectId userId, ObjectId treeId, Map<String, Object> updates) {
-    logger.info("patch(userId={}, treeId={}, updates={})", userId, treeId, updates);
+    logger.debug("patch(userId={}, treeId={}, updates={})", userId, treeId, updates);
     Tree tree = findByUserIdAndId(userId, treeId);
     Tree updated = PatchUtils.applyTreePatch(tree, updates);
     validateTree(updated);
-    logger.info("treeRepository.save(updated={})", updated);
-    return treeRepository.save(updated);
+    Tree saved = treeRepository.save(updated);
+    presetTreeCache.treeChanged(saved);
+    searchService.treeChanged(saved);
+    dataVersionService.bump(userId, VersionedCollection.TREES);
+    changeLogService.changed(userId, SyncedCollection.TREES, saved.getId());
+    return saved;
   }
 
   /**
@@ -205,21 +263,28 @@ public class TreeService {
    */
   @Transactional
   public void deleteById(ObjectId treeId) {
-    logger.info("deleteById(treeId={})", treeId);
-    logger.info("orientationRepository.deleteByTreeId(treeId={})", treeId);
+    logger.debug("deleteById(treeId={})", treeId);
     orientationRepository.deleteByTreeId(treeId);
-    logger.info("skillRepository.deleteByTreeId(treeId={})", treeId);
     skillRepository.deleteByTreeId(treeId);
-    logger.info("achievementRepository.deleteByTreeId(treeId={})", treeId);
     achievementRepository.deleteByTreeId(treeId);
-    logger.info("treeRepository.deleteById(treeId={})", treeId);
     treeRepository.deleteById(treeId);
+    presetTreeCache.evict(treeId);
+    rankingService.treeRemoved(treeId);
+    searchService.treeRemoved(treeId);
   }
 
+  /**
+   * Delete all of a User's Trees along with their Skills, Achievements, and Orientations. Runs one
+   * deleteMany per collection instead of four deletes per Tree.
+   *
+   * @param userId The Id of the User
+   */
   public void deleteByUserId(ObjectId userId) {
-    logger.info("deleteByUserId(userId={})", userId);
-    logger.info("treeRepository.findByUserId(userId={})", userId);
-    treeRepository.findByUserId(userId).forEach(t -> deleteById(t.getId()));
+    logger.debug("deleteByUserId(userId={})", userId);
+    cascadeDeletePlanner.deleteTreesByUserId(userId);
+    userTotalsService.rebuild(userId);
+    rankingService.treesRemoved(userId);
+    searchService.userRemoved(userId);
   }
 
   /**
@@ -229,12 +294,18 @@ public class TreeService {
    * @param treeId Id of the Tree
    */
   public void deleteByUserIdAndId(ObjectId userId, ObjectId treeId) {
-    logger.info("deleteByUserIdAndId(userId={}, treeId={})", userId, treeId);
-    logger.info("treeRepository.findByUserIdAndId(userId={}, treeId={})", userId, treeId);
+    logger.debug("deleteByUserIdAndId(userId={}, treeId={})", userId, treeId);
     treeRepository.findByUserIdAndId(userId, treeId)
         .orElseThrow(() -> new NotFoundException("trees",
             Map.of("userId", userId.toString(), "treeId", treeId.toString())));
     deleteById(treeId);
+    userTotalsService.rebuild(userId);
+    searchService.evict(userId);
+    // Activities that logged time on the Tree's Skills no longer show them.
+    dataVersionService.bump(userId, VersionedCollection.TREES, VersionedCollection.SKILLS,
+        VersionedCollection.ACHIEVEMENTS, VersionedCollection.ACTIVITIES);
+    // Clients drop the Tree's Skills, Achievements and Orientation along with it.
+    changeLogService.changed(userId, SyncedCollection.TREES, treeId);
   }
 
   // Begin non core operations
@@ -248,13 +319,10 @@ public class TreeService {
    * @return The TreeLayout of the Tree with treeId
    */
   public TreeLayout getLayoutById(ObjectId treeId) {
-    logger.info("getLayoutById(treeId={})", treeId);
+    logger.debug("getLayoutById(treeId={})", treeId);
     // Fetch all required objects for TreeLayout construction
-    logger.info("skillRepository.findByTreeId(treeId={})", treeId);
     List<Skill> skills = skillRepository.findByTreeId(treeId);
-    logger.info("achievementRepository.findByTreeId(treeId={})", treeId);
     List<Achievement> achievements = achievementRepository.findByTreeId(treeId);
-    logger.info("orientationRepository.findByTreeId(treeId={})", treeId);
     Orientation orientation = orientationRepository.findByTreeId(treeId).orElseThrow(
         () -> new NotFoundException("orientations", Map.of("treeId", treeId.toString())));
     return TreeMapper.toTreeLayout(skills, achievements, orientation);
@@ -268,8 +336,7 @@ public class TreeService {
    * @return The Tree's layout
    */
   public TreeLayout getLayoutByUserIdAndId(ObjectId userId, ObjectId treeId) {
-    logger.info("getLayoutByUserIdAndId(userId={}, treeId={})", userId, treeId);
-    logger.info("treeRepository.existsByUserIdAndId(userId={}, treeId={})", userId, treeId);
+    logger.debug("getLayoutByUserIdAndId(userId={}, treeId={})", userId, treeId);
     if (!treeRepository.existsByUserIdAndId(userId, treeId)) {
       throw new NotFoundException("trees",
           Map.of("userId", userId.toString(), "treeId", treeId.toString()));
@@ -284,12 +351,9 @@ public class TreeService {
    * @return The MeTreeLayout DTO
    */
   public MeTreeLayout getMeLayoutById(ObjectId treeId) {
-    logger.info("getMeLayoutById(treeId={})", treeId);
-    logger.info("skillRepository.findByTreeId(treeId={})", treeId);
+    logger.debug("getMeLayoutById(treeId={})", treeId);
     List<Skill> skills = skillRepository.findByTreeId(treeId);
-    logger.info("achievementRepository.findByTreeId(treeId={})", treeId);
     List<Achievement> achievements = achievementRepository.findByTreeId(treeId);
-    logger.info("orientationRepository.findByTreeId(treeId={})", treeId);
     Orientation orientation = orientationRepository.findByTreeId(treeId).orElseThrow(
         () -> new NotFoundException("orientations", Map.of("treeId", treeId.toString())));
     return TreeMapper.toMeTreeLayout(skills, achievements, orientation);
@@ -303,8 +367,7 @@ public class TreeService {
    * @return The MeTreeLayout DTO
    */
   public MeTreeLayout getMeLayoutByUserIdAndId(ObjectId userId, ObjectId treeId) {
-    logger.info("getMeLayoutByUserIdAndId(userId={}, treeId={})", userId, treeId);
-    logger.info("treeRepository.existsByUserIdAndId(userId={}, treeId={})", userId, treeId);
+    logger.debug("getMeLayoutByUserIdAndId(userId={}, treeId={})", userId, treeId);
     if (!treeRepository.existsByUserIdAndId(userId, treeId)) {
       throw new NotFoundException("trees",
           Map.of("userId", userId.toString(), "treeId", treeId.toString()));
@@ -321,9 +384,20 @@ public class TreeService {
    * @return The stats of the Tree
    */
   public TreeStats getStatsById(ObjectId treeId) {
-    logger.info("getStatsById(treeId={})", treeId);
-    logger.info("skillRepository.findByTreeId(treeId={})", treeId);
-    List<Skill> skills = skillRepository.findByTreeId(treeId);
+    logger.debug("getStatsById(treeId={})", treeId);
+    return statsOf(skillRepository.findByTreeId(treeId),
+        achievementRepository.findByTreeId(treeId));
+  }
+
+  /**
+   * Compute TreeStats from already loaded Skills and Achievements. Hours are summed over root
+   * Skills only, since each root already includes the hours of its descendants.
+   *
+   * @param skills The Skills to count
+   * @param achievements The Achievements to count
+   * @return The TreeStats
+   */
+  private static TreeStats statsOf(List<Skill> skills, List<Achievement> achievements) {
     int totalSkills = skills.size();
     double timeSpentHours = 0;
     for (Skill s : skills) {
@@ -332,8 +406,6 @@ public class TreeService {
       }
     }
 
-    logger.info("achievementRepository.findByTreeId(treeId={})", treeId);
-    List<Achievement> achievements = achievementRepository.findByTreeId(treeId);
     int totalAchievements = achievements.size();
     int completedAchievements =
         achievements.stream().filter(Achievement::isComplete).toList().size();
@@ -349,8 +421,7 @@ public class TreeService {
    * @return The Stats of the Tree with Id treeId and User userId
    */
   public TreeStats getStatsByUserIdAndId(ObjectId userId, ObjectId treeId) {
-    logger.info("getStatsByUserIdAndId(userId={}, treeId={})", userId, treeId);
-    logger.info("treeRepository.findByUserIdAndId(userId={}, treeId={})", userId, treeId);
+    logger.debug("getStatsByUserIdAndId(userId={}, treeId={})", userId, treeId);
     treeRepository.findByUserIdAndId(userId, treeId)
         .orElseThrow(() -> new NotFoundException("trees",
             Map.of("userId", userId.toString(), "treeId", treeId.toString())));
@@ -358,58 +429,81 @@ public class TreeService {
   }
 
   /**
-   * Return the provided User's favorite Tree's statistics.
+   * Return the provided User's favorite Tree's statistics. The User's Skills are loaded once and
+   * grouped by Tree, so the cost doesn't grow with the number of Trees.
    *
    * @param userId The Id of the User
    * @return The Tree statistics for the User's favorite Tree
    */
   public FavoriteTree getFavoriteTree(ObjectId userId) {
-    logger.info("getFavoriteTree(userId={})", userId);
-    logger.info("treeRepository.findByUserId(userId={})", userId);
+    logger.debug("getFavoriteTree(userId={})", userId);
     List<Tree> trees = treeRepository.findByUserId(userId);
     if (trees.isEmpty()) {
       return null;
     }
+    return favoriteOf(trees, skillRepository.findByUserId(userId),
+        treeId -> achievementRepository.findByUserIdAndTreeId(userId, treeId));
+  }
+
+  /**
+   * Pick the favorite Tree, the one with the most hours logged, out of a User's already loaded
+   * Trees and Skills.
+   *
+   * @param trees The User's Trees
+   * @param skills The User's Skills
+   * @param achievementsOf Gives the Achievements of the favorite Tree by its Id
+   * @return The favorite Tree's statistics, or null if the User has no Trees
+   */
+  static FavoriteTree favoriteOf(List<Tree> trees, List<Skill> skills,
+      Function<ObjectId, List<Achievement>> achievementsOf) {
+    if (trees.isEmpty()) {
+      return null;
+    }
+    Map<ObjectId, List<Skill>> skillsByTree =
+        skills.stream().collect(Collectors.groupingBy(Skill::getTreeId));
     Tree favorite = trees.get(0);
     double max = 0;
     for (Tree t : trees) {
-      logger.info("skillRepository.findByTreeIdAndParentSkillIdIsNull(treeId={})", t.getId());
-      List<Skill> rootSkills = skillRepository.findByTreeIdAndParentSkillIdIsNull(t.getId());
-      double hours = rootSkills.stream().mapToDouble(Skill::getTimeSpentHours).sum();
+      double hours = skillsByTree.getOrDefault(t.getId(), List.of()).stream()
+          .filter(sk -> sk.getParentSkillId() == null).mapToDouble(Skill::getTimeSpentHours).sum();
       if (hours > max) {
         favorite = t;
         max = hours;
       }
     }
-    TreeStats stats = getStatsById(favorite.getId());
+    TreeStats stats = statsOf(skillsByTree.getOrDefault(favorite.getId(), List.of()),
+        achievementsOf.apply(favorite.getId()));
     return new FavoriteTree(favorite.getId(), favorite.getName(), favorite.getBackgroundUrl(),
         stats.getTotalTimeLogged(), stats.getTotalSkills(), stats.getTotalAchievements(),
         stats.getAchievementsCompleted());
   }
 
   /**
-   * Get aggregate TreeStats by userId.
+   * Get aggregate TreeStats by userId. Three queries no matter how many Trees the User has.
    *
    * @param userId The User the TreeStats belong to
    * @return The stats of all of the user's trees combined
    */
   public TreeStats getStatsByUserId(ObjectId userId) {
-    logger.info("getStatsByUserId(userId={})", userId);
-    logger.info("treeRepository.findByUserId(userId={})", userId);
-    List<ObjectId> treeIds =
-        treeRepository.findByUserId(userId).stream().map(tree -> tree.getId()).toList();
-    double timeSpentHours = 0;
-    int totalSkills = 0;
-    int totalAchievements = 0;
-    int completedAchievements = 0;
-    for (ObjectId treeId : treeIds) {
-      TreeStats ts = getStatsById(treeId);
-      timeSpentHours += ts.getTotalTimeLogged();
-      totalSkills += ts.getTotalSkills();
-      totalAchievements += ts.getTotalAchievements();
-      completedAchievements += ts.getAchievementsCompleted();
-    }
-    return new TreeStats(timeSpentHours, totalSkills, totalAchievements, completedAchievements);
+    logger.debug("getStatsByUserId(userId={})", userId);
+    return statsOf(treeRepository.findByUserId(userId), skillRepository.findByUserId(userId),
+        achievementRepository.findByUserId(userId));
+  }
+
+  /**
+   * Compute a User's aggregate TreeStats from their already loaded Trees, Skills and
+   * Achievements. Skills and Achievements left behind by a deleted Tree aren't counted.
+   *
+   * @param trees The User's Trees
+   * @param skills The User's Skills
+   * @param achievements The User's Achievements
+   * @return The stats of all of the Trees combined
+   */
+  static TreeStats statsOf(List<Tree> trees, List<Skill> skills,
+      List<Achievement> achievements) {
+    Set<ObjectId> treeIds = trees.stream().map(Tree::getId).collect(Collectors.toSet());
+    return statsOf(skills.stream().filter(sk -> treeIds.contains(sk.getTreeId())).toList(),
+        achievements.stream().filter(a -> treeIds.contains(a.getTreeId())).toList());
   }
 
   /**
@@ -420,7 +514,7 @@ public class TreeService {
    * @return The List of TreeFeedItems
    */
   public List<TreeFeedItem> getTreeFeedItemsByUserIds(List<ObjectId> userIds, int days) {
-    logger.info("getTreeFeedItemsByUserIds(userIds={}, days={})", userIds, days);
+    logger.debug("getTreeFeedItemsByUserIds(userIds={}, days={})", userIds, days);
     if (userIds.isEmpty()) {
       return List.of();
     }
@@ -428,10 +522,8 @@ public class TreeService {
         LocalDate.now(ZoneOffset.UTC).minusDays(days - 1).atStartOfDay().toInstant(ZoneOffset.UTC);
     Instant endInstant =
         LocalDate.now(ZoneOffset.UTC).plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC);
-    logger.info("treeRepository.findByUserIdInAndCreatedAtBetween(userIds={}, startInstant={}, endInstant={})", userIds, startInstant, endInstant);
     List<Tree> trees =
         treeRepository.findByUserIdInAndCreatedAtBetween(userIds, startInstant, endInstant);
-    logger.info("userRepository.findByIdIn(userIds={})", userIds);
     Map<ObjectId, User> userMap =
         userRepository.findByIdIn(userIds).stream().collect(Collectors.toMap(User::getId, u -> u));
 
@@ -442,15 +534,6 @@ public class TreeService {
     }).toList();
   }
 
-  private int getTreeNodeCount(ObjectId treeId) {
-    if (!treeRepository.existsById(treeId)) {
-      throw new NotFoundException("trees", Map.of("treeId", treeId.toString()));
-    }
-
-    return skillRepository.findByTreeId(treeId).size()
-        + achievementRepository.findByTreeId(treeId).size();
-  }
-
   /**
    * Find the total number of skills and achievements a User has. Required for limiting resource
    * usage.
@@ -459,35 +542,32 @@ public class TreeService {
    * @return The total number of nodes (skills + achievements) the user has
    */
   public int countUserNodes(ObjectId userId) {
-    logger.info("countUserNodes(userId={})", userId);
-    logger.info("skillRepository.findByUserId(userId={})", userId);
-    logger.info("achievementRepository.findByUserId(userId={})", userId);
-    int nodes = skillRepository.findByUserId(userId).size()
-        + achievementRepository.findByUserId(userId).size();
-    return nodes;
+    logger.debug("countUserNodes(userId={})", userId);
+    long nodes = skillRepository.countByUserId(userId)
+        + achievementRepository.countByUserId(userId);
+    return (int) nodes;
   }
 
-  private boolean canCopyTree(ObjectId userId, ObjectId treeId) {
-    if (!treeRepository.existsById(treeId)) {
-      throw new BadRequestException("Tree does not exist.");
-    }
+  boolean canCopyTree(ObjectId userId, ObjectId treeId) {
+    return canCopyTree(userId, treeCopyEngine.loadTemplate(treeId));
+  }
+
+  private boolean canCopyTree(ObjectId userId, TreeCopyTemplate template) {
     if (!userRepository.existsById(userId)) {
       throw new BadRequestException("User does not exist.");
     }
-    if (countUserNodes(userId) + getTreeNodeCount(treeId) > 50) {
+    if (countUserNodes(userId) + template.getNodeCount() > 50) {
       throw new BadRequestException(
           "User does not have enough space. Maximum 50 skills and achievements allowed.");
     }
 
-    Tree tree = treeRepository.findById(treeId)
-        .orElseThrow(() -> new NotFoundException("trees", Map.of("treeId", treeId.toString())));
-    switch (tree.getVisibility()) {
+    switch (template.getVisibility()) {
       case PRESET:
         return true;
       case PUBLIC:
         return true;
       case FRIENDS:
-        if (!friendService.areFriends(userId, tree.getUserId())) {
+        if (!friendService.areFriends(userId, template.getOwnerId())) {
           throw new ForbiddenException("You do not have access to this tree.");
         }
         return true;
@@ -507,75 +587,25 @@ public class TreeService {
    */
   @Transactional
   public Tree copyToUserAccount(ObjectId userId, ObjectId treeId) {
-    logger.info("copyToUserAccount(userId={}, treeId={})", userId, treeId);
-    // check if we can copy (throws if not allowed)
-    canCopyTree(userId, treeId);
-
-    // initialize old -> new id map
-    Map<ObjectId, ObjectId> idMapping = new HashMap<ObjectId, ObjectId>();
-
-    // create tree copy
-    logger.info("treeRepository.findById(treeId={})", treeId);
-    Tree tree = treeRepository.findById(treeId)
-        .orElseThrow(() -> new NotFoundException("trees", Map.of("treeId", treeId.toString())));
-
-    logger.info("treeRepository.insert(newTree=new Tree(userId={}, name={}, backgroundUrl={}, description={}, visibility=FRIENDS))", userId, tree.getName(), tree.getBackgroundUrl(), tree.getDescription());
-    Tree newTree = treeRepository.insert(new Tree(userId, tree.getName(), tree.getBackgroundUrl(),
-        tree.getDescription(), Visibility.FRIENDS));
-
-    // create skill id mapping
-    logger.info("skillRepository.findByTreeId(treeId={})", treeId);
-    List<Skill> skills = skillRepository.findByTreeId(treeId);
-    for (Skill s : skills) {
-      idMapping.put(s.getId(), new ObjectId());
-    }
-    // create new skills
-    List<Skill> newSkills = skills.stream().map(s -> {
-      ObjectId newParentId =
-          s.getParentSkillId() == null ? null : idMapping.get(s.getParentSkillId());
-      Skill newSkill =
-          new Skill(userId, newTree.getId(), s.getName(), s.getBackgroundUrl(), 0, newParentId);
-      newSkill.setId(idMapping.get(s.getId()));
-      return newSkill;
-    }).toList();
-
-    // create achievement id mapping
-    logger.info("achievementRepository.findByTreeId(treeId={})", treeId);
-    List<Achievement> achievements = achievementRepository.findByTreeId(treeId);
-    for (Achievement a : achievements) {
-      idMapping.put(a.getId(), new ObjectId());
-    }
-    // create new achievements
-    List<Achievement> newAchievements = achievements.stream().map(a -> {
-      List<ObjectId> newPrereqs = a.getPrerequisites() == null ? List.of()
-          : a.getPrerequisites().stream().map(idMapping::get).toList();
-      Achievement newAchievement = new Achievement(userId, newTree.getId(), a.getTitle(),
-          a.getBackgroundUrl(), a.getDescription(), newPrereqs, false);
-      newAchievement.setId(idMapping.get(a.getId()));
-      return newAchievement;
-    }).toList();
+    return copyToUserAccount(userId, treeId, new ObjectId());
+  }
 
-    // create new orientation
-    logger.info("orientationRepository.findByTreeId(treeId={})", treeId);
-    Orientation orientation = orientationRepository.findByTreeId(treeId).orElseThrow(
-        () -> new NotFoundException("orientations", Map.of("treeId", treeId.toString())));
-    List<SkillLocation> newSkillLocations = orientation.getSkillLocations().stream()
-        .map(sl -> new SkillLocation(idMapping.get(sl.getSkillId()), sl.getX(), sl.getY()))
-        .toList();
-    List<AchievementLocation> newAchievementLocations = orientation.getAchievementLocations()
-        .stream().map(al -> new AchievementLocation(idMapping.get(al.getAchievementId()), al.getX(),
-            al.getY()))
-        .toList();
-    Orientation newOrientation =
-        new Orientation(userId, newTree.getId(), newSkillLocations, newAchievementLocations);
-
-    logger.info("skillRepository.saveAll(newSkills={})", newSkills);
-    skillRepository.saveAll(newSkills);
-    logger.info("achievementRepository.saveAll(newAchievements={})", newAchievements);
-    achievementRepository.saveAll(newAchievements);
-    logger.info("orientationRepository.save(newOrientation={})", newOrientation);
-    orientationRepository.save(newOrientation);
-
-    return newTree;
+  /**
+   * Copy a Tree to the provided user's account under a caller-chosen Id. Background copy jobs pick
+   * the Id up front so a retried copy lands on the same Tree.
+   *
+   * @param userId The Id of the User the Tree will be copied to
+   * @param treeId The Id of the Tree being copied
+   * @param newTreeId The Id the copied Tree will have
+   * @return The copied Tree
+   */
+  @Transactional
+  public Tree copyToUserAccount(ObjectId userId, ObjectId treeId, ObjectId newTreeId) {
+    logger.debug("copyToUserAccount(userId={}, treeId={}, newTreeId={})", userId, treeId,
+        newTreeId);
+    TreeCopyTemplate template = treeCopyEngine.loadTemplate(treeId);
+    // check if we can copy (throws if not allowed)
+    canCopyTree(userId, template);
+    return treeCopyEngine.copy(template, userId, newTreeId);
   }
 }
@@ -19,13 +19,14 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -38,9 +39,10 @@ public class UserService {
   private final AchievementRepository achievementRepository;
   private final ActivityRepository activityRepository;
   private final TreeRepository treeRepository;
-  private final SkillRepository skillRepository;
-  private final OrientationRepository orientationRepository;
-  private final FriendshipRepository friendshipRepository;
+  private final CascadeDeletePlanner cascadeDeletePlanner;
+  private final UserTotalsService userTotalsService;
+  private final DisplayNameIndex displayNameIndex;
+  private final DataVersionService dataVersionService;
 
 
   /**
@@ -50,22 +52,26 @@ public class UserService {
    * @param achievementRepository DB ops for achs
    * @param activityRepository DB ops for activities
    * @param treeRepository DB ops for trees
+   * @param cascadeDeletePlanner Set-based account deletion
+   * @param userTotalsService Gives new Users their totals
+   * @param displayNameIndex Told about every new or renamed User
+   * @param dataVersionService Bumped for the User's friends when their profile changes
    */
   @Autowired
   public UserService(@Qualifier("mongoUserRepository") UserRepository userRepository,
       @Qualifier("mongoAchievementRepository") AchievementRepository achievementRepository,
       @Qualifier("mongoActivityRepository") ActivityRepository activityRepository,
       @Qualifier("mongoTreeRepository") TreeRepository treeRepository,
-      @Qualifier("mongoSkillRepository") SkillRepository skillRepository,
-      @Qualifier("mongoOrientationRepository") OrientationRepository orientationRepository,
-      @Qualifier("mongoFriendshipRepository") FriendshipRepository friendshipRepository) {
+      CascadeDeletePlanner cascadeDeletePlanner, UserTotalsService userTotalsService,
+      DisplayNameIndex displayNameIndex, DataVersionService dataVersionService) {
     this.userRepository = userRepository;
     this.achievementRepository = achievementRepository;
     this.activityRepository = activityRepository;
     this.treeRepository = treeRepository;
-    this.skillRepository = skillRepository;
-    this.orientationRepository = orientationRepository;
-    this.friendshipRepository = friendshipRepository;
+    this.cascadeDeletePlanner = cascadeDeletePlanner;
+    this.userTotalsService = userTotalsService;
+    this.displayNameIndex = displayNameIndex;
+    this.dataVersionService = dataVersionService;
   }
 
   /**
@@ -97,7 +103,7 @@ public class UserService {
    * @return The created User
    */
   public User create(User user, String firebaseId, String email) {
-    logger.info("create(user={}, firebaseId={}, email={})", user, firebaseId, email);
+    logger.debug("create(user={}, firebaseId={}, email={})", user, firebaseId, email);
     user.setFirebaseId(firebaseId);
     user.setEmail(email);
     validateUser(user);
@@ -105,20 +111,20 @@ public class UserService {
     user.setCreatedAt(now);
     user.setUpdatedAt(now);
     user.setId(new ObjectId());
-    
-    logger.info("userRepository.insert(user={})", user);
-    return userRepository.insert(user);
+
+    User created = userRepository.insert(user);
+    userTotalsService.create(created.getId());
+    displayNameIndex.userChanged(created);
+    return created;
   }
 
   public boolean existsById(ObjectId userId) {
-    logger.info("existsById(userId={})", userId);
-    logger.info("userRepository.existsById(userId={})", userId);
+    logger.debug("existsById(userId={})", userId);
     return userRepository.existsById(userId);
   }
 
   public boolean existsByFirebaseId(String firebaseId) {
-    logger.info("existsByFirebaseId(firebaseId={})", firebaseId);
-    logger.info("userRepository.existsByFirebaseId(firebaseId={})", firebaseId);
+    logger.debug("existsByFirebaseId(firebaseId={})", firebaseId);
     return userRepository.existsByFirebaseId(firebaseId);
   }
 
@@ -129,8 +135,7 @@ public class UserService {
    * @return The User with id=Id. Throws NFE otherwise.
    */
   public User findById(ObjectId userId) {
-    logger.info("findById(userId={})", userId);
-    logger.info("userRepository.findById(userId={})", userId);
+    logger.debug("findById(userId={})", userId);
     return userRepository.findById(userId)
         .orElseThrow(() -> new NotFoundException("users", Map.of("userId", userId.toString())));
   }
@@ -142,8 +147,7 @@ public class UserService {
    * @return A list of Users with Ids matching those in the provided list
    */
   public List<User> findByIds(List<ObjectId> userIds) {
-    logger.info("findByIds(userIds={})", userIds);
-    logger.info("userRepository.findAllById(userIds={})", userIds);
+    logger.debug("findByIds(userIds={})", userIds);
     List<User> users = userRepository.findAllById(userIds);
     if (users.size() != userIds.size()) {
       throw new NotFoundException("users", Map.of("userIds", userIds.toString()));
@@ -152,22 +156,19 @@ public class UserService {
   }
 
   public User findByFirebaseId(String firebaseId) {
-    logger.info("findByFirebaseId(firebaseId={})", firebaseId);
-    logger.info("userRepository.findByFirebaseId(firebaseId={})", firebaseId);
+    logger.debug("findByFirebaseId(firebaseId={})", firebaseId);
     return userRepository.findByFirebaseId(firebaseId)
         .orElseThrow(() -> new NotFoundException("users", Map.of("firebaseId", firebaseId)));
   }
 
   public User findByEmail(String email) {
-    logger.info("findByEmail(email={})", email);
-    logger.info("userRepository.findByEmail(email={})", email);
+    logger.debug("findByEmail(email={})", email);
     return userRepository.findByEmail(email)
         .orElseThrow(() -> new NotFoundException("users", Map.of("email", email)));
   }
 
   public List<User> findAll() {
-    logger.info("findAll()");
-    logger.info("userRepository.findAll()");
+    logger.debug("findAll()");
     return userRepository.findAll();
   }
 
@@ -178,16 +179,17 @@ public class UserService {
    * @return The persisted updated User
    */
   public User update(ObjectId userId, User updatedUser) {
-    logger.info("update(userId={}, updatedUser={})", userId, updatedUser);
-    logger.info("userRepository.findById(userId={})", userId);
+    logger.debug("update(userId={}, updatedUser={})", userId, updatedUser);
     User existingUser = userRepository.findById(userId)
         .orElseThrow(() -> new NotFoundException("users", Map.of("userId", userId.toString())));
     updatedUser.setId(userId);
     updatedUser.setFirebaseId(existingUser.getFirebaseId());
     updatedUser.setEmail(existingUser.getEmail());
     validateUser(updatedUser);
-    logger.info("userRepository.save(updatedUser={})", updatedUser);
-    return userRepository.save(updatedUser);
+    User saved = userRepository.save(updatedUser);
+    displayNameIndex.userChanged(saved);
+    bumpIfProfileChanged(existingUser, saved);
+    return saved;
   }
 
   /**
@@ -198,22 +200,31 @@ public class UserService {
    * @return The updated User. Throws NFE otherwise.
    */
   public User patch(ObjectId userId, Map<String, Object> updates) {
-    logger.info("patch(userId={}, updates={})", userId, updates);
-    logger.info("userRepository.findById(userId={})", userId);
+    logger.debug("patch(userId={}, updates={})", userId, updates);
     User user = userRepository.findById(userId)
         .orElseThrow(() -> new NotFoundException("users", Map.of("userId", userId.toString())));
     User updated = PatchUtils.applyUserPatch(user, updates);
     validateUser(updated);
-    logger.info("userRepository.save(updated={})", updated);
-    return userRepository.save(updated);
+    User saved = userRepository.save(updated);
+    displayNameIndex.userChanged(saved);
+    bumpIfProfileChanged(user, saved);
+    return saved;
+  }
+
+  // Friends' lists show this User's display name and picture.
+  private void bumpIfProfileChanged(User before, User after) {
+    if (!Objects.equals(before.getDisplayName(), after.getDisplayName())
+        || !Objects.equals(before.getProfilePictureUrl(), after.getProfilePictureUrl())) {
+      dataVersionService.profileChanged(after.getId());
+    }
   }
 
-  private FeedItem convertToFeedItem(Object obj, User user) {
+  private FeedItem convertToFeedItem(Object obj, User user, Map<ObjectId, Skill> skillMap) {
     if (obj instanceof Achievement achievement) {
       return AchievementMapper.toAchievementFeedItem(achievement, user);
     } else if (obj instanceof Activity activity) {
-      List<Skill> skills = skillRepository
-          .findByIdIn(activity.getSkillWeights().stream().map(SkillWeight::getSkillId).toList());
+      List<Skill> skills = activity.getSkillWeights().stream()
+          .map(sw -> skillMap.get(sw.getSkillId())).filter(Objects::nonNull).toList();
       return ActivityMapper.toActivityFeedItem(activity, skills, user);
     } else if (obj instanceof Tree tree) {
       return TreeMapper.toTreeFeedItem(tree, user);
@@ -223,7 +234,8 @@ public class UserService {
   }
 
   /**
-   * Return an paginated actions feed for the User associated with the provided userId.
+   * Return an paginated actions feed for the User associated with the provided userId. The Skills
+   * of every Activity are loaded in one batch rather than once per Activity.
    *
    * @param userId The Id of the User
    * @param page The page number of the page to be returned
@@ -231,17 +243,20 @@ public class UserService {
    * @return The Paginated actions feed
    */
   public Page<FeedItem> getUserActionsFeed(ObjectId userId, int page, int size) {
-    logger.info("getUserActivityFeed(userId={}, page={}, size={})", userId, page, size);
-    logger.info("userRepository.findById(userId={})", userId);
+    logger.debug("getUserActivityFeed(userId={}, page={}, size={})", userId, page, size);
     User user = userRepository.findById(userId)
         .orElseThrow(() -> new NotFoundException("users", Map.of("userId", userId.toString())));
-    logger.info("achievementRepository.findByUserId(userId={})", userId);
-    logger.info("activityRepository.findByUserId(userId={})", userId);
-    logger.info("treeRepository.findByUserId(userId={})", userId);
+    List<Activity> activities = activityRepository.findByUserId(userId);
+    List<ObjectId> skillIds = activities.stream()
+        .flatMap(a -> a.getSkillWeights().stream().map(SkillWeight::getSkillId)).distinct()
+        .toList();
+    Map<ObjectId, Skill> skillMap = skillIds.isEmpty() ? Map.of()
+        : skillRepository.findByIdIn(skillIds).stream()
+            .collect(Collectors.toMap(Skill::getId, sk -> sk));
     List<FeedItem> combined = Stream
-        .of(achievementRepository.findByUserId(userId), activityRepository.findByUserId(userId),
+        .of(achievementRepository.findByUserId(userId), activities,
             treeRepository.findByUserId(userId))
-        .flatMap(List::stream).map(obj -> convertToFeedItem(obj, user))
+        .flatMap(List::stream).map(obj -> convertToFeedItem(obj, user, skillMap))
         .sorted(Comparator.comparing(FeedItem::getPostedAt).reversed()).toList();
     Pageable pageable = PageRequest.of(page, size);
     int start = (int) pageable.getOffset();
@@ -250,27 +265,13 @@ public class UserService {
   }
 
   /**
-   * Delete a User by their Id. Removes all related entities as well.
+   * Delete a User by their Id. Removes all related entities as well. Skill hours are not reversed
+   * since every Skill the User's Activities touched is removed too.
    *
    * @param userId The Id of the User to be deleted
    */
-  @Transactional
   public void deleteById(ObjectId userId) {
-    logger.info("deleteById(userId={})", userId);
-    logger.info("activityRepository.deleteByUserId(userId={})", userId);
-    activityRepository.deleteByUserId(userId);
-    logger.info("friendshipRepository.deleteByRequesterIdOrAddresseeId(userId={}, userId={})",
-        userId, userId);
-    friendshipRepository.deleteByRequesterIdOrAddresseeId(userId, userId);
-    logger.info("skillRepository.deleteByUserId(userId={})", userId);
-    skillRepository.deleteByUserId(userId);
-    logger.info("achievementRepository.deleteByUserId(userId={})", userId);
-    achievementRepository.deleteByUserId(userId);
-    logger.info("orientationRepository.deleteByUserId(userId={})", userId);
-    orientationRepository.deleteByUserId(userId);
-    logger.info("treeRepository.deleteByUserId(userId={})", userId);
-    treeRepository.deleteByUserId(userId);
-    logger.info("userRepository.deleteById(userId={})", userId);
-    userRepository.deleteById(userId);
+    logger.debug("deleteById(userId={})", userId);
+    cascadeDeletePlanner.deleteUser(userId);
   }
 }
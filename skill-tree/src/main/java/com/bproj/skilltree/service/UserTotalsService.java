@@ -0,0 +1,205 @@
+package com.bproj.skilltree.service;
+
+import com.bproj.skilltree.dao.AchievementRepository;
+import com.bproj.skilltree.dao.DailyActivityRepository;
+import com.bproj.skilltree.dao.UserRepository;
+import com.bproj.skilltree.dao.UserTotalsRepository;
+import com.bproj.skilltree.model.User;
+import com.bproj.skilltree.model.UserTotals;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps each User's UserTotals in step with their Activities and Achievements and ranks groups of
+ * Users by them. Every change is a single $inc on one document, and bulk deletes rebuild the
+ * totals with two aggregations. Every change is passed on to the RankingService. A User who
+ * predates the totals gets them built the next time they appear on a friend leaderboard.
+ */
+@Service
+public class UserTotalsService {
+  private static final Logger logger = LoggerFactory.getLogger(UserTotalsService.class);
+  private static final int BACKFILL_BATCH = 1000;
+  private static final String BACKFILL_MIGRATION = "user-totals";
+  private static final Sort RANKING = Sort.by(Sort.Direction.DESC, "hoursLogged")
+      .and(Sort.by(Sort.Direction.DESC, "achievementsCompleted"));
+  private static final Comparator<UserTotals> RANKING_ORDER =
+      Comparator.comparingDouble(UserTotals::getHoursLogged)
+          .thenComparingInt(UserTotals::getAchievementsCompleted).reversed();
+  private final UserTotalsRepository userTotalsRepository;
+  private final DailyActivityRepository dailyActivityRepository;
+  private final AchievementRepository achievementRepository;
+  private final UserRepository userRepository;
+  private final RankingService rankingService;
+  private final MigrationService migrationService;
+  private final boolean backfillOnStartup;
+
+
+  /**
+   * Create a UserTotalsService.
+   *
+   * @param userTotalsRepository UserTotals DB operations
+   * @param dailyActivityRepository DailyActivity DB operations, summed to build missing totals
+   * @param achievementRepository Achievement DB operations, counted to build missing totals
+   * @param userRepository User DB operations, only used to backfill the totals
+   * @param rankingService Told about every change to a User's totals
+   * @param migrationService Runs the backfill once across all instances
+   * @param backfillOnStartup Whether to build every User's totals on startup when there are none
+   */
+  @Autowired
+  public UserTotalsService(
+      @Qualifier("mongoUserTotalsRepository") UserTotalsRepository userTotalsRepository,
+      @Qualifier("mongoDailyActivityRepository") DailyActivityRepository dailyActivityRepository,
+      @Qualifier("mongoAchievementRepository") AchievementRepository achievementRepository,
+      @Qualifier("mongoUserRepository") UserRepository userRepository,
+      RankingService rankingService, MigrationService migrationService,
+      @Value("${skilltree.rollups.backfill-on-startup:true}") boolean backfillOnStartup) {
+    this.userTotalsRepository = userTotalsRepository;
+    this.dailyActivityRepository = dailyActivityRepository;
+    this.achievementRepository = achievementRepository;
+    this.userRepository = userRepository;
+    this.rankingService = rankingService;
+    this.migrationService = migrationService;
+    this.backfillOnStartup = backfillOnStartup;
+  }
+
+  /**
+   * Build every User's totals on the first start after the global ranking was introduced. Runs
+   * after the rollups are backfilled and before the RankingService loads its snapshot. The
+   * BACKFILL_MIGRATION marker makes this happen on one instance, once, and only once the rollups
+   * it sums have been backfilled; each User's totals are overwritten with a fresh count, so
+   * running it again is harmless.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(1)
+  public void backfill() {
+    if (!backfillOnStartup
+        || !migrationService.isComplete(DailyActivityService.BACKFILL_MIGRATION)) {
+      return;
+    }
+    migrationService.runOnce(BACKFILL_MIGRATION, () -> {
+      List<ObjectId> userIds = userRepository.findAll().stream().map(User::getId).toList();
+      for (int i = 0; i < userIds.size(); i += BACKFILL_BATCH) {
+        userTotalsRepository.saveAll(
+            build(userIds.subList(i, Math.min(i + BACKFILL_BATCH, userIds.size())), null));
+      }
+      logger.info("Backfilled {} user totals", userIds.size());
+    });
+  }
+
+  /**
+   * Give a new User empty totals so they are ranked from the start.
+   *
+   * @param userId The Id of the User
+   */
+  public void create(ObjectId userId) {
+    logger.debug("create(userId={})", userId);
+    rankingService.userTotalsChanged(userTotalsRepository.insert(new UserTotals(userId, 0, 0)));
+  }
+
+  /**
+   * Add to a User's hours logged.
+   *
+   * @param userId The Id of the User
+   * @param hours The change in hours, negative when Activities were removed or shortened
+   */
+  public void addHours(ObjectId userId, double hours) {
+    logger.debug("addHours(userId={}, hours={})", userId, hours);
+    if (hours != 0) {
+      userTotalsRepository.increment(userId, hours, 0)
+          .ifPresent(rankingService::userTotalsChanged);
+    }
+  }
+
+  /**
+   * Add to a User's number of completed Achievements.
+   *
+   * @param userId The Id of the User
+   * @param achievements The change in completed Achievements
+   */
+  public void addAchievementsCompleted(ObjectId userId, int achievements) {
+    logger.debug("addAchievementsCompleted(userId={}, achievements={})", userId, achievements);
+    if (achievements != 0) {
+      userTotalsRepository.increment(userId, 0, achievements)
+          .ifPresent(rankingService::userTotalsChanged);
+    }
+  }
+
+  /**
+   * Recount a User's totals after a bulk change that didn't track what it removed.
+   *
+   * @param userId The Id of the User
+   */
+  public void rebuild(ObjectId userId) {
+    logger.debug("rebuild(userId={})", userId);
+    rankingService.userTotalsChanged(userTotalsRepository.save(build(List.of(userId), null)
+        .get(0)));
+  }
+
+  /**
+   * Get the all-time totals of many Users, highest hours first, then most Achievements. The
+   * ranking is a sorted read; only Users missing their totals are aggregated and stored.
+   *
+   * @param userIds The Ids of the Users
+   * @return One UserTotals per User, ranked
+   */
+  public List<UserTotals> findByUserIds(Collection<ObjectId> userIds) {
+    logger.debug("findByUserIds(userIds={})", userIds);
+    List<UserTotals> ranked = userTotalsRepository.findByUserIdIn(userIds, RANKING);
+    if (ranked.size() == userIds.size()) {
+      return ranked;
+    }
+    Set<ObjectId> found = ranked.stream().map(UserTotals::getUserId).collect(Collectors.toSet());
+    List<ObjectId> missing = userIds.stream().filter(id -> !found.contains(id)).toList();
+    List<UserTotals> built = userTotalsRepository.saveAll(build(missing, null));
+    built.forEach(rankingService::userTotalsChanged);
+    List<UserTotals> merged = new ArrayList<>(ranked);
+    merged.addAll(built);
+    merged.sort(RANKING_ORDER);
+    return merged;
+  }
+
+  /**
+   * Get the totals of many Users over a window, worked out from the per-day rollups and the
+   * Achievements' completedAt rather than stored.
+   *
+   * @param userIds The Ids of the Users
+   * @param since The start of the window
+   * @return One UserTotals per User, ranked the same as {@link #findByUserIds(Collection)}
+   */
+  public List<UserTotals> findByUserIdsSince(Collection<ObjectId> userIds, Instant since) {
+    logger.debug("findByUserIdsSince(userIds={}, since={})", userIds, since);
+    List<UserTotals> ranked = build(userIds, since);
+    ranked.sort(RANKING_ORDER);
+    return ranked;
+  }
+
+  private List<UserTotals> build(Collection<ObjectId> userIds, Instant since) {
+    Map<ObjectId, Double> hours = dailyActivityRepository.sumHoursByUserId(userIds, since);
+    Map<ObjectId, Integer> completed =
+        achievementRepository.countCompletedByUserId(userIds, since);
+    List<UserTotals> totals = new ArrayList<>();
+    for (ObjectId userId : userIds) {
+      totals.add(new UserTotals(userId, hours.getOrDefault(userId, 0.0),
+          completed.getOrDefault(userId, 0)));
+    }
+    return totals;
+  }
+}
@@ -1,6 +1,7 @@
 package com.bproj.skilltree.util;
 
 import com.bproj.skilltree.exception.ForbiddenException;
+import com.bproj.skilltree.model.User;
 import com.bproj.skilltree.service.UserService;
 import org.bson.types.ObjectId;
 import org.springframework.security.core.Authentication;
@@ -32,6 +33,33 @@ public class AuthUtils {
     return userService.findByFirebaseId(firebaseId).getId();
   }
 
+  /**
+   * Returns the User associated with the JWT, for callers that need more than its Id.
+   *
+   * @param auth The Authentication object attached to the incoming request.
+   * @return The found User. If no User is found, an exception is thrown.
+   */
+  public User getUserByAuth(Authentication auth) {
+    if (auth == null) {
+      throw new ForbiddenException("Authentication not found.");
+    }
+    String firebaseId = auth.getPrincipal().toString();
+    return userService.findByFirebaseId(firebaseId);
+  }
+
+  /**
+   * Returns the Firebase Id from the JWT without requiring a matching User to exist.
+   *
+   * @param auth The Authentication object attached to the incoming request.
+   * @return The Firebase Id of the caller.
+   */
+  public String getFirebaseIdByAuth(Authentication auth) {
+    if (auth == null) {
+      throw new ForbiddenException("Authentication not found.");
+    }
+    return auth.getPrincipal().toString();
+  }
+
   /**
    * Check if the provided Authentication object contains a JWT that is associated with a firebase
    * account and thus User account.
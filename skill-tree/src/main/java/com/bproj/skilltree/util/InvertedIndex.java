@@ -0,0 +1,189 @@
+package com.bproj.skilltree.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A full-text index over short documents. Text is split into lowercase letter and digit runs,
+ * and each term keeps a posting list of the documents containing it with how often it occurs, so
+ * a query only reads the postings of its own terms. Documents are replaced or removed one at a
+ * time. Reads share a lock and writes are exclusive.
+ *
+ * @param <K> The document key type, e.g. a Skill's Id
+ */
+public class InvertedIndex<K extends Comparable<K>> {
+  private final Map<String, Map<K, Integer>> postings = new HashMap<>();
+  private final Map<K, Document> documents = new HashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /**
+   * Index a document, replacing any earlier version with the same key.
+   *
+   * @param key The document's key
+   * @param fields The document's text fields, nulls allowed
+   */
+  public void put(K key, String... fields) {
+    Map<String, Integer> frequencies = new HashMap<>();
+    int length = 0;
+    for (String field : fields) {
+      for (String term : tokenize(field)) {
+        frequencies.merge(term, 1, Integer::sum);
+        length++;
+      }
+    }
+    lock.writeLock().lock();
+    try {
+      unindex(key);
+      if (length == 0) {
+        return;
+      }
+      frequencies.forEach((term, count) ->
+          postings.computeIfAbsent(term, t -> new HashMap<>()).put(key, count));
+      documents.put(key, new Document(frequencies.keySet().toArray(String[]::new), length));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove a document.
+   *
+   * @param key The document's key
+   */
+  public void remove(K key) {
+    lock.writeLock().lock();
+    try {
+      unindex(key);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Find the documents containing any of a query's terms, ranked by TF-IDF: every matching term
+   * adds its count in the document times the log of how rare it is across documents, and the sum
+   * is divided by the square root of the document's length so short titles aren't drowned out.
+   *
+   * @param query The query text
+   * @param offset How many ranked documents to skip
+   * @param limit The most documents to return
+   * @return One page of matches, best first, then lowest key, and how many matched in total
+   */
+  public Hits<K> search(String query, int offset, int limit) {
+    Set<String> terms = new LinkedHashSet<>(tokenize(query));
+    lock.readLock().lock();
+    try {
+      Map<K, Double> scores = new HashMap<>();
+      for (String term : terms) {
+        Map<K, Integer> posting = postings.get(term);
+        if (posting == null) {
+          continue;
+        }
+        double idf = Math.log(1 + (double) documents.size() / posting.size());
+        posting.forEach((key, count) -> scores.merge(key, count * idf, Double::sum));
+      }
+      List<Map.Entry<K, Double>> ranked = new ArrayList<>(scores.size());
+      scores.forEach((key, score) ->
+          ranked.add(Map.entry(key, score / Math.sqrt(documents.get(key).length))));
+      ranked.sort(Map.Entry.<K, Double>comparingByValue(Comparator.reverseOrder())
+          .thenComparing(Map.Entry.comparingByKey()));
+      List<K> page = ranked.stream().skip(offset).limit(limit).map(Map.Entry::getKey).toList();
+      return new Hits<>(page, ranked.size());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Number of indexed documents.
+   *
+   * @return The number of documents with at least one term
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return documents.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Split text into the terms it is indexed and searched by.
+   *
+   * @param text The text, may be null
+   * @return The lowercase runs of letters and digits, in order
+   */
+  public static List<String> tokenize(String text) {
+    List<String> terms = new ArrayList<>();
+    if (text == null) {
+      return terms;
+    }
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (wordChar && start < 0) {
+        start = i;
+      } else if (!wordChar && start >= 0) {
+        terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+    return terms;
+  }
+
+  private void unindex(K key) {
+    Document previous = documents.remove(key);
+    if (previous == null) {
+      return;
+    }
+    for (String term : previous.terms) {
+      Map<K, Integer> posting = postings.get(term);
+      posting.remove(key);
+      if (posting.isEmpty()) {
+        postings.remove(term);
+      }
+    }
+  }
+
+  private static final class Document {
+    private final String[] terms;
+    private final int length;
+
+    private Document(String[] terms, int length) {
+      this.terms = terms;
+      this.length = length;
+    }
+  }
+
+  /**
+   * One page of search results.
+   *
+   * @param <K> The document key type
+   */
+  public static final class Hits<K> {
+    private final List<K> keys;
+    private final int total;
+
+    private Hits(List<K> keys, int total) {
+      this.keys = keys;
+      this.total = total;
+    }
+
+    public List<K> getKeys() {
+      return keys;
+    }
+
+    public int getTotal() {
+      return total;
+    }
+  }
+}
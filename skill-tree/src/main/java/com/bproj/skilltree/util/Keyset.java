@@ -0,0 +1,201 @@
+package com.bproj.skilltree.util;
+
+import com.bproj.skilltree.dto.CursorPage;
+import com.bproj.skilltree.exception.BadRequestException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * A position in a sorted list, for keyset pagination. Rather than skipping the first n matches
+ * like an offset, the next page starts strictly after the sort key values of the last document
+ * returned, so with an index on the sort keys every page is a seek however deep it is, and writes
+ * between requests never shift items across pages. The position travels between requests as an
+ * opaque page token.
+ *
+ * <p>Sorts must end on _id so that every position is unique. Mongo sorts null (or missing) below
+ * every other value, but a range query like $lt never matches null, so null is matched
+ * explicitly: after a value on a descending key come the smaller values and then the nulls, and
+ * after null on an ascending key comes every non-null value.
+ */
+public final class Keyset {
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+  private final Sort sort;
+  private final List<Object> after;
+
+  private Keyset(Sort sort, List<Object> after) {
+    this.sort = sort;
+    this.after = after;
+  }
+
+  /**
+   * Resolve a page token to a position.
+   *
+   * @param sort The sort order, ending on _id
+   * @param pageToken A token handed out with the same sort, or null for the first page
+   * @return The position. Throws BadRequestException if the token is malformed or was handed out
+   *     with a different sort.
+   */
+  public static Keyset of(Sort sort, String pageToken) {
+    if (pageToken == null || pageToken.isEmpty()) {
+      return new Keyset(sort, null);
+    }
+    String[] parts = pageToken.split("\\.", -1);
+    if (!parts[0].equals(encode(propertiesOf(sort))) || parts.length != sort.toList().size() + 1) {
+      throw new BadRequestException("Invalid pageToken: " + pageToken);
+    }
+    List<Object> values = new ArrayList<>();
+    try {
+      for (int i = 1; i < parts.length; i++) {
+        values.add(parse(parts[i]));
+      }
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new BadRequestException("Invalid pageToken: " + pageToken);
+    }
+    return new Keyset(sort, values);
+  }
+
+  public Sort getSort() {
+    return sort;
+  }
+
+  /**
+   * The sort key values the page starts after, in sort order.
+   *
+   * @return The values, or null on the first page
+   */
+  public List<Object> getAfter() {
+    return after;
+  }
+
+  /**
+   * Match the documents after this position: a later value on the first sort key, or the same
+   * value there and a later one on the second, and so on down to _id.
+   *
+   * @return The criteria, or null on the first page
+   */
+  public Criteria toCriteria() {
+    if (after == null) {
+      return null;
+    }
+    List<Sort.Order> orders = sort.toList();
+    List<Criteria> branches = new ArrayList<>();
+    for (int i = 0; i < orders.size(); i++) {
+      Criteria later = laterThan(orders.get(i), after.get(i));
+      if (later == null) {
+        continue;
+      }
+      List<Criteria> branch = new ArrayList<>();
+      for (int j = 0; j < i; j++) {
+        branch.add(Criteria.where(orders.get(j).getProperty()).is(after.get(j)));
+      }
+      branch.add(later);
+      branches.add(branch.size() == 1 ? later : new Criteria().andOperator(branch));
+    }
+    return new Criteria().orOperator(branches);
+  }
+
+  /**
+   * Cut a page out of the documents found after this position. The query is expected to have
+   * been limited to size + 1, so a leftover document means another page follows.
+   *
+   * @param <T> The document type
+   * @param found The documents after this position, in sort order
+   * @param size The page size
+   * @return The first size documents, and a token for the page after them if there are more
+   */
+  public <T> CursorPage<T> page(List<T> found, int size) {
+    if (found.size() <= size) {
+      return new CursorPage<>(found, null);
+    }
+    List<T> content = found.subList(0, size);
+    return new CursorPage<>(content, tokenAfter(content.get(size - 1)));
+  }
+
+  private String tokenAfter(Object document) {
+    BeanWrapperImpl bean = new BeanWrapperImpl(document);
+    StringBuilder token = new StringBuilder(encode(propertiesOf(sort)));
+    for (Sort.Order order : sort) {
+      String property = "_id".equals(order.getProperty()) ? "id" : order.getProperty();
+      token.append('.').append(format(bean.getPropertyValue(property)));
+    }
+    return token.toString();
+  }
+
+  // Values after value on one sort key, or null if nothing sorts after it.
+  private static Criteria laterThan(Sort.Order order, Object value) {
+    String property = order.getProperty();
+    if (order.isAscending()) {
+      return value == null ? Criteria.where(property).ne(null) : Criteria.where(property).gt(value);
+    }
+    if (value == null) {
+      return null;
+    }
+    return new Criteria().orOperator(
+        Criteria.where(property).lt(value), Criteria.where(property).is(null));
+  }
+
+  private static String propertiesOf(Sort sort) {
+    return sort.stream().map(o -> o.getProperty() + (o.isAscending() ? "+" : "-"))
+        .collect(Collectors.joining(","));
+  }
+
+  // Each value is a type tag followed by its string form, so it is parsed back to the type the
+  // document field has and compares the same way in Mongo.
+  private static String format(Object value) {
+    if (value == null) {
+      return "n";
+    } else if (value instanceof ObjectId) {
+      return "o" + value;
+    } else if (value instanceof Instant) {
+      return "t" + encode(value.toString());
+    } else if (value instanceof Double) {
+      return "d" + encode(value.toString());
+    } else if (value instanceof Boolean) {
+      return "b" + value;
+    } else if (value instanceof String) {
+      return "s" + encode((String) value);
+    }
+    throw new IllegalArgumentException("Can't page on a " + value.getClass().getSimpleName());
+  }
+
+  private static Object parse(String part) {
+    if (part.isEmpty()) {
+      throw new IllegalArgumentException("Empty value");
+    }
+    String text = part.substring(1);
+    switch (part.charAt(0)) {
+      case 'n':
+        return null;
+      case 'o':
+        return new ObjectId(text);
+      case 't':
+        return Instant.parse(decode(text));
+      case 'd':
+        return Double.valueOf(decode(text));
+      case 'b':
+        return Boolean.valueOf(text);
+      case 's':
+        return decode(text);
+      default:
+        throw new IllegalArgumentException("Unknown value type " + part.charAt(0));
+    }
+  }
+
+  private static String encode(String text) {
+    return ENCODER.encodeToString(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String decode(String text) {
+    return new String(DECODER.decode(text), StandardCharsets.UTF_8);
+  }
+}
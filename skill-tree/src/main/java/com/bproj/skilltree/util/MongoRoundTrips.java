@@ -0,0 +1,78 @@
+package com.bproj.skilltree.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the Mongo commands issued on behalf of the current HTTP request. The count is bound to
+ * the request's thread and carried onto worker threads with {@link #propagate(Runnable)}, so
+ * fanned-out reads are charged to the request that issued them.
+ */
+public final class MongoRoundTrips {
+  private static final ThreadLocal<AtomicInteger> CURRENT = new ThreadLocal<>();
+
+  private MongoRoundTrips() {}
+
+  /**
+   * Start counting for the current thread.
+   */
+  public static void begin() {
+    CURRENT.set(new AtomicInteger());
+  }
+
+  /**
+   * Stop counting for the current thread.
+   *
+   * @return The number of commands issued since {@link #begin()}
+   */
+  public static int end() {
+    AtomicInteger count = CURRENT.get();
+    CURRENT.remove();
+    return count == null ? 0 : count.get();
+  }
+
+  /**
+   * The number of commands issued so far, without stopping the count.
+   *
+   * @return The current count, or 0 if nothing is being counted
+   */
+  public static int current() {
+    AtomicInteger count = CURRENT.get();
+    return count == null ? 0 : count.get();
+  }
+
+  /**
+   * Record one command. Called by the Mongo command listener; a no-op outside a request.
+   */
+  public static void increment() {
+    AtomicInteger count = CURRENT.get();
+    if (count != null) {
+      count.incrementAndGet();
+    }
+  }
+
+  /**
+   * Wrap a task so that it counts against the submitting thread's request. Used as a TaskDecorator.
+   *
+   * @param task The task being submitted
+   * @return The wrapped task
+   */
+  public static Runnable propagate(Runnable task) {
+    AtomicInteger count = CURRENT.get();
+    if (count == null) {
+      return task;
+    }
+    return () -> {
+      AtomicInteger previous = CURRENT.get();
+      CURRENT.set(count);
+      try {
+        task.run();
+      } finally {
+        if (previous == null) {
+          CURRENT.remove();
+        } else {
+          CURRENT.set(previous);
+        }
+      }
+    };
+  }
+}
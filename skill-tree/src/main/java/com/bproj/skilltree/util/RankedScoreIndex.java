@@ -0,0 +1,313 @@
+package com.bproj.skilltree.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An order-statistic tree of scores, best first: highest score, then highest tiebreak, then
+ * lowest key. Backed by a treap whose nodes know the size of their subtree, so setting a score,
+ * finding a key's rank and reading the n-th entry all take O(log n) expected time, and a page of
+ * k entries takes O(k log n). Reads share a lock and writes are exclusive.
+ *
+ * @param <K> The key type, e.g. a User's Id
+ */
+public class RankedScoreIndex<K extends Comparable<K>> {
+  private final Map<K, Entry<K>> entries = new HashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private Node<K> root;
+
+  /**
+   * Set a key's score, adding the key if it isn't ranked yet.
+   *
+   * @param key The key
+   * @param score The primary score, higher ranks first
+   * @param tiebreak Breaks ties on score, higher ranks first
+   */
+  public void put(K key, double score, int tiebreak) {
+    Entry<K> entry = new Entry<>(key, score, tiebreak);
+    lock.writeLock().lock();
+    try {
+      Entry<K> previous = entries.put(key, entry);
+      if (previous != null) {
+        root = delete(root, previous);
+      }
+      Node<K>[] split = split(root, entry, false);
+      root = merge(merge(split[0], new Node<>(entry)), split[1]);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Stop ranking a key.
+   *
+   * @param key The key
+   */
+  public void remove(K key) {
+    lock.writeLock().lock();
+    try {
+      Entry<K> previous = entries.remove(key);
+      if (previous != null) {
+        root = delete(root, previous);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Get a key's current entry.
+   *
+   * @param key The key
+   * @return The entry, or null if the key isn't ranked
+   */
+  public Entry<K> get(K key) {
+    lock.readLock().lock();
+    try {
+      return entries.get(key);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Get a key's position.
+   *
+   * @param key The key
+   * @return The number of entries ranked ahead of the key (0 for the leader), or -1 if the key
+   *     isn't ranked
+   */
+  public int rankOf(K key) {
+    lock.readLock().lock();
+    try {
+      Entry<K> entry = entries.get(key);
+      return entry == null ? -1 : rankOf(entry);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Get a key's entry, its position and the size of the ranking as of the same moment. Reading
+   * them with separate calls can mix states, e.g. an entry for a key removed before its rank is
+   * read.
+   *
+   * @param key The key
+   * @return The key's standing, with a null entry and rank -1 if the key isn't ranked
+   */
+  public Standing<K> standingOf(K key) {
+    lock.readLock().lock();
+    try {
+      Entry<K> entry = entries.get(key);
+      return new Standing<>(entry, entry == null ? -1 : rankOf(entry), entries.size());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // Requires the read or write lock.
+  private int rankOf(Entry<K> entry) {
+    int rank = 0;
+    Node<K> node = root;
+    while (node != null) {
+      int c = compare(entry, node.entry);
+      if (c < 0) {
+        node = node.left;
+      } else {
+        rank += size(node.left);
+        if (c == 0) {
+          return rank;
+        }
+        rank++;
+        node = node.right;
+      }
+    }
+    throw new IllegalStateException("Ranked key missing from the tree: " + entry.getKey());
+  }
+
+  /**
+   * Read a slice of the ranking.
+   *
+   * @param offset The rank of the first entry returned
+   * @param limit The maximum number of entries returned
+   * @return The entries from offset on, best first
+   */
+  public List<Entry<K>> range(int offset, int limit) {
+    lock.readLock().lock();
+    try {
+      List<Entry<K>> slice = new ArrayList<>();
+      for (int i = offset; i < offset + limit && i < size(root); i++) {
+        slice.add(select(i));
+      }
+      return slice;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return entries.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private Entry<K> select(int index) {
+    Node<K> node = root;
+    while (true) {
+      int leftSize = size(node.left);
+      if (index < leftSize) {
+        node = node.left;
+      } else if (index == leftSize) {
+        return node.entry;
+      } else {
+        index -= leftSize + 1;
+        node = node.right;
+      }
+    }
+  }
+
+  /**
+   * Split a subtree around an entry.
+   *
+   * @param node The subtree
+   * @param entry The entry to split at
+   * @param inclusive Whether an equal entry goes to the left part
+   * @return The part ranked ahead of entry and the rest
+   */
+  private Node<K>[] split(Node<K> node, Entry<K> entry, boolean inclusive) {
+    @SuppressWarnings("unchecked")
+    Node<K>[] parts = new Node[2];
+    if (node == null) {
+      return parts;
+    }
+    int c = compare(node.entry, entry);
+    if (c < 0 || (inclusive && c == 0)) {
+      Node<K>[] right = split(node.right, entry, inclusive);
+      node.right = right[0];
+      parts[0] = node.update();
+      parts[1] = right[1];
+    } else {
+      Node<K>[] left = split(node.left, entry, inclusive);
+      node.left = left[1];
+      parts[0] = left[0];
+      parts[1] = node.update();
+    }
+    return parts;
+  }
+
+  private Node<K> merge(Node<K> left, Node<K> right) {
+    if (left == null) {
+      return right;
+    }
+    if (right == null) {
+      return left;
+    }
+    if (left.priority > right.priority) {
+      left.right = merge(left.right, right);
+      return left.update();
+    }
+    right.left = merge(left, right.left);
+    return right.update();
+  }
+
+  private Node<K> delete(Node<K> node, Entry<K> entry) {
+    Node<K>[] ahead = split(node, entry, false);
+    Node<K>[] rest = split(ahead[1], entry, true);
+    return merge(ahead[0], rest[1]);
+  }
+
+  private int compare(Entry<K> a, Entry<K> b) {
+    int c = Double.compare(b.score, a.score);
+    if (c == 0) {
+      c = Integer.compare(b.tiebreak, a.tiebreak);
+    }
+    return c != 0 ? c : a.key.compareTo(b.key);
+  }
+
+  private static int size(Node<?> node) {
+    return node == null ? 0 : node.size;
+  }
+
+  /**
+   * A key and its score, as ranked.
+   *
+   * @param <K> The key type
+   */
+  public static final class Entry<K> {
+    private final K key;
+    private final double score;
+    private final int tiebreak;
+
+    private Entry(K key, double score, int tiebreak) {
+      this.key = key;
+      this.score = score;
+      this.tiebreak = tiebreak;
+    }
+
+    public K getKey() {
+      return key;
+    }
+
+    public double getScore() {
+      return score;
+    }
+
+    public int getTiebreak() {
+      return tiebreak;
+    }
+  }
+
+  /**
+   * A key's entry and rank, read together with the size of the ranking.
+   *
+   * @param <K> The key type
+   */
+  public static final class Standing<K> {
+    private final Entry<K> entry;
+    private final int rank;
+    private final int total;
+
+    private Standing(Entry<K> entry, int rank, int total) {
+      this.entry = entry;
+      this.rank = rank;
+      this.total = total;
+    }
+
+    public Entry<K> getEntry() {
+      return entry;
+    }
+
+    public int getRank() {
+      return rank;
+    }
+
+    public int getTotal() {
+      return total;
+    }
+  }
+
+  private static final class Node<K> {
+    private final Entry<K> entry;
+    private final int priority = ThreadLocalRandom.current().nextInt();
+    private Node<K> left;
+    private Node<K> right;
+    private int size = 1;
+
+    private Node(Entry<K> entry) {
+      this.entry = entry;
+    }
+
+    private Node<K> update() {
+      size = 1 + RankedScoreIndex.size(left) + RankedScoreIndex.size(right);
+      return this;
+    }
+  }
+}
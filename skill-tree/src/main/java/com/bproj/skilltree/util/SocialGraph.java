@@ -0,0 +1,301 @@
+package com.bproj.skilltree.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An undirected graph in compressed sparse row form. Every key is mapped to a dense int and each
+ * node's neighbours are a sorted slice of one shared int array, so a graph of millions of edges is
+ * a few flat arrays rather than millions of objects. Nodes whose edges change after the graph is
+ * built get their own sorted row, which replaces their slice; rebuilding folds them back in.
+ * Reads share a lock and writes are exclusive.
+ *
+ * @param <K> The key type, e.g. a User's Id
+ */
+public class SocialGraph<K extends Comparable<K>> {
+  private final Map<K, Integer> nodes = new HashMap<>();
+  private final List<K> keys = new ArrayList<>();
+  private final int[] offsets;
+  private final int[] adjacency;
+  private final Map<Integer, int[]> patchedRows = new HashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /**
+   * Build a graph from its edges. Duplicate edges and self loops are dropped.
+   *
+   * @param edges The edges, one pair of keys each, in either direction
+   */
+  public SocialGraph(List<Map.Entry<K, K>> edges) {
+    int[] from = new int[edges.size()];
+    int[] to = new int[edges.size()];
+    for (int i = 0; i < edges.size(); i++) {
+      from[i] = nodeOf(edges.get(i).getKey());
+      to[i] = nodeOf(edges.get(i).getValue());
+    }
+    int[] degree = new int[keys.size() + 1];
+    for (int i = 0; i < from.length; i++) {
+      degree[from[i]]++;
+      degree[to[i]]++;
+    }
+    int[] starts = new int[keys.size() + 1];
+    for (int node = 0; node < keys.size(); node++) {
+      starts[node + 1] = starts[node] + degree[node];
+    }
+    int[] filled = Arrays.copyOf(starts, keys.size());
+    int[] all = new int[starts[keys.size()]];
+    for (int i = 0; i < from.length; i++) {
+      all[filled[from[i]]++] = to[i];
+      all[filled[to[i]]++] = from[i];
+    }
+    // Sort each row, then squeeze out duplicates and self loops.
+    offsets = new int[keys.size() + 1];
+    int size = 0;
+    for (int node = 0; node < keys.size(); node++) {
+      Arrays.sort(all, starts[node], starts[node + 1]);
+      offsets[node] = size;
+      for (int i = starts[node]; i < starts[node + 1]; i++) {
+        if (all[i] != node && (size == offsets[node] || all[size - 1] != all[i])) {
+          all[size++] = all[i];
+        }
+      }
+    }
+    offsets[keys.size()] = size;
+    adjacency = Arrays.copyOf(all, size);
+  }
+
+  /**
+   * Connect two keys, adding either of them if they aren't in the graph yet.
+   *
+   * @param a One key
+   * @param b The other key
+   */
+  public void addEdge(K a, K b) {
+    lock.writeLock().lock();
+    try {
+      int nodeA = nodeOf(a);
+      int nodeB = nodeOf(b);
+      if (nodeA != nodeB) {
+        patchedRows.put(nodeA, insert(row(nodeA), nodeB));
+        patchedRows.put(nodeB, insert(row(nodeB), nodeA));
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Disconnect two keys.
+   *
+   * @param a One key
+   * @param b The other key
+   */
+  public void removeEdge(K a, K b) {
+    lock.writeLock().lock();
+    try {
+      Integer nodeA = nodes.get(a);
+      Integer nodeB = nodes.get(b);
+      if (nodeA != null && nodeB != null) {
+        patchedRows.put(nodeA, delete(row(nodeA), nodeB));
+        patchedRows.put(nodeB, delete(row(nodeB), nodeA));
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Disconnect a key from all of its neighbours.
+   *
+   * @param key The key
+   */
+  public void removeNode(K key) {
+    lock.writeLock().lock();
+    try {
+      Integer node = nodes.get(key);
+      if (node == null) {
+        return;
+      }
+      for (int neighbour : row(node)) {
+        patchedRows.put(neighbour, delete(row(neighbour), node));
+      }
+      patchedRows.put(node, new int[0]);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Rank the keys two hops away from a key by how many neighbours they share with it. The key
+   * itself and its neighbours are never suggested. Takes time proportional to the number of
+   * two-hop paths, with no allocation per path.
+   *
+   * @param key The key
+   * @param limit The most suggestions to return
+   * @return The suggestions, most shared neighbours first, then lowest key
+   */
+  public List<Suggestion<K>> suggest(K key, int limit) {
+    lock.readLock().lock();
+    try {
+      Integer node = nodes.get(key);
+      if (node == null || limit <= 0) {
+        return List.of();
+      }
+      // counts[n] is the number of shared neighbours, or -1 for nodes that can't be suggested.
+      int[] counts = new int[keys.size()];
+      int[] touched = new int[16];
+      int touchedSize = 0;
+      int[] neighbours = row(node);
+      counts[node] = -1;
+      for (int neighbour : neighbours) {
+        counts[neighbour] = -1;
+      }
+      for (int neighbour : neighbours) {
+        // Walk the shared slice in place rather than copying it out with row().
+        int[] patched = patchedRows.get(neighbour);
+        int[] row = patched != null ? patched : adjacency;
+        int from = patched != null ? 0 : offsets[neighbour];
+        int to = patched != null ? patched.length : offsets[neighbour + 1];
+        for (int i = from; i < to; i++) {
+          int candidate = row[i];
+          if (counts[candidate] < 0) {
+            continue;
+          }
+          if (counts[candidate]++ == 0) {
+            if (touchedSize == touched.length) {
+              touched = Arrays.copyOf(touched, touchedSize * 2);
+            }
+            touched[touchedSize++] = candidate;
+          }
+        }
+      }
+
+      // Find the lowest count that still makes the cut with a histogram of the counts, so only
+      // the candidates tied at that count need comparing by key.
+      int max = 0;
+      for (int i = 0; i < touchedSize; i++) {
+        max = Math.max(max, counts[touched[i]]);
+      }
+      int[] histogram = new int[max + 1];
+      for (int i = 0; i < touchedSize; i++) {
+        histogram[counts[touched[i]]]++;
+      }
+      int cutoff = max;
+      int above = 0;
+      while (cutoff > 1 && above + histogram[cutoff] < limit) {
+        above += histogram[cutoff--];
+      }
+      List<Integer> ranked = new ArrayList<>();
+      PriorityQueue<Integer> tied =
+          new PriorityQueue<>(Comparator.<Integer, K>comparing(keys::get).reversed());
+      for (int i = 0; i < touchedSize; i++) {
+        int candidate = touched[i];
+        if (counts[candidate] > cutoff) {
+          ranked.add(candidate);
+        } else if (counts[candidate] == cutoff) {
+          tied.add(candidate);
+          if (tied.size() > limit - above) {
+            tied.poll();
+          }
+        }
+      }
+      ranked.addAll(tied);
+      ranked.sort(Comparator.<Integer>comparingInt(n -> counts[n]).reversed()
+          .thenComparing(keys::get));
+      return ranked.stream().map(n -> new Suggestion<>(keys.get(n), counts[n])).toList();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Number of keys with at least one edge.
+   *
+   * @return The number of connected keys
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      int size = 0;
+      for (int node = 0; node < keys.size(); node++) {
+        if (row(node).length > 0) {
+          size++;
+        }
+      }
+      return size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private int nodeOf(K key) {
+    return nodes.computeIfAbsent(key, k -> {
+      keys.add(k);
+      return keys.size() - 1;
+    });
+  }
+
+  private int[] row(int node) {
+    int[] patched = patchedRows.get(node);
+    if (patched != null) {
+      return patched;
+    }
+    if (node >= offsets.length - 1) {
+      return new int[0];
+    }
+    return Arrays.copyOfRange(adjacency, offsets[node], offsets[node + 1]);
+  }
+
+  private static int[] insert(int[] row, int node) {
+    int at = Arrays.binarySearch(row, node);
+    if (at >= 0) {
+      return row;
+    }
+    at = -at - 1;
+    int[] inserted = new int[row.length + 1];
+    System.arraycopy(row, 0, inserted, 0, at);
+    inserted[at] = node;
+    System.arraycopy(row, at, inserted, at + 1, row.length - at);
+    return inserted;
+  }
+
+  private static int[] delete(int[] row, int node) {
+    int at = Arrays.binarySearch(row, node);
+    if (at < 0) {
+      return row;
+    }
+    int[] deleted = new int[row.length - 1];
+    System.arraycopy(row, 0, deleted, 0, at);
+    System.arraycopy(row, at + 1, deleted, at, row.length - at - 1);
+    return deleted;
+  }
+
+  /**
+   * A key two hops away and the number of neighbours it shares with the key asked about.
+   *
+   * @param <K> The key type
+   */
+  public static final class Suggestion<K> {
+    private final K key;
+    private final int mutual;
+
+    private Suggestion(K key, int mutual) {
+      this.key = key;
+      this.mutual = mutual;
+    }
+
+    public K getKey() {
+      return key;
+    }
+
+    public int getMutual() {
+      return mutual;
+    }
+  }
+}
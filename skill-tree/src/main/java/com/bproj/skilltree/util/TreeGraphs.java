@@ -0,0 +1,170 @@
+package com.bproj.skilltree.util;
+
+import com.bproj.skilltree.model.Achievement;
+import com.bproj.skilltree.model.Skill;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.bson.types.ObjectId;
+
+/**
+ * Graph walks over the nodes of a single Tree. Nothing here touches the database, so callers load
+ * a Tree's nodes once and every walk runs in time linear in the size of the Tree.
+ */
+public class TreeGraphs {
+  private TreeGraphs() {}
+
+  /**
+   * Check whether giving a Skill a new parent would put it inside its own ancestry.
+   *
+   * @param skills Every Skill in the Tree
+   * @param skillId The Id of the Skill being moved
+   * @param newParentId The Id of the proposed parent (null for a root)
+   * @return True if skillId is newParentId or one of its ancestors
+   */
+  public static boolean wouldCreateParentCycle(Collection<Skill> skills, ObjectId skillId,
+      ObjectId newParentId) {
+    if (newParentId == null) {
+      return false;
+    }
+    Map<ObjectId, ObjectId> parentById = new HashMap<>();
+    for (Skill s : skills) {
+      parentById.put(s.getId(), s.getParentSkillId());
+    }
+
+    Set<ObjectId> visited = new HashSet<>();
+    ObjectId currentId = newParentId;
+    while (currentId != null && visited.add(currentId)) {
+      if (currentId.equals(skillId)) {
+        return true;
+      }
+      currentId = parentById.get(currentId);
+    }
+    return false;
+  }
+
+  /**
+   * Check whether giving an Achievement new prerequisites would make it (transitively) a
+   * prerequisite of itself. Each Achievement is visited at most once, so shared prerequisites
+   * don't blow up the walk.
+   *
+   * @param achievements Every Achievement in the Tree
+   * @param achievementId The Id of the Achievement being changed
+   * @param newPrerequisites The proposed prerequisites
+   * @return True if achievementId is reachable from newPrerequisites
+   */
+  public static boolean wouldCreatePrerequisiteCycle(Collection<Achievement> achievements,
+      ObjectId achievementId, Collection<ObjectId> newPrerequisites) {
+    Map<ObjectId, List<ObjectId>> prerequisitesById = new HashMap<>();
+    for (Achievement a : achievements) {
+      prerequisitesById.put(a.getId(), a.getPrerequisites());
+    }
+
+    Deque<ObjectId> stack = new ArrayDeque<>();
+    Set<ObjectId> visited = new HashSet<>();
+    pushAll(stack, newPrerequisites);
+    while (!stack.isEmpty()) {
+      ObjectId currentId = stack.pop();
+      if (!visited.add(currentId)) {
+        continue;
+      }
+      if (currentId.equals(achievementId)) {
+        return true;
+      }
+      pushAll(stack, prerequisitesById.get(currentId));
+    }
+    return false;
+  }
+
+  /**
+   * Find an Achievement and every Achievement that depends on it, directly or transitively. The
+   * reverse (prerequisite to dependent) edges are built once up front instead of rescanning the
+   * Tree for each visited node.
+   *
+   * @param achievements Every Achievement in the Tree
+   * @param rootId The Id of the Achievement to start from
+   * @return The root (if present) followed by its dependents, each exactly once
+   */
+  public static List<Achievement> dependentsOf(Collection<Achievement> achievements,
+      ObjectId rootId) {
+    Map<ObjectId, Achievement> byId = new HashMap<>();
+    Map<ObjectId, List<Achievement>> dependentsById = new HashMap<>();
+    for (Achievement a : achievements) {
+      byId.put(a.getId(), a);
+      if (a.getPrerequisites() != null) {
+        for (ObjectId prerequisiteId : a.getPrerequisites()) {
+          dependentsById.computeIfAbsent(prerequisiteId, k -> new ArrayList<>()).add(a);
+        }
+      }
+    }
+
+    Achievement root = byId.get(rootId);
+    if (root == null) {
+      return List.of();
+    }
+    List<Achievement> reached = new ArrayList<>();
+    Set<ObjectId> visited = new HashSet<>();
+    Deque<Achievement> stack = new ArrayDeque<>();
+    stack.push(root);
+    while (!stack.isEmpty()) {
+      Achievement current = stack.pop();
+      if (!visited.add(current.getId())) {
+        continue;
+      }
+      reached.add(current);
+      for (Achievement dependent : dependentsById.getOrDefault(current.getId(), List.of())) {
+        stack.push(dependent);
+      }
+    }
+    return reached;
+  }
+
+  /**
+   * Find a Skill and every Skill below it. The parent to child edges are built once up front.
+   *
+   * @param skills Every Skill in the Tree
+   * @param rootId The Id of the Skill to start from
+   * @return The Ids of the root and its descendants, empty if the root isn't in skills
+   */
+  public static Set<ObjectId> descendantsOf(Collection<Skill> skills, ObjectId rootId) {
+    Map<ObjectId, List<ObjectId>> childrenById = new HashMap<>();
+    boolean found = false;
+    for (Skill s : skills) {
+      found |= s.getId().equals(rootId);
+      if (s.getParentSkillId() != null) {
+        childrenById.computeIfAbsent(s.getParentSkillId(), k -> new ArrayList<>()).add(s.getId());
+      }
+    }
+    if (!found) {
+      return Set.of();
+    }
+
+    Set<ObjectId> reached = new HashSet<>();
+    Deque<ObjectId> stack = new ArrayDeque<>();
+    stack.push(rootId);
+    while (!stack.isEmpty()) {
+      ObjectId currentId = stack.pop();
+      if (reached.add(currentId)) {
+        pushAll(stack, childrenById.get(currentId));
+      }
+    }
+    return reached;
+  }
+
+  private static void pushAll(Deque<ObjectId> stack, Collection<ObjectId> ids) {
+    if (ids == null) {
+      return;
+    }
+    for (ObjectId id : ids) {
+      if (id != null) {
+        stack.push(id);
+      }
+    }
+  }
+}
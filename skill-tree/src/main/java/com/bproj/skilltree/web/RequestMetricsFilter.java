@@ -0,0 +1,128 @@
+package com.bproj.skilltree.web;
+
+import com.bproj.skilltree.util.MongoRoundTrips;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records how many Mongo commands each request issued, tagged by the controller method that
+ * handled it. A handler whose count grows with the size of the data it returns is an N+1.
+ *
+ * <p>With skilltree.metrics.expose-round-trips=true the count is also sent back in the
+ * X-Mongo-Commands response header, which is what the query budget tests assert on. Leave it off
+ * in production.
+ */
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+  public static final String ROUND_TRIPS_HEADER = "X-Mongo-Commands";
+  private final MeterRegistry meterRegistry;
+  private final boolean exposeRoundTrips;
+
+  public RequestMetricsFilter(MeterRegistry meterRegistry,
+      @Value("${skilltree.metrics.expose-round-trips:false}") boolean exposeRoundTrips) {
+    this.meterRegistry = meterRegistry;
+    this.exposeRoundTrips = exposeRoundTrips;
+  }
+
+  /**
+   * The controller method that handled a request, as Controller.method. "none" if the request
+   * never reached a controller (404s, rejected by security).
+   *
+   * @param request The request, after handler mapping
+   * @return The handler name
+   */
+  public static String handlerName(HttpServletRequest request) {
+    Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+    if (handler instanceof HandlerMethod handlerMethod) {
+      return handlerMethod.getBeanType().getSimpleName() + "."
+          + handlerMethod.getMethod().getName();
+    }
+    return "none";
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    MongoRoundTrips.begin();
+    try {
+      if (exposeRoundTrips) {
+        RoundTripHeaderResponse wrapped = new RoundTripHeaderResponse(response);
+        filterChain.doFilter(request, wrapped);
+        wrapped.stamp();
+      } else {
+        filterChain.doFilter(request, response);
+      }
+    } finally {
+      int roundTrips = MongoRoundTrips.end();
+      DistributionSummary.builder("skilltree.mongo.round.trips")
+          .description("Mongo commands issued per HTTP request")
+          .baseUnit("commands")
+          .tag("handler", handlerName(request))
+          .register(meterRegistry)
+          .record(roundTrips);
+    }
+  }
+
+  /**
+   * Sets the round trip header just before the body starts going out, since headers can't be
+   * changed once the response is committed. By then the handler has finished, so every command it
+   * issued has been counted. Responses without a body are stamped after the chain returns.
+   */
+  private static final class RoundTripHeaderResponse extends HttpServletResponseWrapper {
+    private boolean stamped;
+
+    private RoundTripHeaderResponse(HttpServletResponse response) {
+      super(response);
+    }
+
+    private void stamp() {
+      if (!stamped && !isCommitted()) {
+        setHeader(ROUND_TRIPS_HEADER, String.valueOf(MongoRoundTrips.current()));
+      }
+      stamped = true;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      stamp();
+      return super.getOutputStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      stamp();
+      return super.getWriter();
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+      stamp();
+      super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+      stamp();
+      super.sendError(sc);
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      stamp();
+      super.flushBuffer();
+    }
+  }
+}
@@ -0,0 +1,337 @@
+"""
+Load generator for the Skill Tree REST API.
+
+Seeds a population of users (trees, skills, achievements, activities and a ring of accepted
+friendships), then drives a weighted mix of scenarios from a pool of worker threads and reports
+throughput and latency percentiles per endpoint.
+
+Run it against a server started with the `memory` profile and the Firebase Auth emulator so
+the numbers measure the application, not Atlas or Google:
+
+    firebase emulators:start --only auth
+    FIREBASE_AUTH_EMULATOR_HOST=localhost:9099 \\
+        java -jar skill-tree.jar --spring.profiles.active=memory
+    python tests/load/loadgen.py --duration 60 --out run.json --baseline baseline.json
+
+With FIREBASE_AUTH_EMULATOR_HOST set, the Firebase Admin SDK accepts the emulator's unsigned ID
+tokens, so sign-ups cost nothing and there is no external token verification in the hot path.
+"""
+
+import argparse
+import json
+import math
+import random
+import sys
+import threading
+import time
+from collections import defaultdict
+from concurrent.futures import ThreadPoolExecutor
+
+import requests
+
+# Scenario weights. Roughly what the client does: the dashboard is opened far more often than
+# anything is written.
+DEFAULT_MIX = "dashboard=50,log_activity=20,orientation_drag=15,friend_feed=15"
+
+PASSWORD = "load-test-password-1234!"
+
+
+class Recorder:
+    """Collects latencies per endpoint. Thread safe; samples taken during warmup are dropped."""
+
+    def __init__(self, warmup_until):
+        self.warmup_until = warmup_until
+        self.latencies = defaultdict(list)
+        self.errors = defaultdict(int)
+        self.lock = threading.Lock()
+
+    def record(self, endpoint, started, elapsed, ok):
+        if started < self.warmup_until:
+            return
+        with self.lock:
+            self.latencies[endpoint].append(elapsed)
+            if not ok:
+                self.errors[endpoint] += 1
+
+
+class Client:
+    """A seeded user and the ids the scenarios need."""
+
+    def __init__(self, base_url, header, user):
+        self.base_url = base_url
+        self.header = header
+        self.user = user
+        self.tree_id = None
+        self.skill_ids = []
+        self.achievement_ids = []
+
+
+def timed(recorder, session, endpoint, method, url, **kwargs):
+    started = time.monotonic()
+    try:
+        res = session.request(method, url, timeout=30, **kwargs)
+        ok = res.status_code < 400
+    except requests.RequestException:
+        ok = False
+    recorder.record(endpoint, started, time.monotonic() - started, ok)
+
+
+# Scenarios. Each one is a single user action, which may be several requests.
+
+def dashboard(client, session, recorder, rng):
+    base = client.base_url
+    timed(recorder, session, "GET /api/trees/me/stats", "GET",
+          f"{base}/api/trees/me/stats", headers=client.header)
+    timed(recorder, session, "GET /api/trees/me/favorite", "GET",
+          f"{base}/api/trees/me/favorite", headers=client.header)
+    timed(recorder, session, "GET /api/activities/me/streak", "GET",
+          f"{base}/api/activities/me/streak", headers=client.header)
+
+
+def log_activity(client, session, recorder, rng):
+    timed(recorder, session, "POST /api/activities/me", "POST",
+          f"{client.base_url}/api/activities/me", headers=client.header,
+          json=activity_body(client, rng))
+
+
+def orientation_drag(client, session, recorder, rng):
+    if rng.random() < 0.5 and client.achievement_ids:
+        move = {"type": "ACHIEVEMENT", "id": rng.choice(client.achievement_ids)}
+    else:
+        move = {"type": "SKILL", "id": rng.choice(client.skill_ids)}
+    move["x"] = rng.random()
+    move["y"] = rng.random()
+    timed(recorder, session, "PATCH /api/orientations/me/{treeId}", "PATCH",
+          f"{client.base_url}/api/orientations/me/{client.tree_id}", headers=client.header,
+          json=[move])
+
+
+def friend_feed(client, session, recorder, rng):
+    timed(recorder, session, "GET /api/feed/friends", "GET",
+          f"{client.base_url}/api/feed/friends", headers=client.header)
+
+
+SCENARIOS = {
+    "dashboard": dashboard,
+    "log_activity": log_activity,
+    "orientation_drag": orientation_drag,
+    "friend_feed": friend_feed,
+}
+
+
+def activity_body(client, rng):
+    used = rng.sample(client.skill_ids, k=min(len(client.skill_ids), rng.randint(1, 3)))
+    return {
+        "name": "load test activity",
+        "description": None,
+        "duration": round(rng.uniform(0.25, 3.0), 2),
+        "skillWeights": [{"skillId": s, "weight": 1.0 / len(used)} for s in used],
+    }
+
+
+# Seeding
+
+def sign_up(session, auth_url, email):
+    res = session.post(
+        f"{auth_url}/identitytoolkit.googleapis.com/v1/accounts:signUp?key=any",
+        json={"email": email, "password": PASSWORD, "returnSecureToken": True})
+    res.raise_for_status()
+    return {"Authorization": f"Bearer {res.json()['idToken']}"}
+
+
+def seed_user(args, index, run_id, rng):
+    session = requests.Session()
+    display_name = f"load{run_id}u{index}"
+    header = sign_up(session, args.auth_url, f"{display_name}@example.com")
+    res = session.post(f"{args.base_url}/api/users/me",
+                       json={"displayName": display_name, "profilePictureUrl": None},
+                       headers=header)
+    res.raise_for_status()
+    client = Client(args.base_url, header, res.json())
+
+    res = session.post(f"{args.base_url}/api/trees/me", headers=header, json={
+        "name": f"Load Tree {index}", "backgroundUrl": None,
+        "description": "seeded by loadgen", "visibility": "FRIENDS"})
+    res.raise_for_status()
+    client.tree_id = res.json()["id"]
+
+    for i in range(args.skills):
+        parent = rng.choice(client.skill_ids) if client.skill_ids and rng.random() < 0.7 else None
+        res = session.post(f"{args.base_url}/api/skills/me", headers=header, json={
+            "treeId": client.tree_id, "name": f"Skill {i}", "backgroundUrl": None,
+            "timeSpentHours": 0, "parentSkillId": parent})
+        res.raise_for_status()
+        client.skill_ids.append(res.json()["id"])
+
+    for i in range(args.achievements):
+        prerequisites = rng.sample(client.achievement_ids, k=min(len(client.achievement_ids), 1))
+        res = session.post(f"{args.base_url}/api/achievements/me", headers=header, json={
+            "treeId": client.tree_id, "title": f"Achievement {i}", "backgroundUrl": None,
+            "description": "seeded by loadgen", "prerequisites": prerequisites,
+            "complete": False, "completedAt": None})
+        res.raise_for_status()
+        client.achievement_ids.append(res.json()["id"])
+
+    for _ in range(args.activities):
+        res = session.post(f"{args.base_url}/api/activities/me", headers=header,
+                           json=activity_body(client, rng))
+        res.raise_for_status()
+    return client
+
+
+def befriend(args, clients):
+    """Each user requests the next `--friends` users in a ring, and they accept."""
+    session = requests.Session()
+    n = len(clients)
+    for i, client in enumerate(clients):
+        for offset in range(1, min(args.friends, n - 1) + 1):
+            other = clients[(i + offset) % n]
+            res = session.post(
+                f"{args.base_url}/api/friendships/me/{other.user['displayName']}",
+                headers=client.header)
+            if res.status_code >= 400:
+                continue  # already requested from the other side
+    for client in clients:
+        res = session.get(f"{args.base_url}/api/friendships/me", headers=client.header)
+        res.raise_for_status()
+        for incoming in res.json().get("incoming", []):
+            session.patch(f"{args.base_url}/api/friendships/me/{incoming['friendshipId']}",
+                          params={"status": "ACCEPTED"}, headers=client.header
+                          ).raise_for_status()
+
+
+# Driving and reporting
+
+def parse_mix(mix):
+    weights = {}
+    for part in mix.split(","):
+        name, _, weight = part.partition("=")
+        if name not in SCENARIOS:
+            raise SystemExit(f"Unknown scenario '{name}'. Known: {', '.join(SCENARIOS)}")
+        weights[name] = float(weight)
+    return weights
+
+
+def worker(worker_id, args, clients, weights, recorder, deadline):
+    rng = random.Random(args.seed * 1000 + worker_id)
+    session = requests.Session()
+    names = list(weights)
+    relative = [weights[n] for n in names]
+    while time.monotonic() < deadline:
+        scenario = SCENARIOS[rng.choices(names, weights=relative)[0]]
+        scenario(rng.choice(clients), session, recorder, rng)
+        if args.think_ms:
+            time.sleep(rng.expovariate(1000.0 / args.think_ms))
+
+
+def percentile(sorted_values, p):
+    """Nearest-rank percentile of an already sorted list."""
+    if not sorted_values:
+        return 0.0
+    rank = max(1, math.ceil(p / 100.0 * len(sorted_values)))
+    return sorted_values[min(rank, len(sorted_values)) - 1]
+
+
+def summarize(recorder, measured_seconds):
+    summary = {}
+    for endpoint, values in sorted(recorder.latencies.items()):
+        values = sorted(values)
+        summary[endpoint] = {
+            "requests": len(values),
+            "errors": recorder.errors[endpoint],
+            "throughput_rps": len(values) / measured_seconds,
+            "p50_ms": percentile(values, 50) * 1000,
+            "p90_ms": percentile(values, 90) * 1000,
+            "p99_ms": percentile(values, 99) * 1000,
+            "max_ms": values[-1] * 1000,
+        }
+    return summary
+
+
+def print_summary(summary, baseline):
+    header = f"{'endpoint':<40} {'reqs':>7} {'err':>5} {'rps':>8} {'p50 ms':>8} " \
+             f"{'p90 ms':>8} {'p99 ms':>8} {'max ms':>8}"
+    print(header)
+    print("-" * len(header))
+    for endpoint, s in summary.items():
+        print(f"{endpoint:<40} {s['requests']:>7} {s['errors']:>5} {s['throughput_rps']:>8.1f} "
+              f"{s['p50_ms']:>8.2f} {s['p90_ms']:>8.2f} {s['p99_ms']:>8.2f} {s['max_ms']:>8.2f}")
+    if not baseline:
+        return
+    print()
+    print(f"{'vs baseline':<40} {'rps':>8} {'p50':>8} {'p99':>8}")
+    for endpoint, s in summary.items():
+        b = baseline.get(endpoint)
+        if not b:
+            continue
+        print(f"{endpoint:<40} {delta(s['throughput_rps'], b['throughput_rps']):>8} "
+              f"{delta(s['p50_ms'], b['p50_ms']):>8} {delta(s['p99_ms'], b['p99_ms']):>8}")
+
+
+def delta(current, base):
+    if not base:
+        return "n/a"
+    return f"{(current - base) / base * 100:+.1f}%"
+
+
+def main(argv):
+    parser = argparse.ArgumentParser(description=__doc__.split("\n\n")[0])
+    parser.add_argument("--base-url", default="http://localhost:8080")
+    parser.add_argument("--auth-url", default="http://localhost:9099",
+                        help="Firebase Auth emulator")
+    parser.add_argument("--users", type=int, default=20)
+    parser.add_argument("--friends", type=int, default=5, help="friends per user")
+    parser.add_argument("--skills", type=int, default=12, help="skills per user")
+    parser.add_argument("--achievements", type=int, default=6, help="achievements per user")
+    parser.add_argument("--activities", type=int, default=30, help="seeded activities per user")
+    parser.add_argument("--workers", type=int, default=16)
+    parser.add_argument("--duration", type=float, default=60, help="seconds, after warmup")
+    parser.add_argument("--warmup", type=float, default=10, help="seconds not measured")
+    parser.add_argument("--think-ms", type=float, default=0,
+                        help="mean pause between actions per worker, 0 for closed loop")
+    parser.add_argument("--mix", default=DEFAULT_MIX)
+    parser.add_argument("--seed", type=int, default=1)
+    parser.add_argument("--out", help="write the summary as JSON")
+    parser.add_argument("--baseline", help="JSON summary from an earlier run to compare with")
+    args = parser.parse_args(argv)
+
+    weights = parse_mix(args.mix)
+    baseline = None
+    if args.baseline:
+        with open(args.baseline) as f:
+            baseline = json.load(f)["endpoints"]
+
+    rng = random.Random(args.seed)
+    run_id = f"{int(time.time()) % 100000}{rng.randint(0, 999)}"
+    print(f"Seeding {args.users} users...", file=sys.stderr)
+    with ThreadPoolExecutor(max_workers=min(args.workers, args.users)) as pool:
+        clients = list(pool.map(
+            lambda i: seed_user(args, i, run_id, random.Random(args.seed * 7919 + i)),
+            range(args.users)))
+    befriend(args, clients)
+
+    print(f"Running {args.mix} with {args.workers} workers for {args.warmup:.0f}s warmup + "
+          f"{args.duration:.0f}s...", file=sys.stderr)
+    start = time.monotonic()
+    recorder = Recorder(start + args.warmup)
+    deadline = start + args.warmup + args.duration
+    threads = [threading.Thread(target=worker,
+                                args=(i, args, clients, weights, recorder, deadline))
+               for i in range(args.workers)]
+    for t in threads:
+        t.start()
+    for t in threads:
+        t.join()
+
+    summary = summarize(recorder, args.duration)
+    print_summary(summary, baseline)
+    if args.out:
+        with open(args.out, "w") as f:
+            json.dump({"config": {k: v for k, v in vars(args).items()
+                                  if k not in ("out", "baseline")},
+                       "endpoints": summary}, f, indent=2)
+    return 1 if any(s["errors"] for s in summary.values()) else 0
+
+
+if __name__ == "__main__":
+    sys.exit(main(sys.argv[1:]))
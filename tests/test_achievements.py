@@ -50,9 +50,24 @@ def test_get_authed_user_achievements(base_url, user_header):
     assert res.json() != None 
     
     expected = {ach1['id'], ach2['id'], ach3['id']}
-    actual = {achievement['id'] for achievement in res.json()}
+    actual = {achievement['id'] for achievement in res.json()['content']}
     assert expected == actual
-    
+
+def test_get_authed_user_achievements_returns_a_page(base_url, user_header):
+    # Breaking change in API 2.0.0: this endpoint used to return a bare array of every achievement.
+    user, header = user_header
+    tree = create_tree(header)
+    for i in range(2):
+        create_achievement(tree, header)
+
+    res = requests.get(f"{base_url}/api/achievements/me", params={"size": 1}, headers=header)
+    res.raise_for_status()
+    body = res.json()
+    assert not isinstance(body, list)
+    assert set(body.keys()) == {"content", "nextPageToken"}
+    assert len(body['content']) == 1
+    assert body['nextPageToken'] is not None
+
 def test_get_authed_user_achievement(base_url, user_header):
     user, header = user_header 
     tree = create_tree(header) 
@@ -145,4 +160,78 @@ def test_delete_achievement(base_url, user_header):
             f"{base_url}/api/achievements/me/{achievement['id']}",
             headers=header 
         )
-        res.raise_for_status()
\ No newline at end of file
+        res.raise_for_status()
+def search_achievements(base_url, header, q):
+    res = requests.get(
+        f"{base_url}/api/achievements/me/search",
+        params={"q": q},
+        headers=header
+    )
+    res.raise_for_status()
+    return [a['id'] for a in res.json()['content']]
+
+def test_search_achievements_ranks_title_matches(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    first = create_achievement(tree, header)
+    second = create_achievement(tree, header)
+    assert search_achievements(base_url, header, "quillwort") == []
+
+    requests.patch(
+        f"{base_url}/api/achievements/me/{first['id']}",
+        json={"title": "Quillwort"},
+        headers=header
+    ).raise_for_status()
+    requests.patch(
+        f"{base_url}/api/achievements/me/{second['id']}",
+        json={"description": "Press a quillwort and a fern in one long afternoon walk"},
+        headers=header
+    ).raise_for_status()
+    # the short title outranks the same term in a long description
+    assert search_achievements(base_url, header, "quillwort") == [first['id'], second['id']]
+
+
+def test_get_authed_user_achievements_by_completed_at(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    achievements = [create_achievement(tree, header)['id'] for i in range(4)]
+    for achievement_id in achievements[:2]:
+        requests.patch(
+            f"{base_url}/api/achievements/me/{achievement_id}",
+            json={"complete": True},
+            headers=header
+        ).raise_for_status()
+
+    seen = []
+    params = {"sortMode": "COMPLETED_AT", "size": 1}
+    while True:
+        res = requests.get(f"{base_url}/api/achievements/me", params=params, headers=header)
+        res.raise_for_status()
+        seen += [a['id'] for a in res.json()['content']]
+        if res.json()['nextPageToken'] is None:
+            break
+        params["pageToken"] = res.json()['nextPageToken']
+    # most recently completed first, then the incomplete ones
+    assert seen[:2] == [achievements[1], achievements[0]]
+    assert sorted(seen[2:]) == sorted(achievements[2:])
+
+
+def test_incomplete_prerequisite_uncompletes_achievement(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    prerequisite = create_achievement(tree, header)
+    achievement = create_achievement(tree, header)
+    requests.patch(
+        f"{base_url}/api/achievements/me/{achievement['id']}",
+        json={"complete": True},
+        headers=header
+    ).raise_for_status()
+
+    res = requests.patch(
+        f"{base_url}/api/achievements/me/{achievement['id']}",
+        json={"prerequisites": [prerequisite['id']]},
+        headers=header
+    )
+    res.raise_for_status()
+    assert res.json()['complete'] is False
+    assert res.json()['completedAt'] is None
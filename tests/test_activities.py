@@ -3,6 +3,7 @@ import pytest
 import json 
 
 from helpers import create_skill 
+from helpers import create_activity
 from helpers import create_activity_full
 from helpers import create_tree 
 from helpers import create_user_header 
@@ -52,10 +53,42 @@ def test_get_authed_user_activities(base_url, user_header):
     res.raise_for_status()
     assert res.json() != None 
     
-    actual = {activity['id'] for activity in res.json()}
+    actual = {activity['id'] for activity in res.json()['content']}
     
     assert activities == actual
-    
+
+def test_get_authed_user_activities_returns_a_page(base_url, user_header):
+    # Breaking change in API 2.0.0: this endpoint used to return a bare array of every activity.
+    user, header = user_header
+    tree = create_tree(header)
+    for i in range(2):
+        create_activity_full(tree, header)
+
+    res = requests.get(f"{base_url}/api/activities/me", params={"size": 1}, headers=header)
+    res.raise_for_status()
+    body = res.json()
+    assert not isinstance(body, list)
+    assert set(body.keys()) == {"content", "nextPageToken"}
+    assert len(body['content']) == 1
+    assert body['nextPageToken'] is not None
+
+def test_get_authed_user_activities_pages_newest_first(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    created = [create_activity_full(tree, header)['id'] for i in range(3)]
+
+    first = requests.get(f"{base_url}/api/activities/me", params={"size": 2}, headers=header)
+    first.raise_for_status()
+    assert [a['id'] for a in first.json()['content']] == [created[2], created[1]]
+    second = requests.get(
+        f"{base_url}/api/activities/me",
+        params={"size": 2, "pageToken": first.json()['nextPageToken']},
+        headers=header
+    )
+    second.raise_for_status()
+    assert [a['id'] for a in second.json()['content']] == [created[0]]
+    assert second.json()['nextPageToken'] is None
+
 def test_get_authed_user_activity(base_url, user_header):
     user, header = user_header 
     tree = create_tree(header) 
@@ -144,4 +177,66 @@ def test_delete_activity(base_url, user_header):
             headers=header 
         )
         res.raise_for_status()
-    
\ No newline at end of file
+
+def test_delete_activity_takes_hours_off_skills(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    skill = create_skill(tree, header)
+    activity = create_activity(tree, header, [{"skillId": skill['id'], "weight": 1}])
+
+    res = requests.get(f"{base_url}/api/skills/me/{skill['id']}", headers=header)
+    res.raise_for_status()
+    assert res.json()['timeSpentHours'] == pytest.approx(activity['duration'])
+
+    requests.delete(
+        f"{base_url}/api/activities/me/{activity['id']}",
+        headers=header
+    ).raise_for_status()
+    res = requests.get(f"{base_url}/api/skills/me/{skill['id']}", headers=header)
+    res.raise_for_status()
+    assert res.json()['timeSpentHours'] == pytest.approx(0)
+    
+def test_streak_counts_todays_activities(base_url):
+    user, header = create_user_header()
+    tree = create_tree(header)
+    create_activity_full(tree, header)
+    create_activity_full(tree, header)
+
+    res = requests.get(
+        f"{base_url}/api/activities/me/streak",
+        headers=header
+    )
+    res.raise_for_status()
+    recent = res.json()
+    assert recent['streak'] == 1
+    assert recent['longestStreak'] == 1
+    assert list(recent['dailyActivityCounts'].values()) == [2]
+    assert len(recent['dailyHours']) == 1
+
+def test_streak_drops_deleted_activity(base_url):
+    user, header = create_user_header()
+    tree = create_tree(header)
+    activity = create_activity_full(tree, header)
+
+    requests.delete(
+        f"{base_url}/api/activities/me/{activity['id']}",
+        headers=header
+    ).raise_for_status()
+    res = requests.get(
+        f"{base_url}/api/activities/me/streak",
+        headers=header
+    )
+    res.raise_for_status()
+    assert res.json()['streak'] == 0
+    assert res.json()['longestStreak'] == 0
+    assert res.json()['dailyActivityCounts'] == {}
+
+def test_streak_days_out_of_range(base_url, user_header):
+    user, header = user_header
+    for days in [0, 367]:
+        res = requests.get(
+            f"{base_url}/api/activities/me/streak",
+            params={"days": days},
+            headers=header
+        )
+        assert res.status_code == 400
@@ -0,0 +1,82 @@
+import requests
+import pytest 
+import datetime
+
+from helpers import create_activity
+from helpers import create_skill
+from helpers import create_tree
+from helpers import create_user_header
+
+def create_child_skill(base_url, tree, header, parent_id):
+    res = requests.post(
+        f"{base_url}/api/skills/me",
+        json={
+            "treeId": tree["id"],
+            "name": "Child skill",
+            "backgroundUrl": None,
+            "timeSpentHours": 0,
+            "parentSkillId": parent_id
+        },
+        headers=header
+    )
+    res.raise_for_status()
+    return res.json()
+
+def test_skill_hours_include_sub_skills(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    parent = create_skill(tree, header)
+    child = create_child_skill(base_url, tree, header, parent['id'])
+    activity = create_activity(tree, header, [{"skillId": child['id'], "weight": 1}])
+    
+    res = requests.get(
+        f"{base_url}/api/analytics/me/skills/{parent['id']}",
+        params={"bucket": "DAY", "from": datetime.datetime.utcnow().date().isoformat()},
+        headers=header
+    )
+    res.raise_for_status()
+    series = res.json()
+    assert series['id'] == parent['id']
+    assert series['bucket'] == "DAY"
+    assert len(series['buckets']) == 1
+    assert series['totalHours'] == pytest.approx(activity['duration'])
+    assert series['buckets'][0]['hours'] == pytest.approx(activity['duration'])
+
+def test_tree_hours(base_url):
+    user, header = create_user_header()
+    tree = create_tree(header)
+    first = create_activity(tree, header, [{"skillId": create_skill(tree, header)['id'], "weight": 1}])
+    second = create_activity(tree, header, [{"skillId": create_skill(tree, header)['id'], "weight": 1}])
+    
+    res = requests.get(
+        f"{base_url}/api/analytics/me/trees/{tree['id']}",
+        params={"bucket": "MONTH"},
+        headers=header
+    )
+    res.raise_for_status()
+    series = res.json()
+    assert series['totalHours'] == pytest.approx(first['duration'] + second['duration'])
+    assert len(series['buckets']) >= 12
+    assert sum(b['hours'] for b in series['buckets']) == pytest.approx(series['totalHours'])
+
+def test_analytics_other_users_tree(base_url, user_header):
+    user, header = user_header
+    other, other_header = create_user_header()
+    tree = create_tree(other_header)
+    
+    res = requests.get(
+        f"{base_url}/api/analytics/me/trees/{tree['id']}",
+        headers=header
+    )
+    assert res.status_code == 404
+
+def test_analytics_from_after_to(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    
+    res = requests.get(
+        f"{base_url}/api/analytics/me/trees/{tree['id']}",
+        params={"from": "2025-02-01", "to": "2025-01-01"},
+        headers=header
+    )
+    assert res.status_code == 400
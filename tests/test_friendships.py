@@ -42,4 +42,153 @@ def test_accept(base_url, user_header):
     
     res.raise_for_status()
     print(res.text)
-    assert res.status_code == 200
\ No newline at end of file
+    assert res.status_code == 200
+
+def test_duplicate_request_either_way(base_url, user_header):
+    user, header = user_header
+    user2, header2 = create_user_header()
+    requests.post(
+        f"{base_url}/api/friendships/me/{user2['displayName']}",
+        headers=header
+    ).raise_for_status()
+
+    res = requests.post(
+        f"{base_url}/api/friendships/me/{user2['displayName']}",
+        headers=header
+    )
+    assert res.status_code == 400
+    res = requests.post(
+        f"{base_url}/api/friendships/me/{user['displayName']}",
+        headers=header2
+    )
+    assert res.status_code == 400
+
+def leaderboard_names(base_url, header):
+    res = requests.get(f"{base_url}/api/leaderboard/friends", headers=header)
+    res.raise_for_status()
+    return sorted(e['displayName'] for e in res.json())
+
+def test_friend_set_follows_friendship_changes(base_url, user_header):
+    user, header = user_header
+    user2, header2 = create_user_header()
+    requests.post(
+        f"{base_url}/api/friendships/me/{user2['displayName']}",
+        headers=header
+    ).raise_for_status()
+    # read (and cache) both friend sets while the request is pending
+    assert leaderboard_names(base_url, header) == [user['displayName']]
+    assert leaderboard_names(base_url, header2) == [user2['displayName']]
+
+    friendship_id = requests.get(
+        f"{base_url}/api/friendships/me",
+        headers=header2
+    ).json()['incoming'][0]['friendshipId']
+    requests.patch(
+        f"{base_url}/api/friendships/me/{friendship_id}",
+        params={"status": "ACCEPTED"},
+        headers=header2
+    ).raise_for_status()
+    both = sorted([user['displayName'], user2['displayName']])
+    assert leaderboard_names(base_url, header) == both
+    assert leaderboard_names(base_url, header2) == both
+
+    requests.delete(
+        f"{base_url}/api/friendships/me/{friendship_id}",
+        headers=header
+    ).raise_for_status()
+    assert leaderboard_names(base_url, header) == [user['displayName']]
+    assert leaderboard_names(base_url, header2) == [user2['displayName']]
+
+def befriend(base_url, header, other, other_header):
+    requests.post(
+        f"{base_url}/api/friendships/me/{other['displayName']}",
+        headers=header
+    ).raise_for_status()
+    friendship_id = requests.get(
+        f"{base_url}/api/friendships/me",
+        headers=other_header
+    ).json()['incoming'][0]['friendshipId']
+    requests.patch(
+        f"{base_url}/api/friendships/me/{friendship_id}",
+        params={"status": "ACCEPTED"},
+        headers=other_header
+    ).raise_for_status()
+    return friendship_id
+
+def suggestions(base_url, header, **params):
+    res = requests.get(
+        f"{base_url}/api/friendships/me/suggestions",
+        params=params,
+        headers=header
+    )
+    res.raise_for_status()
+    return [(s['user']['displayName'], s['mutualFriends']) for s in res.json()]
+
+def test_suggestions_rank_friends_of_friends(base_url, user_header):
+    user, header = user_header
+    user2, header2 = create_user_header()
+    user3, header3 = create_user_header()
+    user4, header4 = create_user_header()
+    befriend(base_url, header, user2, header2)
+    befriend(base_url, header, user3, header3)
+    befriend(base_url, header2, user4, header4)
+    friendship_id = befriend(base_url, header3, user4, header4)
+
+    # user4 shares user2 and user3 with user, user2 and user3 share only user
+    assert suggestions(base_url, header) == [(user4['displayName'], 2)]
+    assert (user['displayName'], 2) in suggestions(base_url, header4)
+    assert (user3['displayName'], 1) in suggestions(base_url, header2)
+
+    requests.delete(
+        f"{base_url}/api/friendships/me/{friendship_id}",
+        headers=header4
+    ).raise_for_status()
+    assert suggestions(base_url, header) == [(user4['displayName'], 1)]
+
+    # a pending request takes the user out of the suggestions
+    requests.post(
+        f"{base_url}/api/friendships/me/{user4['displayName']}",
+        headers=header
+    ).raise_for_status()
+    assert suggestions(base_url, header) == []
+
+def test_suggestions_limit(base_url, user_header):
+    user, header = user_header
+    res = requests.get(
+        f"{base_url}/api/friendships/me/suggestions",
+        params={"limit": 51},
+        headers=header
+    )
+    assert res.status_code == 400
+
+def search_names(base_url, header, prefix):
+    res = requests.get(
+        f"{base_url}/api/friendships/me/search",
+        params={"prefix": prefix, "limit": 50},
+        headers=header
+    )
+    res.raise_for_status()
+    return [u['displayName'] for u in res.json()]
+
+def test_display_name_search(base_url, user_header):
+    user, header = user_header
+    user2, header2 = create_user_header()
+
+    assert user2['displayName'] in search_names(base_url, header, user2['displayName'].lower())
+    assert user['displayName'] not in search_names(base_url, header, user['displayName'])
+
+    new_name = f"Renamed{user2['displayName']}"
+    requests.patch(
+        f"{base_url}/api/users/me",
+        json={"displayName": new_name},
+        headers=header2
+    ).raise_for_status()
+    assert search_names(base_url, header, new_name) == [new_name]
+    assert user2['displayName'] not in search_names(base_url, header, user2['displayName'])
+
+    res = requests.get(
+        f"{base_url}/api/friendships/me/search",
+        params={"prefix": ""},
+        headers=header
+    )
+    assert res.status_code == 400
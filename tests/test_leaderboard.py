@@ -0,0 +1,158 @@
+import requests
+import pytest
+
+from helpers import create_achievement
+from helpers import create_activity
+from helpers import create_skill
+from helpers import create_tree
+from helpers import create_user_header
+
+def befriend(base_url, header, other_user, other_header):
+    requests.post(
+        f"{base_url}/api/friendships/me/{other_user['displayName']}",
+        headers=header
+    ).raise_for_status()
+    incoming = requests.get(f"{base_url}/api/friendships/me", headers=other_header).json()
+    requests.patch(
+        f"{base_url}/api/friendships/me/{incoming['incoming'][0]['friendshipId']}",
+        params={"status": "ACCEPTED"},
+        headers=other_header
+    ).raise_for_status()
+
+def log_hours(tree, header, hours):
+    skill = create_skill(tree, header)
+    res = requests.post(
+        "http://localhost:8080/api/activities/me",
+        json={
+            "name": "Leaderboard activity",
+            "description": "logged by the leaderboard tests",
+            "duration": hours,
+            "skillWeights": [{"skillId": skill['id'], "weight": 1}]
+        },
+        headers=header
+    )
+    res.raise_for_status()
+    return res.json()
+
+def test_friend_leaderboard_ranks_by_hours(base_url):
+    user, header = create_user_header()
+    friend, friend_header = create_user_header()
+    stranger, stranger_header = create_user_header()
+    befriend(base_url, header, friend, friend_header)
+    log_hours(create_tree(header), header, 2)
+    log_hours(create_tree(friend_header), friend_header, 5)
+    log_hours(create_tree(stranger_header), stranger_header, 9)
+
+    res = requests.get(f"{base_url}/api/leaderboard/friends", headers=header)
+    res.raise_for_status()
+    board = res.json()
+    assert [e['displayName'] for e in board] == [friend['displayName'], user['displayName']]
+    assert board[0]['timeLogged'] == pytest.approx(5)
+    assert board[1]['timeLogged'] == pytest.approx(2)
+
+def test_friend_leaderboard_follows_changes(base_url):
+    user, header = create_user_header()
+    friend, friend_header = create_user_header()
+    befriend(base_url, header, friend, friend_header)
+    tree = create_tree(header)
+    activity = log_hours(tree, header, 1)
+    log_hours(create_tree(friend_header), friend_header, 3)
+    # builds both users' totals, later changes are applied to them
+    requests.get(f"{base_url}/api/leaderboard/friends", headers=header).raise_for_status()
+
+    requests.patch(
+        f"{base_url}/api/activities/me/{activity['id']}",
+        json={"duration": 4},
+        headers=header
+    ).raise_for_status()
+    achievement = create_achievement(tree, header)
+    requests.patch(
+        f"{base_url}/api/achievements/me/{achievement['id']}",
+        json={"complete": True},
+        headers=header
+    ).raise_for_status()
+
+    board = requests.get(f"{base_url}/api/leaderboard/friends", headers=header).json()
+    assert board[0]['displayName'] == user['displayName']
+    assert board[0]['timeLogged'] == pytest.approx(4)
+    assert board[0]['achievementsCompleted'] == 1
+
+    requests.delete(f"{base_url}/api/activities/me/{activity['id']}", headers=header)
+    board = requests.get(f"{base_url}/api/leaderboard/friends", headers=header).json()
+    assert board[0]['displayName'] == friend['displayName']
+    assert board[1]['timeLogged'] == pytest.approx(0)
+
+def test_weekly_leaderboard(base_url):
+    user, header = create_user_header()
+    tree = create_tree(header)
+    activity = create_activity(tree, header, [{"skillId": create_skill(tree, header)['id'], "weight": 1}])
+
+    res = requests.get(
+        f"{base_url}/api/leaderboard/friends",
+        params={"period": "WEEK"},
+        headers=header
+    )
+    res.raise_for_status()
+    board = res.json()
+    assert len(board) == 1
+    assert board[0]['timeLogged'] == pytest.approx(activity['duration'])
+    assert board[0]['achievementsCompleted'] == 0
+
+def global_rank(base_url, header):
+    res = requests.get(f"{base_url}/api/leaderboard/global/me", headers=header)
+    res.raise_for_status()
+    return res.json()
+
+def test_global_leaderboard_ranks_every_user(base_url):
+    user, header = create_user_header()
+    other, other_header = create_user_header()
+    log_hours(create_tree(header), header, 3)
+    log_hours(create_tree(other_header), other_header, 5)
+
+    mine = global_rank(base_url, header)
+    theirs = global_rank(base_url, other_header)
+    assert mine['entry']['displayName'] == user['displayName']
+    assert mine['entry']['timeLogged'] == pytest.approx(3)
+    assert theirs['rank'] < mine['rank'] <= mine['total']
+
+    res = requests.get(
+        f"{base_url}/api/leaderboard/global",
+        params={"page": mine['rank'] - 1, "size": 1},
+        headers=header
+    )
+    res.raise_for_status()
+    assert [e['displayName'] for e in res.json()['content']] == [user['displayName']]
+
+def test_global_rank_follows_changes(base_url):
+    user, header = create_user_header()
+    activity = log_hours(create_tree(header), header, 1)
+    before = global_rank(base_url, header)
+
+    requests.patch(
+        f"{base_url}/api/activities/me/{activity['id']}",
+        json={"duration": 6},
+        headers=header
+    ).raise_for_status()
+    after = global_rank(base_url, header)
+    assert after['entry']['timeLogged'] == pytest.approx(6)
+    assert after['rank'] <= before['rank']
+
+    requests.delete(f"{base_url}/api/activities/me", headers=header).raise_for_status()
+    assert global_rank(base_url, header)['entry']['timeLogged'] == pytest.approx(0)
+
+def test_global_leaderboard_rejects_large_pages(base_url):
+    user, header = create_user_header()
+    res = requests.get(
+        f"{base_url}/api/leaderboard/global",
+        params={"size": 101},
+        headers=header
+    )
+    assert res.status_code == 400
+
+def test_preset_leaderboard_requires_preset(base_url):
+    user, header = create_user_header()
+    tree = create_tree(header)
+    res = requests.get(f"{base_url}/api/leaderboard/presets/{tree['id']}", headers=header)
+    assert res.status_code == 404
+    res = requests.get(f"{base_url}/api/leaderboard/presets/{tree['id']}/me", headers=header)
+    assert res.status_code == 404
@@ -0,0 +1,566 @@
+"""
+Query budgets per endpoint. Every request is charged for the Mongo commands it sends and the
+server reports the count in the X-Mongo-Commands header when it runs with
+skilltree.metrics.expose-round-trips=true, which the test profile turns on. A server without
+the header fails these tests rather than skipping them, so the budgets can't silently stop
+running.
+
+Two kinds of checks:
+  - budgets: an endpoint never sends more commands than listed in BUDGETS
+  - scaling: the count for an endpoint is the same for a small and a large fixture, so a query
+    that runs once per Skill/Tree/friend (an N+1) fails here even if it fits the budget
+
+Budgets include the one lookup that resolves the caller's User from their token.
+"""
+
+import pytest
+import requests
+
+from helpers import create_achievement
+from helpers import create_skill
+from helpers import create_tree
+from helpers import create_user_header
+
+BASE_URL = "http://localhost:8080"
+ROUND_TRIPS_HEADER = "X-Mongo-Commands"
+MISSING_ID = "60c72b2f9b1d8b1c8a4f3b2e"
+
+BUDGETS = {
+    "GET /api/trees/me": 4,
+    "GET /api/trees/me/{treeId}": 2,
+    "PATCH /api/trees/me/{treeId}": 7,
+    "GET /api/trees/me/layout/{treeId}": 5,
+    "GET /api/trees/me/stats": 4,
+    "GET /api/trees/me/stats/{treeId}": 4,
+    "GET /api/trees/me/favorite": 4,
+    "GET /api/trees/friends/{friendId}": 5,
+    "GET /api/trees/friends/{friendId}/trees/{treeId}": 6,
+    "GET /api/skills/me": 3,
+    "GET /api/skills/me/{skillId}": 2,
+    "POST /api/skills/me": 11,
+    "PATCH /api/skills/me/{skillId}": 12,
+    "GET /api/achievements/me": 3,
+    "GET /api/achievements/me?next": 4,
+    "GET /api/achievements/me/search": 4,
+    "GET /api/achievements/me/{achievementId}": 2,
+    "POST /api/achievements/me": 10,
+    "PATCH /api/achievements/me/{achievementId}": 13,
+    "POST /api/activities/me": 15,
+    "GET /api/activities/me": 4,
+    "GET /api/activities/me/{activityId}": 3,
+    "GET /api/activities/me/streak": 3,
+    "GET /api/skills/me/search": 4,
+    "GET /api/trees/public/search": 2,
+    "PATCH /api/activities/me/{activityId}": 14,
+    "DELETE /api/activities/me/{activityId}": 12,
+    "PATCH /api/orientations/me/{treeId}": 10,
+    "GET /api/friendships/me": 4,
+    "GET /api/friendships/me 304": 2,
+    "GET /api/skills/me 304": 2,
+    "GET /api/sync": 2,
+    "GET /api/sync one change": 3,
+    "GET /api/friendships/me/suggestions": 3,
+    "GET /api/friendships/me/search?prefix": 1,
+    "POST /api/friendships/me/{displayName}": 6,
+    "PATCH /api/friendships/me/{friendshipId}": 6,
+    "GET /api/analytics/me/skills/{skillId}": 4,
+    "GET /api/analytics/me/trees/{treeId}": 4,
+    "GET /api/users/me": 2,
+    "GET /api/users/me/feed": 6,
+    "GET /api/feed/friends": 9,
+    "GET /api/dashboard": 14,
+    "GET /api/leaderboard/friends": 4,
+    "GET /api/leaderboard/friends?period": 5,
+    "GET /api/leaderboard/global": 2,
+    "GET /api/leaderboard/global/me": 2,
+}
+
+
+@pytest.fixture(scope="module")
+def overhead():
+    """
+    Commands charged to every request before it reaches a controller. Fetching a Job that doesn't
+    exist costs exactly one query, so anything above that is overhead.
+    """
+    user, header = create_user_header()
+    res = requests.get(f"{BASE_URL}/api/jobs/me/{MISSING_ID}", headers=header)
+    if ROUND_TRIPS_HEADER not in res.headers:
+        pytest.fail(f"no {ROUND_TRIPS_HEADER} header, start the server with "
+                    "--spring.profiles.active=test")
+    count = int(res.headers[ROUND_TRIPS_HEADER])
+    if count == 0:
+        pytest.skip("server is running without Mongo (memory profile)")
+    return count - 1
+
+
+def commands(res, overhead):
+    res.raise_for_status()
+    return int(res.headers[ROUND_TRIPS_HEADER]) - overhead
+
+
+def assert_budget(name, res, overhead):
+    used = commands(res, overhead)
+    assert used <= BUDGETS[name], f"{name} sent {used} Mongo commands, budget is {BUDGETS[name]}"
+    return used
+
+
+def create_child_skill(tree, header, parent_id):
+    res = requests.post(
+        f"{BASE_URL}/api/skills/me",
+        json={
+            "treeId": tree["id"],
+            "name": "Chained skill",
+            "backgroundUrl": None,
+            "timeSpentHours": 0,
+            "parentSkillId": parent_id
+        },
+        headers=header
+    )
+    res.raise_for_status()
+    return res.json()
+
+
+def create_skill_chain(tree, header, depth):
+    chain = [create_skill(tree, header)]
+    for i in range(depth - 1):
+        chain.append(create_child_skill(tree, header, chain[-1]["id"]))
+    return chain
+
+
+def post_activity(header, skill_id):
+    return requests.post(
+        f"{BASE_URL}/api/activities/me",
+        json={
+            "name": "Budget activity",
+            "description": "logged by the query budget tests",
+            "duration": 1.5,
+            "skillWeights": [{"skillId": skill_id, "weight": 1}]
+        },
+        headers=header
+    )
+
+
+def befriend(header, other_user, other_header):
+    requests.post(
+        f"{BASE_URL}/api/friendships/me/{other_user['displayName']}",
+        headers=header
+    ).raise_for_status()
+    incoming = requests.get(f"{BASE_URL}/api/friendships/me", headers=other_header).json()
+    friendship_id = incoming["incoming"][0]["friendshipId"]
+    requests.patch(
+        f"{BASE_URL}/api/friendships/me/{friendship_id}",
+        params={"status": "ACCEPTED"},
+        headers=other_header
+    ).raise_for_status()
+
+
+@pytest.fixture(scope="module")
+def populated():
+    """
+    A user with one Tree holding a short Skill chain, two Achievements, and one Activity.
+    """
+    user, header = create_user_header()
+    tree = create_tree(header)
+    skills = create_skill_chain(tree, header, 3)
+    achievements = [create_achievement(tree, header), create_achievement(tree, header)]
+    activity = post_activity(header, skills[-1]["id"])
+    activity.raise_for_status()
+    return {
+        "user": user,
+        "header": header,
+        "tree": tree,
+        "skills": skills,
+        "achievements": achievements,
+        "activity": activity.json(),
+    }
+
+
+# Reads
+
+
+@pytest.mark.parametrize("name", [
+    "GET /api/trees/me",
+    "GET /api/trees/me/{treeId}",
+    "GET /api/trees/me/layout/{treeId}",
+    "GET /api/trees/me/stats",
+    "GET /api/trees/me/stats/{treeId}",
+    "GET /api/trees/me/favorite",
+    "GET /api/skills/me",
+    "GET /api/skills/me/{skillId}",
+    "GET /api/achievements/me",
+    "GET /api/achievements/me/{achievementId}",
+    "GET /api/activities/me",
+    "GET /api/activities/me/{activityId}",
+    "GET /api/activities/me/streak",
+    "GET /api/friendships/me",
+    "GET /api/friendships/me/suggestions",
+    "GET /api/analytics/me/skills/{skillId}",
+    "GET /api/analytics/me/trees/{treeId}",
+    "GET /api/users/me",
+    "GET /api/users/me/feed",
+    "GET /api/feed/friends",
+    "GET /api/dashboard",
+    "GET /api/leaderboard/global",
+    "GET /api/leaderboard/global/me",
+])
+def test_read_budgets(overhead, populated, name):
+    path = name.split(" ")[1].format(
+        treeId=populated["tree"]["id"],
+        skillId=populated["skills"][0]["id"],
+        achievementId=populated["achievements"][0]["id"],
+        activityId=populated["activity"]["id"],
+    )
+    res = requests.get(f"{BASE_URL}{path}", headers=populated["header"])
+    assert_budget(name, res, overhead)
+
+
+def test_dashboard_cheaper_than_separate_calls(overhead, populated):
+    separate = [
+        "GET /api/users/me",
+        "GET /api/trees/me/stats",
+        "GET /api/trees/me/favorite",
+        "GET /api/activities/me/streak",
+        "GET /api/feed/friends",
+    ]
+    total = 0
+    for name in separate:
+        res = requests.get(f"{BASE_URL}{name.split(' ')[1]}", headers=populated["header"])
+        total += commands(res, overhead)
+
+    res = requests.get(f"{BASE_URL}/api/dashboard", headers=populated["header"])
+    assert assert_budget("GET /api/dashboard", res, overhead) < total
+
+
+def test_next_achievements_budget(overhead, populated):
+    res = requests.get(
+        f"{BASE_URL}/api/achievements/me",
+        params={"treeId": populated["tree"]["id"], "next": True},
+        headers=populated["header"]
+    )
+    assert_budget("GET /api/achievements/me?next", res, overhead)
+
+
+def test_display_name_search_budget(overhead, populated):
+    res = requests.get(
+        f"{BASE_URL}/api/friendships/me/search",
+        params={"prefix": populated["user"]["displayName"][:3]},
+        headers=populated["header"]
+    )
+    assert_budget("GET /api/friendships/me/search?prefix", res, overhead)
+
+
+@pytest.mark.parametrize("name,q", [
+    ("GET /api/skills/me/search", "skill"),
+    ("GET /api/achievements/me/search", "achievement"),
+    ("GET /api/trees/public/search", "tree"),
+])
+def test_search_budgets(overhead, populated, name, q):
+    """Searches read posting lists in memory; only the page of matches is fetched, by Id."""
+    res = requests.get(
+        f"{BASE_URL}{name.split(' ')[1]}",
+        params={"q": q},
+        headers=populated["header"]
+    )
+    assert_budget(name, res, overhead)
+
+
+@pytest.mark.parametrize("name", [
+    "GET /api/skills/me 304",
+    "GET /api/friendships/me 304",
+])
+def test_not_modified_budgets(overhead, populated, name):
+    """A current If-None-Match is answered from the data version stamp alone."""
+    url = f"{BASE_URL}{name.split(' ')[1]}"
+    first = requests.get(url, headers=populated["header"])
+    first.raise_for_status()
+    res = requests.get(url, headers={**populated["header"], "If-None-Match": first.headers["ETag"]})
+    assert res.status_code == 304
+    assert_budget(name, res, overhead)
+
+
+def test_sync_budget(overhead, populated):
+    """With nothing new, a sync is the User lookup and one seek into the change log."""
+    start = requests.get(f"{BASE_URL}/api/sync", headers=populated["header"])
+    start.raise_for_status()
+    res = requests.get(
+        f"{BASE_URL}/api/sync",
+        params={"since": start.json()["nextToken"]},
+        headers=populated["header"]
+    )
+    assert_budget("GET /api/sync", res, overhead)
+
+
+# Writes
+
+
+def test_tree_patch_budget(overhead, populated):
+    res = requests.patch(
+        f"{BASE_URL}/api/trees/me/{populated['tree']['id']}",
+        json={"description": "patched by the query budget tests"},
+        headers=populated["header"]
+    )
+    assert_budget("PATCH /api/trees/me/{treeId}", res, overhead)
+
+
+def test_skill_create_budget(overhead, populated):
+    res = requests.post(
+        f"{BASE_URL}/api/skills/me",
+        json={
+            "treeId": populated["tree"]["id"],
+            "name": "Budget skill",
+            "backgroundUrl": None,
+            "timeSpentHours": 0,
+            "parentSkillId": populated["skills"][0]["id"]
+        },
+        headers=populated["header"]
+    )
+    assert_budget("POST /api/skills/me", res, overhead)
+
+
+def test_achievement_create_budget(overhead, populated):
+    res = requests.post(
+        f"{BASE_URL}/api/achievements/me",
+        json={
+            "treeId": populated["tree"]["id"],
+            "title": "Budget achievement",
+            "backgroundUrl": None,
+            "description": "achievement description",
+            "prerequisites": [a["id"] for a in populated["achievements"]],
+            "complete": False,
+            "completedAt": None
+        },
+        headers=populated["header"]
+    )
+    assert_budget("POST /api/achievements/me", res, overhead)
+
+
+def test_activity_patch_and_delete_budget(overhead, populated):
+    activity = post_activity(populated["header"], populated["skills"][0]["id"]).json()
+    res = requests.patch(
+        f"{BASE_URL}/api/activities/me/{activity['id']}",
+        json={"duration": 2.5},
+        headers=populated["header"]
+    )
+    assert_budget("PATCH /api/activities/me/{activityId}", res, overhead)
+
+    res = requests.delete(
+        f"{BASE_URL}/api/activities/me/{activity['id']}",
+        headers=populated["header"]
+    )
+    assert_budget("DELETE /api/activities/me/{activityId}", res, overhead)
+
+
+def test_friend_request_and_accept_budget(overhead):
+    user, header = create_user_header()
+    user2, header2 = create_user_header()
+    res = requests.post(
+        f"{BASE_URL}/api/friendships/me/{user2['displayName']}",
+        headers=header
+    )
+    assert_budget("POST /api/friendships/me/{displayName}", res, overhead)
+
+    friendship_id = requests.get(
+        f"{BASE_URL}/api/friendships/me",
+        headers=header2
+    ).json()["incoming"][0]["friendshipId"]
+    res = requests.patch(
+        f"{BASE_URL}/api/friendships/me/{friendship_id}",
+        params={"status": "ACCEPTED"},
+        headers=header2
+    )
+    assert_budget("PATCH /api/friendships/me/{friendshipId}", res, overhead)
+
+
+def test_friend_tree_budgets(overhead, populated):
+    user, header = create_user_header()
+    befriend(header, populated["user"], populated["header"])
+    friend_id = populated["user"]["id"]
+    res = requests.get(f"{BASE_URL}/api/trees/friends/{friend_id}", headers=header)
+    assert_budget("GET /api/trees/friends/{friendId}", res, overhead)
+
+    res = requests.get(
+        f"{BASE_URL}/api/trees/friends/{friend_id}/trees/{populated['tree']['id']}",
+        headers=header
+    )
+    assert_budget("GET /api/trees/friends/{friendId}/trees/{treeId}", res, overhead)
+
+
+# Scaling
+
+
+def test_activity_create_independent_of_depth(overhead):
+    user, header = create_user_header()
+    tree = create_tree(header)
+    shallow = create_skill_chain(tree, header, 1)
+    deep = create_skill_chain(tree, header, 8)
+    # The day's first Activity also updates the streak, so get it out of the way first.
+    post_activity(header, shallow[-1]["id"]).raise_for_status()
+
+    shallow_count = commands(post_activity(header, shallow[-1]["id"]), overhead)
+    deep_count = commands(post_activity(header, deep[-1]["id"]), overhead)
+
+    assert shallow_count == deep_count
+    assert deep_count <= BUDGETS["POST /api/activities/me"]
+
+
+def test_skill_reparent_independent_of_depth(overhead):
+    user, header = create_user_header()
+    tree = create_tree(header)
+    shallow = create_skill_chain(tree, header, 1)
+    deep = create_skill_chain(tree, header, 8)
+
+    counts = []
+    for chain in (shallow, deep):
+        moving = create_skill(tree, header)
+        res = requests.patch(
+            f"{BASE_URL}/api/skills/me/{moving['id']}",
+            json={"parentSkillId": chain[-1]["id"]},
+            headers=header
+        )
+        counts.append(assert_budget("PATCH /api/skills/me/{skillId}", res, overhead))
+
+    assert counts[0] == counts[1]
+
+
+def test_achievement_prerequisites_independent_of_count(overhead):
+    user, header = create_user_header()
+    tree = create_tree(header)
+
+    counts = []
+    for n in (1, 6):
+        prerequisites = [create_achievement(tree, header)["id"] for i in range(n)]
+        target = create_achievement(tree, header)
+        # a dependent of the target, so the incomplete cascade has something to write
+        requests.post(
+            f"{BASE_URL}/api/achievements/me",
+            json={
+                "treeId": tree["id"],
+                "title": "Dependent achievement",
+                "backgroundUrl": None,
+                "description": "achievement description",
+                "prerequisites": [target["id"]],
+                "complete": False,
+                "completedAt": None
+            },
+            headers=header
+        ).raise_for_status()
+        res = requests.patch(
+            f"{BASE_URL}/api/achievements/me/{target['id']}",
+            json={"prerequisites": prerequisites},
+            headers=header
+        )
+        counts.append(assert_budget("PATCH /api/achievements/me/{achievementId}", res, overhead))
+
+    assert counts[0] == counts[1]
+
+
+def test_orientation_patch_independent_of_tree_size(overhead):
+    counts = []
+    for n in (1, 10):
+        user, header = create_user_header()
+        tree = create_tree(header)
+        skills = [create_skill(tree, header) for i in range(n)]
+        achievements = [create_achievement(tree, header) for i in range(n)]
+        res = requests.patch(
+            f"{BASE_URL}/api/orientations/me/{tree['id']}",
+            json=[{"type": "SKILL", "id": skills[0]["id"], "x": 0.2, "y": 0.8},
+                  {"type": "ACHIEVEMENT", "id": achievements[0]["id"], "x": 0.8, "y": 0.2}],
+            headers=header
+        )
+        counts.append(assert_budget("PATCH /api/orientations/me/{treeId}", res, overhead))
+
+    assert counts[0] == counts[1]
+
+
+def test_sync_independent_of_account_size(overhead):
+    counts = []
+    for n in (1, 10):
+        user, header = create_user_header()
+        tree = create_tree(header)
+        skills = [create_skill(tree, header) for i in range(n)]
+        token = requests.get(f"{BASE_URL}/api/sync", headers=header).json()["nextToken"]
+        requests.patch(
+            f"{BASE_URL}/api/skills/me/{skills[0]['id']}",
+            json={"name": "Renamed for sync"},
+            headers=header
+        ).raise_for_status()
+        res = requests.get(f"{BASE_URL}/api/sync", params={"since": token}, headers=header)
+        assert [s["id"] for s in res.json()["skills"]] == [skills[0]["id"]]
+        counts.append(assert_budget("GET /api/sync one change", res, overhead))
+
+    assert counts[0] == counts[1]
+
+
+@pytest.mark.parametrize("name", [
+    "GET /api/trees/me/stats",
+    "GET /api/trees/me/favorite",
+    "GET /api/dashboard",
+])
+def test_tree_stats_independent_of_tree_count(overhead, name):
+    counts = []
+    for n in (1, 5):
+        user, header = create_user_header()
+        for i in range(n):
+            tree = create_tree(header)
+            create_skill(tree, header)
+            create_achievement(tree, header)
+        res = requests.get(f"{BASE_URL}{name.split(' ')[1]}", headers=header)
+        counts.append(assert_budget(name, res, overhead))
+
+    assert counts[0] == counts[1]
+
+
+def test_user_feed_independent_of_activity_count(overhead):
+    counts = []
+    for n in (1, 6):
+        user, header = create_user_header()
+        tree = create_tree(header)
+        for i in range(n):
+            post_activity(header, create_skill(tree, header)["id"]).raise_for_status()
+        res = requests.get(
+            f"{BASE_URL}/api/users/me/feed",
+            params={"size": 20},
+            headers=header
+        )
+        counts.append(assert_budget("GET /api/users/me/feed", res, overhead))
+
+    assert counts[0] == counts[1]
+
+
+def test_friend_feed_independent_of_friend_count(overhead):
+    counts = []
+    for n in (1, 4):
+        user, header = create_user_header()
+        for i in range(n):
+            friend, friend_header = create_user_header()
+            befriend(header, friend, friend_header)
+            tree = create_tree(friend_header)
+            post_activity(friend_header, create_skill(tree, friend_header)["id"]).raise_for_status()
+        res = requests.get(f"{BASE_URL}/api/feed/friends", headers=header)
+        counts.append(assert_budget("GET /api/feed/friends", res, overhead))
+
+    assert counts[0] == counts[1]
+
+
+def test_friend_leaderboard_independent_of_friend_count(overhead):
+    counts = []
+    for n in (1, 4):
+        user, header = create_user_header()
+        for i in range(n):
+            friend, friend_header = create_user_header()
+            befriend(header, friend, friend_header)
+            tree = create_tree(friend_header)
+            post_activity(friend_header, create_skill(tree, friend_header)["id"]).raise_for_status()
+        # The first read builds everyone's totals, later ones are a single sorted read.
+        requests.get(f"{BASE_URL}/api/leaderboard/friends", headers=header).raise_for_status()
+        res = requests.get(f"{BASE_URL}/api/leaderboard/friends", headers=header)
+        all_time = assert_budget("GET /api/leaderboard/friends", res, overhead)
+        res = requests.get(
+            f"{BASE_URL}/api/leaderboard/friends",
+            params={"period": "WEEK"},
+            headers=header
+        )
+        weekly = assert_budget("GET /api/leaderboard/friends?period", res, overhead)
+        counts.append((all_time, weekly))
+
+    assert counts[0] == counts[1]
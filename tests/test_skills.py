@@ -2,6 +2,7 @@ import requests
 import pytest 
 import json
 
+from helpers import create_activity
 from helpers import create_skill
 from helpers import create_tree
 from helpers import create_user_header
@@ -52,10 +53,26 @@ def test_get_authed_user_skills(base_url, user_header):
     assert res.json() != None
     
     expected = {skill1['id'], skill2['id'], skill3['id']}
-    actual = {skill['id'] for skill in res.json()}
+    actual = {skill['id'] for skill in res.json()['content']}
     
     assert expected == actual
-    
+    assert res.json()['nextPageToken'] is None
+
+def test_get_authed_user_skills_returns_a_page(base_url, user_header):
+    # Breaking change in API 2.0.0: this endpoint used to return a bare array of every skill.
+    user, header = user_header
+    tree = create_tree(header)
+    for i in range(2):
+        create_skill(tree, header)
+
+    res = requests.get(f"{base_url}/api/skills/me", params={"size": 1}, headers=header)
+    res.raise_for_status()
+    body = res.json()
+    assert not isinstance(body, list)
+    assert set(body.keys()) == {"content", "nextPageToken"}
+    assert len(body['content']) == 1
+    assert body['nextPageToken'] is not None
+
 def test_get_authed_user_skill(base_url, user_header):
     user, header = user_header
     tree = create_tree(header)
@@ -155,3 +172,217 @@ def test_delete_skill(base_url, user_header):
         res.raise_for_status()
     
     
+
+def search_skills(base_url, header, q):
+    res = requests.get(
+        f"{base_url}/api/skills/me/search",
+        params={"q": q},
+        headers=header
+    )
+    res.raise_for_status()
+    return [s['id'] for s in res.json()['content']]
+
+def test_search_skills(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    skill = create_skill(tree, header)
+    # load the user's index first so the writes below are applied to it incrementally
+    assert search_skills(base_url, header, "zephyrine") == []
+
+    requests.patch(
+        f"{base_url}/api/skills/me/{skill['id']}",
+        json={"name": "Zephyrine Knots"},
+        headers=header
+    ).raise_for_status()
+    assert search_skills(base_url, header, "knots ZEPHYRINE") == [skill['id']]
+
+    requests.patch(
+        f"{base_url}/api/skills/me/{skill['id']}",
+        json={"name": "Bowlines"},
+        headers=header
+    ).raise_for_status()
+    assert search_skills(base_url, header, "zephyrine") == []
+    assert skill['id'] in search_skills(base_url, header, "bowlines")
+
+    requests.delete(
+        f"{base_url}/api/skills/me/{skill['id']}",
+        headers=header
+    ).raise_for_status()
+    assert skill['id'] not in search_skills(base_url, header, "bowlines")
+
+    res = requests.get(
+        f"{base_url}/api/skills/me/search",
+        params={"q": " - "},
+        headers=header
+    )
+    assert res.status_code == 400
+
+    # a page far past the end is empty rather than an overflowed offset
+    res = requests.get(
+        f"{base_url}/api/skills/me/search",
+        params={"q": "bowlines", "page": 2**31 - 1, "size": 100},
+        headers=header
+    )
+    res.raise_for_status()
+    assert res.json()['content'] == []
+
+
+def test_get_authed_user_skills_pages(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    created = {create_skill(tree, header)['id'] for i in range(5)}
+
+    for sort_mode in ["NAME", "CREATED_AT", "TIME_SPENT", "RECENTLY_USED"]:
+        seen = []
+        params = {"sortMode": sort_mode, "size": 2}
+        while True:
+            res = requests.get(f"{base_url}/api/skills/me", params=params, headers=header)
+            res.raise_for_status()
+            page = res.json()
+            assert len(page['content']) <= 2
+            seen += [skill['id'] for skill in page['content']]
+            if page['nextPageToken'] is None:
+                break
+            params["pageToken"] = page['nextPageToken']
+        # every skill exactly once
+        assert sorted(seen) == sorted(created)
+
+
+def test_get_authed_user_skills_bad_page_token(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    for i in range(2):
+        create_skill(tree, header)
+    page = requests.get(
+        f"{base_url}/api/skills/me", params={"size": 1}, headers=header
+    ).json()
+
+    # a token only works with the sort mode it was handed out for
+    res = requests.get(
+        f"{base_url}/api/skills/me",
+        params={"sortMode": "TIME_SPENT", "pageToken": page['nextPageToken']},
+        headers=header
+    )
+    assert res.status_code == 400
+    res = requests.get(
+        f"{base_url}/api/skills/me", params={"pageToken": "not-a-token"}, headers=header
+    )
+    assert res.status_code == 400
+
+
+def test_recently_used_follows_activities(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    parent = create_skill(tree, header)
+    child = requests.post(
+        f"{base_url}/api/skills/me",
+        json={
+            "treeId": tree["id"],
+            "name": "Child skill",
+            "backgroundUrl": None,
+            "timeSpentHours": 0,
+            "parentSkillId": parent["id"]
+        },
+        headers=header
+    ).json()
+    other = create_skill(tree, header)
+    create_activity(tree, header, [{"skillId": child["id"], "weight": 1}])
+    # renaming a skill doesn't count as using it
+    requests.patch(
+        f"{base_url}/api/skills/me/{other['id']}",
+        json={"name": "Renamed skill"},
+        headers=header
+    ).raise_for_status()
+
+    res = requests.get(
+        f"{base_url}/api/skills/me", params={"sortMode": "RECENTLY_USED"}, headers=header
+    )
+    res.raise_for_status()
+    ids = [skill['id'] for skill in res.json()['content']]
+    # the logged skill and its parent share the time, ties go to the newer skill
+    assert ids == [child['id'], parent['id'], other['id']]
+
+
+def test_recently_used_pages_past_unused_skills(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    skills = [create_skill(tree, header) for i in range(4)]
+    for skill in skills[:2]:
+        create_activity(tree, header, [{"skillId": skill["id"], "weight": 1}])
+
+    ids = []
+    params = {"sortMode": "RECENTLY_USED", "size": 1}
+    while True:
+        res = requests.get(f"{base_url}/api/skills/me", params=params, headers=header)
+        res.raise_for_status()
+        page = res.json()
+        ids += [skill['id'] for skill in page['content']]
+        if page['nextPageToken'] is None:
+            break
+        params["pageToken"] = page['nextPageToken']
+    # used skills newest first, then the never used ones, newest skill first
+    assert ids == [skills[1]['id'], skills[0]['id'], skills[3]['id'], skills[2]['id']]
+
+
+def test_get_authed_user_skills_not_modified(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    create_skill(tree, header)
+
+    res = requests.get(f"{base_url}/api/skills/me", headers=header)
+    res.raise_for_status()
+    etag = res.headers["ETag"]
+    # the tag covers every page and sort of the list
+    res = requests.get(
+        f"{base_url}/api/skills/me",
+        params={"sortMode": "TIME_SPENT"},
+        headers={**header, "If-None-Match": etag}
+    )
+    assert res.status_code == 304
+    assert res.content == b""
+
+    create_skill(tree, header)
+    res = requests.get(f"{base_url}/api/skills/me", headers={**header, "If-None-Match": etag})
+    assert res.status_code == 200
+    assert res.headers["ETag"] != etag
+    assert len(res.json()["content"]) == 2
+
+
+def test_skill_rename_changes_activities_etag(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    skill = create_skill(tree, header)
+    create_activity(tree, header, [{"skillId": skill["id"], "weight": 1}])
+    etag = requests.get(f"{base_url}/api/activities/me", headers=header).headers["ETag"]
+
+    requests.patch(
+        f"{base_url}/api/skills/me/{skill['id']}",
+        json={"name": "Renamed skill"},
+        headers=header
+    ).raise_for_status()
+
+    res = requests.get(f"{base_url}/api/activities/me", headers={**header, "If-None-Match": etag})
+    assert res.status_code == 200
+    assert res.json()["content"][0]["weightedSkills"][0]["skillName"] == "Renamed skill"
+
+
+def test_editing_activity_keeps_recently_used_order(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    older = create_skill(tree, header)
+    newer = create_skill(tree, header)
+    activity = create_activity(tree, header, [{"skillId": older["id"], "weight": 1}])
+    create_activity(tree, header, [{"skillId": newer["id"], "weight": 1}])
+
+    # lengthening the older Activity logs more time, but not at a later time
+    requests.patch(
+        f"{base_url}/api/activities/me/{activity['id']}",
+        json={"duration": activity["duration"] + 1},
+        headers=header
+    ).raise_for_status()
+
+    res = requests.get(
+        f"{base_url}/api/skills/me", params={"sortMode": "RECENTLY_USED"}, headers=header
+    )
+    res.raise_for_status()
+    assert [skill['id'] for skill in res.json()['content']] == [newer['id'], older['id']]
@@ -0,0 +1,92 @@
+import requests
+import pytest
+
+from helpers import create_tree
+from helpers import create_skill
+from helpers import create_achievement
+from helpers import create_activity
+
+
+def start_sync(base_url, header):
+    res = requests.get(f"{base_url}/api/sync", headers=header)
+    res.raise_for_status()
+    assert res.json()["reset"] is True
+    return res.json()["nextToken"]
+
+
+def sync(base_url, header, token):
+    res = requests.get(f"{base_url}/api/sync", params={"since": token}, headers=header)
+    res.raise_for_status()
+    assert res.json()["reset"] is False
+    return res.json()
+
+
+def test_sync_without_changes(base_url, user_header):
+    user, header = user_header
+    token = start_sync(base_url, header)
+
+    body = sync(base_url, header, token)
+    assert body["skills"] == []
+    assert body["deleted"] == {}
+    assert body["hasMore"] is False
+    assert body["nextToken"].split(".")[0] == token.split(".")[0]
+
+
+def test_sync_created_and_deleted(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    token = start_sync(base_url, header)
+
+    skill = create_skill(tree, header)
+    achievement = create_achievement(tree, header)
+    body = sync(base_url, header, token)
+    assert [s["id"] for s in body["skills"]] == [skill["id"]]
+    assert [a["id"] for a in body["achievements"]] == [achievement["id"]]
+    # the new nodes were placed on the Tree's Orientation
+    orientation = body["orientations"][0]
+    assert orientation["treeId"] == tree["id"]
+    assert skill["id"] in [l["id"] for l in orientation["skillLocations"]]
+    assert body["trees"] == []
+
+    token = body["nextToken"]
+    requests.delete(f"{base_url}/api/skills/me/{skill['id']}", headers=header).raise_for_status()
+    body = sync(base_url, header, token)
+    assert body["skills"] == []
+    assert body["deleted"]["SKILLS"] == [skill["id"]]
+
+
+def test_sync_activity_sends_skill_hours(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    skill = create_skill(tree, header)
+    token = start_sync(base_url, header)
+
+    activity = create_activity(tree, header, [{"skillId": skill["id"], "weight": 1}])
+    body = sync(base_url, header, token)
+    assert [a["id"] for a in body["activities"]] == [activity["id"]]
+    assert body["skills"][0]["timeSpentHours"] == pytest.approx(activity["duration"])
+
+    token = body["nextToken"]
+    requests.delete(f"{base_url}/api/activities/me", headers=header).raise_for_status()
+    body = sync(base_url, header, token)
+    assert body["cleared"] == ["ACTIVITIES"]
+    assert body["activities"] == []
+    assert body["skills"][0]["timeSpentHours"] == pytest.approx(0)
+
+
+def test_sync_deleted_tree(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    create_skill(tree, header)
+    token = start_sync(base_url, header)
+
+    requests.delete(f"{base_url}/api/trees/me/{tree['id']}", headers=header).raise_for_status()
+    body = sync(base_url, header, token)
+    # clients drop the Tree's Skills, Achievements and Orientation with it
+    assert body["deleted"] == {"TREES": [tree["id"]]}
+
+
+def test_sync_invalid_token(base_url, user_header):
+    user, header = user_header
+    res = requests.get(f"{base_url}/api/sync", params={"since": "abc"}, headers=header)
+    assert res.status_code == 400
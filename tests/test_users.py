@@ -2,6 +2,10 @@ import requests
 import pytest
 import json
 
+from helpers import create_achievement
+from helpers import create_skill
+from helpers import create_tree
+
 def test_create_new_user(base_url, user_header):
     user, header = user_header
     
@@ -80,4 +84,35 @@ def test_patch_user_invalid_field(base_url, user_header):
             headers=header
         )
         res.raise_for_status()
-    
\ No newline at end of file
+
+
+def test_get_dashboard_matches_separate_calls(base_url, user_header):
+    user, header = user_header
+    tree = create_tree(header)
+    create_skill(tree, header)
+    create_achievement(tree, header)
+
+    res = requests.get(f"{base_url}/api/dashboard", headers=header)
+    res.raise_for_status()
+    dashboard = res.json()
+
+    separate = {
+        "user": "/api/users/me",
+        "stats": "/api/trees/me/stats",
+        "favoriteTree": "/api/trees/me/favorite",
+        "streak": "/api/activities/me/streak",
+        "friendFeed": "/api/feed/friends",
+    }
+    for section, path in separate.items():
+        assert dashboard[section] == requests.get(f"{base_url}{path}", headers=header).json()
+
+
+def test_get_dashboard_streak_days_out_of_range(base_url, user_header):
+    user, header = user_header
+    with pytest.raises(requests.exceptions.HTTPError):
+        res = requests.get(
+            f"{base_url}/api/dashboard",
+            params={"streakDays": 367},
+            headers=header
+        )
+        res.raise_for_status()